@@ -0,0 +1,95 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.http.internal
+
+import org.gradle.caching.internal.controller.BuildCacheControllerFactory
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import spock.lang.Timeout
+
+@Timeout(120)
+class HttpBuildCacheExistenceCheckIntegrationTest extends AbstractIntegrationSpec implements HttpBuildCacheFixture {
+
+    def setup() {
+        httpBuildCacheServer.supportExistenceChecks()
+        httpBuildCacheServer.start()
+        settingsFile << """
+            include 'a', 'b', 'c'
+
+            buildCache {
+                local {
+                    directory = file("local-cache")
+                }
+                remote(HttpBuildCache) {
+                    url = "${httpBuildCacheServer.uri}/"
+                    push = true
+                }
+            }
+        """
+        buildFile << """
+            subprojects {
+                task cacheable {
+                    def outputFile = rootProject.file("build/out/\${project.name}.txt")
+                    outputs.file(outputFile)
+                    outputs.cacheIf { true }
+                    doLast {
+                        outputFile.text = project.name
+                    }
+                }
+            }
+
+            // Keeps the cacheable tasks from starting, while they are ready to run, until their entries have been prefetched
+            task waitForPrefetch {
+                destroyables.register("build/out")
+                doLast {
+                    if (project.hasProperty("expectedEntries")) {
+                        def expectedEntries = project.expectedEntries as int
+                        def deadline = System.currentTimeMillis() + 30000
+                        while ((file("local-cache").listFiles() ?: []).count { it.name ==~ /[0-9a-f]{32}/ } < expectedEntries && System.currentTimeMillis() < deadline) {
+                            Thread.sleep(10)
+                        }
+                    }
+                }
+            }
+        """
+    }
+
+    def "checks which entries of the ready tasks exist with a single request"() {
+        when:
+        runWithPrefetching()
+
+        then:
+        executedAndNotSkipped(":a:cacheable", ":b:cacheable", ":c:cacheable")
+
+        when:
+        file("build").deleteDir()
+        file("local-cache").deleteDir()
+        def existenceChecks = httpBuildCacheServer.getRequestCount("POST")
+        def loads = httpBuildCacheServer.getRequestCount("GET")
+        runWithPrefetching("-PexpectedEntries=3")
+
+        then:
+        skipped(":a:cacheable", ":b:cacheable", ":c:cacheable")
+        httpBuildCacheServer.getRequestCount("POST") == existenceChecks + 1
+        httpBuildCacheServer.getRequestCount("GET") == loads + 3
+    }
+
+    private void runWithPrefetching(String... extraArgs) {
+        // The prefetcher needs the project locks of the ready tasks while another task is executing
+        args(*(["--parallel", "--max-workers=4", "-D${BuildCacheControllerFactory.PREFETCH_PROPERTY}=4".toString()] + (extraArgs as List)))
+        withBuildCache().run("waitForPrefetch", ":a:cacheable", ":b:cacheable", ":c:cacheable")
+    }
+}
@@ -25,6 +25,7 @@ import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
 import org.gradle.caching.BuildCacheServiceFactory
 import org.gradle.caching.http.HttpBuildCache
+import org.gradle.caching.internal.ExistenceCheckingBuildCacheService
 import org.gradle.internal.resource.transport.http.DefaultSslContextFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.test.fixtures.server.http.AuthScheme
@@ -293,6 +294,83 @@ class HttpBuildCacheServiceTest extends Specification {
         server.authenticationAttempts == ['Basic'] as Set
     }
 
+    def "checks for existing entries in a single request"() {
+        def otherKey = Stub(BuildCacheKey) {
+            getHashCode() >> '789abcdef'
+        }
+        def requestedKeys = null
+        server.expect("/cache/", false, ["POST"], new HttpServer.ActionSupport("return existing keys") {
+            @Override
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                requestedKeys = request.reader.readLines()
+                response.contentType = HttpBuildCacheService.BUILD_CACHE_KEYS_CONTENT_TYPE
+                response.writer.print(otherKey.hashCode + "\n")
+            }
+        })
+
+        when:
+        def existing = ((ExistenceCheckingBuildCacheService) cache).findExisting([key, otherKey])
+
+        then:
+        requestedKeys == [key.hashCode, otherKey.hashCode]
+        existing == [otherKey] as Set
+    }
+
+    def "stops checking for existing entries when the server does not support it (http code #httpCode)"(int httpCode) {
+        server.expect("/cache/", false, ["POST"], new HttpServer.ActionSupport("return ${httpCode}") {
+            @Override
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.sendError(httpCode)
+            }
+        })
+
+        expect:
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == null
+        // No further request is sent to the server
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == null
+
+        where:
+        httpCode << [HttpStatus.SC_NOT_FOUND, HttpStatus.SC_METHOD_NOT_ALLOWED, HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE]
+    }
+
+    def "stops checking for existing entries when the server does not respond with keys"() {
+        server.expect("/cache/", false, ["POST"], new HttpServer.ActionSupport("return html") {
+            @Override
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.contentType = "text/html"
+                response.writer.print("<html></html>")
+            }
+        })
+
+        expect:
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == null
+        // No further request is sent to the server
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == null
+    }
+
+    def "keeps checking for existing entries after a server error (http code #httpCode)"(int httpCode) {
+        server.expect("/cache/", false, ["POST"], new HttpServer.ActionSupport("return ${httpCode}") {
+            @Override
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.sendError(httpCode)
+            }
+        })
+        server.expect("/cache/", false, ["POST"], new HttpServer.ActionSupport("return existing keys") {
+            @Override
+            void handle(HttpServletRequest request, HttpServletResponse response) {
+                response.contentType = HttpBuildCacheService.BUILD_CACHE_KEYS_CONTENT_TYPE
+                response.writer.print(key.hashCode + "\n")
+            }
+        })
+
+        expect:
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == null
+        ((ExistenceCheckingBuildCacheService) cache).findExisting([key]) == [key] as Set
+
+        where:
+        httpCode << [HttpStatus.SC_INTERNAL_SERVER_ERROR, HttpStatus.SC_SERVICE_UNAVAILABLE]
+    }
+
     private HttpResourceInteraction expectError(int httpCode, String method) {
         server.expect("/cache/${key.hashCode}", false, [method], new HttpServer.ActionSupport("return ${httpCode} broken") {
             @Override
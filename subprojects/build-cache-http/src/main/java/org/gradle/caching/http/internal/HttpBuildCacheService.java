@@ -16,9 +16,13 @@
 
 package org.gradle.caching.http.internal;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableSet;
 import org.apache.commons.lang.IncompleteArgumentException;
 import org.apache.http.Header;
+import org.apache.http.HttpEntity;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpMessage;
 import org.apache.http.HttpStatus;
@@ -27,15 +31,19 @@ import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.NonRepeatableRequestException;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheEntryWriter;
 import org.gradle.caching.BuildCacheException;
 import org.gradle.caching.BuildCacheKey;
-import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.ExistenceCheckingBuildCacheService;
 import org.gradle.caching.internal.tasks.TaskOutputPacker;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.resource.transport.http.HttpClientHelper;
@@ -43,19 +51,29 @@ import org.gradle.util.GradleVersion;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Build cache implementation that delegates to a service accessible via HTTP.
+ *
+ * <p>Servers can optionally support checking for the existence of many entries at once. The client POSTs the cache keys to the root URL of the cache,
+ * one per line, with the content type {@value #BUILD_CACHE_KEYS_CONTENT_TYPE}. The server responds with the keys of the entries it has, in the same format.
+ * When the server responds in any other way, existence checks are not used again.</p>
  */
-public class HttpBuildCacheService implements BuildCacheService {
+public class HttpBuildCacheService implements ExistenceCheckingBuildCacheService {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpBuildCacheService.class);
     static final String BUILD_CACHE_CONTENT_TYPE = "application/vnd.gradle.build-cache-artifact.v" + TaskOutputPacker.CACHE_ENTRY_FORMAT;
+    static final String BUILD_CACHE_KEYS_CONTENT_TYPE = "application/vnd.gradle.build-cache-keys";
 
     private static final Set<Integer> FATAL_HTTP_ERROR_CODES = ImmutableSet.of(
         HttpStatus.SC_USE_PROXY,
@@ -70,6 +88,7 @@ public class HttpBuildCacheService implements BuildCacheService {
 
     private final URI root;
     private final HttpClientHelper httpClientHelper;
+    private volatile boolean existenceChecksSupported = true;
 
     public HttpBuildCacheService(HttpClientHelper httpClientHelper, URI url) {
         if (!url.getPath().endsWith("/")) {
@@ -114,6 +133,71 @@ public class HttpBuildCacheService implements BuildCacheService {
         }
     }
 
+    @Nullable
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) throws BuildCacheException {
+        if (!existenceChecksSupported) {
+            return null;
+        }
+        Map<String, BuildCacheKey> keysByHashCode = new LinkedHashMap<String, BuildCacheKey>();
+        for (BuildCacheKey key : keys) {
+            keysByHashCode.put(key.getHashCode(), key);
+        }
+        HttpPost httpPost = new HttpPost(root);
+        httpPost.addHeader(HttpHeaders.ACCEPT, BUILD_CACHE_KEYS_CONTENT_TYPE);
+        addDiagnosticHeaders(httpPost);
+        httpPost.setEntity(new StringEntity(Joiner.on('\n').join(keysByHashCode.keySet()), ContentType.create(BUILD_CACHE_KEYS_CONTENT_TYPE, Charsets.UTF_8)));
+
+        CloseableHttpResponse response = null;
+        try {
+            response = httpClientHelper.performHttpRequest(httpPost);
+            StatusLine statusLine = response.getStatusLine();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Response for POST {}: {}", safeUri(root), statusLine);
+            }
+            int statusCode = statusLine.getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (!isHttpSuccess(statusCode)) {
+                if (isExistenceCheckUnsupported(statusCode)) {
+                    disableExistenceChecks();
+                } else {
+                    // The server may recover, so check again for the next keys
+                    LOGGER.info("Could not check for existing entries in the remote build cache at '{}' (HTTP {}), loading entries one by one.", safeUri(root), statusCode);
+                }
+                return null;
+            }
+            if (entity == null || !isKeysContentType(entity.getContentType())) {
+                disableExistenceChecks();
+                return null;
+            }
+            Set<BuildCacheKey> existing = new HashSet<BuildCacheKey>();
+            for (String hashCode : Splitter.on('\n').trimResults().omitEmptyStrings().split(EntityUtils.toString(entity, Charsets.UTF_8))) {
+                BuildCacheKey key = keysByHashCode.get(hashCode);
+                if (key != null) {
+                    existing.add(key);
+                }
+            }
+            return existing;
+        } catch (IOException e) {
+            throw wrap(e);
+        } finally {
+            HttpClientUtils.closeQuietly(response);
+        }
+    }
+
+    private void disableExistenceChecks() {
+        LOGGER.info("The remote build cache at '{}' does not support checking for existing entries, loading entries one by one.", safeUri(root));
+        existenceChecksSupported = false;
+    }
+
+    private static boolean isExistenceCheckUnsupported(int statusCode) {
+        return statusCode == HttpStatus.SC_NOT_FOUND || statusCode == HttpStatus.SC_METHOD_NOT_ALLOWED || statusCode == HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE;
+    }
+
+    private static boolean isKeysContentType(@Nullable Header contentType) {
+        return contentType != null && contentType.getValue().startsWith(BUILD_CACHE_KEYS_CONTENT_TYPE);
+    }
+
     private boolean handleRedirect(URI uri, CloseableHttpResponse response, int statusCode, String defaultMessage, String action) {
         final Header locationHeader = response.getFirstHeader("location");
         if (locationHeader == null) {
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal;
+
+import org.gradle.caching.BuildCacheException;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.BuildCacheService;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * A build cache service that can find out which of several entries it contains with a single request, which is cheaper
+ * than trying to load each of the entries.
+ */
+public interface ExistenceCheckingBuildCacheService extends BuildCacheService {
+
+    /**
+     * Returns those of the given keys that have an entry in this cache, or {@code null} when this cache cannot check for the existence of entries.
+     */
+    @Nullable
+    Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) throws BuildCacheException;
+}
@@ -16,10 +16,12 @@
 
 package org.gradle.caching.internal.controller;
 
+import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.Collection;
 
 /**
  * Internal coordinator of build cache operations.
@@ -33,6 +35,31 @@ public interface BuildCacheController extends Closeable {
 
     void store(BuildCacheStoreCommand command);
 
+    /**
+     * Starts downloading the entries with the given keys from the remote cache into the local cache in the background, so that a later {@link #load(BuildCacheLoadCommand)} of a key does not need to wait for the remote cache.
+     * When the remote cache can tell which of the entries it has, it is asked for all of them at once, and later loads of the missing entries skip the remote cache.
+     * Does nothing when prefetching is disabled.
+     */
+    void prefetch(Collection<BuildCacheKey> keys);
+
+    /**
+     * Forgets the prefetched entries that have not been loaded yet, and discards the prefetches that have not started yet.
+     * Does nothing when prefetching is disabled.
+     */
+    void discardPrefetches();
+
+    /**
+     * Starts storing entries in the background, under the current build operation, until {@link #completeStores(boolean)} is called. Outside of these calls entries are stored synchronously.
+     * Does nothing when entries are stored synchronously.
+     */
+    void startStores();
+
+    /**
+     * Waits for the entries that are being stored in the background to be stored. When {@code discard} is true, entries that have not started storing yet are discarded instead.
+     * Does nothing when entries are stored synchronously.
+     */
+    void completeStores(boolean discard);
+
     @Override
     void close();
 
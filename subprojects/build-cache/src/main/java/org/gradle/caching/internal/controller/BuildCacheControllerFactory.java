@@ -29,6 +29,7 @@ import org.gradle.caching.internal.FinalizeBuildCacheConfigurationBuildOperation
 import org.gradle.caching.internal.controller.service.BuildCacheServiceRole;
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration;
 import org.gradle.internal.Cast;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.CallableBuildOperation;
@@ -46,6 +47,16 @@ import java.util.Map;
 
 public final class BuildCacheControllerFactory {
 
+    /**
+     * The maximum number of entries to prefetch from the remote cache at the same time. Prefetching is disabled when not set.
+     */
+    public static final String PREFETCH_PROPERTY = "org.gradle.caching.prefetch";
+
+    /**
+     * The maximum number of entries that can be queued for storing in the background. Entries are stored synchronously when not set.
+     */
+    public static final String BACKGROUND_STORES_PROPERTY = "org.gradle.caching.background-stores";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(BuildCacheControllerFactory.class);
 
     public enum BuildCacheMode {
@@ -58,6 +69,7 @@ public final class BuildCacheControllerFactory {
 
     public static BuildCacheController create(
         final BuildOperationExecutor buildOperationExecutor,
+        final ExecutorFactory executorFactory,
         final Path buildIdentityPath,
         final File gradleUserHomeDir,
         final BuildCacheConfigurationInternal buildCacheConfiguration,
@@ -113,8 +125,11 @@ public final class BuildCacheControllerFactory {
                     return new DefaultBuildCacheController(
                         config,
                         buildOperationExecutor,
+                        executorFactory,
                         gradleUserHomeDir,
-                        logStackTraces
+                        logStackTraces,
+                        Integer.getInteger(PREFETCH_PROPERTY, 0),
+                        Integer.getInteger(BACKGROUND_STORES_PROPERTY, 0)
                     );
                 }
             }
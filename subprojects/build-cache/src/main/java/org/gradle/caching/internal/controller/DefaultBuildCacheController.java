@@ -23,6 +23,8 @@ import org.gradle.api.GradleException;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.controller.operations.BackgroundStoresOperationDetails;
+import org.gradle.caching.internal.controller.operations.BackgroundStoresOperationResult;
 import org.gradle.caching.internal.controller.operations.PackOperationDetails;
 import org.gradle.caching.internal.controller.operations.PackOperationResult;
 import org.gradle.caching.internal.controller.operations.UnpackOperationDetails;
@@ -43,10 +45,18 @@ import org.gradle.caching.local.internal.DefaultBuildCacheTempFileStore;
 import org.gradle.caching.local.internal.LocalBuildCacheService;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationRef;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.File;
@@ -55,9 +65,23 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultBuildCacheController implements BuildCacheController {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultBuildCacheController.class);
+    private static final int MAX_CONCURRENT_BACKGROUND_STORES = 4;
+
     @VisibleForTesting
     final BuildCacheServiceHandle legacyLocal;
 
@@ -70,13 +94,32 @@ public class DefaultBuildCacheController implements BuildCacheController {
     private final BuildCacheTempFileStore tmp;
     private final BuildOperationExecutor buildOperationExecutor;
 
+    private final ManagedExecutor prefetchExecutor;
+    private final BuildCacheTempFileStore prefetchTmp;
+    private final ConcurrentMap<String, Prefetch> prefetches = new ConcurrentHashMap<String, Prefetch>();
+
+    private final ManagedExecutor backgroundStoreExecutor;
+    private final File backgroundStoreTmpDir;
+    private final int maxQueuedStores;
+    private final Semaphore backgroundStoreQueue;
+    private final Set<BackgroundStore> backgroundStores = Collections.newSetFromMap(new ConcurrentHashMap<BackgroundStore, Boolean>());
+    private final BackgroundStoreStatistics backgroundStoreStatistics = new BackgroundStoreStatistics();
+    private volatile BuildOperationRef backgroundStoreParent;
+
     private boolean closed;
 
+    /**
+     * @param maxConcurrentPrefetches the maximum number of entries to download from the remote cache at the same time, or 0 to disable prefetching.
+     * @param maxQueuedStores the maximum number of entries that can be queued for storing in the background, or 0 to store entries synchronously.
+     */
     public DefaultBuildCacheController(
         BuildCacheServicesConfiguration config,
         BuildOperationExecutor buildOperationExecutor,
+        ExecutorFactory executorFactory,
         File gradleUserHomeDir,
-        boolean logStackTraces
+        boolean logStackTraces,
+        int maxConcurrentPrefetches,
+        int maxQueuedStores
     ) {
         this.buildOperationExecutor = buildOperationExecutor;
 
@@ -92,12 +135,33 @@ public class DefaultBuildCacheController implements BuildCacheController {
         }
 
         this.remote = toHandle(config.remote, config.remotePush, BuildCacheServiceRole.REMOTE, buildOperationExecutor, logStackTraces);
+
+        // Prefetched entries are staged in the local cache, so there is nothing to prefetch into without one
+        if (maxConcurrentPrefetches > 0 && remote.canLoad() && local.canStore()) {
+            this.prefetchExecutor = executorFactory.create("Build cache prefetch", maxConcurrentPrefetches);
+            this.prefetchTmp = new DefaultBuildCacheTempFileStore(new File(gradleUserHomeDir, "build-cache-prefetch"));
+        } else {
+            this.prefetchExecutor = null;
+            this.prefetchTmp = null;
+        }
+
+        if (maxQueuedStores > 0) {
+            this.backgroundStoreExecutor = executorFactory.create("Build cache background store", Math.min(maxQueuedStores, MAX_CONCURRENT_BACKGROUND_STORES));
+            this.backgroundStoreTmpDir = new File(gradleUserHomeDir, "build-cache-background-store");
+            GFileUtils.mkdirs(backgroundStoreTmpDir);
+        } else {
+            this.backgroundStoreExecutor = null;
+            this.backgroundStoreTmpDir = null;
+        }
+        this.maxQueuedStores = maxQueuedStores;
+        this.backgroundStoreQueue = new Semaphore(maxQueuedStores);
     }
 
     @Nullable
     @Override
     public <T> T load(final BuildCacheLoadCommand<T> command) {
         final Unpack<T> unpack = new Unpack<T>(command);
+        final boolean knownRemoteMiss = awaitPrefetch(command.getKey());
 
         if (local.canLoad()) {
             try {
@@ -122,7 +186,7 @@ public class DefaultBuildCacheController implements BuildCacheController {
                         legacyLocal.load(command.getKey(), loadTarget);
                     }
 
-                    if (remote.canLoad() && !loadTarget.isLoaded()) {
+                    if (remote.canLoad() && !loadTarget.isLoaded() && !knownRemoteMiss) {
                         loadedRole = BuildCacheServiceRole.REMOTE;
                         remote.load(command.getKey(), loadTarget);
                     }
@@ -150,6 +214,169 @@ public class DefaultBuildCacheController implements BuildCacheController {
         }
     }
 
+    @Override
+    public void prefetch(Collection<BuildCacheKey> keys) {
+        if (prefetchExecutor == null || closed) {
+            return;
+        }
+        List<Prefetch> batch = new ArrayList<Prefetch>(keys.size());
+        for (BuildCacheKey key : keys) {
+            Prefetch prefetch = new Prefetch(key);
+            if (prefetches.putIfAbsent(key.getHashCode(), prefetch) == null) {
+                batch.add(prefetch);
+            }
+        }
+        if (batch.size() == 1) {
+            // Checking whether a single entry exists takes as long as trying to download it
+            prefetchExecutor.execute(batch.get(0));
+        } else if (batch.size() > 1) {
+            prefetchExecutor.execute(new ExistenceCheck(batch));
+        }
+    }
+
+    @Override
+    public void discardPrefetches() {
+        for (Prefetch prefetch : prefetches.values()) {
+            prefetch.discard();
+        }
+        prefetches.clear();
+    }
+
+    /**
+     * Waits for a prefetch of the given key to complete, if there is one.
+     *
+     * @return true if the prefetch found that the remote cache does not have the entry.
+     */
+    private boolean awaitPrefetch(BuildCacheKey key) {
+        Prefetch prefetch = prefetches.remove(key.getHashCode());
+        return prefetch != null && prefetch.await();
+    }
+
+    /**
+     * Asks the remote cache which entries of a batch it has in a single request, and only downloads those.
+     * Downloads all of the entries when the remote cache cannot tell.
+     */
+    private class ExistenceCheck implements Runnable {
+        private final List<Prefetch> batch;
+
+        private ExistenceCheck(List<Prefetch> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            Set<BuildCacheKey> existing = null;
+            if (remote.canLoad()) {
+                List<BuildCacheKey> keys = new ArrayList<BuildCacheKey>(batch.size());
+                for (Prefetch prefetch : batch) {
+                    keys.add(prefetch.key);
+                }
+                existing = remote.findExisting(keys);
+            }
+            for (Prefetch prefetch : batch) {
+                if (existing != null && !existing.contains(prefetch.key)) {
+                    prefetch.markRemoteMiss();
+                } else {
+                    try {
+                        prefetchExecutor.execute(prefetch);
+                    } catch (RejectedExecutionException e) {
+                        // The controller has been closed
+                        prefetch.discard();
+                    }
+                }
+            }
+        }
+    }
+
+    private class Prefetch implements Runnable {
+        private final BuildCacheKey key;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile boolean remoteMiss;
+
+        private Prefetch(BuildCacheKey key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (remote.canLoad() && !isStoredLocally()) {
+                    download();
+                }
+            } catch (Exception e) {
+                // The entry is loaded as usual later on
+                LOGGER.debug("Could not prefetch build cache entry {}.", key, e);
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private boolean isStoredLocally() {
+            final AtomicBoolean found = new AtomicBoolean();
+            local.load(key, new Action<File>() {
+                @Override
+                public void execute(File file) {
+                    found.set(true);
+                }
+            });
+            return found.get();
+        }
+
+        private void download() {
+            prefetchTmp.withTempFile(key, new Action<File>() {
+                @Override
+                public void execute(File file) {
+                    LoadTarget loadTarget = new LoadTarget(file);
+                    remote.load(key, loadTarget);
+                    if (loadTarget.isLoaded()) {
+                        local.store(key, file);
+                    } else {
+                        // A failed load disables the remote cache, so only a cache that is still usable reported a miss
+                        remoteMiss = remote.canLoad();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Waits for this prefetch to complete. A prefetch that has not started yet is discarded, so the caller can load the entry directly.
+         */
+        boolean await() {
+            if (claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return remoteMiss;
+        }
+
+        /**
+         * Completes this prefetch without downloading anything, as the remote cache is known not to have the entry.
+         */
+        void markRemoteMiss() {
+            if (claimed.compareAndSet(false, true)) {
+                remoteMiss = true;
+                done.countDown();
+            }
+        }
+
+        /**
+         * Discards this prefetch if it has not started yet. A caller waiting for it then loads the entry directly.
+         */
+        void discard() {
+            if (claimed.compareAndSet(false, true)) {
+                done.countDown();
+            }
+        }
+    }
+
     private class Unpack<T> implements Action<File> {
         private final BuildCacheLoadCommand<T> command;
 
@@ -202,6 +429,12 @@ public class DefaultBuildCacheController implements BuildCacheController {
             return;
         }
 
+        BuildOperationRef backgroundStoreParent = this.backgroundStoreParent;
+        if (backgroundStoreParent != null && !closed) {
+            storeInBackground(command, backgroundStoreParent);
+            return;
+        }
+
         final BuildCacheKey key = command.getKey();
         final Pack pack = new Pack(command);
 
@@ -209,22 +442,181 @@ public class DefaultBuildCacheController implements BuildCacheController {
             @Override
             public void execute(File file) {
                 pack.execute(file);
+                storePacked(key, file);
+            }
+        });
+    }
 
-                if (legacyLocal.canStore()) {
-                    legacyLocal.store(key, new StoreTarget(file));
-                }
+    private void storePacked(BuildCacheKey key, File file) {
+        if (legacyLocal.canStore()) {
+            legacyLocal.store(key, new StoreTarget(file));
+        }
 
-                if (remote.canStore()) {
-                    remote.store(key, new StoreTarget(file));
-                }
+        if (remote.canStore()) {
+            remote.store(key, new StoreTarget(file));
+        }
+
+        if (local.canStore()) {
+            local.store(key, file);
+        }
+    }
 
-                if (local.canStore()) {
-                    local.store(key, file);
+    /**
+     * Packs the entry right away, as the outputs of the task may change once other tasks run, and stores it in the background under the given operation.
+     */
+    private void storeInBackground(BuildCacheStoreCommand command, BuildOperationRef parent) {
+        BuildCacheKey key = command.getKey();
+        File file;
+        try {
+            file = File.createTempFile(key.getHashCode() + "-", BuildCacheTempFileStore.PARTIAL_FILE_SUFFIX, backgroundStoreTmpDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            new Pack(command).execute(file);
+        } catch (RuntimeException e) {
+            GFileUtils.deleteQuietly(file);
+            throw e;
+        }
+
+        // Blocks the task while the queue is full, so that the build does not get too far ahead of the build cache
+        backgroundStoreQueue.acquireUninterruptibly();
+        backgroundStoreStatistics.queued(maxQueuedStores - backgroundStoreQueue.availablePermits());
+        BackgroundStore store = new BackgroundStore(key, file, parent);
+        backgroundStores.add(store);
+        backgroundStoreExecutor.execute(store);
+    }
+
+    @Override
+    public void startStores() {
+        if (backgroundStoreExecutor != null) {
+            backgroundStoreParent = buildOperationExecutor.getCurrentOperation();
+        }
+    }
+
+    @Override
+    public void completeStores(final boolean discard) {
+        if (backgroundStoreParent == null) {
+            return;
+        }
+        backgroundStoreParent = null;
+        buildOperationExecutor.run(new RunnableBuildOperation() {
+            @Override
+            public void run(BuildOperationContext context) {
+                if (discard) {
+                    for (BackgroundStore store : backgroundStores) {
+                        store.discard();
+                    }
+                }
+                for (BackgroundStore store : backgroundStores) {
+                    store.await();
                 }
+                context.setResult(backgroundStoreStatistics.reset());
+            }
+
+            @Override
+            public BuildOperationDescriptor.Builder description() {
+                return BuildOperationDescriptor.displayName(discard ? "Discard pending build cache stores" : "Wait for pending build cache stores")
+                    .details(new BackgroundStoresOperationDetails(maxQueuedStores, discard))
+                    .progressDisplayName("Waiting for build cache stores");
             }
         });
     }
 
+    private class BackgroundStore implements Runnable {
+        private final BuildCacheKey key;
+        private final File file;
+        private final BuildOperationRef parent;
+        private final Timer timer = Time.startTimer();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private BackgroundStore(BuildCacheKey key, File file, BuildOperationRef parent) {
+            this.key = key;
+            this.file = file;
+            this.parent = parent;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (claimed.compareAndSet(false, true)) {
+                    // Runs under the operation that started the background stores, which completes only once all stores have finished
+                    buildOperationExecutor.run(new RunnableBuildOperation() {
+                        @Override
+                        public void run(BuildOperationContext context) {
+                            storePacked(key, file);
+                        }
+
+                        @Override
+                        public BuildOperationDescriptor.Builder description() {
+                            return BuildOperationDescriptor.displayName("Store build cache entry " + key + " in the background")
+                                .parent(parent)
+                                .progressDisplayName("Storing build cache entry");
+                        }
+                    });
+                    backgroundStoreStatistics.stored(timer.getElapsedMillis());
+                } else {
+                    backgroundStoreStatistics.discarded();
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Failed to store cache entry {}", key, e);
+            } finally {
+                GFileUtils.deleteQuietly(file);
+                backgroundStores.remove(this);
+                backgroundStoreQueue.release();
+                done.countDown();
+            }
+        }
+
+        /**
+         * Discards this store if it has not started yet.
+         */
+        void discard() {
+            claimed.compareAndSet(false, true);
+        }
+
+        void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private static class BackgroundStoreStatistics {
+        private int maxQueueDepth;
+        private int storedEntryCount;
+        private int discardedEntryCount;
+        private long totalStoreLatency;
+        private long maxStoreLatency;
+
+        synchronized void queued(int queueDepth) {
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+        }
+
+        synchronized void stored(long storeLatency) {
+            storedEntryCount++;
+            totalStoreLatency += storeLatency;
+            maxStoreLatency = Math.max(maxStoreLatency, storeLatency);
+        }
+
+        synchronized void discarded() {
+            discardedEntryCount++;
+        }
+
+        synchronized BackgroundStoresOperationResult reset() {
+            BackgroundStoresOperationResult result = new BackgroundStoresOperationResult(storedEntryCount, discardedEntryCount, maxQueueDepth, totalStoreLatency, maxStoreLatency);
+            maxQueueDepth = 0;
+            storedEntryCount = 0;
+            discardedEntryCount = 0;
+            totalStoreLatency = 0;
+            maxStoreLatency = 0;
+            return result;
+        }
+    }
+
     private class Pack implements Action<File> {
 
         private final BuildCacheStoreCommand command;
@@ -263,6 +655,18 @@ public class DefaultBuildCacheController implements BuildCacheController {
     public void close() {
         if (!closed) {
             closed = true;
+            if (prefetchExecutor != null) {
+                for (Prefetch prefetch : prefetches.values()) {
+                    prefetch.discard();
+                }
+                prefetchExecutor.stop();
+            }
+            if (backgroundStoreExecutor != null) {
+                for (BackgroundStore store : backgroundStores) {
+                    store.discard();
+                }
+                backgroundStoreExecutor.stop();
+            }
             CompositeStoppable.stoppable(legacyLocal, local, remote).stop();
         }
     }
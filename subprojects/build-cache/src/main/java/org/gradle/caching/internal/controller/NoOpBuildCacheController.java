@@ -16,6 +16,10 @@
 
 package org.gradle.caching.internal.controller;
 
+import org.gradle.caching.BuildCacheKey;
+
+import java.util.Collection;
+
 public class NoOpBuildCacheController implements BuildCacheController {
 
     public static final BuildCacheController INSTANCE = new NoOpBuildCacheController();
@@ -33,6 +37,23 @@ public class NoOpBuildCacheController implements BuildCacheController {
 
     }
 
+    @Override
+    public void prefetch(Collection<BuildCacheKey> keys) {
+
+    }
+
+    @Override
+    public void discardPrefetches() {
+    }
+
+    @Override
+    public void startStores() {
+    }
+
+    @Override
+    public void completeStores(boolean discard) {
+    }
+
     @Override
     public void close() {
 
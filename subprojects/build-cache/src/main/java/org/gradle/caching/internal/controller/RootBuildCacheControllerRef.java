@@ -16,7 +16,10 @@
 
 package org.gradle.caching.internal.controller;
 
+import org.gradle.caching.BuildCacheKey;
+
 import javax.annotation.Nullable;
+import java.util.Collection;
 
 public class RootBuildCacheControllerRef {
 
@@ -59,6 +62,25 @@ public class RootBuildCacheControllerRef {
             delegate.store(command);
         }
 
+        @Override
+        public void prefetch(Collection<BuildCacheKey> keys) {
+            delegate.prefetch(keys);
+        }
+
+        @Override
+        public void discardPrefetches() {
+            // Prefetches are discarded by the root build
+        }
+
+        @Override
+        public void startStores() {
+            // Background stores are started and completed by the root build
+        }
+
+        @Override
+        public void completeStores(boolean discard) {
+        }
+
         @Override
         public void close() {
         }
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.operations;
+
+import org.gradle.caching.internal.operations.BuildCacheBackgroundStoresBuildOperationType;
+
+public class BackgroundStoresOperationDetails implements BuildCacheBackgroundStoresBuildOperationType.Details {
+
+    private final int queueCapacity;
+    private final boolean discarding;
+
+    public BackgroundStoresOperationDetails(int queueCapacity, boolean discarding) {
+        this.queueCapacity = queueCapacity;
+        this.discarding = discarding;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public boolean isDiscarding() {
+        return discarding;
+    }
+}
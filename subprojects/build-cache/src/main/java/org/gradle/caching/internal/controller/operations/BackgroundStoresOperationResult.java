@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.controller.operations;
+
+import org.gradle.caching.internal.operations.BuildCacheBackgroundStoresBuildOperationType;
+
+public class BackgroundStoresOperationResult implements BuildCacheBackgroundStoresBuildOperationType.Result {
+
+    private final int storedEntryCount;
+    private final int discardedEntryCount;
+    private final int maxQueueDepth;
+    private final long totalStoreLatency;
+    private final long maxStoreLatency;
+
+    public BackgroundStoresOperationResult(int storedEntryCount, int discardedEntryCount, int maxQueueDepth, long totalStoreLatency, long maxStoreLatency) {
+        this.storedEntryCount = storedEntryCount;
+        this.discardedEntryCount = discardedEntryCount;
+        this.maxQueueDepth = maxQueueDepth;
+        this.totalStoreLatency = totalStoreLatency;
+        this.maxStoreLatency = maxStoreLatency;
+    }
+
+    @Override
+    public int getStoredEntryCount() {
+        return storedEntryCount;
+    }
+
+    @Override
+    public int getDiscardedEntryCount() {
+        return discardedEntryCount;
+    }
+
+    @Override
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    @Override
+    public long getTotalStoreLatency() {
+        return totalStoreLatency;
+    }
+
+    @Override
+    public long getMaxStoreLatency() {
+        return maxStoreLatency;
+    }
+}
@@ -21,8 +21,11 @@ import org.gradle.api.logging.Logging;
 import org.gradle.caching.BuildCacheEntryReader;
 import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
+import org.gradle.caching.internal.ExistenceCheckingBuildCacheService;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
 
 public class BaseBuildCacheServiceHandle implements BuildCacheServiceHandle {
 
@@ -73,6 +76,21 @@ public class BaseBuildCacheServiceHandle implements BuildCacheServiceHandle {
         service.load(key, entryReader);
     }
 
+    @Nullable
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        if (disabled || !(service instanceof ExistenceCheckingBuildCacheService)) {
+            return null;
+        }
+        try {
+            return ((ExistenceCheckingBuildCacheService) service).findExisting(keys);
+        } catch (Exception e) {
+            // The entries are loaded one by one instead, which reports any problem with the cache
+            LOGGER.debug("Could not check for existing entries in {} build cache", role.getDisplayName(), e);
+            return null;
+        }
+    }
+
     @Override
     public boolean canStore() {
         return pushEnabled && !disabled;
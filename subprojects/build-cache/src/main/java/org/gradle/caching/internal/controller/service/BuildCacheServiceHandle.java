@@ -22,6 +22,8 @@ import org.gradle.caching.BuildCacheService;
 
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.util.Collection;
+import java.util.Set;
 
 public interface BuildCacheServiceHandle extends Closeable {
 
@@ -33,6 +35,14 @@ public interface BuildCacheServiceHandle extends Closeable {
 
     void load(BuildCacheKey key, LoadTarget loadTarget);
 
+    /**
+     * Returns those of the given keys that have an entry in the cache, or {@code null} when this is not known.
+     *
+     * @see org.gradle.caching.internal.ExistenceCheckingBuildCacheService
+     */
+    @Nullable
+    Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys);
+
     boolean canStore();
 
     void store(BuildCacheKey key, StoreTarget storeTarget);
@@ -20,6 +20,8 @@ import org.gradle.caching.BuildCacheKey;
 import org.gradle.caching.BuildCacheService;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Set;
 
 public class NullBuildCacheServiceHandle implements BuildCacheServiceHandle {
 
@@ -41,6 +43,12 @@ public class NullBuildCacheServiceHandle implements BuildCacheServiceHandle {
         throw new UnsupportedOperationException();
     }
 
+    @Nullable
+    @Override
+    public Set<BuildCacheKey> findExisting(Collection<BuildCacheKey> keys) {
+        return null;
+    }
+
     @Override
     public boolean canStore() {
         return false;
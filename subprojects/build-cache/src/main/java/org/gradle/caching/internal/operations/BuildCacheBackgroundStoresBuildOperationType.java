@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.caching.internal.operations;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+/**
+ * Completes the stores of build cache entries that run in the background, either by waiting for them or by discarding the ones that have not started yet.
+ *
+ * The result summarizes all background stores since the previous operation of this type.
+ */
+public final class BuildCacheBackgroundStoresBuildOperationType implements BuildOperationType<BuildCacheBackgroundStoresBuildOperationType.Details, BuildCacheBackgroundStoresBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The maximum number of entries that can be queued for storing at the same time.
+         */
+        int getQueueCapacity();
+
+        /**
+         * Whether entries that have not started storing yet are discarded, for example because the build failed.
+         */
+        boolean isDiscarding();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The number of entries that were stored.
+         */
+        int getStoredEntryCount();
+
+        /**
+         * The number of entries that were discarded before they were stored.
+         */
+        int getDiscardedEntryCount();
+
+        /**
+         * The largest number of entries that were queued at the same time.
+         */
+        int getMaxQueueDepth();
+
+        /**
+         * The total time in milliseconds between queueing an entry and finishing to store it, summed over all stored entries.
+         */
+        long getTotalStoreLatency();
+
+        /**
+         * The longest time in milliseconds between queueing an entry and finishing to store it.
+         */
+        long getMaxStoreLatency();
+
+    }
+
+    private BuildCacheBackgroundStoresBuildOperationType() {
+    }
+}
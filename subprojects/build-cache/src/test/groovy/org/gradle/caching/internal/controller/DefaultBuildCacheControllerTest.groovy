@@ -21,13 +21,19 @@ import org.gradle.caching.BuildCacheEntryReader
 import org.gradle.caching.BuildCacheEntryWriter
 import org.gradle.caching.BuildCacheKey
 import org.gradle.caching.BuildCacheService
+import org.gradle.caching.internal.ExistenceCheckingBuildCacheService
 import org.gradle.caching.internal.controller.service.BuildCacheServicesConfiguration
+import org.gradle.caching.internal.operations.BuildCacheBackgroundStoresBuildOperationType
 import org.gradle.caching.local.internal.LocalBuildCacheService
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.testing.internal.util.Specification
 import org.junit.Rule
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class DefaultBuildCacheControllerTest extends Specification {
 
     def key = Mock(BuildCacheKey) {
@@ -43,6 +49,8 @@ class DefaultBuildCacheControllerTest extends Specification {
     def localPush = true
     def remote = Mock(BuildCacheService)
     def remotePush = true
+    def maxConcurrentPrefetches = 0
+    def maxQueuedStores = 0
 
     BuildCacheService legacyLocal = null
 
@@ -78,6 +86,7 @@ class DefaultBuildCacheControllerTest extends Specification {
     }
 
     def operations = new TestBuildOperationExecutor()
+    def executorFactory = new DefaultExecutorFactory()
 
     @Rule
     final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
@@ -91,11 +100,18 @@ class DefaultBuildCacheControllerTest extends Specification {
                 remote, remotePush
             ),
             operations,
+            executorFactory,
             tmpDir.file("dir"),
-            false
+            false,
+            maxConcurrentPrefetches,
+            maxQueuedStores
         )
     }
 
+    def cleanup() {
+        executorFactory.stop()
+    }
+
     def "does suppress exceptions from load"() {
         given:
         1 * remote.load(key, _) >> { throw new RuntimeException() }
@@ -337,4 +353,200 @@ class DefaultBuildCacheControllerTest extends Specification {
         }
     }
 
+    def "prefetched remote hit is stored to local and loaded from there"() {
+        given:
+        maxConcurrentPrefetches = 1
+        def stored = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        assert stored.await(10, TimeUnit.SECONDS)
+        controller.load(loadCommand)
+        controller.close()
+
+        then:
+        1 * local.loadLocally(key, _) // miss
+        1 * remote.load(key, _) >> { BuildCacheKey key, BuildCacheEntryReader reader ->
+            reader.readFrom(new ByteArrayInputStream("foo".bytes))
+            true
+        }
+        1 * local.storeLocally(key, _) >> {
+            stored.countDown()
+        }
+        1 * local.loadLocally(key, _) >> { BuildCacheKey key, Action<File> action ->
+            def file = tmpDir.file("file")
+            file.text = "foo"
+            action.execute(file)
+        }
+        0 * remote.load(key, _)
+    }
+
+    def "prefetched remote miss is not looked up again"() {
+        given:
+        maxConcurrentPrefetches = 1
+        def missed = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        assert missed.await(10, TimeUnit.SECONDS)
+        controller.load(loadCommand)
+        controller.close()
+
+        then:
+        2 * local.loadLocally(key, _) // miss
+        1 * remote.load(key, _) >> {
+            missed.countDown()
+            false
+        }
+        0 * local.storeLocally(key, _)
+    }
+
+    def "forgets prefetched entries once prefetches are discarded"() {
+        given:
+        maxConcurrentPrefetches = 1
+        def missed = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.prefetch([key])
+        assert missed.await(10, TimeUnit.SECONDS)
+        controller.discardPrefetches()
+        controller.load(loadCommand)
+        controller.close()
+
+        then:
+        2 * local.loadLocally(key, _) // miss
+        1 * remote.load(key, _) >> {
+            missed.countDown()
+            false
+        }
+
+        and:
+        1 * remote.load(key, _) >> false
+    }
+
+    def "prefetches only the entries that the remote cache has when it can check for existing entries"() {
+        given:
+        maxConcurrentPrefetches = 2
+        remote = Mock(ExistenceCheckingBuildCacheService)
+        def otherKey = Mock(BuildCacheKey) {
+            getHashCode() >> "other"
+            toString() >> "other"
+        }
+        def stored = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.prefetch([key, otherKey])
+        assert stored.await(10, TimeUnit.SECONDS)
+        controller.load(loadCommand)
+        controller.close()
+
+        then:
+        1 * remote.findExisting([key, otherKey]) >> ([otherKey] as Set)
+        1 * local.loadLocally(otherKey, _) // miss
+        1 * remote.load(otherKey, _) >> { BuildCacheKey key, BuildCacheEntryReader reader ->
+            reader.readFrom(new ByteArrayInputStream("foo".bytes))
+            true
+        }
+        1 * local.storeLocally(otherKey, _) >> {
+            stored.countDown()
+        }
+
+        and:
+        1 * local.loadLocally(key, _) // miss
+        0 * remote.load(key, _)
+    }
+
+    def "does not prefetch by default"() {
+        when:
+        controller.prefetch([key])
+
+        then:
+        0 * local._
+        0 * remote._
+    }
+
+    def "does not prefetch if no local"() {
+        given:
+        maxConcurrentPrefetches = 1
+        local = null
+
+        when:
+        controller.prefetch([key])
+
+        then:
+        0 * remote._
+    }
+
+    def "stores in the background when enabled"() {
+        given:
+        maxQueuedStores = 2
+        def uploading = new CountDownLatch(1)
+        def uploaded = new CountDownLatch(1)
+        def controller = getController()
+
+        when:
+        controller.startStores()
+        controller.store(storeCommand)
+        assert uploading.await(10, TimeUnit.SECONDS)
+        uploaded.countDown()
+        controller.completeStores(false)
+        controller.close()
+
+        then:
+        1 * remote.store(key, _) >> {
+            uploading.countDown()
+            assert uploaded.await(10, TimeUnit.SECONDS)
+        }
+        1 * local.storeLocally(key, _)
+
+        and:
+        def store = operations.log.descriptors.find { it.displayName == "Store build cache entry key in the background" }
+        store.parentId == operations.currentOperation.id
+
+        and:
+        def result = operations.log.mostRecentResult(BuildCacheBackgroundStoresBuildOperationType)
+        result.storedEntryCount == 1
+        result.discardedEntryCount == 0
+        result.maxQueueDepth == 1
+    }
+
+    def "stores synchronously until background stores are started"() {
+        given:
+        maxQueuedStores = 2
+        def controller = getController()
+
+        when:
+        controller.store(storeCommand)
+
+        then:
+        1 * remote.store(key, _)
+        1 * local.storeLocally(key, _)
+
+        when:
+        controller.completeStores(false)
+        controller.close()
+
+        then:
+        0 * remote.store(_, _)
+        operations.log.all(BuildCacheBackgroundStoresBuildOperationType).empty
+    }
+
+    def "stores synchronously by default"() {
+        when:
+        controller.startStores()
+        controller.store(storeCommand)
+        controller.completeStores(false)
+
+        then:
+        1 * remote.store(key, _)
+        1 * local.storeLocally(key, _)
+
+        and:
+        operations.log.all(BuildCacheBackgroundStoresBuildOperationType).empty
+    }
+
 }
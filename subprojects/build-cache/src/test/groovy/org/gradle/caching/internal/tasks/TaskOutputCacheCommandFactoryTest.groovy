@@ -22,6 +22,7 @@ import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.cache.StringInterner
 import org.gradle.api.internal.changedetection.TaskArtifactState
+import org.gradle.api.internal.changedetection.state.CachingFileHasher
 import org.gradle.api.internal.changedetection.state.DirectoryFileSnapshot
 import org.gradle.api.internal.changedetection.state.DirectoryTreeDetails
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
@@ -50,8 +51,9 @@ class TaskOutputCacheCommandFactoryTest extends Specification {
     def packer = Mock(TaskOutputPacker)
     def originFactory = Mock(TaskOutputOriginFactory)
     def fileSystemMirror = Mock(FileSystemMirror)
+    def fileHasher = Mock(CachingFileHasher)
     def stringInterner = new StringInterner()
-    def commandFactory = new TaskOutputCacheCommandFactory(packer, originFactory, fileSystemMirror, stringInterner)
+    def commandFactory = new TaskOutputCacheCommandFactory(packer, originFactory, fileSystemMirror, fileHasher, stringInterner)
 
     def key = Mock(TaskOutputCachingBuildCacheKey)
     def taskProperties = Mock(TaskProperties)
@@ -104,6 +106,8 @@ class TaskOutputCacheCommandFactoryTest extends Specification {
             assert dir.descendants as List == [outputDirFileSnapshot]
         }
         1 * fileSystemMirror.putFile(outputFileSnapshot)
+        1 * fileHasher.recordHash(outputDirFile, outputDirFileContent.contentMd5)
+        1 * fileHasher.recordHash(outputFile, outputFileContent.contentMd5)
         1 * taskArtifactState.snapshotAfterLoadedFromCache(_, originMetadata) >> { ImmutableSortedMap<String, FileCollectionSnapshot> propertySnapshots, OriginTaskExecutionMetadata metadata ->
             assert propertySnapshots.keySet() as List == ["outputDir", "outputFile"]
             assert propertySnapshots["outputFile"].files == [outputFile]
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class ConfiguredProjectsCachingBuildConfigurerIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        settingsFile << """
+            include 'a', 'b'
+
+            gradle.afterProject { project -> println "event: evaluated \${project.path}" }
+            gradle.projectsEvaluated { println "event: projects evaluated" }
+            gradle.taskGraph.whenReady { println "event: task graph ready" }
+        """
+        file("a/build.gradle") << """
+            task hello
+        """
+        file("b/build.gradle") << """
+            task hello
+        """
+    }
+
+    def "notifies listeners that projects have been evaluated after the projects used by the build have been configured"() {
+        when:
+        runWithConfiguredProjectsCache(":a:hello")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "evaluated :b", "projects evaluated", "task graph ready"]
+
+        when:
+        runWithConfiguredProjectsCache(":a:hello")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "projects evaluated", "task graph ready"]
+    }
+
+    def "configures the projects needed to select the tasks before notifying listeners when the cached set of configured projects is reused"() {
+        when:
+        runWithConfiguredProjectsCache(":a:hello", "-x", ":b:hello")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "evaluated :b", "projects evaluated", "task graph ready"]
+
+        when:
+        runWithConfiguredProjectsCache(":a:hello", "-x", ":b:hello")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "evaluated :b", "projects evaluated", "task graph ready"]
+    }
+
+    def "configures all projects when tasks are requested by name"() {
+        when:
+        runWithConfiguredProjectsCache("hello")
+        runWithConfiguredProjectsCache("hello")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "evaluated :b", "projects evaluated", "task graph ready"]
+        result.assertTasksExecuted(":a:hello", ":b:hello")
+    }
+
+    def "configures all projects when a project other than the root project configures another project"() {
+        given:
+        file("b/build.gradle") << """
+            project(':a') {
+                task fromB
+            }
+        """
+
+        when:
+        runWithConfiguredProjectsCache(":a:fromB")
+        runWithConfiguredProjectsCache(":a:fromB")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "evaluated :b", "projects evaluated", "task graph ready"]
+        result.assertTasksExecuted(":a:fromB")
+    }
+
+    def "reuses the cached set of configured projects when the root project configures other projects"() {
+        given:
+        buildFile << """
+            subprojects {
+                task fromRoot
+            }
+        """
+
+        when:
+        runWithConfiguredProjectsCache(":a:fromRoot")
+        runWithConfiguredProjectsCache(":a:fromRoot")
+
+        then:
+        events == ["evaluated :", "evaluated :a", "projects evaluated", "task graph ready"]
+        result.assertTasksExecuted(":a:fromRoot")
+    }
+
+    private void runWithConfiguredProjectsCache(String... tasks) {
+        args("-D${ConfiguredProjectsCachingBuildConfigurer.CONFIGURED_PROJECTS_CACHE_PROPERTY}=true")
+        succeeds(tasks)
+    }
+
+    private List<String> getEvents() {
+        return output.readLines().findAll { it.startsWith("event: ") }.collect { it.substring("event: ".length()) }
+    }
+}
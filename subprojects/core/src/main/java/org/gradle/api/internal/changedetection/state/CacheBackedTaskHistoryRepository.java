@@ -136,6 +136,12 @@ public class CacheBackedTaskHistoryRepository implements TaskHistoryRepository {
         };
     }
 
+    @Nullable
+    @Override
+    public HistoricalTaskExecution getPreviousExecution(TaskInternal task) {
+        return loadPreviousExecution(task);
+    }
+
     private CurrentTaskExecution createExecution(TaskInternal task, TaskProperties taskProperties, @Nullable HistoricalTaskExecution previousExecution, InputNormalizationStrategy normalizationStrategy) {
         Class<? extends TaskInternal> taskClass = task.getClass();
         List<ContextAwareTaskAction> taskActions = task.getTaskActions();
@@ -91,6 +91,14 @@ public class CachingFileHasher implements FileHasher {
         return info;
     }
 
+    /**
+     * Records the hash of a file whose content was hashed while it was being written, so that the file does not need to be read again when it is next hashed.
+     */
+    public void recordHash(File file, HashCode hash) {
+        FileMetadataSnapshot fileMetadata = fileSystem.stat(file);
+        cache.put(stringInterner.intern(file.getAbsolutePath()), new FileInfo(hash, fileMetadata.getLength(), fileMetadata.getLastModified()));
+    }
+
     public void discard(String path) {
         cache.remove(path);
     }
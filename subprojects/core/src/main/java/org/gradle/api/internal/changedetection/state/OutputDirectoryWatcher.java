@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import java.io.File;
+
+/**
+ * Records the changes made to output directories while a task executes, so that the directories do not need to be walked again to snapshot them afterwards.
+ */
+public interface OutputDirectoryWatcher {
+    String WATCH_OUTPUTS_PROPERTY = "org.gradle.tasks.watch-outputs";
+
+    OutputDirectoryWatcher NONE = new OutputDirectoryWatcher() {
+        @Override
+        public Session startWatching(Iterable<File> outputDirectories) {
+            return Session.NONE;
+        }
+    };
+
+    /**
+     * Starts recording the changes to the given directories. Only directories whose current state is known to the {@link FileSystemMirror} are watched.
+     */
+    Session startWatching(Iterable<File> outputDirectories);
+
+    interface Session {
+        Session NONE = new Session() {
+            @Override
+            public void updateSnapshots() {
+            }
+
+            @Override
+            public void stop() {
+            }
+        };
+
+        /**
+         * Puts the state of the watched directories into the {@link FileSystemMirror}, by applying the recorded changes to their previous state.
+         * Directories whose changes could not be reliably recorded are left out, and are walked again when they are next snapshotted.
+         */
+        void updateSnapshots();
+
+        /**
+         * Stops recording changes. Does nothing when the session has already been stopped.
+         */
+        void stop();
+    }
+}
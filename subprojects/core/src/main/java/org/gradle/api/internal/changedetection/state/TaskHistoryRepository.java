@@ -25,6 +25,12 @@ import javax.annotation.Nullable;
 public interface TaskHistoryRepository {
     History getHistory(TaskInternal task, TaskProperties taskProperties);
 
+    /**
+     * Loads the previous execution of the given task, without inspecting the current state of the task.
+     */
+    @Nullable
+    HistoricalTaskExecution getPreviousExecution(TaskInternal task);
+
     interface History {
         @Nullable
         HistoricalTaskExecution getPreviousExecution();
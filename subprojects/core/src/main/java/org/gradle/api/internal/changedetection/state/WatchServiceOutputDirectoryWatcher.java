@@ -0,0 +1,370 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.file.FileMetadataSnapshot;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * An {@link OutputDirectoryWatcher} that uses a JDK {@link WatchService}.
+ *
+ * <p>Only the directories that are part of the previous snapshot of an output directory are watched, so nothing needs to be walked to start watching.
+ * A directory that is created or replaced while the task executes is walked completely when the snapshot is updated.</p>
+ *
+ * <p>The events of a watch service are delivered asynchronously. To make sure that all changes made by the task have been received, a marker file is created in
+ * each watched directory after the task has executed, and the events are read until the creation of every marker has been seen. Any events that were queued
+ * before the markers are read as well. When the markers are not seen in time, or when events were lost, the directories are walked again as usual.</p>
+ */
+public class WatchServiceOutputDirectoryWatcher implements OutputDirectoryWatcher {
+    private static final Logger LOGGER = Logging.getLogger(WatchServiceOutputDirectoryWatcher.class);
+    private static final WatchEvent.Kind<?>[] WATCH_KINDS = new WatchEvent.Kind<?>[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY};
+    private static final long MARKER_TIMEOUT_MILLIS = 5000;
+    private static final String MARKER_PREFIX = ".gradle-output-watch-";
+
+    private final FileSystemMirror fileSystemMirror;
+    private final FileHasher hasher;
+    private final FileSystem fileSystem;
+    private final StringInterner stringInterner;
+    private final int minimumDescendants;
+
+    /**
+     * @param minimumDescendants the number of entries an output directory needs to contain to be watched. Smaller directories are cheaper to walk again.
+     */
+    public WatchServiceOutputDirectoryWatcher(FileSystemMirror fileSystemMirror, FileHasher hasher, FileSystem fileSystem, StringInterner stringInterner, int minimumDescendants) {
+        this.fileSystemMirror = fileSystemMirror;
+        this.hasher = hasher;
+        this.fileSystem = fileSystem;
+        this.stringInterner = stringInterner;
+        this.minimumDescendants = minimumDescendants;
+    }
+
+    @Override
+    public Session startWatching(Iterable<File> outputDirectories) {
+        List<FileTreeSnapshot> trees = new ArrayList<FileTreeSnapshot>();
+        for (File outputDirectory : outputDirectories) {
+            FileTreeSnapshot tree = fileSystemMirror.getDirectoryTree(outputDirectory.getAbsolutePath());
+            if (tree != null && tree.getDescendants().size() >= minimumDescendants) {
+                trees.add(tree);
+            }
+        }
+        if (trees.isEmpty()) {
+            return Session.NONE;
+        }
+
+        WatchService watchService = null;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            List<WatchedTree> watchedTrees = new ArrayList<WatchedTree>(trees.size());
+            for (FileTreeSnapshot tree : trees) {
+                WatchKey rootKey = register(watchService, tree.getPath());
+                for (FileSnapshot descendant : tree.getDescendants()) {
+                    if (descendant.getType() == FileType.Directory) {
+                        register(watchService, descendant.getPath());
+                    }
+                }
+                watchedTrees.add(new WatchedTree(tree, rootKey));
+            }
+            return new WatchSession(watchService, watchedTrees);
+        } catch (IOException e) {
+            LOGGER.debug("Could not watch output directories {}, they will be walked after the task has executed.", trees, e);
+            closeQuietly(watchService);
+            return Session.NONE;
+        }
+    }
+
+    private static WatchKey register(WatchService watchService, String directory) throws IOException {
+        return Paths.get(directory).register(watchService, WATCH_KINDS);
+    }
+
+    private static void closeQuietly(WatchService watchService) {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not stop watching output directories.", e);
+        }
+    }
+
+    private static class WatchedTree {
+        final FileTreeSnapshot snapshot;
+        final WatchKey rootKey;
+        final File marker;
+
+        WatchedTree(FileTreeSnapshot snapshot, WatchKey rootKey) {
+            this.snapshot = snapshot;
+            this.rootKey = rootKey;
+            this.marker = new File(snapshot.getPath(), MARKER_PREFIX + UUID.randomUUID());
+        }
+
+        @Override
+        public String toString() {
+            return snapshot.getPath();
+        }
+    }
+
+    private class WatchSession implements Session {
+        private final WatchService watchService;
+        private final List<WatchedTree> trees;
+        private final Set<String> markers = new HashSet<String>();
+        // Maps the path of a changed file to whether it has been created or deleted, rather than only modified
+        private final Map<String, Boolean> changes = new HashMap<String, Boolean>();
+        private boolean overflow;
+        private boolean stopped;
+
+        WatchSession(WatchService watchService, List<WatchedTree> trees) {
+            this.watchService = watchService;
+            this.trees = trees;
+            for (WatchedTree tree : trees) {
+                markers.add(tree.marker.getAbsolutePath());
+            }
+        }
+
+        @Override
+        public void updateSnapshots() {
+            if (stopped) {
+                return;
+            }
+            List<WatchedTree> createdMarkers = new ArrayList<WatchedTree>(trees.size());
+            try {
+                Set<String> pendingMarkers = new HashSet<String>();
+                for (WatchedTree tree : trees) {
+                    if (tree.marker.createNewFile()) {
+                        createdMarkers.add(tree);
+                        pendingMarkers.add(tree.marker.getAbsolutePath());
+                    }
+                }
+                if (!awaitMarkers(pendingMarkers)) {
+                    LOGGER.debug("Changes to output directories {} were not received in time, they will be walked again.", pendingMarkers);
+                    return;
+                }
+                if (overflow) {
+                    LOGGER.debug("Too many changes to output directories {}, they will be walked again.", trees);
+                    return;
+                }
+                // A directory whose root has been deleted or replaced is walked again
+                List<WatchedTree> unchangedRoots = new ArrayList<WatchedTree>(createdMarkers.size());
+                for (WatchedTree tree : createdMarkers) {
+                    if (tree.rootKey.isValid()) {
+                        unchangedRoots.add(tree);
+                    }
+                }
+                stop();
+                for (WatchedTree tree : unchangedRoots) {
+                    fileSystemMirror.putDirectory(update(tree.snapshot));
+                }
+            } catch (IOException e) {
+                LOGGER.debug("Could not update the snapshots of output directories {}, they will be walked again.", trees, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stop();
+                for (WatchedTree tree : createdMarkers) {
+                    if (!tree.marker.delete()) {
+                        LOGGER.debug("Could not delete {}.", tree.marker);
+                    }
+                }
+            }
+        }
+
+        private boolean awaitMarkers(Set<String> pendingMarkers) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MARKER_TIMEOUT_MILLIS);
+            while (!pendingMarkers.isEmpty()) {
+                long remaining = deadline - System.nanoTime();
+                WatchKey key = remaining > 0 ? watchService.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (key == null) {
+                    return false;
+                }
+                processEvents(key, pendingMarkers);
+            }
+            // A directory whose events were being read when a marker was created is queued again when its key is reset
+            WatchKey key;
+            while ((key = watchService.poll()) != null) {
+                processEvents(key, pendingMarkers);
+            }
+            return true;
+        }
+
+        private void processEvents(WatchKey key, Set<String> pendingMarkers) {
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                WatchEvent.Kind<?> kind = event.kind();
+                if (kind == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                String path = directory.resolve((Path) event.context()).toString();
+                if (markers.contains(path)) {
+                    pendingMarkers.remove(path);
+                    continue;
+                }
+                boolean structural = kind != ENTRY_MODIFY;
+                Boolean previous = changes.get(path);
+                changes.put(path, structural || (previous != null && previous));
+            }
+            key.reset();
+        }
+
+        private FileTreeSnapshot update(FileTreeSnapshot previous) {
+            String root = previous.getPath();
+            String rootPrefix = root + File.separatorChar;
+            Map<String, FileSnapshot> descendants = new LinkedHashMap<String, FileSnapshot>();
+            for (FileSnapshot descendant : previous.getDescendants()) {
+                descendants.put(descendant.getPath(), descendant);
+            }
+
+            // Parents are sorted before their children
+            Set<String> changedPaths = new TreeSet<String>();
+            for (String path : changes.keySet()) {
+                if (path.startsWith(rootPrefix)) {
+                    changedPaths.add(path);
+                }
+            }
+            Set<String> walkedDirectories = new HashSet<String>();
+            for (String path : changedPaths) {
+                if (isInWalkedDirectory(path, root, walkedDirectories)) {
+                    continue;
+                }
+                FileSnapshot previousSnapshot = descendants.get(path);
+                boolean wasDirectory = previousSnapshot != null && previousSnapshot.getType() == FileType.Directory;
+                File file = new File(path);
+                FileMetadataSnapshot stat = fileSystem.stat(file);
+                switch (stat.getType()) {
+                    case Missing:
+                        descendants.remove(path);
+                        if (wasDirectory) {
+                            removeDescendants(descendants, path);
+                        }
+                        break;
+                    case RegularFile:
+                        if (wasDirectory) {
+                            removeDescendants(descendants, path);
+                        }
+                        descendants.put(path, regularFile(rootPrefix, file, stat));
+                        break;
+                    case Directory:
+                        if (!wasDirectory || changes.get(path)) {
+                            // The directory was not watched, so its contents need to be walked
+                            removeDescendants(descendants, path);
+                            descendants.put(path, directory(rootPrefix, file));
+                            walk(rootPrefix, file, descendants);
+                            walkedDirectories.add(path);
+                        }
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unrecognized file type: " + stat.getType());
+                }
+            }
+            return new DirectoryTreeDetails(root, ImmutableList.copyOf(descendants.values()));
+        }
+
+        private boolean isInWalkedDirectory(String path, String root, Set<String> walkedDirectories) {
+            for (File parent = new File(path).getParentFile(); parent != null && !parent.getPath().equals(root); parent = parent.getParentFile()) {
+                if (walkedDirectories.contains(parent.getPath())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void removeDescendants(Map<String, FileSnapshot> descendants, String directory) {
+            String prefix = directory + File.separatorChar;
+            for (Iterator<String> iterator = descendants.keySet().iterator(); iterator.hasNext();) {
+                if (iterator.next().startsWith(prefix)) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        private void walk(String rootPrefix, File directory, Map<String, FileSnapshot> descendants) {
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return;
+            }
+            for (File child : children) {
+                if (markers.contains(child.getPath())) {
+                    continue;
+                }
+                FileMetadataSnapshot stat = fileSystem.stat(child);
+                switch (stat.getType()) {
+                    case RegularFile:
+                        descendants.put(child.getPath(), regularFile(rootPrefix, child, stat));
+                        break;
+                    case Directory:
+                        descendants.put(child.getPath(), directory(rootPrefix, child));
+                        walk(rootPrefix, child, descendants);
+                        break;
+                    default:
+                        // Deleted while walking
+                        break;
+                }
+            }
+        }
+
+        private FileSnapshot regularFile(String rootPrefix, File file, FileMetadataSnapshot stat) {
+            String path = stringInterner.intern(file.getAbsolutePath());
+            RelativePath relativePath = RelativePath.parse(true, path.substring(rootPrefix.length()));
+            return new RegularFileSnapshot(path, relativePath, false, new FileHashSnapshot(hasher.hash(file, stat), stat.getLastModified()));
+        }
+
+        private FileSnapshot directory(String rootPrefix, File file) {
+            String path = stringInterner.intern(file.getAbsolutePath());
+            return new DirectoryFileSnapshot(path, RelativePath.parse(false, path.substring(rootPrefix.length())), false);
+        }
+
+        @Override
+        public void stop() {
+            if (!stopped) {
+                stopped = true;
+                closeQuietly(watchService);
+            }
+        }
+    }
+}
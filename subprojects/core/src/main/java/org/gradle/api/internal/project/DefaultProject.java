@@ -82,6 +82,7 @@ import org.gradle.internal.Actions;
 import org.gradle.internal.Factories;
 import org.gradle.internal.Factory;
 import org.gradle.internal.event.ListenerBroadcast;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.logging.LoggingManagerInternal;
 import org.gradle.internal.logging.StandardOutputCapture;
 import org.gradle.internal.metaobject.BeanDynamicObject;
@@ -386,6 +387,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DynamicObject getAsDynamicObject() {
+        beforeConfigurationAccess();
         return extensibleDynamicObject;
     }
 
@@ -416,7 +418,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         } else if (this == rootProject) {
             return "";
         }
-        group = rootProject.getName() + (getParent() == rootProject ? "" : "." + getParent().getPath().substring(1).replace(':', '.'));
+        group = rootProject.getName() + (parent == rootProject ? "" : "." + parent.getPath().substring(1).replace(':', '.'));
         return group;
     }
 
@@ -483,6 +485,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ArtifactHandler getArtifacts() {
+        beforeConfigurationAccess();
         if (artifactHandler == null) {
             artifactHandler = services.get(ArtifactHandler.class);
         }
@@ -502,6 +505,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public ConfigurationContainer getConfigurations() {
+        beforeConfigurationAccess();
         if (configurationContainer == null) {
             configurationContainer = services.get(ConfigurationContainer.class);
         }
@@ -514,6 +518,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Convention getConvention() {
+        beforeConfigurationAccess();
         return extensibleDynamicObject.getConvention();
     }
 
@@ -625,12 +630,12 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void subprojects(Action<? super Project> action) {
-        getProjectConfigurator().subprojects(getSubprojects(), action);
+        getProjectConfigurator().subprojects(beforeConfiguringProjects(getSubprojects()), action);
     }
 
     @Override
     public void allprojects(Action<? super Project> action) {
-        getProjectConfigurator().allprojects(getAllprojects(), action);
+        getProjectConfigurator().allprojects(beforeConfiguringProjects(getAllprojects()), action);
     }
 
     @Override
@@ -680,6 +685,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public TaskContainerInternal getTasks() {
+        beforeConfigurationAccess();
         return taskContainer;
     }
 
@@ -724,6 +730,9 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void evaluationDependsOnChildren() {
+        if (!childProjects.isEmpty()) {
+            getProjectEvaluationCoordinator().beforeAccessingOtherProjects();
+        }
         for (Project project : childProjects.values()) {
             DefaultProject defaultProjectToEvaluate = (DefaultProject) project;
             evaluationDependsOn(defaultProjectToEvaluate);
@@ -740,7 +749,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
-        if (projectToEvaluate.getState().getExecuting()) {
+        if (projectToEvaluate.getState().getExecuting() && !getProjectEvaluationCoordinator().awaitEvaluation(projectToEvaluate)) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                 projectToEvaluate));
         }
@@ -943,6 +952,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public DependencyHandler getDependencies() {
+        beforeConfigurationAccess();
         if (dependencyHandler == null) {
             dependencyHandler = services.get(DependencyHandler.class);
         }
@@ -960,21 +970,25 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void beforeEvaluate(Action<? super Project> action) {
+        beforeConfigurationAccess();
         evaluationListener.add("beforeEvaluate", action);
     }
 
     @Override
     public void afterEvaluate(Action<? super Project> action) {
+        beforeConfigurationAccess();
         evaluationListener.add("afterEvaluate", action);
     }
 
     @Override
     public void beforeEvaluate(Closure closure) {
+        beforeConfigurationAccess();
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", closure));
     }
 
     @Override
     public void afterEvaluate(Closure closure) {
+        beforeConfigurationAccess();
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure));
     }
 
@@ -1004,6 +1018,7 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public Object property(String propertyName) throws MissingPropertyException {
+        beforeConfigurationAccess();
         return extensibleDynamicObject.getProperty(propertyName);
     }
 
@@ -1014,11 +1029,13 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void setProperty(String name, Object value) {
+        beforeConfigurationAccess();
         extensibleDynamicObject.setProperty(name, value);
     }
 
     @Override
     public boolean hasProperty(String propertyName) {
+        beforeConfigurationAccess();
         return extensibleDynamicObject.hasProperty(propertyName);
     }
 
@@ -1116,22 +1133,22 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
 
     @Override
     public void subprojects(Closure configureClosure) {
-        getProjectConfigurator().subprojects(getSubprojects(), configureClosure);
+        getProjectConfigurator().subprojects(beforeConfiguringProjects(getSubprojects()), configureClosure);
     }
 
     @Override
     public void allprojects(Closure configureClosure) {
-        getProjectConfigurator().allprojects(getAllprojects(), configureClosure);
+        getProjectConfigurator().allprojects(beforeConfiguringProjects(getAllprojects()), configureClosure);
     }
 
     @Override
     public Project project(String path, Closure configureClosure) {
-        return getProjectConfigurator().project(project(path), configureClosure);
+        return getProjectConfigurator().project(beforeConfiguringProject(project(path)), configureClosure);
     }
 
     @Override
     public Project project(String path, Action<? super Project> configureAction) {
-        return getProjectConfigurator().project(project(path), configureAction);
+        return getProjectConfigurator().project(beforeConfiguringProject(project(path)), configureAction);
     }
 
     @Override
@@ -1323,6 +1340,39 @@ public class DefaultProject extends AbstractPluginAware implements ProjectIntern
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ProjectEvaluationCoordinator getProjectEvaluationCoordinator() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ListenerManager getListenerManager() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Reports access to the configuration of this project, so that the evaluation of another project that configures it does not run concurrently with
+     * other evaluations. Navigating the project hierarchy does not count as such an access.
+     */
+    private void beforeConfigurationAccess() {
+        getProjectEvaluationCoordinator().beforeAccessingProject(this);
+    }
+
+    private ProjectInternal beforeConfiguringProject(ProjectInternal project) {
+        getProjectEvaluationCoordinator().beforeAccessingProject(project);
+        if (project != this) {
+            getListenerManager().getBroadcaster(CrossProjectConfigurationListener.class).beforeConfiguringProject(this, project);
+        }
+        return project;
+    }
+
+    private Set<Project> beforeConfiguringProjects(Set<Project> projects) {
+        for (Project project : projects) {
+            beforeConfiguringProject((ProjectInternal) project);
+        }
+        return projects;
+    }
+
     @Override
     public void addDeferredConfiguration(Runnable configuration) {
         getDeferredProjectConfiguration().add(configuration);
@@ -19,6 +19,11 @@ package org.gradle.api.internal.project;
 import org.gradle.initialization.ProjectAccessListener;
 
 public class DefaultProjectAccessListener implements ProjectAccessListener {
+    private final ProjectEvaluationCoordinator projectEvaluationCoordinator;
+
+    public DefaultProjectAccessListener(ProjectEvaluationCoordinator projectEvaluationCoordinator) {
+        this.projectEvaluationCoordinator = projectEvaluationCoordinator;
+    }
 
     public void beforeRequestingTaskByPath(ProjectInternal targetProject) {
         evaluateProjectAndDiscoverTasks(targetProject);
@@ -28,7 +33,12 @@ public class DefaultProjectAccessListener implements ProjectAccessListener {
         evaluateProjectAndDiscoverTasks(targetProject);
     }
 
-    private synchronized void evaluateProjectAndDiscoverTasks(final ProjectInternal targetProject) {
+    private void evaluateProjectAndDiscoverTasks(ProjectInternal targetProject) {
+        projectEvaluationCoordinator.beforeAccessingProject(targetProject);
+        doEvaluateProjectAndDiscoverTasks(targetProject);
+    }
+
+    private synchronized void doEvaluateProjectAndDiscoverTasks(ProjectInternal targetProject) {
         targetProject.evaluate();
         targetProject.getTasks().discoverTasks();
     }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project;
+
+import org.gradle.internal.UncheckedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Coordinates projects that are evaluated concurrently.
+ *
+ * <p>Projects evaluated through {@link #evaluate(ProjectInternal, Runnable)} run concurrently with each other until one of them configures or reads the
+ * configuration of another project. From then on, evaluation is serial: the accessing project waits until all other running evaluations have finished or
+ * are themselves waiting, and then continues on its own. Every evaluation that starts later also runs on its own. Navigating the project hierarchy does
+ * not make evaluation serial.</p>
+ *
+ * <p>Projects evaluated outside of {@link #evaluate(ProjectInternal, Runnable)} are not affected.</p>
+ */
+public class ProjectEvaluationCoordinator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectEvaluationCoordinator.class);
+
+    private final Object lock = new Object();
+    private final ThreadLocal<Evaluation> currentEvaluation = new ThreadLocal<Evaluation>();
+    private final Map<ProjectInternal, Thread> evaluatingThreads = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> awaitedProjects = new HashMap<Thread, ProjectInternal>();
+    private int running;
+    private Thread exclusiveOwner;
+    private boolean serial;
+
+    /**
+     * Runs the evaluation of the given project, concurrently with other evaluations unless evaluation has become serial.
+     */
+    public void evaluate(ProjectInternal project, Runnable evaluation) {
+        Evaluation state = new Evaluation(project);
+        synchronized (lock) {
+            evaluatingThreads.put(project, Thread.currentThread());
+            if (serial) {
+                acquireExclusive(state);
+            } else {
+                running++;
+            }
+        }
+        currentEvaluation.set(state);
+        try {
+            evaluation.run();
+        } finally {
+            currentEvaluation.remove();
+            synchronized (lock) {
+                if (state.exclusive) {
+                    exclusiveOwner = null;
+                } else {
+                    running--;
+                }
+                evaluatingThreads.remove(project);
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Called before the current thread accesses the state of the given project.
+     */
+    public void beforeAccessingProject(ProjectInternal targetProject) {
+        Evaluation state = currentEvaluation.get();
+        if (state != null && state.project != targetProject) {
+            beforeAccessingOtherProjects();
+        }
+    }
+
+    /**
+     * Called before the current thread accesses the state of other projects. Blocks until the current evaluation can continue on its own.
+     */
+    public void beforeAccessingOtherProjects() {
+        Evaluation state = currentEvaluation.get();
+        if (state == null || state.exclusive) {
+            return;
+        }
+        synchronized (lock) {
+            if (!serial) {
+                LOGGER.info("{} accesses the state of other projects. Evaluating the remaining projects serially.", state.project);
+                serial = true;
+            }
+            running--;
+            acquireExclusive(state);
+        }
+    }
+
+    /**
+     * Waits for another thread to finish evaluating the given project.
+     *
+     * @return true when the project was being evaluated by another thread and its evaluation has finished, false when the project is not being evaluated
+     * by another thread or waiting for it would never finish.
+     */
+    public boolean awaitEvaluation(ProjectInternal project) {
+        Evaluation state = currentEvaluation.get();
+        if (state == null) {
+            return false;
+        }
+        beforeAccessingOtherProjects();
+        Thread current = Thread.currentThread();
+        synchronized (lock) {
+            Thread owner = evaluatingThreads.get(project);
+            if (owner == null || owner == current || isWaitingFor(owner, current)) {
+                return false;
+            }
+            awaitedProjects.put(current, project);
+            exclusiveOwner = null;
+            state.exclusive = false;
+            lock.notifyAll();
+            try {
+                while (evaluatingThreads.containsKey(project)) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } finally {
+                awaitedProjects.remove(current);
+            }
+            acquireExclusive(state);
+            return true;
+        }
+    }
+
+    boolean isSerial() {
+        synchronized (lock) {
+            return serial;
+        }
+    }
+
+    private boolean isWaitingFor(Thread waiting, Thread target) {
+        Thread thread = waiting;
+        while (thread != null) {
+            ProjectInternal awaited = awaitedProjects.get(thread);
+            if (awaited == null) {
+                return false;
+            }
+            thread = evaluatingThreads.get(awaited);
+            if (thread == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void acquireExclusive(Evaluation state) {
+        try {
+            while (running > 0 || exclusiveOwner != null) {
+                lock.wait();
+            }
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        exclusiveOwner = Thread.currentThread();
+        state.exclusive = true;
+    }
+
+    private static class Evaluation {
+        private final ProjectInternal project;
+        private boolean exclusive;
+
+        private Evaluation(ProjectInternal project) {
+            this.project = project;
+        }
+    }
+}
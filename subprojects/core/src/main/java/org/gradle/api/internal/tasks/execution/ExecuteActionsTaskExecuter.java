@@ -19,10 +19,13 @@ import com.google.common.collect.Lists;
 import org.gradle.api.GradleException;
 import org.gradle.api.execution.TaskActionListener;
 import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.OutputDirectoryWatcher;
 import org.gradle.api.internal.tasks.ContextAwareTaskAction;
+import org.gradle.api.internal.tasks.OutputType;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.TaskExecutionContext;
 import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.api.internal.tasks.TaskOutputFilePropertySpec;
 import org.gradle.api.internal.tasks.TaskStateInternal;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -41,7 +44,9 @@ import org.gradle.internal.operations.BuildOperationRef;
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId;
 import org.gradle.internal.work.AsyncWorkTracker;
 
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -54,18 +59,23 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
     private final BuildOperationExecutor buildOperationExecutor;
     private final AsyncWorkTracker asyncWorkTracker;
     private final BuildInvocationScopeId buildInvocationScopeId;
+    private final OutputDirectoryWatcher outputDirectoryWatcher;
 
-    public ExecuteActionsTaskExecuter(TaskOutputChangesListener outputsGenerationListener, TaskActionListener taskActionListener, BuildOperationExecutor buildOperationExecutor, AsyncWorkTracker asyncWorkTracker, BuildInvocationScopeId buildInvocationScopeId) {
+    public ExecuteActionsTaskExecuter(TaskOutputChangesListener outputsGenerationListener, TaskActionListener taskActionListener, BuildOperationExecutor buildOperationExecutor, AsyncWorkTracker asyncWorkTracker, BuildInvocationScopeId buildInvocationScopeId, OutputDirectoryWatcher outputDirectoryWatcher) {
         this.outputsGenerationListener = outputsGenerationListener;
         this.listener = taskActionListener;
         this.buildOperationExecutor = buildOperationExecutor;
         this.asyncWorkTracker = asyncWorkTracker;
         this.buildInvocationScopeId = buildInvocationScopeId;
+        this.outputDirectoryWatcher = outputDirectoryWatcher;
     }
 
     public void execute(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         listener.beforeActions(task);
+        OutputDirectoryWatcher.Session outputDirectoryWatch = OutputDirectoryWatcher.Session.NONE;
         if (task.hasTaskActions()) {
+            // Needs to start before the snapshots of the output directories are discarded
+            outputDirectoryWatch = outputDirectoryWatcher.startWatching(outputDirectories(context));
             outputsGenerationListener.beforeTaskOutputChanged();
         }
         state.setExecuting(true);
@@ -78,13 +88,30 @@ public class ExecuteActionsTaskExecuter implements TaskExecuter {
                     state.getDidWork() ? TaskExecutionOutcome.EXECUTED : TaskExecutionOutcome.UP_TO_DATE
                 );
             }
+            outputDirectoryWatch.updateSnapshots();
             context.getTaskArtifactState().snapshotAfterTaskExecution(failure, buildInvocationScopeId.getId(), context);
         } finally {
+            outputDirectoryWatch.stop();
             state.setExecuting(false);
             listener.afterActions(task);
         }
     }
 
+    private Iterable<File> outputDirectories(TaskExecutionContext context) {
+        if (outputDirectoryWatcher == OutputDirectoryWatcher.NONE) {
+            return Collections.emptyList();
+        }
+        List<File> outputDirectories = new ArrayList<File>();
+        for (TaskOutputFilePropertySpec outputProperty : context.getTaskProperties().getOutputFileProperties()) {
+            if (outputProperty.getOutputType() == OutputType.DIRECTORY) {
+                for (File outputDirectory : outputProperty.getPropertyFiles()) {
+                    outputDirectories.add(outputDirectory);
+                }
+            }
+        }
+        return outputDirectories;
+    }
+
     private GradleException executeActions(TaskInternal task, TaskStateInternal state, TaskExecutionContext context) {
         LOGGER.debug("Executing actions for {}.", task);
         final List<ContextAwareTaskAction> actions = new ArrayList<ContextAwareTaskAction>(task.getTaskActions());
@@ -19,9 +19,6 @@ package org.gradle.api.internal.tasks.properties;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
@@ -32,6 +29,7 @@ import com.google.common.collect.Sets;
 import groovy.lang.GroovyObject;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.Task;
+import org.gradle.api.Transformer;
 import org.gradle.api.internal.AbstractTask;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.DynamicObjectAware;
@@ -58,6 +56,9 @@ import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.PathSensitive;
 import org.gradle.api.tasks.SkipWhenEmpty;
 import org.gradle.api.tasks.options.OptionValues;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.internal.event.DefaultListenerManager;
 import org.gradle.internal.reflect.GroovyMethods;
 import org.gradle.internal.reflect.PropertyAccessorType;
 import org.gradle.internal.reflect.Types;
@@ -106,16 +107,20 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
     private final Map<Class<? extends Annotation>, PropertyAnnotationHandler> annotationHandlers;
     private final Multimap<Class<? extends Annotation>, Class<? extends Annotation>> annotationOverrides;
     private final Set<Class<? extends Annotation>> relevantAnnotationTypes;
-    private final LoadingCache<Class<?>, TypeMetadata> cache = CacheBuilder.newBuilder()
-        .weakKeys()
-        .build(new CacheLoader<Class<?>, TypeMetadata>() {
-            @Override
-            public TypeMetadata load(@Nonnull Class<?> type) {
-                return createTypeMetadata(type);
-            }
-        });
+    private final CrossBuildInMemoryCache<Class<?>, TypeMetadata> cache;
+    private final Transformer<TypeMetadata, Class<?>> typeMetadataFactory = new Transformer<TypeMetadata, Class<?>>() {
+        @Override
+        public TypeMetadata transform(Class<?> type) {
+            return createTypeMetadata(type);
+        }
+    };
 
     public DefaultPropertyMetadataStore(Iterable<? extends PropertyAnnotationHandler> customAnnotationHandlers) {
+        this(customAnnotationHandlers, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+    }
+
+    public DefaultPropertyMetadataStore(Iterable<? extends PropertyAnnotationHandler> customAnnotationHandlers, CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newClassCache();
         Iterable<PropertyAnnotationHandler> allAnnotationHandlers = Iterables.concat(HANDLERS, customAnnotationHandlers);
         Map<Class<? extends Annotation>, PropertyAnnotationHandler> annotationsHandlers = Maps.uniqueIndex(allAnnotationHandlers, new Function<PropertyAnnotationHandler, Class<? extends Annotation>>() {
             @Override
@@ -149,7 +154,7 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
 
     @Override
     public <T> TypeMetadata getTypeMetadata(Class<T> type) {
-        return cache.getUnchecked(type);
+        return cache.get(type, typeMetadataFactory);
     }
 
     private <T> TypeMetadata createTypeMetadata(Class<T> type) {
@@ -355,6 +360,7 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
         private final Set<Class<? extends Annotation>> propertyTypeAnnotations;
         private final String fieldName;
         private final Method method;
+        private volatile PropertyAccessor accessor;
         private Class<? extends Annotation> propertyType;
         private final List<Annotation> annotations = Lists.newArrayList();
         private final List<String> validationMessages = Lists.newArrayList();
@@ -437,6 +443,14 @@ public class DefaultPropertyMetadataStore implements PropertyMetadataStore {
         public Method getMethod() {
             return method;
         }
+
+        @Override
+        public PropertyAccessor getAccessor() {
+            if (accessor == null) {
+                accessor = PropertyAccessors.of(method);
+            }
+            return accessor;
+        }
     }
 
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.properties;
+
+import com.google.common.primitives.Primitives;
+import org.gradle.model.internal.asm.AsmClassGenerator;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates {@link PropertyAccessor}s for getters.
+ *
+ * <p>Where possible, the accessor is a generated class that calls the getter directly. The class is defined in the class loader and package of the type that
+ * declares the getter, so that package private and protected getters can be called as well. Getters that cannot be called this way are called through
+ * reflection.</p>
+ */
+public class PropertyAccessors {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PropertyAccessors.class);
+    private static final Type GENERATED_PROPERTY_ACCESSOR = Type.getType(GeneratedPropertyAccessor.class);
+    private static final String CONSTRUCTOR_NAME = "<init>";
+    private static final String RETURN_VOID = Type.getMethodDescriptor(Type.VOID_TYPE);
+    private static final String RETURN_OBJECT_FROM_OBJECT = Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Object.class));
+    private static final String[] EMPTY_STRINGS = new String[0];
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private PropertyAccessors() {
+    }
+
+    public static PropertyAccessor of(Method getter) {
+        if (canGenerateAccessorFor(getter)) {
+            try {
+                return generateAccessor(getter);
+            } catch (Throwable e) {
+                LOGGER.debug("Could not generate accessor for {}, using reflection instead.", getter, e);
+            }
+        }
+        return new ReflectivePropertyAccessor(getter);
+    }
+
+    private static boolean canGenerateAccessorFor(Method getter) {
+        int modifiers = getter.getModifiers();
+        if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) {
+            return false;
+        }
+        Class<?> declaringClass = getter.getDeclaringClass();
+        ClassLoader classLoader = declaringClass.getClassLoader();
+        if (classLoader == null || declaringClass.getName().startsWith("java.")) {
+            return false;
+        }
+        // The generated class must see the same base class as this class does
+        try {
+            return Class.forName(GeneratedPropertyAccessor.class.getName(), false, classLoader) == GeneratedPropertyAccessor.class;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static PropertyAccessor generateAccessor(Method getter) throws Exception {
+        Class<?> declaringClass = getter.getDeclaringClass();
+        AsmClassGenerator generator = new AsmClassGenerator(declaringClass, "$$PropertyAccessor$" + getter.getName() + "$" + COUNTER.incrementAndGet());
+        ClassWriter visitor = generator.getVisitor();
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC, generator.getGeneratedType().getInternalName(), null, GENERATED_PROPERTY_ACCESSOR.getInternalName(), EMPTY_STRINGS);
+
+        //
+        // Add constructor
+        //
+
+        MethodVisitor methodVisitor = visitor.visitMethod(Opcodes.ACC_PUBLIC, CONSTRUCTOR_NAME, RETURN_VOID, null, EMPTY_STRINGS);
+        methodVisitor.visitCode();
+        // Call this.super()
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 0);
+        methodVisitor.visitMethodInsn(Opcodes.INVOKESPECIAL, GENERATED_PROPERTY_ACCESSOR.getInternalName(), CONSTRUCTOR_NAME, RETURN_VOID, false);
+        methodVisitor.visitInsn(Opcodes.RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        //
+        // Add `doGetValue(Object)`
+        //
+
+        methodVisitor = visitor.visitMethod(Opcodes.ACC_PROTECTED, "doGetValue", RETURN_OBJECT_FROM_OBJECT, null, EMPTY_STRINGS);
+        methodVisitor.visitCode();
+        // return ((DeclaringType) bean).getter()
+        Type declaringType = Type.getType(declaringClass);
+        boolean isInterface = declaringClass.isInterface();
+        methodVisitor.visitVarInsn(Opcodes.ALOAD, 1);
+        methodVisitor.visitTypeInsn(Opcodes.CHECKCAST, declaringType.getInternalName());
+        methodVisitor.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, declaringType.getInternalName(), getter.getName(), Type.getMethodDescriptor(getter), isInterface);
+        Class<?> returnType = getter.getReturnType();
+        if (returnType.isPrimitive()) {
+            Class<?> boxedType = Primitives.wrap(returnType);
+            methodVisitor.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(boxedType), "valueOf", Type.getMethodDescriptor(Type.getType(boxedType), Type.getType(returnType)), false);
+        }
+        methodVisitor.visitInsn(Opcodes.ARETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+
+        visitor.visitEnd();
+        Class<PropertyAccessor> accessorClass = generator.define();
+        return accessorClass.newInstance();
+    }
+
+    /**
+     * The base class of generated accessors. Failures of the getter are reported in the same way as for reflective access.
+     */
+    public abstract static class GeneratedPropertyAccessor implements PropertyAccessor {
+        @Nullable
+        @Override
+        public Object getValue(Object bean) throws InvocationTargetException {
+            try {
+                return doGetValue(bean);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        @Nullable
+        protected abstract Object doGetValue(Object bean);
+    }
+
+    private static class ReflectivePropertyAccessor implements PropertyAccessor {
+        private final Method getter;
+
+        ReflectivePropertyAccessor(Method getter) {
+            this.getter = getter;
+            getter.setAccessible(true);
+        }
+
+        @Nullable
+        @Override
+        public Object getValue(Object bean) throws InvocationTargetException, IllegalAccessException {
+            return getter.invoke(bean);
+        }
+    }
+}
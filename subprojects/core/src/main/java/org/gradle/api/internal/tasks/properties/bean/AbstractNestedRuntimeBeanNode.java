@@ -18,12 +18,12 @@ package org.gradle.api.internal.tasks.properties.bean;
 
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
-import com.google.common.collect.ImmutableList;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.PropertySpecFactory;
 import org.gradle.api.internal.tasks.TaskValidationContext;
 import org.gradle.api.internal.tasks.ValidationAction;
 import org.gradle.api.internal.tasks.properties.BeanPropertyContext;
+import org.gradle.api.internal.tasks.properties.PropertyAccessor;
 import org.gradle.api.internal.tasks.properties.PropertyMetadata;
 import org.gradle.api.internal.tasks.properties.PropertyValue;
 import org.gradle.api.internal.tasks.properties.PropertyValueVisitor;
@@ -58,7 +58,7 @@ public abstract class AbstractNestedRuntimeBeanNode extends RuntimeBeanNode<Obje
                 continue;
             }
             String propertyName = getQualifiedPropertyName(propertyMetadata.getFieldName());
-            PropertyValue propertyValue = new DefaultPropertyValue(propertyName, propertyMetadata.getAnnotations(), getBean(), propertyMetadata.getMethod());
+            PropertyValue propertyValue = new DefaultPropertyValue(propertyName, propertyMetadata.getAnnotations(), getBean(), propertyMetadata.getMethod(), propertyMetadata.getAccessor());
             propertyValueVisitor.visitPropertyValue(propertyValue, visitor, specFactory, new BeanPropertyContext() {
                 @Override
                 public void addNested(String propertyName, Object bean) {
@@ -73,6 +73,7 @@ public abstract class AbstractNestedRuntimeBeanNode extends RuntimeBeanNode<Obje
         private final List<Annotation> annotations;
         private final Object bean;
         private final Method method;
+        private final PropertyAccessor accessor;
         private final Supplier<Object> valueSupplier = Suppliers.memoize(new Supplier<Object>() {
             @Override
             @Nullable
@@ -80,7 +81,7 @@ public abstract class AbstractNestedRuntimeBeanNode extends RuntimeBeanNode<Obje
                 Object value = DeprecationLogger.whileDisabled(new Factory<Object>() {
                     public Object create() {
                         try {
-                            return method.invoke(bean);
+                            return accessor.getValue(bean);
                         } catch (InvocationTargetException e) {
                             throw UncheckedException.throwAsUncheckedException(e.getCause());
                         } catch (Exception e) {
@@ -98,12 +99,12 @@ public abstract class AbstractNestedRuntimeBeanNode extends RuntimeBeanNode<Obje
             }
         });
 
-        public DefaultPropertyValue(String propertyName, List<Annotation> annotations, Object bean, Method method) {
+        public DefaultPropertyValue(String propertyName, List<Annotation> annotations, Object bean, Method method, PropertyAccessor accessor) {
             this.propertyName = propertyName;
-            this.annotations = ImmutableList.copyOf(annotations);
+            this.annotations = annotations;
             this.bean = bean;
             this.method = method;
-            method.setAccessible(true);
+            this.accessor = accessor;
         }
 
         @Override
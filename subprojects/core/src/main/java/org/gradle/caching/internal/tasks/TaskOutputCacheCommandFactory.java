@@ -28,6 +28,7 @@ import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.TaskInternal;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.TaskArtifactState;
+import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.CollectingFileCollectionSnapshotBuilder;
 import org.gradle.api.internal.changedetection.state.DirectoryTreeDetails;
 import org.gradle.api.internal.changedetection.state.EmptyFileCollectionSnapshot;
@@ -73,12 +74,14 @@ public class TaskOutputCacheCommandFactory {
     private final TaskOutputPacker packer;
     private final TaskOutputOriginFactory taskOutputOriginFactory;
     private final FileSystemMirror fileSystemMirror;
+    private final CachingFileHasher fileHasher;
     private final StringInterner stringInterner;
 
-    public TaskOutputCacheCommandFactory(TaskOutputPacker packer, TaskOutputOriginFactory taskOutputOriginFactory, FileSystemMirror fileSystemMirror, StringInterner stringInterner) {
+    public TaskOutputCacheCommandFactory(TaskOutputPacker packer, TaskOutputOriginFactory taskOutputOriginFactory, FileSystemMirror fileSystemMirror, CachingFileHasher fileHasher, StringInterner stringInterner) {
         this.packer = packer;
         this.taskOutputOriginFactory = taskOutputOriginFactory;
         this.fileSystemMirror = fileSystemMirror;
+        this.fileHasher = fileHasher;
         this.stringInterner = stringInterner;
     }
 
@@ -162,6 +165,10 @@ public class TaskOutputCacheCommandFactory {
                 CollectingFileCollectionSnapshotBuilder builder = new CollectingFileCollectionSnapshotBuilder(UNORDERED, OutputPathNormalizationStrategy.getInstance(), stringInterner);
                 for (FileSnapshot fileSnapshot : fileSnapshots) {
                     builder.collectFileSnapshot(fileSnapshot);
+                    if (fileSnapshot.getType() == FileType.RegularFile) {
+                        // The files were hashed while unpacking, so the next build does not need to read them again to check whether they are up-to-date
+                        fileHasher.recordHash(new File(fileSnapshot.getPath()), fileSnapshot.getContent().getContentMd5());
+                    }
                 }
                 propertySnapshotsBuilder.put(propertyName, builder.build());
 
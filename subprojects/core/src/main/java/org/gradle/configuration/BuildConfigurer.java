@@ -19,4 +19,9 @@ import org.gradle.api.internal.GradleInternal;
 
 public interface BuildConfigurer {
     void configure(GradleInternal gradleInternal);
+
+    /**
+     * Returns true when {@link #configure(GradleInternal)} left some projects of the given build to be configured on demand, as tasks are selected.
+     */
+    boolean isConfiguringOnDemand(GradleInternal gradleInternal);
 }
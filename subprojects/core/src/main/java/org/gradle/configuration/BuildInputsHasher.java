@@ -0,0 +1,105 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.StartParameter;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Hashes the inputs of a build that can change the way its projects are configured. Files are hashed by their path, length and modification time.
+ */
+public class BuildInputsHasher {
+    private BuildInputsHasher() {
+    }
+
+    /**
+     * Hashes the inputs shared by all projects of the given build: the Gradle version and Java home, the current directory, the project and system
+     * properties of the invocation, its environment and offline flag, the {@code gradle.properties} files and the contents of {@code buildSrc}.
+     */
+    public static void putBuildEnvironment(Hasher hasher, GradleInternal gradle) {
+        StartParameter startParameter = gradle.getStartParameter();
+        ProjectInternal rootProject = gradle.getRootProject();
+        hasher.putString(GradleVersion.current().getVersion());
+        hasher.putString(System.getProperty("java.home"));
+        hasher.putString(startParameter.getCurrentDir().getAbsolutePath());
+        putMap(hasher, startParameter.getProjectProperties());
+        putMap(hasher, startParameter.getSystemPropertiesArgs());
+        putMap(hasher, System.getenv());
+        hasher.putBoolean(startParameter.isOffline());
+        putFile(hasher, new File(startParameter.getGradleUserHomeDir(), "gradle.properties"));
+        putFile(hasher, new File(rootProject.getProjectDir(), "gradle.properties"));
+        putTree(hasher, new File(rootProject.getProjectDir(), "buildSrc"));
+    }
+
+    public static void putStrings(Hasher hasher, Collection<String> values) {
+        hasher.putInt(values.size());
+        for (String value : values) {
+            hasher.putString(value);
+        }
+    }
+
+    public static void putMap(Hasher hasher, Map<String, String> values) {
+        SortedMap<String, String> sorted = new TreeMap<String, String>(values);
+        hasher.putInt(sorted.size());
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            hasher.putString(entry.getKey());
+            hasher.putString(String.valueOf(entry.getValue()));
+        }
+    }
+
+    public static void putFile(Hasher hasher, File file) {
+        hasher.putString(file.getAbsolutePath());
+        boolean exists = file.isFile();
+        hasher.putBoolean(exists);
+        if (exists) {
+            hasher.putLong(file.length());
+            hasher.putLong(file.lastModified());
+        }
+    }
+
+    /**
+     * Hashes the files of the given directory, skipping {@code build} and {@code .gradle} directories.
+     */
+    public static void putTree(Hasher hasher, File dir) {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+        SortedMap<String, File> sorted = new TreeMap<String, File>();
+        for (File child : children) {
+            sorted.put(child.getName(), child);
+        }
+        for (File child : sorted.values()) {
+            if (child.isDirectory()) {
+                if (!child.getName().equals("build") && !child.getName().equals(".gradle")) {
+                    putTree(hasher, child);
+                }
+            } else {
+                putFile(hasher, child);
+            }
+        }
+    }
+}
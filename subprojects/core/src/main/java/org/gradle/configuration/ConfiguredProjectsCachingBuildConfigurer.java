@@ -0,0 +1,292 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration;
+
+import org.gradle.StartParameter;
+import org.gradle.TaskExecutionRequest;
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.project.CrossProjectConfigurationListener;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.execution.ProjectConfigurer;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.resource.ResourceLocation;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Skips the configuration of projects that an unchanged build does not need. Only the set of projects to configure is cached: the projects that are
+ * configured are evaluated as usual, and the task graph is calculated again.
+ *
+ * <p>After the task graph of a build has been calculated, the projects that own a task of the graph, together with their parent projects, are recorded
+ * in the project cache directory. The record is keyed by the scripts evaluated by the build, the build files of all projects, the {@code gradle.properties}
+ * files, the contents of {@code buildSrc}, the requested and excluded tasks, the project and system properties of the invocation and its environment.
+ * When the next build has the same key, only the recorded projects are configured. Other projects are configured on demand, in the same way as when
+ * configuration on demand is enabled, and the build is notified that its projects have been evaluated only once the tasks have been selected.</p>
+ *
+ * <p>The cache only applies to the root build, and is not used when configuration on demand is enabled. It is also not used when a requested or excluded
+ * task is selected by name rather than by path, or when the default tasks are requested, as selecting these tasks configures all projects. Nothing is
+ * cached when a project other than the root project configures another project through {@code allprojects {}}, {@code subprojects {}} or
+ * {@code project(path) {}}, as the configuring project might not be configured when the cache is reused. The root project is always configured.</p>
+ */
+public class ConfiguredProjectsCachingBuildConfigurer implements BuildConfigurer, ScriptExecutionListener, CrossProjectConfigurationListener {
+    /**
+     * Enables caching of the configured projects when set to true.
+     */
+    public static final String CONFIGURED_PROJECTS_CACHE_PROPERTY = "org.gradle.configuration.cache-configured-projects";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfiguredProjectsCachingBuildConfigurer.class);
+    private static final int FORMAT_VERSION = 1;
+
+    private final BuildConfigurer delegate;
+    private final ProjectConfigurer projectConfigurer;
+    private final File cacheDir;
+    private final Set<File> scriptFiles = Collections.synchronizedSet(new LinkedHashSet<File>());
+    private volatile boolean remoteScriptsUsed;
+    private volatile boolean crossProjectConfigurationUsed;
+    private boolean reusedConfiguration;
+
+    public ConfiguredProjectsCachingBuildConfigurer(BuildConfigurer delegate, ProjectConfigurer projectConfigurer, File cacheDir, ListenerManager listenerManager) {
+        this.delegate = delegate;
+        this.projectConfigurer = projectConfigurer;
+        this.cacheDir = cacheDir;
+        listenerManager.addListener(this);
+    }
+
+    @Override
+    public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+        ResourceLocation location = source.getResource().getLocation();
+        if (location.getFile() != null) {
+            scriptFiles.add(location.getFile());
+        } else if (location.getURI() != null) {
+            remoteScriptsUsed = true;
+        }
+    }
+
+    @Override
+    public void beforeConfiguringProject(ProjectInternal configuringProject, ProjectInternal configuredProject) {
+        if (configuringProject.getParent() != null) {
+            crossProjectConfigurationUsed = true;
+        }
+    }
+
+    @Override
+    public void configure(final GradleInternal gradle) {
+        reusedConfiguration = false;
+        if (gradle.getParent() != null || gradle.getStartParameter().isConfigureOnDemand() || !selectsTasksByPath(gradle.getStartParameter())) {
+            delegate.configure(gradle);
+            return;
+        }
+
+        final File cacheFile = new File(cacheDir, "projects.bin");
+        Set<String> projectPaths = load(gradle, cacheFile);
+        if (projectPaths != null) {
+            LOGGER.info("Reusing the cached set of configured projects. Configuring {} projects, other projects are configured on demand.", projectPaths.size());
+            for (Project project : gradle.getRootProject().getAllprojects()) {
+                if (projectPaths.contains(project.getPath())) {
+                    projectConfigurer.configure((ProjectInternal) project);
+                }
+            }
+            reusedConfiguration = true;
+            return;
+        }
+
+        delegate.configure(gradle);
+        gradle.getTaskGraph().whenReady(new Action<TaskExecutionGraph>() {
+            @Override
+            public void execute(TaskExecutionGraph taskGraph) {
+                store(gradle, cacheFile, usedProjects(gradle, taskGraph.getAllTasks()));
+            }
+        });
+    }
+
+    @Override
+    public boolean isConfiguringOnDemand(GradleInternal gradle) {
+        // The projects that were not recorded are configured as the tasks are selected
+        return (gradle.getParent() == null && reusedConfiguration) || delegate.isConfiguringOnDemand(gradle);
+    }
+
+    /**
+     * Returns true when all requested and excluded tasks are selected by path. Selecting a task by name configures all projects.
+     */
+    private static boolean selectsTasksByPath(StartParameter startParameter) {
+        boolean tasksRequested = false;
+        for (TaskExecutionRequest taskRequest : startParameter.getTaskRequests()) {
+            for (String arg : taskRequest.getArgs()) {
+                // Task options are not task selectors
+                if (arg.startsWith("-")) {
+                    continue;
+                }
+                if (!arg.contains(Project.PATH_SEPARATOR)) {
+                    return false;
+                }
+                tasksRequested = true;
+            }
+        }
+        for (String excludedTaskName : startParameter.getExcludedTaskNames()) {
+            if (!excludedTaskName.contains(Project.PATH_SEPARATOR)) {
+                return false;
+            }
+        }
+        // The default tasks may be selected by name
+        return tasksRequested;
+    }
+
+    private static Set<String> usedProjects(GradleInternal gradle, Collection<Task> tasks) {
+        Set<String> projectPaths = new TreeSet<String>();
+        for (Task task : tasks) {
+            ProjectInternal project = (ProjectInternal) task.getProject();
+            if (project.getGradle() != gradle) {
+                continue;
+            }
+            while (project != null && projectPaths.add(project.getPath())) {
+                project = project.getParent();
+            }
+        }
+        projectPaths.add(gradle.getRootProject().getPath());
+        return projectPaths;
+    }
+
+    @Nullable
+    private Set<String> load(GradleInternal gradle, File cacheFile) {
+        if (!cacheFile.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(cacheFile));
+            try {
+                if (decoder.readSmallInt() != FORMAT_VERSION) {
+                    return null;
+                }
+                String fingerprint = decoder.readString();
+                List<File> recordedScripts = readFiles(decoder);
+                if (!fingerprint(gradle, recordedScripts).toString().equals(fingerprint)) {
+                    LOGGER.info("Not reusing the cached set of configured projects, as the inputs of the build have changed.");
+                    return null;
+                }
+                Set<String> projectPaths = new LinkedHashSet<String>();
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    projectPaths.add(decoder.readString());
+                }
+                return projectPaths;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not read the cached set of configured projects from {}.", cacheFile, e);
+            return null;
+        }
+    }
+
+    private void store(GradleInternal gradle, File cacheFile, Set<String> projectPaths) {
+        if (remoteScriptsUsed) {
+            LOGGER.info("Not caching the set of configured projects, as the build applies scripts that are not local files.");
+            return;
+        }
+        if (crossProjectConfigurationUsed) {
+            LOGGER.info("Not caching the set of configured projects, as a project other than the root project configures other projects.");
+            return;
+        }
+        List<File> recordedScripts;
+        synchronized (scriptFiles) {
+            recordedScripts = new ArrayList<File>(scriptFiles);
+        }
+        try {
+            GFileUtils.mkdirs(cacheDir);
+            File tempFile = new File(cacheDir, cacheFile.getName() + ".tmp");
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+            try {
+                encoder.writeSmallInt(FORMAT_VERSION);
+                encoder.writeString(fingerprint(gradle, recordedScripts).toString());
+                writeFiles(encoder, recordedScripts);
+                encoder.writeSmallInt(projectPaths.size());
+                for (String projectPath : projectPaths) {
+                    encoder.writeString(projectPath);
+                }
+            } finally {
+                encoder.close();
+            }
+            GFileUtils.deleteQuietly(cacheFile);
+            if (!tempFile.renameTo(cacheFile)) {
+                GFileUtils.deleteQuietly(tempFile);
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not write the set of configured projects to {}.", cacheFile, e);
+        }
+    }
+
+    private static List<File> readFiles(Decoder decoder) throws IOException {
+        int count = decoder.readSmallInt();
+        List<File> files = new ArrayList<File>(count);
+        for (int i = 0; i < count; i++) {
+            files.add(new File(decoder.readString()));
+        }
+        return files;
+    }
+
+    private static void writeFiles(Encoder encoder, List<File> files) throws IOException {
+        encoder.writeSmallInt(files.size());
+        for (File file : files) {
+            encoder.writeString(file.getAbsolutePath());
+        }
+    }
+
+    private static HashCode fingerprint(GradleInternal gradle, List<File> scripts) {
+        StartParameter startParameter = gradle.getStartParameter();
+        Hasher hasher = Hashing.md5().newHasher();
+        BuildInputsHasher.putBuildEnvironment(hasher, gradle);
+        BuildInputsHasher.putStrings(hasher, startParameter.getTaskNames());
+        BuildInputsHasher.putStrings(hasher, startParameter.getExcludedTaskNames());
+        hasher.putBoolean(startParameter.isRefreshDependencies());
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            hasher.putString(project.getPath());
+            BuildInputsHasher.putFile(hasher, project.getBuildFile());
+        }
+        for (File script : scripts) {
+            BuildInputsHasher.putFile(hasher, script);
+        }
+        return hasher.hash();
+    }
+}
@@ -39,6 +39,11 @@ public class DefaultBuildConfigurer implements BuildConfigurer {
         }
     }
 
+    @Override
+    public boolean isConfiguringOnDemand(GradleInternal gradle) {
+        return gradle.getStartParameter().isConfigureOnDemand();
+    }
+
     private void maybeInformAboutIncubatingMode(GradleInternal gradle) {
         StartParameter startParameter = gradle.getStartParameter();
 
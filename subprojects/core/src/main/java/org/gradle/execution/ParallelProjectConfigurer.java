@@ -0,0 +1,141 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectEvaluationCoordinator;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Configures the projects of a hierarchy concurrently.
+ *
+ * <p>The given project is configured first, on its own. Its sub-projects are then configured level by level, so that a project is always configured
+ * after its parent. The projects of a level are configured concurrently on the build operation thread pool, each while holding its project lock.
+ * The {@link ProjectEvaluationCoordinator} makes evaluation serial once a project accesses the state of another project.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    /**
+     * Enables parallel configuration when set to true. Only takes effect when parallel project execution is enabled, as otherwise all projects
+     * share a single project lock.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.configuration.parallel";
+
+    private final ProjectConfigurer delegate;
+    private final ProjectEvaluationCoordinator coordinator;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final WorkerLeaseService workerLeaseService;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, ProjectEvaluationCoordinator coordinator, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService) {
+        this.delegate = delegate;
+        this.coordinator = coordinator;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.workerLeaseService = workerLeaseService;
+    }
+
+    @Override
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    @Override
+    public void configureFully(ProjectInternal project) {
+        delegate.configureFully(project);
+    }
+
+    @Override
+    public void configureHierarchy(ProjectInternal project) {
+        delegate.configure(project);
+        for (final List<ProjectInternal> level : subprojectsByDepth(project).values()) {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<ConfigureProject>>() {
+                @Override
+                public void execute(BuildOperationQueue<ConfigureProject> queue) {
+                    for (ProjectInternal subproject : level) {
+                        queue.add(new ConfigureProject(subproject));
+                    }
+                }
+            });
+        }
+    }
+
+    @Override
+    public void configureHierarchyFully(ProjectInternal project) {
+        delegate.configureHierarchyFully(project);
+    }
+
+    private static SortedMap<Integer, List<ProjectInternal>> subprojectsByDepth(ProjectInternal project) {
+        SortedMap<Integer, List<ProjectInternal>> levels = new TreeMap<Integer, List<ProjectInternal>>();
+        for (Project subproject : project.getSubprojects()) {
+            List<ProjectInternal> level = levels.get(subproject.getDepth());
+            if (level == null) {
+                level = new ArrayList<ProjectInternal>();
+                levels.put(subproject.getDepth(), level);
+            }
+            level.add((ProjectInternal) subproject);
+        }
+        return levels;
+    }
+
+    private ResourceLock getProjectLock(ProjectInternal project) {
+        String gradlePath = project.getGradle().getIdentityPath().toString();
+        String projectPath = project.getIdentityPath().toString();
+        return workerLeaseService.getProjectLock(gradlePath, projectPath);
+    }
+
+    private class ConfigureProject implements RunnableBuildOperation {
+        private final ProjectInternal project;
+
+        ConfigureProject(ProjectInternal project) {
+            this.project = project;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            // Acquire the project lock before the evaluation is counted as running, so that a serial evaluation never waits for one that is itself
+            // blocked on a project lock
+            workerLeaseService.withLocks(Collections.singleton(getProjectLock(project)), new Runnable() {
+                @Override
+                public void run() {
+                    coordinator.evaluate(project, new Runnable() {
+                        @Override
+                        public void run() {
+                            delegate.configure(project);
+                        }
+                    });
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Configure " + project.getDisplayName() + " in parallel");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.caching.internal.controller.BuildCacheController;
+
+/**
+ * A {@link TaskPlanExecutor} that stores build cache entries in the background while the tasks execute, and waits for them once all tasks have executed.
+ * When the execution fails, the entries that have not started storing yet are discarded instead.
+ */
+public class CompleteBuildCacheStoresTaskPlanExecutor implements TaskPlanExecutor {
+    private final TaskPlanExecutor delegate;
+    private final BuildCacheController buildCache;
+
+    public CompleteBuildCacheStoresTaskPlanExecutor(TaskPlanExecutor delegate, BuildCacheController buildCache) {
+        this.delegate = delegate;
+        this.buildCache = buildCache;
+    }
+
+    @Override
+    public void process(TaskExecutionPlan taskExecutionPlan, Action<? super TaskInternal> taskWorker) {
+        boolean failed = true;
+        buildCache.startStores();
+        try {
+            delegate.process(taskExecutionPlan, taskWorker);
+            failed = false;
+        } finally {
+            buildCache.completeStores(failed);
+        }
+    }
+}
@@ -547,6 +547,23 @@ public class DefaultTaskExecutionPlan implements TaskExecutionPlan {
         return filteredTasks;
     }
 
+    @Override
+    public List<TaskInternal> getReadyTasks() {
+        final List<TaskInternal> readyTasks = new ArrayList<TaskInternal>();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                for (TaskInfo taskInfo : executionQueue) {
+                    if (taskInfo.isReady() && allDependenciesComplete(taskInfo) && taskInfo.allDependenciesSuccessful()) {
+                        readyTasks.add(taskInfo.getTask());
+                    }
+                }
+                return FINISHED;
+            }
+        });
+        return readyTasks;
+    }
+
     public void useFilter(Spec<? super Task> filter) {
         this.filter = filter;
     }
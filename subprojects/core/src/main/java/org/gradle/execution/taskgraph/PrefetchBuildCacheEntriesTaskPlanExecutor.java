@@ -0,0 +1,235 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.TaskArtifactState;
+import org.gradle.api.internal.changedetection.TaskArtifactStateRepository;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.tasks.execution.DefaultTaskProperties;
+import org.gradle.api.internal.tasks.execution.TaskProperties;
+import org.gradle.api.internal.tasks.properties.PropertyWalker;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.caching.BuildCacheKey;
+import org.gradle.caching.internal.controller.BuildCacheController;
+import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
+import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
+import org.gradle.internal.work.WorkerLeaseService;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.tryLock;
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock;
+
+/**
+ * A {@link TaskPlanExecutor} that starts loading the build cache entries of tasks that are ready to run on a separate thread, while other tasks are executing.
+ *
+ * <p>The cache key of a task can only be calculated while holding the lock of its project, along with a worker lease, as calculating it may resolve
+ * dependencies. The prefetcher only takes these when they are free, one task at a time, and never waits for them. A ready task whose project is busy is
+ * looked at again the next time a task starts or finishes. Only tasks that have never been executed locally are considered, as the other tasks are usually
+ * up-to-date. The keys of all the ready tasks are prefetched together, so that the remote cache can be asked for them at once.</p>
+ */
+public class PrefetchBuildCacheEntriesTaskPlanExecutor implements TaskPlanExecutor {
+    private static final Logger LOGGER = Logging.getLogger(PrefetchBuildCacheEntriesTaskPlanExecutor.class);
+
+    private final TaskPlanExecutor delegate;
+    private final ExecutorFactory executorFactory;
+    private final ResourceLockCoordinationService coordinationService;
+    private final WorkerLeaseService workerLeaseService;
+    private final BuildCacheController buildCache;
+    private final TaskArtifactStateRepository repository;
+    private final PathToFileResolver resolver;
+    private final PropertyWalker propertyWalker;
+
+    public PrefetchBuildCacheEntriesTaskPlanExecutor(TaskPlanExecutor delegate, ExecutorFactory executorFactory, ResourceLockCoordinationService coordinationService, WorkerLeaseService workerLeaseService, BuildCacheController buildCache, TaskArtifactStateRepository repository, PathToFileResolver resolver, PropertyWalker propertyWalker) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+        this.coordinationService = coordinationService;
+        this.workerLeaseService = workerLeaseService;
+        this.buildCache = buildCache;
+        this.repository = repository;
+        this.resolver = resolver;
+        this.propertyWalker = propertyWalker;
+    }
+
+    @Override
+    public void process(TaskExecutionPlan taskExecutionPlan, final Action<? super TaskInternal> taskWorker) {
+        final CacheKeyPrefetcher prefetcher = new CacheKeyPrefetcher(taskExecutionPlan);
+        ManagedExecutor executor = executorFactory.create("Build cache entry prefetcher for '" + taskExecutionPlan.getDisplayName() + "'");
+        try {
+            executor.execute(prefetcher);
+            delegate.process(taskExecutionPlan, new Action<TaskInternal>() {
+                @Override
+                public void execute(TaskInternal task) {
+                    prefetcher.started(task);
+                    try {
+                        taskWorker.execute(task);
+                    } finally {
+                        // The project of the task is about to be released
+                        prefetcher.readyTasksChanged();
+                    }
+                }
+            });
+        } finally {
+            prefetcher.stop();
+            executor.stop();
+            // The entries that have not been loaded by now are not needed by this build
+            buildCache.discardPrefetches();
+        }
+    }
+
+    private class CacheKeyPrefetcher implements Runnable {
+        private final TaskExecutionPlan taskExecutionPlan;
+        private final Set<TaskInternal> visited = Collections.synchronizedSet(new HashSet<TaskInternal>());
+        private final Object lock = new Object();
+        private boolean stopped;
+        private boolean readyTasksChanged = true;
+
+        CacheKeyPrefetcher(TaskExecutionPlan taskExecutionPlan) {
+            this.taskExecutionPlan = taskExecutionPlan;
+        }
+
+        @Override
+        public void run() {
+            // The lease belongs to the thread that creates it, so it is only ever locked and unlocked on this thread
+            WorkerLease workerLease = workerLeaseService.getWorkerLease();
+            while (waitForReadyTasksChanged()) {
+                List<BuildCacheKey> batch = new ArrayList<BuildCacheKey>();
+                for (TaskInternal task : taskExecutionPlan.getReadyTasks()) {
+                    if (isStopped()) {
+                        return;
+                    }
+                    if (!visited.contains(task)) {
+                        TaskOutputCachingBuildCacheKey cacheKey = calculateCacheKey(task, workerLease);
+                        if (cacheKey != null) {
+                            batch.add(cacheKey);
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    buildCache.prefetch(batch);
+                }
+            }
+        }
+
+        /**
+         * Returns the cache key of the given task when its entry is worth prefetching, or {@code null} otherwise, including when the locks needed to
+         * calculate it are not free.
+         */
+        @Nullable
+        private TaskOutputCachingBuildCacheKey calculateCacheKey(TaskInternal task, WorkerLease workerLease) {
+            ResourceLock projectLock = getProjectLock(task);
+            if (!coordinationService.withStateLock(tryLock(projectLock, workerLease))) {
+                // Looked at again once the locks may have been released
+                return null;
+            }
+            try {
+                // The task may have started while the locks were being acquired, in which case it loads its own entry
+                return visited.add(task) ? calculateCacheKey(task) : null;
+            } finally {
+                coordinationService.withStateLock(unlock(projectLock, workerLease));
+            }
+        }
+
+        private ResourceLock getProjectLock(TaskInternal task) {
+            Project project = task.getProject();
+            String gradlePath = ((GradleInternal) project.getGradle()).getIdentityPath().toString();
+            String projectPath = ((ProjectInternal) project).getIdentityPath().toString();
+            return workerLeaseService.getProjectLock(gradlePath, projectPath);
+        }
+
+        @Nullable
+        private TaskOutputCachingBuildCacheKey calculateCacheKey(TaskInternal task) {
+            try {
+                TaskProperties taskProperties = DefaultTaskProperties.resolve(propertyWalker, resolver, task);
+                if (!taskProperties.hasDeclaredOutputs() || !task.getOutputs().getCachingState(taskProperties).isEnabled()) {
+                    return null;
+                }
+                TaskArtifactState taskArtifactState = repository.getStateFor(task, taskProperties);
+                if (!taskArtifactState.isAllowedToUseCachedResults() || taskArtifactState.getExecutionHistory().getOriginExecutionMetadata() != null) {
+                    return null;
+                }
+                TaskOutputCachingBuildCacheKey cacheKey = taskArtifactState.calculateCacheKey();
+                if (cacheKey.isValid()) {
+                    LOGGER.debug("Prefetching build cache entry {} for {}", cacheKey.getHashCode(), task);
+                    return cacheKey;
+                }
+            } catch (Exception e) {
+                // The task calculates its cache key again when it is executed, and reports any failure then
+                LOGGER.debug("Could not calculate the build cache key of {} ahead of its execution.", task, e);
+            }
+            return null;
+        }
+
+        /**
+         * Blocks until the ready tasks may have changed since they were last looked up. Returns false when prefetching has been stopped.
+         */
+        private boolean waitForReadyTasksChanged() {
+            synchronized (lock) {
+                while (!stopped && !readyTasksChanged) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        stopped = true;
+                    }
+                }
+                readyTasksChanged = false;
+                return !stopped;
+            }
+        }
+
+        void started(TaskInternal task) {
+            // The executing task loads its own entry
+            visited.add(task);
+            readyTasksChanged();
+        }
+
+        void readyTasksChanged() {
+            synchronized (lock) {
+                readyTasksChanged = true;
+                lock.notifyAll();
+            }
+        }
+
+        private boolean isStopped() {
+            synchronized (lock) {
+                return stopped;
+            }
+        }
+
+        void stop() {
+            synchronized (lock) {
+                stopped = true;
+                lock.notifyAll();
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
+import org.gradle.api.internal.changedetection.state.HistoricalTaskExecution;
+import org.gradle.api.internal.changedetection.state.TaskHistoryRepository;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.hash.FileHasher;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A {@link TaskPlanExecutor} that hashes the input files of tasks that are ready to run on a separate thread, while other tasks are executing.
+ *
+ * <p>The input files are taken from the previous execution of each task, so the task itself is not touched. The hashes end up in the file hash cache
+ * that is later used to snapshot the inputs of the task. That cache checks the length and timestamp of each file, so a file that has changed since it
+ * was hashed here is hashed again.</p>
+ *
+ * <p>The ready tasks are only looked up again when a task starts, as the set of ready tasks changes when a task completes, and the worker that completed
+ * it usually starts another task right after. Querying the plan takes its state lock, so it is not polled.</p>
+ */
+public class PrefetchingTaskPlanExecutor implements TaskPlanExecutor {
+    public static final String PREFETCH_INPUTS_PROPERTY = "org.gradle.tasks.prefetch-inputs";
+
+    private static final Logger LOGGER = Logging.getLogger(PrefetchingTaskPlanExecutor.class);
+
+    private final TaskPlanExecutor delegate;
+    private final ExecutorFactory executorFactory;
+    private final TaskHistoryRepository taskHistoryRepository;
+    private final FileHasher fileHasher;
+
+    public PrefetchingTaskPlanExecutor(TaskPlanExecutor delegate, ExecutorFactory executorFactory, TaskHistoryRepository taskHistoryRepository, FileHasher fileHasher) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+        this.taskHistoryRepository = taskHistoryRepository;
+        this.fileHasher = fileHasher;
+    }
+
+    @Override
+    public void process(TaskExecutionPlan taskExecutionPlan, final Action<? super TaskInternal> taskWorker) {
+        final InputPrefetcher prefetcher = new InputPrefetcher(taskExecutionPlan);
+        ManagedExecutor executor = executorFactory.create("Task input prefetcher for '" + taskExecutionPlan.getDisplayName() + "'");
+        try {
+            executor.execute(prefetcher);
+            delegate.process(taskExecutionPlan, new Action<TaskInternal>() {
+                @Override
+                public void execute(TaskInternal task) {
+                    prefetcher.taskStarted();
+                    taskWorker.execute(task);
+                }
+            });
+        } finally {
+            prefetcher.stop();
+            executor.stop();
+        }
+    }
+
+    private class InputPrefetcher implements Runnable {
+        private final TaskExecutionPlan taskExecutionPlan;
+        private final Set<TaskInternal> visited = new HashSet<TaskInternal>();
+        private final Object lock = new Object();
+        private boolean stopped;
+        private boolean readyTasksChanged = true;
+
+        InputPrefetcher(TaskExecutionPlan taskExecutionPlan) {
+            this.taskExecutionPlan = taskExecutionPlan;
+        }
+
+        @Override
+        public void run() {
+            while (waitForReadyTasksChanged()) {
+                for (TaskInternal task : taskExecutionPlan.getReadyTasks()) {
+                    if (isStopped()) {
+                        return;
+                    }
+                    if (visited.add(task)) {
+                        prefetch(task);
+                    }
+                }
+            }
+        }
+
+        private void prefetch(TaskInternal task) {
+            try {
+                HistoricalTaskExecution previousExecution = taskHistoryRepository.getPreviousExecution(task);
+                if (previousExecution == null) {
+                    return;
+                }
+                for (FileCollectionSnapshot snapshot : previousExecution.getInputFilesSnapshot().values()) {
+                    hash(snapshot);
+                }
+                FileCollectionSnapshot discoveredInputs = previousExecution.getDiscoveredInputFilesSnapshot();
+                if (discoveredInputs != null) {
+                    hash(discoveredInputs);
+                }
+            } catch (Exception e) {
+                // The task snapshots its inputs itself anyway
+                LOGGER.debug("Could not prefetch the input files of {}.", task, e);
+            }
+        }
+
+        private void hash(FileCollectionSnapshot snapshot) {
+            for (File file : snapshot.getFiles()) {
+                if (isStopped()) {
+                    return;
+                }
+                if (file.isFile()) {
+                    fileHasher.hash(file);
+                }
+            }
+        }
+
+        /**
+         * Blocks until the ready tasks may have changed since they were last looked up. Returns false when prefetching has been stopped.
+         */
+        private boolean waitForReadyTasksChanged() {
+            synchronized (lock) {
+                while (!stopped && !readyTasksChanged) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        stopped = true;
+                    }
+                }
+                readyTasksChanged = false;
+                return !stopped;
+            }
+        }
+
+        void taskStarted() {
+            synchronized (lock) {
+                readyTasksChanged = true;
+                lock.notifyAll();
+            }
+        }
+
+        private boolean isStopped() {
+            synchronized (lock) {
+                return stopped;
+            }
+        }
+
+        void stop() {
+            synchronized (lock) {
+                stopped = true;
+                lock.notifyAll();
+            }
+        }
+    }
+}
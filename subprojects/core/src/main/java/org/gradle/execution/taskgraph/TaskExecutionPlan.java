@@ -56,6 +56,11 @@ public interface TaskExecutionPlan extends Describable {
      */
     Set<Task> getFilteredTasks();
 
+    /**
+     * Returns the tasks that are waiting to execute and whose dependencies have all completed successfully, in execution order. Does not block.
+     */
+    List<TaskInternal> getReadyTasks();
+
     /**
      * Selects a task that's ready to execute and executes the provided action against it.  If no tasks are ready, blocks until one
      * can be executed.  If all tasks have been executed, returns false.
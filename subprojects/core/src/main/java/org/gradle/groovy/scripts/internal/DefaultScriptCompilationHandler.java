@@ -59,13 +59,16 @@ import org.gradle.util.GFileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.lang.reflect.Field;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.security.CodeSource;
+import java.security.cert.Certificate;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -351,11 +354,11 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
                 }
                 try {
                     // Classloader scope will be handled by the cache, class will be released when the classloader is.
-                    ClassLoader loader = classLoaderCache.put(classLoaderId, new ScriptClassLoader(source, classLoader, new DefaultClassPath(scriptCacheDir), sourceHashCode));
+                    ClassLoader loader = classLoaderCache.put(classLoaderId, new ScriptClassLoader(source, classLoader, new DefaultClassPath(scriptCacheDir), PackedScriptClasses.open(scriptCacheDir), sourceHashCode));
                     scriptClass = loader.loadClass(source.getClassName()).asSubclass(scriptBaseClass);
                 } catch (Exception e) {
                     File expectedClassFile = new File(scriptCacheDir, source.getClassName() + ".class");
-                    if (!expectedClassFile.exists()) {
+                    if (!expectedClassFile.exists() && !PackedScriptClasses.packFileFor(scriptCacheDir).isFile()) {
                         throw new GradleException(String.format("Could not load compiled classes for %s from cache. Expected class file %s does not exist.", source.getDisplayName(), expectedClassFile.getAbsolutePath()), e);
                     }
                     throw new GradleException(String.format("Could not load compiled classes for %s from cache.", source.getDisplayName()), e);
@@ -370,14 +373,29 @@ public class DefaultScriptCompilationHandler implements ScriptCompilationHandler
      */
     private static class ScriptClassLoader extends VisitableURLClassLoader implements ImplementationHashAware {
         private final ScriptSource scriptSource;
+        private final PackedScriptClasses packedClasses;
+        private final CodeSource packedCodeSource;
         private final HashCode implementationHash;
 
-        ScriptClassLoader(ScriptSource scriptSource, ClassLoader parent, ClassPath classPath, HashCode implementationHash) {
+        ScriptClassLoader(ScriptSource scriptSource, ClassLoader parent, ClassPath classPath, @Nullable PackedScriptClasses packedClasses, HashCode implementationHash) {
             super(parent, classPath);
             this.scriptSource = scriptSource;
+            this.packedClasses = packedClasses;
+            this.packedCodeSource = packedClasses == null ? null : new CodeSource(classPath.getAsURLArray()[0], (Certificate[]) null);
             this.implementationHash = implementationHash;
         }
 
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (packedClasses != null) {
+                ByteBuffer bytes = packedClasses.getClassBytes(name);
+                if (bytes != null) {
+                    return defineClass(name, bytes, packedCodeSource);
+                }
+            }
+            return super.findClass(name);
+        }
+
         @Override
         public HashCode getImplementationHash() {
             return implementationHash;
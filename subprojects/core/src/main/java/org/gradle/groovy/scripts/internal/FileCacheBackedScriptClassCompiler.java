@@ -17,6 +17,7 @@ package org.gradle.groovy.scripts.internal;
 
 import com.google.common.io.Files;
 import groovy.lang.Script;
+import org.apache.commons.lang.StringUtils;
 import org.codehaus.groovy.ast.ClassNode;
 import org.gradle.api.Action;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
@@ -24,6 +25,8 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.CacheScopeMapping;
+import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
@@ -47,6 +50,8 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
@@ -55,15 +60,17 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     private final ScriptCompilationHandler scriptCompilationHandler;
     private final ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
+    private final CacheScopeMapping cacheScopeMapping;
     private final CacheValidator validator;
     private final ScriptSourceHasher hasher;
     private final ClassLoaderCache classLoaderCache;
     private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
 
-    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
+    public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheScopeMapping cacheScopeMapping, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler,
                                               ProgressLoggerFactory progressLoggerFactory, ScriptSourceHasher hasher, ClassLoaderCache classLoaderCache,
                                               ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
         this.cacheRepository = cacheRepository;
+        this.cacheScopeMapping = cacheScopeMapping;
         this.validator = validator;
         this.scriptCompilationHandler = scriptCompilationHandler;
         this.progressLoggerFactory = progressLoggerFactory;
@@ -93,6 +100,13 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         }
         final String classpathHash = dslId + classLoaderHash;
         final RemappingScriptSource remapped = new RemappingScriptSource(source);
+        final String remappedClassesCacheKey = "scripts-remapped/" + source.getClassName() + "/" + sourceHash + "/" + classpathHash;
+
+        // The remapped classes of a script are complete once they have been packed, so the pack can be loaded without opening the cache
+        File packedClassesDir = new File(cacheScopeMapping.getBaseDirectory(null, remappedClassesCacheKey, VersionStrategy.CachePerVersion), "classes");
+        if (validator.isValid() && PackedScriptClasses.packFileFor(packedClassesDir).isFile()) {
+            return scriptCompilationHandler.loadFromDir(source, sourceHashCode, classLoader, packedClassesDir, new File(packedClassesDir.getParentFile(), "metadata"), operation, scriptBaseClass, classLoaderId);
+        }
 
         // Caching involves 2 distinct caches, so that 2 scripts with the same (hash, classpath) do not get compiled twice
         // 1. First, we look for a cache script which (path, hash) matches. This cache is invalidated when the compile classpath of the script changes
@@ -100,7 +114,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
         // Both caches can be closed directly after use because:
         // For 1, if the script changes or its compile classpath changes, a different directory will be used
         // For 2, if the script changes, a different cache is used. If the classpath changes, the cache is invalidated, but classes are remapped to 1. anyway so never directly used
-        PersistentCache remappedClassesCache = cacheRepository.cache("scripts-remapped/" + source.getClassName() + "/" + sourceHash + "/" + classpathHash)
+        PersistentCache remappedClassesCache = cacheRepository.cache(remappedClassesCacheKey)
             .withDisplayName(dslId + " remapped class cache for " + sourceHash)
             .withValidator(validator)
             .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new RemapBuildScriptsAction<M, T>(remapped, classpathHash, sourceHash, dslId, classLoader, operation, verifier, scriptBaseClass),
@@ -408,8 +422,9 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
             cache.close();
             final File genericClassesDir = classesDir(cache);
             final File metadataDir = metadataDir(cache);
-            remapClasses(genericClassesDir, classesDir(remappedClassesCache), remapped);
             copyMetadata(metadataDir, metadataDir(remappedClassesCache));
+            // Written last, as the pack marks the remapped classes cache as complete
+            remapClasses(genericClassesDir, classesDir(remappedClassesCache), remapped);
         }
 
         private void remapClasses(File scriptCacheDir, File relocalizedDir, RemappingScriptSource source) {
@@ -418,6 +433,7 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
             if (!relocalizedDir.exists()) {
                 relocalizedDir.mkdir();
             }
+            SortedMap<String, byte[]> relocalizedClasses = new TreeMap<String, byte[]>();
             File[] files = scriptCacheDir.listFiles();
             if (files != null) {
                 for (File file : files) {
@@ -433,12 +449,13 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
                         String contentHash = Hashing.md5().hashBytes(contents).toString();
                         BuildScriptRemapper remapper = new BuildScriptRemapper(cv, origin, originalClassName, contentHash);
                         cr.accept(remapper, 0);
-                        Files.write(cv.toByteArray(), new File(relocalizedDir, renamed));
+                        relocalizedClasses.put(StringUtils.removeEnd(renamed, ".class"), cv.toByteArray());
                     } catch (IOException ex) {
                         throw UncheckedException.throwAsUncheckedException(ex);
                     }
                 }
             }
+            PackedScriptClasses.write(relocalizedDir, relocalizedClasses);
         }
 
         private void copyMetadata(File source, File dest) {
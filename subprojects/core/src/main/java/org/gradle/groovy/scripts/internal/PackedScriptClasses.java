@@ -0,0 +1,172 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal;
+
+import com.google.common.base.Charsets;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
+
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * The compiled classes of a script, packed into a single indexed file next to the classes directory.
+ *
+ * <p>Loading the classes of a script from the pack requires opening a single file, rather than looking up and reading one file per class. The file is
+ * memory mapped, except on Windows where a mapped file cannot be deleted while the script class loader is still reachable.</p>
+ *
+ * <p>The classes are only stored in the pack, the classes directory is left empty. The presence of the pack file means the script cache entry is
+ * complete, so the pack can be used without opening the script cache.</p>
+ */
+class PackedScriptClasses {
+    private final ByteBuffer content;
+    private final Map<String, Entry> entries;
+
+    private PackedScriptClasses(ByteBuffer content, Map<String, Entry> entries) {
+        this.content = content;
+        this.entries = entries;
+    }
+
+    /**
+     * Returns the pack file for the given classes directory.
+     */
+    static File packFileFor(File classesDir) {
+        return new File(classesDir.getParentFile(), classesDir.getName() + ".pack");
+    }
+
+    /**
+     * Packs the given classes, keyed by class name, into the pack file of the given classes directory. The pack file is written to a temporary file first,
+     * so that the pack file is only present once it is complete.
+     */
+    static void write(File classesDir, SortedMap<String, byte[]> classes) {
+        File packFile = packFileFor(classesDir);
+        File tmpFile = new File(packFile.getParentFile(), packFile.getName() + ".tmp");
+        try {
+            DataOutputStream outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)));
+            try {
+                outputStream.writeInt(classes.size());
+                for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                    byte[] name = entry.getKey().getBytes(Charsets.UTF_8);
+                    outputStream.writeInt(name.length);
+                    outputStream.write(name);
+                    outputStream.writeInt(entry.getValue().length);
+                }
+                for (byte[] bytes : classes.values()) {
+                    outputStream.write(bytes);
+                }
+            } finally {
+                outputStream.close();
+            }
+            if (!tmpFile.renameTo(packFile)) {
+                throw new IOException(String.format("Could not move %s to %s.", tmpFile, packFile));
+            }
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Opens the pack file of the given classes directory, if present.
+     */
+    @Nullable
+    static PackedScriptClasses open(File classesDir) {
+        File packFile = packFileFor(classesDir);
+        if (!packFile.isFile()) {
+            return null;
+        }
+        try {
+            ByteBuffer content = read(packFile);
+            int count = content.getInt();
+            Map<String, Entry> entries = new HashMap<String, Entry>(count);
+            int[] lengths = new int[count];
+            String[] names = new String[count];
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[content.getInt()];
+                content.get(name);
+                names[i] = new String(name, Charsets.UTF_8);
+                lengths[i] = content.getInt();
+            }
+            int offset = content.position();
+            for (int i = 0; i < count; i++) {
+                entries.put(names[i], new Entry(offset, lengths[i]));
+                offset += lengths[i];
+            }
+            if (offset != content.limit()) {
+                return null;
+            }
+            return new PackedScriptClasses(content, entries);
+        } catch (Exception e) {
+            // Fall back to loading from the classes directory
+            return null;
+        }
+    }
+
+    private static ByteBuffer read(File packFile) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(packFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            if (OperatingSystem.current().isWindows()) {
+                ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+                while (content.hasRemaining()) {
+                    if (channel.read(content) < 0) {
+                        break;
+                    }
+                }
+                content.flip();
+                return content;
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            file.close();
+        }
+    }
+
+    /**
+     * Returns the bytecode of the given class, or null when the class is not part of this pack.
+     */
+    @Nullable
+    ByteBuffer getClassBytes(String className) {
+        Entry entry = entries.get(className);
+        if (entry == null) {
+            return null;
+        }
+        ByteBuffer bytes = content.duplicate();
+        bytes.position(entry.offset);
+        bytes.limit(entry.offset + entry.length);
+        return bytes.slice();
+    }
+
+    private static class Entry {
+        private final int offset;
+        private final int length;
+
+        private Entry(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+}
@@ -343,7 +343,7 @@ public class DefaultGradleLauncher implements GradleLauncher {
     }
 
     private boolean isConfigureOnDemand() {
-        return gradle.getStartParameter().isConfigureOnDemand();
+        return buildConfigurer.isConfiguringOnDemand(gradle);
     }
 
     private void projectsEvaluated() {
@@ -51,6 +51,7 @@ import org.gradle.api.internal.project.DefaultProjectRegistry;
 import org.gradle.api.internal.project.DefaultProjectTaskLister;
 import org.gradle.api.internal.project.IProjectFactory;
 import org.gradle.api.internal.project.IsolatedAntBuilder;
+import org.gradle.api.internal.project.ProjectEvaluationCoordinator;
 import org.gradle.api.internal.project.ProjectFactory;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectRegistry;
@@ -63,11 +64,6 @@ import org.gradle.api.internal.project.taskfactory.TaskClassInfoStore;
 import org.gradle.api.internal.project.taskfactory.TaskFactory;
 import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatisticsEventAdapter;
 import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatisticsListener;
-import org.gradle.api.internal.tasks.properties.DefaultPropertyMetadataStore;
-import org.gradle.api.internal.tasks.properties.DefaultPropertyWalker;
-import org.gradle.api.internal.tasks.properties.PropertyMetadataStore;
-import org.gradle.api.internal.tasks.properties.PropertyWalker;
-import org.gradle.api.internal.tasks.properties.annotations.PropertyAnnotationHandler;
 import org.gradle.api.internal.tasks.userinput.BuildScanUserInputHandler;
 import org.gradle.api.internal.tasks.userinput.DefaultBuildScanUserInputHandler;
 import org.gradle.api.internal.tasks.userinput.DefaultUserInputHandler;
@@ -78,9 +74,11 @@ import org.gradle.api.provider.ProviderFactory;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.FileLockManager;
+import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.caching.internal.BuildCacheServices;
 import org.gradle.composite.internal.IncludedBuildRegistry;
 import org.gradle.configuration.BuildConfigurer;
+import org.gradle.configuration.ConfiguredProjectsCachingBuildConfigurer;
 import org.gradle.configuration.DefaultBuildConfigurer;
 import org.gradle.configuration.DefaultInitScriptProcessor;
 import org.gradle.configuration.DefaultScriptPluginFactory;
@@ -93,6 +91,7 @@ import org.gradle.configuration.project.DelayedConfigurationActions;
 import org.gradle.configuration.project.LifecycleProjectEvaluator;
 import org.gradle.configuration.project.PluginsProjectConfigureActions;
 import org.gradle.configuration.project.ProjectEvaluator;
+import org.gradle.execution.ParallelProjectConfigurer;
 import org.gradle.execution.ProjectConfigurer;
 import org.gradle.execution.TaskPathProjectEvaluator;
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory;
@@ -131,6 +130,7 @@ import org.gradle.initialization.buildsrc.BuildSourceBuilder;
 import org.gradle.initialization.buildsrc.BuildSrcBuildListenerFactory;
 import org.gradle.initialization.buildsrc.BuildSrcProjectConfigurationAction;
 import org.gradle.initialization.layout.BuildLayoutFactory;
+import org.gradle.initialization.layout.ProjectCacheDir;
 import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.actor.internal.DefaultActorFactory;
 import org.gradle.internal.authentication.AuthenticationSchemeRegistry;
@@ -157,6 +157,7 @@ import org.gradle.internal.service.DefaultServiceRegistry;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.time.Clock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.management.internal.autoapply.AutoAppliedPluginHandler;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
@@ -167,6 +168,7 @@ import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.BuildScopeToolingModelBuilderRegistryAction;
 import org.gradle.tooling.provider.model.internal.DefaultToolingModelBuilderRegistry;
 
+import java.io.File;
 import java.util.List;
 
 /**
@@ -237,14 +239,6 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new LifecycleProjectEvaluator(buildOperationExecutor, withActionsEvaluator);
     }
 
-    protected PropertyMetadataStore createPropertyMetadataStore(List<PropertyAnnotationHandler> annotationHandlers) {
-        return new DefaultPropertyMetadataStore(annotationHandlers);
-    }
-
-    protected PropertyWalker createPropertyWalker(PropertyMetadataStore propertyMetadataStore) {
-        return new DefaultPropertyWalker(propertyMetadataStore);
-    }
-
     protected TaskClassInfoStore createTaskClassInfoStore() {
         return new DefaultTaskClassInfoStore();
     }
@@ -271,7 +265,7 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected FileCacheBackedScriptClassCompiler createFileCacheBackedScriptClassCompiler(
-        CacheRepository cacheRepository, final StartParameter startParameter,
+        CacheRepository cacheRepository, CacheScopeMapping cacheScopeMapping, final StartParameter startParameter,
         ProgressLoggerFactory progressLoggerFactory, ClassLoaderCache classLoaderCache, ImportsReader importsReader,
         ScriptSourceHasher hasher, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
         CacheValidator scriptCacheInvalidator = new CacheValidator() {
@@ -281,6 +275,7 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         };
         return new FileCacheBackedScriptClassCompiler(
             cacheRepository,
+            cacheScopeMapping,
             scriptCacheInvalidator,
             new DefaultScriptCompilationHandler(classLoaderCache, importsReader),
             progressLoggerFactory,
@@ -385,16 +380,28 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectEvaluationCoordinator createProjectEvaluationCoordinator() {
+        return new ProjectEvaluationCoordinator();
     }
 
-    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
-        return new DefaultBuildConfigurer(projectConfigurer);
+    protected ProjectConfigurer createProjectConfigurer(StartParameter startParameter, BuildCancellationToken cancellationToken, ProjectEvaluationCoordinator projectEvaluationCoordinator, BuildOperationExecutor buildOperationExecutor, WorkerLeaseService workerLeaseService) {
+        ProjectConfigurer projectConfigurer = new TaskPathProjectEvaluator(cancellationToken);
+        if (startParameter.isParallelProjectExecutionEnabled() && Boolean.getBoolean(ParallelProjectConfigurer.PARALLEL_CONFIGURATION_PROPERTY)) {
+            return new ParallelProjectConfigurer(projectConfigurer, projectEvaluationCoordinator, buildOperationExecutor, workerLeaseService);
+        }
+        return projectConfigurer;
+    }
+
+    protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer, ProjectCacheDir projectCacheDir, ListenerManager listenerManager) {
+        BuildConfigurer buildConfigurer = new DefaultBuildConfigurer(projectConfigurer);
+        if (Boolean.getBoolean(ConfiguredProjectsCachingBuildConfigurer.CONFIGURED_PROJECTS_CACHE_PROPERTY)) {
+            return new ConfiguredProjectsCachingBuildConfigurer(buildConfigurer, projectConfigurer, new File(projectCacheDir.getDir(), "configured-projects-cache"), listenerManager);
+        }
+        return buildConfigurer;
     }
 
-    protected ProjectAccessListener createProjectAccessListener() {
-        return new DefaultProjectAccessListener();
+    protected ProjectAccessListener createProjectAccessListener(ProjectEvaluationCoordinator projectEvaluationCoordinator) {
+        return new DefaultProjectAccessListener(projectEvaluationCoordinator);
     }
 
     protected ProfileEventAdapter createProfileEventAdapter() {
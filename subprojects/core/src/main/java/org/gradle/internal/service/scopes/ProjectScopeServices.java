@@ -16,8 +16,11 @@
 
 package org.gradle.internal.service.scopes;
 
+import com.google.common.base.Strings;
 import org.gradle.api.Action;
 import org.gradle.api.AntBuilder;
+import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.UnknownProjectException;
 import org.gradle.api.component.SoftwareComponentContainer;
 import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.DomainObjectContext;
@@ -189,14 +192,22 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
     }
 
     protected ProjectFinder createProjectFinder() {
+        // Declaring a dependency on another project does not access its state, so look the project up without notifying the evaluation coordinator
         return new ProjectFinder() {
             public ProjectInternal getProject(String path) {
-                return project.project(path);
+                ProjectInternal target = findProject(path);
+                if (target == null) {
+                    throw new UnknownProjectException(String.format("Project with path '%s' could not be found in %s.", path, project));
+                }
+                return target;
             }
 
             @Override
             public ProjectInternal findProject(String path) {
-                return project.findProject(path);
+                if (Strings.isNullOrEmpty(path)) {
+                    throw new InvalidUserDataException("A path must be specified!");
+                }
+                return project.getProjectRegistry().getProject(project.absoluteProjectPath(path));
             }
         };
     }
@@ -31,13 +31,16 @@ import org.gradle.api.internal.changedetection.state.DefaultTaskOutputFilesRepos
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotter;
 import org.gradle.api.internal.changedetection.state.FileCollectionSnapshotterRegistry;
+import org.gradle.api.internal.changedetection.state.FileSystemMirror;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.api.internal.changedetection.state.GenericFileCollectionSnapshotter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
+import org.gradle.api.internal.changedetection.state.OutputDirectoryWatcher;
 import org.gradle.api.internal.changedetection.state.TaskHistoryRepository;
 import org.gradle.api.internal.changedetection.state.TaskHistoryStore;
 import org.gradle.api.internal.changedetection.state.TaskOutputFilesRepository;
 import org.gradle.api.internal.changedetection.state.ValueSnapshotter;
+import org.gradle.api.internal.changedetection.state.WatchServiceOutputDirectoryWatcher;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.tasks.TaskExecuter;
 import org.gradle.api.internal.tasks.execution.CatchExceptionTaskExecuter;
@@ -59,13 +62,19 @@ import org.gradle.api.internal.tasks.execution.ValidatingTaskExecuter;
 import org.gradle.api.internal.tasks.properties.PropertyWalker;
 import org.gradle.api.internal.tasks.properties.annotations.FileSnapshottingPropertyAnnotationHandler;
 import org.gradle.api.invocation.Gradle;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
 import org.gradle.cache.CacheBuilder;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.PersistentCache;
 import org.gradle.caching.internal.controller.BuildCacheController;
+import org.gradle.caching.internal.controller.BuildCacheControllerFactory;
 import org.gradle.caching.internal.tasks.TaskCacheKeyCalculator;
 import org.gradle.caching.internal.tasks.TaskOutputCacheCommandFactory;
+import org.gradle.execution.taskgraph.CompleteBuildCacheStoresTaskPlanExecutor;
+import org.gradle.execution.taskgraph.PrefetchBuildCacheEntriesTaskPlanExecutor;
+import org.gradle.execution.taskgraph.PrefetchingTaskPlanExecutor;
 import org.gradle.execution.taskgraph.TaskPlanExecutor;
 import org.gradle.execution.taskgraph.TaskPlanExecutorFactory;
 import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
@@ -74,8 +83,12 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ParallelismConfigurationManager;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.file.PathToFileResolver;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.resources.ResourceLockCoordinationService;
 import org.gradle.internal.scan.config.BuildScanPluginApplied;
 import org.gradle.internal.scopeids.id.BuildInvocationScopeId;
 import org.gradle.internal.serialize.DefaultSerializerRegistry;
@@ -91,6 +104,8 @@ import java.util.List;
 import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 public class TaskExecutionServices {
+    private static final Logger LOGGER = Logging.getLogger(TaskExecutionServices.class);
+    private static final int MIN_WATCHED_OUTPUT_DIRECTORY_ENTRIES = 1000;
 
     TaskExecuter createTaskExecuter(TaskArtifactStateRepository repository,
                                     TaskOutputCacheCommandFactory taskOutputCacheCommandFactory,
@@ -106,7 +121,8 @@ public class TaskExecutionServices {
                                     PathToFileResolver resolver,
                                     PropertyWalker propertyWalker,
                                     TaskExecutionGraph taskExecutionGraph,
-                                    BuildInvocationScopeId buildInvocationScopeId
+                                    BuildInvocationScopeId buildInvocationScopeId,
+                                    OutputDirectoryWatcher outputDirectoryWatcher
     ) {
 
         boolean taskOutputCacheEnabled = startParameter.isBuildCacheEnabled();
@@ -118,7 +134,8 @@ public class TaskExecutionServices {
             listenerManager.getBroadcaster(TaskActionListener.class),
             buildOperationExecutor,
             asyncWorkTracker,
-            buildInvocationScopeId
+            buildInvocationScopeId,
+            outputDirectoryWatcher
         );
         executer = new OutputDirectoryCreatingTaskExecuter(executer);
         if (taskOutputCacheEnabled) {
@@ -146,6 +163,18 @@ public class TaskExecutionServices {
         return executer;
     }
 
+    OutputDirectoryWatcher createOutputDirectoryWatcher(FileSystemMirror fileSystemMirror, FileHasher fileHasher, FileSystem fileSystem, StringInterner stringInterner) {
+        if (!Boolean.getBoolean(OutputDirectoryWatcher.WATCH_OUTPUTS_PROPERTY)) {
+            return OutputDirectoryWatcher.NONE;
+        }
+        if (OperatingSystem.current().isMacOsX()) {
+            // The JDK watch service polls for changes on macOS
+            LOGGER.info("Watching output directories is not supported on macOS.");
+            return OutputDirectoryWatcher.NONE;
+        }
+        return new WatchServiceOutputDirectoryWatcher(fileSystemMirror, fileHasher, fileSystem, stringInterner, MIN_WATCHED_OUTPUT_DIRECTORY_ENTRIES);
+    }
+
     TaskHistoryStore createCacheAccess(Gradle gradle, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
         return new DefaultTaskHistoryStore(gradle, cacheRepository, inMemoryCacheDecoratorFactory);
     }
@@ -210,8 +239,18 @@ public class TaskExecutionServices {
         );
     }
 
-    TaskPlanExecutor createTaskExecutorFactory(ParallelismConfigurationManager parallelismConfigurationManager, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService) {
-        return new TaskPlanExecutorFactory(parallelismConfigurationManager, executorFactory, workerLeaseService).create();
+    TaskPlanExecutor createTaskExecutorFactory(ParallelismConfigurationManager parallelismConfigurationManager, ExecutorFactory executorFactory, WorkerLeaseService workerLeaseService, ResourceLockCoordinationService coordinationService, TaskHistoryRepository taskHistoryRepository, TaskArtifactStateRepository repository, FileHasher fileHasher, PathToFileResolver resolver, PropertyWalker propertyWalker, BuildCacheController buildCacheController, StartParameter startParameter) {
+        TaskPlanExecutor taskPlanExecutor = new TaskPlanExecutorFactory(parallelismConfigurationManager, executorFactory, workerLeaseService).create();
+        if (startParameter.isBuildCacheEnabled() && Integer.getInteger(BuildCacheControllerFactory.PREFETCH_PROPERTY, 0) > 0) {
+            taskPlanExecutor = new PrefetchBuildCacheEntriesTaskPlanExecutor(taskPlanExecutor, executorFactory, coordinationService, workerLeaseService, buildCacheController, repository, resolver, propertyWalker);
+        }
+        if (Integer.getInteger(BuildCacheControllerFactory.BACKGROUND_STORES_PROPERTY, 0) > 0) {
+            taskPlanExecutor = new CompleteBuildCacheStoresTaskPlanExecutor(taskPlanExecutor, buildCacheController);
+        }
+        if (Boolean.getBoolean(PrefetchingTaskPlanExecutor.PREFETCH_INPUTS_PROPERTY)) {
+            return new PrefetchingTaskPlanExecutor(taskPlanExecutor, executorFactory, taskHistoryRepository, fileHasher);
+        }
+        return taskPlanExecutor;
     }
 
 }
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.provider.model.internal;
+
+import org.gradle.tooling.provider.model.ToolingModelBuilder;
+
+/**
+ * A {@link ToolingModelBuilder} that reads or changes the state of projects other than the target project, for example by applying plugins to all
+ * projects of the build. The models of such a builder are never built in parallel.
+ */
+public interface BuildWideToolingModelBuilder extends ToolingModelBuilder {
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state
+
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.file.FileType
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Specification
+
+@Requires(TestPrecondition.NOT_MAC_OS_X)
+class WatchServiceOutputDirectoryWatcherTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def fileSystem = TestFiles.fileSystem()
+    def hasher = TestFiles.fileHasher()
+    def stringInterner = new StringInterner()
+    def mirror = new DefaultFileSystemMirror([])
+    def watcher = new WatchServiceOutputDirectoryWatcher(mirror, hasher, fileSystem, stringInterner, 0)
+    def outputDir = tmpDir.createDir("output")
+
+    def "updates the snapshot of a watched directory with the changes made to it"() {
+        outputDir.file("unchanged.txt").text = "unchanged"
+        outputDir.file("modified.txt").text = "original"
+        outputDir.file("deleted.txt").text = "deleted"
+        outputDir.file("sub/nested.txt").text = "nested"
+        outputDir.file("deletedDir/file.txt").text = "deleted"
+        outputDir.file("replacedDir/file.txt").text = "replaced"
+        snapshotter(mirror).snapshotDirectoryTree(outputDir)
+
+        when:
+        def watch = watcher.startWatching([outputDir])
+        mirror.beforeTaskOutputChanged()
+        outputDir.file("modified.txt").text = "modified"
+        outputDir.file("deleted.txt").delete()
+        outputDir.file("created.txt").text = "created"
+        outputDir.file("sub/created.txt").text = "created"
+        outputDir.file("createdDir/deeper/file.txt").text = "created"
+        outputDir.file("deletedDir").deleteDir()
+        outputDir.file("replacedDir").deleteDir()
+        outputDir.file("replacedDir/other.txt").text = "other"
+        watch.updateSnapshots()
+
+        then:
+        def updated = mirror.getDirectoryTree(outputDir.absolutePath)
+        updated != null
+        contents(updated) == contents(snapshotter(new DefaultFileSystemMirror([])).snapshotDirectoryTree(outputDir))
+        outputDir.list().sort() == ["created.txt", "createdDir", "modified.txt", "replacedDir", "sub", "unchanged.txt"]
+    }
+
+    def "walks the output directory again when it has been replaced"() {
+        outputDir.file("file.txt").text = "file"
+        snapshotter(mirror).snapshotDirectoryTree(outputDir)
+
+        when:
+        def watch = watcher.startWatching([outputDir])
+        mirror.beforeTaskOutputChanged()
+        outputDir.deleteDir()
+        outputDir.file("other.txt").text = "other"
+        watch.updateSnapshots()
+
+        then:
+        mirror.getDirectoryTree(outputDir.absolutePath) == null
+    }
+
+    def "does not watch output directories that have not been snapshotted"() {
+        expect:
+        watcher.startWatching([outputDir]) == OutputDirectoryWatcher.Session.NONE
+    }
+
+    private DefaultFileSystemSnapshotter snapshotter(FileSystemMirror mirror) {
+        new DefaultFileSystemSnapshotter(hasher, stringInterner, fileSystem, TestFiles.directoryFileTreeFactory(), mirror)
+    }
+
+    private static Map<String, List<Object>> contents(FileTreeSnapshot tree) {
+        tree.descendants.collectEntries { FileSnapshot snapshot ->
+            [(snapshot.path): [snapshot.type, snapshot.relativePath.pathString, snapshot.type == FileType.RegularFile ? snapshot.content.contentMd5 : null]]
+        }
+    }
+}
@@ -67,6 +67,8 @@ import org.gradle.groovy.scripts.EmptyScript
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.initialization.ProjectAccessListener
 import org.gradle.internal.Factory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.LoggingManagerInternal
 import org.gradle.internal.metaobject.BeanDynamicObject
 import org.gradle.internal.operations.BuildOperationExecutor
@@ -151,6 +153,8 @@ class DefaultProjectTest {
     TextResourceLoader textResourceLoader = context.mock(TextResourceLoader)
     BuildOperationExecutor buildOperationExecutor = new TestBuildOperationExecutor()
     CrossProjectConfigurator crossProjectConfigurator = new BuildOperationCrossProjectConfigurator(buildOperationExecutor)
+    ProjectEvaluationCoordinator evaluationCoordinator = new ProjectEvaluationCoordinator()
+    ListenerManager listenerManager = new DefaultListenerManager()
 
     ClassLoaderScope baseClassLoaderScope = new RootClassLoaderScope(getClass().classLoader, getClass().classLoader, new DummyClassLoaderCache())
     ClassLoaderScope rootProjectClassLoaderScope = baseClassLoaderScope.createChild("root-project")
@@ -213,6 +217,8 @@ class DefaultProjectTest {
             allowing(serviceRegistryMock).get(AttributesSchema) ; will(returnValue(attributesSchema))
             allowing(serviceRegistryMock).get(BuildOperationExecutor) ; will(returnValue(buildOperationExecutor))
             allowing(serviceRegistryMock).get((Type) CrossProjectConfigurator) ; will(returnValue(crossProjectConfigurator))
+            allowing(serviceRegistryMock).get((Type) ProjectEvaluationCoordinator) ; will(returnValue(evaluationCoordinator))
+            allowing(serviceRegistryMock).get((Type) ListenerManager) ; will(returnValue(listenerManager))
             allowing(pluginManager).getPluginContainer(); will(returnValue(pluginContainer))
 
             allowing(serviceRegistryMock).get((Type) DeferredProjectConfiguration); will(returnValue(context.mock(DeferredProjectConfiguration)))
@@ -574,6 +580,61 @@ class DefaultProjectTest {
         assertSame(child1, childchild.findProject(Project.PATH_SEPARATOR + "child1"))
     }
 
+    @Test
+    void testNavigatingTheProjectHierarchyDoesNotMakeEvaluationSerial() {
+        assertFalse(accessesOtherProjects(child1) {
+            child1.rootProject
+            child1.parent
+            child1.childProjects
+            child1.allprojects
+            child1.subprojects
+            child1.findProject(Project.PATH_SEPARATOR + "child2")
+            child1.project(Project.PATH_SEPARATOR + "child2")
+        })
+    }
+
+    @Test
+    void testAccessingTheConfigurationOfOtherProjectMakesEvaluationSerial() {
+        assertFalse(accessesOtherProjects(child1) { child1.tasks })
+        assertTrue(accessesOtherProjects(child1) { child2.tasks })
+    }
+
+    @Test
+    void testAccessingThePropertiesOfOtherProjectMakesEvaluationSerial() {
+        assertFalse(accessesOtherProjects(child1) { child1.hasProperty("prop") })
+        assertTrue(accessesOtherProjects(child1) { child1.parent.hasProperty("prop") })
+    }
+
+    @Test
+    void testConfiguringOtherProjectsMakesEvaluationSerial() {
+        assertFalse(accessesOtherProjects(child2) { child2.allprojects {} })
+        assertTrue(accessesOtherProjects(child1) { child1.project(Project.PATH_SEPARATOR + "child2") {} })
+    }
+
+    @Test
+    void testConfiguringSubprojectsMakesEvaluationSerial() {
+        assertFalse(accessesOtherProjects(child2) { child2.subprojects {} })
+        assertTrue(accessesOtherProjects(child1) { child1.subprojects {} })
+    }
+
+    @Test
+    void testConfiguringOtherProjectsNotifiesListener() {
+        def configured = []
+        listenerManager.addListener({ configuringProject, configuredProject -> configured << [configuringProject, configuredProject] } as CrossProjectConfigurationListener)
+
+        child2.allprojects {}
+        assertEquals([], configured)
+
+        child1.subprojects {}
+        child1.project(Project.PATH_SEPARATOR + "child2") {}
+        assertEquals([[child1, childchild], [child1, child2]], configured)
+    }
+
+    private boolean accessesOtherProjects(DefaultProject evaluatedProject, Closure access) {
+        evaluationCoordinator.evaluate(evaluatedProject, access as Runnable)
+        return evaluationCoordinator.serial
+    }
+
     @Test
     void testFindProjectWithUnknownAbsolutePath() {
         assertNull(project.findProject(Project.PATH_SEPARATOR + "unknownchild"))
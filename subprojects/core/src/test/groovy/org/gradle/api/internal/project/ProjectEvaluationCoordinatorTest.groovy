@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.project
+
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ProjectEvaluationCoordinatorTest extends ConcurrentSpec {
+    def coordinator = new ProjectEvaluationCoordinator()
+    def project1 = Stub(ProjectInternal)
+    def project2 = Stub(ProjectInternal)
+
+    def "evaluates projects concurrently"() {
+        when:
+        async {
+            start {
+                coordinator.evaluate(project1) {
+                    instant.project1Started
+                    thread.blockUntil.project2Started
+                }
+            }
+            start {
+                coordinator.evaluate(project2) {
+                    instant.project2Started
+                    thread.blockUntil.project1Started
+                }
+            }
+        }
+
+        then:
+        !coordinator.serial
+    }
+
+    def "waits for other evaluations to finish when a project accesses other projects"() {
+        when:
+        async {
+            start {
+                coordinator.evaluate(project1) {
+                    instant.project1Started
+                    thread.blockUntil.project2Started
+                    coordinator.beforeAccessingOtherProjects()
+                    instant.project1Accessed
+                }
+            }
+            start {
+                coordinator.evaluate(project2) {
+                    instant.project2Started
+                    thread.blockUntil.project1Started
+                    thread.block()
+                    instant.project2Finished
+                }
+            }
+        }
+
+        then:
+        coordinator.serial
+        instant.project1Accessed > instant.project2Finished
+    }
+
+    def "evaluates one project at a time once a project has accessed other projects"() {
+        when:
+        async {
+            coordinator.evaluate(project1) {
+                coordinator.beforeAccessingOtherProjects()
+            }
+            start {
+                coordinator.evaluate(project1) {
+                    instant.project1Started
+                    thread.block()
+                    instant.project1Finished
+                }
+            }
+            start {
+                coordinator.evaluate(project2) {
+                    instant.project2Started
+                    thread.block()
+                    instant.project2Finished
+                }
+            }
+        }
+
+        then:
+        coordinator.serial
+        instant.project2Started > instant.project1Finished || instant.project1Started > instant.project2Finished
+    }
+
+    def "access to the project being evaluated does not make evaluation serial"() {
+        when:
+        coordinator.evaluate(project1) {
+            coordinator.beforeAccessingProject(project1)
+        }
+
+        then:
+        !coordinator.serial
+    }
+
+    def "access outside of an evaluation does not make evaluation serial"() {
+        when:
+        coordinator.beforeAccessingOtherProjects()
+        coordinator.beforeAccessingProject(project1)
+
+        then:
+        !coordinator.serial
+    }
+
+    def "waits for a project that is being evaluated by another thread"() {
+        def awaited = false
+
+        when:
+        async {
+            start {
+                coordinator.evaluate(project1) {
+                    instant.project1Started
+                    coordinator.beforeAccessingOtherProjects()
+                    instant.project1Finished
+                }
+            }
+            start {
+                coordinator.evaluate(project2) {
+                    thread.blockUntil.project1Started
+                    thread.block()
+                    coordinator.beforeAccessingOtherProjects()
+                    awaited = coordinator.awaitEvaluation(project1)
+                    instant.project2Continued
+                }
+            }
+        }
+
+        then:
+        awaited
+        instant.project2Continued > instant.project1Finished
+    }
+
+    def "does not wait for a project that is waiting for the current project"() {
+        def awaited = null
+
+        when:
+        async {
+            start {
+                coordinator.evaluate(project1) {
+                    instant.project1Started
+                    thread.blockUntil.project2Started
+                    thread.block()
+                    coordinator.awaitEvaluation(project2)
+                }
+            }
+            start {
+                coordinator.evaluate(project2) {
+                    instant.project2Started
+                    thread.blockUntil.project1Started
+                    coordinator.beforeAccessingOtherProjects()
+                    thread.block()
+                    awaited = coordinator.awaitEvaluation(project1)
+                }
+            }
+        }
+
+        then:
+        awaited == false
+    }
+
+    def "does not wait for a project that is not being evaluated"() {
+        expect:
+        !coordinator.awaitEvaluation(project2)
+        coordinator.evaluate(project1) {
+            assert !coordinator.awaitEvaluation(project2)
+        }
+    }
+}
@@ -15,9 +15,11 @@
  */
 package org.gradle.api.internal.tasks.execution
 
+import com.google.common.collect.ImmutableSortedSet
 import org.gradle.api.execution.TaskActionListener
 import org.gradle.api.internal.TaskInternal
 import org.gradle.api.internal.changedetection.TaskArtifactState
+import org.gradle.api.internal.changedetection.state.OutputDirectoryWatcher
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.tasks.ContextAwareTaskAction
 import org.gradle.api.internal.tasks.OriginTaskExecutionMetadata
@@ -58,7 +60,7 @@ class ExecuteActionsTaskExecutorTest extends Specification {
     final taskExecutionTime = 1L
     final originExecutionMetadata = new OriginTaskExecutionMetadata(buildInvocationId, taskExecutionTime)
 
-    def executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker, new BuildInvocationScopeId(buildInvocationId))
+    def executer = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker, new BuildInvocationScopeId(buildInvocationId), OutputDirectoryWatcher.NONE)
 
     def setup() {
         ProjectInternal project = Mock(ProjectInternal)
@@ -339,6 +341,36 @@ class ExecuteActionsTaskExecutorTest extends Specification {
         noMoreInteractions()
     }
 
+    def "updates the snapshots of watched output directories before snapshotting the outputs"() {
+        def outputDirectoryWatcher = Mock(OutputDirectoryWatcher)
+        def outputDirectoryWatch = Mock(OutputDirectoryWatcher.Session)
+        def watchingExecuter = new ExecuteActionsTaskExecuter(internalListener, publicListener, buildOperationExecutor, asyncWorkTracker, new BuildInvocationScopeId(buildInvocationId), outputDirectoryWatcher)
+
+        given:
+        task.getTaskActions() >> [action1]
+        task.hasTaskActions() >> true
+        executionContext.taskProperties >> Stub(TaskProperties) {
+            getOutputFileProperties() >> ImmutableSortedSet.of()
+        }
+
+        when:
+        watchingExecuter.execute(task, state, executionContext)
+
+        then:
+        1 * outputDirectoryWatcher.startWatching([]) >> outputDirectoryWatch
+        then:
+        1 * internalListener.beforeTaskOutputChanged()
+        then:
+        1 * buildOperationExecutor.run(_ as RunnableBuildOperation) >> { args -> args[0].run(Stub(BuildOperationContext)) }
+        then:
+        1 * outputDirectoryWatch.updateSnapshots()
+        then:
+        1 * taskArtifactState.snapshotAfterTaskExecution(null, buildInvocationId, executionContext)
+        then:
+        1 * outputDirectoryWatch.stop()
+        state.outcome == TaskExecutionOutcome.EXECUTED
+    }
+
     def "captures exceptions from async work"() {
         given:
         task.getTaskActions() >> [action1, action2]
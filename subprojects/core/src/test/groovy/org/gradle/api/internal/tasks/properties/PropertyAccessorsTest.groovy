@@ -0,0 +1,127 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.properties
+
+import groovy.transform.PackageScope
+import spock.lang.Specification
+
+import java.lang.reflect.InvocationTargetException
+
+class PropertyAccessorsTest extends Specification {
+
+    def "generates accessor for public getter"() {
+        def accessor = PropertyAccessors.of(Bean.getMethod("getName"))
+
+        expect:
+        accessor instanceof PropertyAccessors.GeneratedPropertyAccessor
+        accessor.getValue(new Bean(name: "value")) == "value"
+        accessor.getValue(new Bean()) == null
+    }
+
+    def "generated accessor calls overridden getter"() {
+        def accessor = PropertyAccessors.of(Bean.getMethod("getName"))
+
+        expect:
+        accessor.getValue(new SubBean(name: "value")) == "overridden value"
+    }
+
+    def "generated accessor boxes primitive values"() {
+        def accessor = PropertyAccessors.of(Bean.getMethod("getCount"))
+
+        expect:
+        accessor instanceof PropertyAccessors.GeneratedPropertyAccessor
+        accessor.getValue(new Bean(count: 12)) == 12
+    }
+
+    def "generates accessor for package private getter"() {
+        def accessor = PropertyAccessors.of(Bean.getDeclaredMethod("getPackageValue"))
+
+        expect:
+        accessor instanceof PropertyAccessors.GeneratedPropertyAccessor
+        accessor.getValue(new Bean()) == "package"
+    }
+
+    def "generates accessor for getter declared by interface"() {
+        def accessor = PropertyAccessors.of(HasValue.getMethod("getValue"))
+
+        expect:
+        accessor instanceof PropertyAccessors.GeneratedPropertyAccessor
+        accessor.getValue(new Bean()) == "interface"
+    }
+
+    def "uses reflection for private getter"() {
+        def accessor = PropertyAccessors.of(Bean.getDeclaredMethod("getPrivateValue"))
+
+        expect:
+        !(accessor instanceof PropertyAccessors.GeneratedPropertyAccessor)
+        accessor.getValue(new Bean()) == "private"
+    }
+
+    def "uses reflection for getter declared by JDK type"() {
+        def accessor = PropertyAccessors.of(Thread.getMethod("getName"))
+
+        expect:
+        !(accessor instanceof PropertyAccessors.GeneratedPropertyAccessor)
+        accessor.getValue(new Thread("thread")) == "thread"
+    }
+
+    def "reports getter failure as invocation target exception"() {
+        def accessor = PropertyAccessors.of(Bean.getMethod("getBroken"))
+
+        when:
+        accessor.getValue(new Bean())
+
+        then:
+        def e = thrown(InvocationTargetException)
+        e.cause instanceof IllegalStateException
+        e.cause.message == "broken"
+    }
+
+    interface HasValue {
+        String getValue()
+    }
+
+    static class Bean implements HasValue {
+        String name
+        int count
+
+        @Override
+        String getValue() {
+            return "interface"
+        }
+
+        @PackageScope
+        String getPackageValue() {
+            return "package"
+        }
+
+        private String getPrivateValue() {
+            return "private"
+        }
+
+        String getBroken() {
+            throw new IllegalStateException("broken")
+        }
+    }
+
+    static class SubBean extends Bean {
+        @Override
+        String getName() {
+            return "overridden " + super.getName()
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.configuration
+
+import org.gradle.StartParameter
+import org.gradle.api.Action
+import org.gradle.api.Task
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.execution.ProjectConfigurer
+import org.gradle.execution.TaskGraphExecuter
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.resource.ResourceLocation
+import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class ConfiguredProjectsCachingBuildConfigurerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def startParameter = new StartParameter()
+    def gradle = Mock(GradleInternal)
+    def taskGraph = Mock(TaskGraphExecuter)
+    def rootProject = Mock(ProjectInternal)
+    def projectA = Mock(ProjectInternal)
+    def projectB = Mock(ProjectInternal)
+    def delegate = Mock(BuildConfigurer)
+    def projectConfigurer = Mock(ProjectConfigurer)
+    def listenerManager = Mock(ListenerManager)
+    List<Action> graphReadyActions = []
+
+    def setup() {
+        def rootDir = tmpDir.createDir("root")
+        startParameter.currentDir = rootDir
+        startParameter.gradleUserHomeDir = tmpDir.createDir("user-home")
+        startParameter.taskNames = [":a:build"]
+        rootDir.file("build.gradle").text = "root"
+        rootDir.file("a/build.gradle").text = "a"
+        rootDir.file("b/build.gradle").text = "b"
+
+        gradle.startParameter >> startParameter
+        gradle.rootProject >> rootProject
+        gradle.taskGraph >> taskGraph
+        taskGraph.whenReady(_ as Action) >> { Action action -> graphReadyActions << action }
+
+        rootProject.path >> ":"
+        rootProject.projectDir >> rootDir
+        rootProject.buildFile >> rootDir.file("build.gradle")
+        rootProject.gradle >> gradle
+        rootProject.allprojects >> ([rootProject, projectA, projectB] as LinkedHashSet)
+        projectA.path >> ":a"
+        projectA.buildFile >> rootDir.file("a/build.gradle")
+        projectA.parent >> rootProject
+        projectA.gradle >> gradle
+        projectB.path >> ":b"
+        projectB.buildFile >> rootDir.file("b/build.gradle")
+        projectB.parent >> rootProject
+        projectB.gradle >> gradle
+    }
+
+    def "configures only the projects used by the previous build when inputs are unchanged"() {
+        given:
+        buildWithTasksOf(projectA)
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        0 * delegate._
+        1 * projectConfigurer.configure(rootProject)
+        1 * projectConfigurer.configure(projectA)
+        0 * projectConfigurer._
+    }
+
+    def "projects are configured on demand only when the configuration is reused"() {
+        def configurer = newConfigurer()
+
+        when:
+        configurer.configure(gradle)
+
+        then:
+        !configurer.isConfiguringOnDemand(gradle)
+
+        when:
+        graphReady(projectA)
+        configurer = newConfigurer()
+        configurer.configure(gradle)
+
+        then:
+        configurer.isConfiguringOnDemand(gradle)
+
+        when:
+        tmpDir.file("root/b/build.gradle").text = "b changed"
+        configurer = newConfigurer()
+        configurer.configure(gradle)
+
+        then:
+        !configurer.isConfiguringOnDemand(gradle)
+    }
+
+    def "configures all projects when a build file has changed"() {
+        given:
+        buildWithTasksOf(projectA)
+        tmpDir.file("root/b/build.gradle").text = "b changed"
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        0 * projectConfigurer._
+    }
+
+    def "configures all projects when an applied script has changed"() {
+        given:
+        def script = tmpDir.file("root/gradle/common.gradle")
+        script.text = "common"
+        def configurer = newConfigurer()
+        configurer.scriptClassLoaded(scriptSource(script), Script)
+        configurer.configure(gradle)
+        graphReady(projectA)
+        script.text = "common changed"
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        0 * projectConfigurer._
+    }
+
+    def "configures all projects when the requested tasks have changed"() {
+        given:
+        buildWithTasksOf(projectA)
+        startParameter.taskNames = [":b:other"]
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        0 * projectConfigurer._
+    }
+
+    @Unroll
+    def "does not cache configuration when #description"() {
+        startParameter.taskNames = taskNames
+        startParameter.excludedTaskNames = excludedTaskNames
+
+        when:
+        def configurer = newConfigurer()
+        configurer.configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        graphReadyActions.empty
+        !cacheDir().exists()
+        !configurer.isConfiguringOnDemand(gradle)
+
+        where:
+        description                       | taskNames             | excludedTaskNames
+        "a task is requested by name"     | [":a:build", "build"] | []
+        "a task is excluded by name"      | [":a:build"]          | ["test"]
+        "the default tasks are requested" | []                    | []
+        "only task options are given"     | ["--debug-jvm"]       | []
+    }
+
+    def "ignores task options when checking that tasks are requested by path"() {
+        startParameter.taskNames = [":a:test", "--debug-jvm"]
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        graphReadyActions.size() == 1
+    }
+
+    def "does not cache configuration when a project other than the root project configures another project"() {
+        given:
+        def configurer = newConfigurer()
+        configurer.configure(gradle)
+        configurer.beforeConfiguringProject(projectB, projectA)
+        graphReady(projectA)
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        0 * projectConfigurer._
+    }
+
+    def "caches configuration when the root project configures other projects"() {
+        given:
+        def configurer = newConfigurer()
+        configurer.configure(gradle)
+        configurer.beforeConfiguringProject(rootProject, projectB)
+        graphReady(projectA)
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        0 * delegate._
+        1 * projectConfigurer.configure(rootProject)
+        1 * projectConfigurer.configure(projectA)
+        0 * projectConfigurer._
+    }
+
+    def "does not cache configuration of nested builds"() {
+        def nestedGradle = Mock(GradleInternal)
+
+        when:
+        newConfigurer().configure(nestedGradle)
+
+        then:
+        _ * nestedGradle.parent >> gradle
+        1 * delegate.configure(nestedGradle)
+        0 * nestedGradle.taskGraph
+        !cacheDir().exists()
+    }
+
+    def "does not cache configuration when configuring on demand"() {
+        startParameter.configureOnDemand = true
+
+        when:
+        newConfigurer().configure(gradle)
+
+        then:
+        1 * delegate.configure(gradle)
+        graphReadyActions.empty
+    }
+
+    private void buildWithTasksOf(ProjectInternal project) {
+        newConfigurer().configure(gradle)
+        graphReady(project)
+    }
+
+    private void graphReady(ProjectInternal project) {
+        def task = Stub(Task) {
+            getProject() >> project
+        }
+        def graph = Stub(TaskGraphExecuter) {
+            getAllTasks() >> [task]
+        }
+        graphReadyActions.each { it.execute(graph) }
+        graphReadyActions.clear()
+    }
+
+    private ScriptSource scriptSource(File file) {
+        return Stub(ScriptSource) {
+            getResource() >> Stub(TextResource) {
+                getLocation() >> Stub(ResourceLocation) {
+                    getFile() >> file
+                }
+            }
+        }
+    }
+
+    private File cacheDir() {
+        return tmpDir.file("cache")
+    }
+
+    private ConfiguredProjectsCachingBuildConfigurer newConfigurer() {
+        return new ConfiguredProjectsCachingBuildConfigurer(delegate, projectConfigurer, cacheDir(), listenerManager)
+    }
+}
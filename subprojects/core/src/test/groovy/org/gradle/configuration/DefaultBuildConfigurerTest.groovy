@@ -49,4 +49,15 @@ class DefaultBuildConfigurerTest extends Specification {
         startParameter.isConfigureOnDemand() >> true
         1 * projectConfigurer.configure(rootProject)
     }
+
+    def "configures projects on demand only in on demand mode"() {
+        given:
+        startParameter.isConfigureOnDemand() >> onDemand
+
+        expect:
+        configurer.isConfiguringOnDemand(gradle) == onDemand
+
+        where:
+        onDemand << [true, false]
+    }
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution
+
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.project.ProjectEvaluationCoordinator
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resources.ResourceLock
+import org.gradle.internal.work.WorkerLeaseService
+import org.gradle.util.Path
+import spock.lang.Specification
+
+class ParallelProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def coordinator = new ProjectEvaluationCoordinator()
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def workerLeaseService = Mock(WorkerLeaseService)
+    def configurer = new ParallelProjectConfigurer(delegate, coordinator, buildOperationExecutor, workerLeaseService)
+    def gradle = Stub(GradleInternal) {
+        getIdentityPath() >> Path.ROOT
+    }
+
+    def setup() {
+        workerLeaseService.withLocks(_, _ as Runnable) >> { locks, Runnable action -> action.run() }
+    }
+
+    def "configures parent projects before their children"() {
+        def root = project(":", 0)
+        def a = project(":a", 1)
+        def b = project(":b", 1)
+        def aChild = project(":a:child", 2)
+        root.subprojects >> ([aChild, b, a] as Set)
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+
+        then:
+        1 * delegate.configure(b)
+        1 * delegate.configure(a)
+
+        then:
+        1 * delegate.configure(aChild)
+        0 * delegate._
+    }
+
+    def "configures each sub-project while holding its project lock"() {
+        def root = project(":", 0)
+        def a = project(":a", 1)
+        def lock = Stub(ResourceLock)
+        root.subprojects >> ([a] as Set)
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * workerLeaseService.getProjectLock(":", ":a") >> lock
+        1 * workerLeaseService.withLocks({ it.toList() == [lock] }, _ as Runnable) >> { locks, Runnable action -> action.run() }
+        1 * delegate.configure(a)
+        buildOperationExecutor.log.descriptors*.displayName == ["Configure project ':a' in parallel"]
+    }
+
+    def "acquires the project lock before the project is evaluated"() {
+        def root = project(":", 0)
+        def a = project(":a", 1)
+        def other = project(":other", 1)
+        root.subprojects >> ([a] as Set)
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        1 * workerLeaseService.withLocks(_, _ as Runnable) >> { locks, Runnable action ->
+            // Not yet evaluating, so this access does not make evaluation serial
+            coordinator.beforeAccessingProject(other)
+            assert !coordinator.serial
+            action.run()
+        }
+        1 * delegate.configure(a) >> {
+            coordinator.beforeAccessingProject(other)
+        }
+        coordinator.serial
+    }
+
+    def "delegates the configuration of individual projects"() {
+        def root = project(":", 0)
+
+        when:
+        configurer.configure(root)
+        configurer.configureFully(root)
+        configurer.configureHierarchyFully(root)
+
+        then:
+        1 * delegate.configure(root)
+        1 * delegate.configureFully(root)
+        1 * delegate.configureHierarchyFully(root)
+        0 * delegate._
+    }
+
+    private ProjectInternal project(String path, int depth) {
+        def project = Mock(ProjectInternal)
+        project.identityPath >> Path.path(path)
+        project.depth >> depth
+        project.gradle >> gradle
+        project.displayName >> "project '$path'".toString()
+        return project
+    }
+}
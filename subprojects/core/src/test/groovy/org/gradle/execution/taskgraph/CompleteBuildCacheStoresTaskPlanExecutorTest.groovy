@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.Action
+import org.gradle.caching.internal.controller.BuildCacheController
+import spock.lang.Specification
+
+class CompleteBuildCacheStoresTaskPlanExecutorTest extends Specification {
+    def delegate = Mock(TaskPlanExecutor)
+    def buildCache = Mock(BuildCacheController)
+    def taskPlan = Mock(TaskExecutionPlan)
+    def worker = Mock(Action)
+    def executor = new CompleteBuildCacheStoresTaskPlanExecutor(delegate, buildCache)
+
+    def "waits for build cache stores once the plan has been executed"() {
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * buildCache.startStores()
+
+        then:
+        1 * delegate.process(taskPlan, worker)
+
+        then:
+        1 * buildCache.completeStores(false)
+        0 * buildCache._
+    }
+
+    def "discards pending build cache stores when the plan fails"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * buildCache.startStores()
+
+        then:
+        1 * delegate.process(taskPlan, worker) >> { throw failure }
+
+        then:
+        1 * buildCache.completeStores(true)
+        0 * buildCache._
+
+        and:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+}
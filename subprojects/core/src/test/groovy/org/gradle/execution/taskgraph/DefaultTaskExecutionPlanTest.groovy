@@ -872,6 +872,37 @@ class DefaultTaskExecutionPlanTest extends AbstractProjectBuilderSpec {
         filtered(b)
     }
 
+    def "ready tasks are those whose dependencies have completed"() {
+        given:
+        Task a = task("a")
+        Task b = task("b", dependsOn: [a])
+        Task c = task("c")
+        addToGraphAndPopulate([b, c])
+
+        expect:
+        executionPlan.readyTasks == [a, c]
+
+        when:
+        executionPlan.executeWithTask(workerLease, Stub(Action))
+
+        then:
+        executionPlan.readyTasks == [b, c]
+    }
+
+    def "tasks whose dependencies have failed are not ready"() {
+        given:
+        Task a = task([failure: new RuntimeException("failure")], "a")
+        Task b = task("b", dependsOn: [a])
+        executionPlan.useFailureHandler(createIgnoreTaskFailureHandler(a))
+        addToGraphAndPopulate([b])
+
+        when:
+        executionPlan.executeWithTask(workerLease, Stub(Action))
+
+        then:
+        executionPlan.readyTasks.empty
+    }
+
     private void addToGraphAndPopulate(List tasks) {
         executionPlan.addToTaskGraph(tasks)
         executionPlan.determineExecutionPlan()
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import org.gradle.api.Action
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.TaskExecutionHistory
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputCachingState
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.changedetection.TaskArtifactState
+import org.gradle.api.internal.changedetection.TaskArtifactStateRepository
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.CompositeTaskOutputPropertySpec
+import org.gradle.api.internal.tasks.TaskDestroyablesInternal
+import org.gradle.api.internal.tasks.TaskLocalStateInternal
+import org.gradle.api.internal.tasks.properties.PropertyVisitor
+import org.gradle.api.internal.tasks.properties.PropertyWalker
+import org.gradle.caching.internal.controller.BuildCacheController
+import org.gradle.caching.internal.tasks.TaskOutputCachingBuildCacheKey
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
+import org.gradle.internal.file.PathToFileResolver
+import org.gradle.internal.resources.DefaultResourceLockCoordinationService
+import org.gradle.internal.work.DefaultWorkerLeaseService
+import org.gradle.util.Path
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.lock
+import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.unlock
+
+class PrefetchBuildCacheEntriesTaskPlanExecutorTest extends Specification {
+    def coordinationService = new DefaultResourceLockCoordinationService()
+    def workerLeaseService = new DefaultWorkerLeaseService(coordinationService, new ParallelismConfigurationManagerFixture(true, 2))
+    def projectLock = workerLeaseService.getProjectLock(":", ":")
+    def delegate = Mock(TaskPlanExecutor)
+    def buildCache = Mock(BuildCacheController)
+    def repository = Mock(TaskArtifactStateRepository)
+    def propertyWalker = Mock(PropertyWalker)
+    def taskPlan = Mock(TaskExecutionPlan)
+    def worker = Mock(Action)
+    def executorFactory = new DefaultExecutorFactory()
+    def executor = new PrefetchBuildCacheEntriesTaskPlanExecutor(delegate, executorFactory, coordinationService, workerLeaseService, buildCache, repository, Mock(PathToFileResolver), propertyWalker)
+
+    def cleanup() {
+        executorFactory.stop()
+        // Fails when a worker lease has not been released
+        workerLeaseService.stop()
+    }
+
+    def "calculates the cache keys of ready tasks on a separate thread"() {
+        def readyTask = newTask()
+        def visited = new CountDownLatch(1)
+        def thread = null
+
+        given:
+        taskPlan.readyTasks >> [readyTask]
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> {
+            assert visited.await(10, TimeUnit.SECONDS)
+        }
+        1 * propertyWalker.visitProperties(_, _, readyTask) >> {
+            thread = Thread.currentThread()
+            visited.countDown()
+            throw new RuntimeException("broken")
+        }
+        0 * buildCache.prefetch(_)
+
+        and:
+        thread != Thread.currentThread()
+    }
+
+    def "prefetches the cache keys of all ready tasks at once"() {
+        def readyTasks = [newTask(), newTask()]
+        def keys = [Stub(TaskOutputCachingBuildCacheKey) { isValid() >> true }, Stub(TaskOutputCachingBuildCacheKey) { isValid() >> true }]
+        def prefetched = new CountDownLatch(1)
+
+        given:
+        taskPlan.readyTasks >> readyTasks
+        propertyWalker.visitProperties(_, _, _) >> { specFactory, PropertyVisitor visitor, task ->
+            // Declares an output
+            visitor.visitOutputFileProperty(Stub(CompositeTaskOutputPropertySpec) {
+                resolveToOutputProperties() >> Collections.emptyIterator()
+            })
+        }
+        repository.getStateFor(readyTasks[0], _) >> artifactState(keys[0])
+        repository.getStateFor(readyTasks[1], _) >> artifactState(keys[1])
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> {
+            assert prefetched.await(10, TimeUnit.SECONDS)
+        }
+        1 * buildCache.prefetch(keys) >> {
+            prefetched.countDown()
+        }
+
+        and:
+        1 * buildCache.discardPrefetches()
+    }
+
+    def "discards the prefetches that have not been loaded once the plan has been executed"() {
+        given:
+        taskPlan.readyTasks >> []
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _)
+
+        then:
+        1 * buildCache.discardPrefetches()
+    }
+
+    def "does not wait for the project lock of a ready task and looks at the task again once a task finishes"() {
+        def executingTask = newTask()
+        def readyTask = newTask()
+        def locked = new AtomicBoolean()
+        def lookedUp = new CountDownLatch(1)
+        def visited = new CountDownLatch(1)
+
+        given:
+        taskPlan.readyTasks >> {
+            if (!locked.get()) {
+                return []
+            }
+            lookedUp.countDown()
+            [readyTask]
+        }
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> { TaskExecutionPlan plan, Action<TaskInternal> taskWorker ->
+            // The executing task holds the lock of the project
+            coordinationService.withStateLock(lock(projectLock))
+            locked.set(true)
+            taskWorker.execute(executingTask)
+            assert visited.await(10, TimeUnit.SECONDS)
+        }
+        1 * worker.execute(executingTask) >> {
+            assert lookedUp.await(10, TimeUnit.SECONDS)
+            Thread.sleep(50)
+            assert visited.count == 1
+            coordinationService.withStateLock(unlock(projectLock))
+        }
+        1 * propertyWalker.visitProperties(_, _, readyTask) >> {
+            visited.countDown()
+            throw new RuntimeException("broken")
+        }
+    }
+
+    def "does not calculate the cache key of a task that has started"() {
+        def task = newTask()
+        def started = new AtomicBoolean()
+
+        given:
+        taskPlan.readyTasks >> {
+            started.get() ? [task] : []
+        }
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> { TaskExecutionPlan plan, Action<TaskInternal> taskWorker ->
+            taskWorker.execute(task)
+            Thread.sleep(50)
+        }
+        1 * worker.execute(task) >> {
+            started.set(true)
+        }
+        0 * propertyWalker._
+        0 * buildCache.prefetch(_)
+    }
+
+    def "stops prefetching when the plan has been executed"() {
+        given:
+        taskPlan.readyTasks >> []
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _)
+
+        when:
+        Thread.sleep(50)
+
+        then:
+        0 * taskPlan._
+    }
+
+    private TaskArtifactState artifactState(TaskOutputCachingBuildCacheKey key) {
+        return Stub(TaskArtifactState) {
+            isAllowedToUseCachedResults() >> true
+            getExecutionHistory() >> Stub(TaskExecutionHistory) {
+                getOriginExecutionMetadata() >> null
+            }
+            calculateCacheKey() >> key
+        }
+    }
+
+    private TaskInternal newTask() {
+        def gradle = Stub(GradleInternal) {
+            getIdentityPath() >> Path.ROOT
+        }
+        def project = Stub(ProjectInternal) {
+            getGradle() >> gradle
+            getIdentityPath() >> Path.ROOT
+        }
+        return Stub(TaskInternal) {
+            getProject() >> project
+            getOutputs() >> Stub(TaskOutputsInternal) {
+                getCachingState(_) >> Stub(TaskOutputCachingState) {
+                    isEnabled() >> true
+                }
+            }
+            getDestroyables() >> Stub(TaskDestroyablesInternal)
+            getLocalState() >> Stub(TaskLocalStateInternal)
+        }
+    }
+}
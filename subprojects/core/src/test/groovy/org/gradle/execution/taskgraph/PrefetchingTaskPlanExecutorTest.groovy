@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.execution.taskgraph
+
+import com.google.common.collect.ImmutableSortedMap
+import org.gradle.api.Action
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.changedetection.state.FileCollectionSnapshot
+import org.gradle.api.internal.changedetection.state.HistoricalTaskExecution
+import org.gradle.api.internal.changedetection.state.TaskHistoryRepository
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.FileHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class PrefetchingTaskPlanExecutorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def delegate = Mock(TaskPlanExecutor)
+    def taskHistoryRepository = Mock(TaskHistoryRepository)
+    def fileHasher = Mock(FileHasher)
+    def taskPlan = Mock(TaskExecutionPlan)
+    def worker = Mock(Action)
+    def executorFactory = new DefaultExecutorFactory()
+    def executor = new PrefetchingTaskPlanExecutor(delegate, executorFactory, taskHistoryRepository, fileHasher)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "hashes the previous input files of ready tasks while executing the plan"() {
+        def task = Stub(TaskInternal)
+        def input = tmpDir.createFile("input.txt")
+        def discoveredInput = tmpDir.createFile("header.h")
+        def missing = tmpDir.file("missing.txt")
+        def hashed = new CountDownLatch(2)
+
+        given:
+        taskPlan.readyTasks >> [task]
+        taskHistoryRepository.getPreviousExecution(task) >> previousExecution([input, missing], [discoveredInput])
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> {
+            assert hashed.await(10, TimeUnit.SECONDS)
+        }
+        1 * fileHasher.hash(input) >> {
+            hashed.countDown()
+            HashCode.fromInt(1)
+        }
+        1 * fileHasher.hash(discoveredInput) >> {
+            hashed.countDown()
+            HashCode.fromInt(2)
+        }
+        0 * fileHasher.hash(missing)
+    }
+
+    def "does not hash anything for tasks that have not executed before"() {
+        def task = Stub(TaskInternal)
+        def lookedUp = new CountDownLatch(1)
+
+        given:
+        taskPlan.readyTasks >> [task]
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> {
+            assert lookedUp.await(10, TimeUnit.SECONDS)
+        }
+        1 * taskHistoryRepository.getPreviousExecution(task) >> {
+            lookedUp.countDown()
+            null
+        }
+        0 * fileHasher._
+    }
+
+    def "failure to prefetch does not fail the build"() {
+        def task = Stub(TaskInternal)
+        def lookedUp = new CountDownLatch(1)
+
+        given:
+        taskPlan.readyTasks >> [task]
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> {
+            assert lookedUp.await(10, TimeUnit.SECONDS)
+        }
+        1 * taskHistoryRepository.getPreviousExecution(task) >> {
+            lookedUp.countDown()
+            throw new RuntimeException("broken")
+        }
+        noExceptionThrown()
+    }
+
+    def "looks up the ready tasks again only when a task starts"() {
+        def first = Stub(TaskInternal)
+        def second = Stub(TaskInternal)
+        def lookedUpFirst = new CountDownLatch(1)
+        def lookedUpSecond = new CountDownLatch(1)
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _) >> { TaskExecutionPlan plan, Action<TaskInternal> taskWorker ->
+            assert lookedUpFirst.await(10, TimeUnit.SECONDS)
+            Thread.sleep(50)
+            taskWorker.execute(first)
+            assert lookedUpSecond.await(10, TimeUnit.SECONDS)
+        }
+        1 * taskPlan.readyTasks >> [first]
+        1 * taskHistoryRepository.getPreviousExecution(first) >> {
+            lookedUpFirst.countDown()
+            null
+        }
+        1 * worker.execute(first)
+        1 * taskPlan.readyTasks >> [first, second]
+        1 * taskHistoryRepository.getPreviousExecution(second) >> {
+            lookedUpSecond.countDown()
+            null
+        }
+        0 * taskPlan._
+        0 * taskHistoryRepository._
+    }
+
+    def "stops prefetching when the plan has been executed"() {
+        given:
+        taskPlan.readyTasks >> []
+
+        when:
+        executor.process(taskPlan, worker)
+
+        then:
+        1 * delegate.process(taskPlan, _)
+
+        when:
+        Thread.sleep(50)
+
+        then:
+        0 * taskPlan._
+    }
+
+    private HistoricalTaskExecution previousExecution(List<File> inputFiles, List<File> discoveredInputFiles) {
+        def inputs = Stub(FileCollectionSnapshot) {
+            getFiles() >> inputFiles
+        }
+        def discoveredInputs = Stub(FileCollectionSnapshot) {
+            getFiles() >> discoveredInputFiles
+        }
+        return Stub(HistoricalTaskExecution) {
+            getInputFilesSnapshot() >> ImmutableSortedMap.of("inputs", inputs)
+            getDiscoveredInputFilesSnapshot() >> discoveredInputs
+        }
+    }
+}
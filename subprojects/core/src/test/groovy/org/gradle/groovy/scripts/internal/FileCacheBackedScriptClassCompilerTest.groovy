@@ -22,6 +22,8 @@ import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.CacheValidator
 import org.gradle.cache.PersistentCache
+import org.gradle.cache.internal.CacheScopeMapping
+import org.gradle.cache.internal.VersionStrategy
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
@@ -30,11 +32,16 @@ import org.gradle.internal.hash.HashCode
 import org.gradle.internal.logging.progress.ProgressLogger
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.resource.TextResource
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
+    final CacheScopeMapping cacheScopeMapping = Mock()
     final CacheBuilder localCacheBuilder = Mock()
     final CacheBuilder globalCacheBuilder = Mock()
     final CacheValidator validator = Mock()
@@ -50,11 +57,11 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     final classLoaderHierarchyHasher = Mock(ClassLoaderHierarchyHasher) {
         getClassLoaderHash(classLoader) >> HashCode.fromInt(9999)
     }
-    final File localDir = new File("local-dir")
-    final File globalDir = new File("global-dir")
-    final File classesDir = new File(globalDir, "classes")
-    final File metadataDir = new File(globalDir, "metadata")
-    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher)
+    File localDir
+    File globalDir
+    File classesDir
+    File metadataDir
+    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, cacheScopeMapping, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory), hasher, classLoaderCache, classLoaderHierarchyHasher)
     final Action verifier = Stub()
     final CompiledScript compiledScript = Stub() {
         loadClass() >> Script
@@ -62,6 +69,10 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
     def classLoaderId = ClassLoaderIds.buildScript("foo", "bar")
 
     def setup() {
+        localDir = tmpDir.createDir("local-dir")
+        globalDir = tmpDir.createDir("global-dir")
+        classesDir = tmpDir.createDir("global-dir/classes")
+        metadataDir = tmpDir.createDir("global-dir/metadata")
         _ * source.resource >> resource
         _ * resource.contentCached >> true
         _ * resource.text >> 'this is the script'
@@ -73,6 +84,7 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         _ * localCache.baseDir >> localDir
         _ * globalCache.baseDir >> globalDir
         _ * validator.isValid() >> true
+        _ * cacheScopeMapping.getBaseDirectory(null, { it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }, VersionStrategy.CachePerVersion) >> localDir
     }
 
     def "loads classes from cache directory"() {
@@ -106,6 +118,37 @@ class FileCacheBackedScriptClassCompilerTest extends Specification {
         0 * scriptCompilationHandler._
     }
 
+    def "loads classes from the pack without opening the cache"() {
+        given:
+        PackedScriptClasses.write(new File(localDir, "classes"), new TreeMap<String, byte[]>())
+
+        when:
+        def result = compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier).loadClass()
+
+        then:
+        result == Script
+        1 * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script, classLoaderId) >> compiledScript
+        0 * cacheRepository._
+        0 * scriptCompilationHandler._
+    }
+
+    def "opens the cache when the cache is invalid even though the classes have been packed"() {
+        given:
+        PackedScriptClasses.write(new File(localDir, "classes"), new TreeMap<String, byte[]>())
+
+        when:
+        compiler.compile(source, classLoader, classLoaderId, operation, Script, verifier)
+
+        then:
+        _ * validator.isValid() >> false
+        1 * hasher.hash(source) >> HashCode.fromInt(0x0123)
+        1 * cacheRepository.cache({ it =~ "scripts-remapped/ScriptClassName/\\p{XDigit}+/TransformerId\\p{XDigit}+" }) >> localCacheBuilder
+        1 * localCacheBuilder.open() >> localCache
+        _ * localCacheBuilder._ >> localCacheBuilder
+        1 * scriptCompilationHandler.loadFromDir(source, _, classLoader, new File(localDir, 'classes'), new File(localDir, 'metadata'), operation, Script, classLoaderId) >> compiledScript
+    }
+
     def "passes CacheValidator to cache builders"() {
         setup:
         hasher.hash(source) >> HashCode.fromInt(0x0123)
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+
+class PackedScriptClassesTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "packs classes"() {
+        def classesDir = tmpDir.createDir("classes")
+
+        when:
+        PackedScriptClasses.write(classesDir, classes(
+            'build_123': [1, 2, 3],
+            'build_123$_run_closure1': [4, 5],
+            'org.gradle.Helper': [6]))
+        def packed = PackedScriptClasses.open(classesDir)
+
+        then:
+        PackedScriptClasses.packFileFor(classesDir) == tmpDir.file("classes.pack")
+        tmpDir.testDirectory.list() as Set == ["classes", "classes.pack"] as Set
+        classesDir.list().length == 0
+        bytesOf(packed.getClassBytes('build_123')) == [1, 2, 3]
+        bytesOf(packed.getClassBytes('build_123$_run_closure1')) == [4, 5]
+        bytesOf(packed.getClassBytes('org.gradle.Helper')) == [6]
+        packed.getClassBytes('build_456') == null
+    }
+
+    def "packs no classes"() {
+        def classesDir = tmpDir.createDir("classes")
+
+        when:
+        PackedScriptClasses.write(classesDir, classes([:]))
+
+        then:
+        PackedScriptClasses.open(classesDir).getClassBytes('build_123') == null
+    }
+
+    def "does not open a missing pack"() {
+        expect:
+        PackedScriptClasses.open(tmpDir.createDir("classes")) == null
+    }
+
+    def "does not open a truncated pack"() {
+        def classesDir = tmpDir.createDir("classes")
+        PackedScriptClasses.write(classesDir, classes('build_123': [1, 2, 3]))
+        def packFile = PackedScriptClasses.packFileFor(classesDir)
+        def content = packFile.bytes
+        packFile.bytes = content[0..content.length - 2] as byte[]
+
+        expect:
+        PackedScriptClasses.open(classesDir) == null
+    }
+
+    private static SortedMap<String, byte[]> classes(Map<String, List<Integer>> classes) {
+        def result = new TreeMap<String, byte[]>()
+        classes.each { name, bytes -> result.put(name, bytes as byte[]) }
+        return result
+    }
+
+    private static List<Byte> bytesOf(ByteBuffer buffer) {
+        def bytes = new byte[buffer.remaining()]
+        buffer.get(bytes)
+        return bytes as List
+    }
+}
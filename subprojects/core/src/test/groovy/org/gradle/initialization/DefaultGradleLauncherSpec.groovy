@@ -174,6 +174,36 @@ class DefaultGradleLauncherSpec extends Specification {
         assert buildOperationExecutor.operations[3].displayName == "Run tasks (:nested)"
     }
 
+    void testNotifiesListenerOfProjectsEvaluatedAfterTasksSelectedWhenProjectsAreConfiguredOnDemand() {
+        when:
+        isRootBuild()
+        expectInitScriptsExecuted()
+        expectSettingsBuilt()
+        expectTasksRun()
+        _ * buildConfigurerMock.isConfiguringOnDemand(gradleMock) >> true
+
+        DefaultGradleLauncher gradleLauncher = launcher()
+        gradleLauncher.executeTasks()
+
+        then:
+        1 * buildBroadcaster.buildStarted(gradleMock)
+
+        then:
+        1 * buildConfigurerMock.configure(gradleMock)
+
+        then:
+        1 * modelListenerMock.onConfigure(gradleMock)
+
+        then:
+        1 * buildConfigurationActionExecuter.select(gradleMock)
+
+        then:
+        1 * buildBroadcaster.projectsEvaluated(gradleMock)
+
+        then:
+        1 * buildBroadcaster.buildFinished({ BuildResult result -> result.failure == null })
+    }
+
     void testGetBuildAnalysis() {
         when:
         isRootBuild()
@@ -18,9 +18,9 @@ package org.gradle.plugins.ide.internal.tooling;
 
 import org.gradle.api.Project;
 import org.gradle.plugins.ide.internal.tooling.idea.DefaultIdeaProject;
-import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
 
-public class BasicIdeaModelBuilder implements ToolingModelBuilder {
+public class BasicIdeaModelBuilder implements BuildWideToolingModelBuilder {
     private final IdeaModelBuilder ideaModelBuilder;
 
     public BasicIdeaModelBuilder(IdeaModelBuilder ideaModelBuilder) {
@@ -30,7 +30,7 @@ import org.gradle.plugins.ide.internal.tooling.model.LaunchableGradleTask;
 import org.gradle.plugins.ide.internal.tooling.model.LaunchableGradleTaskSelector;
 import org.gradle.tooling.internal.gradle.DefaultProjectIdentifier;
 import org.gradle.tooling.internal.consumer.converters.TaskNameComparator;
-import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
 
 import java.util.Collection;
 import java.util.List;
@@ -39,7 +39,7 @@ import java.util.Set;
 
 import static org.gradle.plugins.ide.internal.tooling.ToolingModelBuilderSupport.buildFromTask;
 
-public class BuildInvocationsBuilder implements ToolingModelBuilder {
+public class BuildInvocationsBuilder implements BuildWideToolingModelBuilder {
 
     private final ProjectTaskLister taskLister;
     private final TaskNameComparator taskNameComparator;
@@ -56,7 +56,7 @@ import org.gradle.plugins.ide.internal.tooling.eclipse.DefaultEclipseSourceDirec
 import org.gradle.plugins.ide.internal.tooling.eclipse.DefaultEclipseTask;
 import org.gradle.plugins.ide.internal.tooling.java.DefaultInstalledJdk;
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
-import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.GUtil;
 
@@ -67,7 +67,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class EclipseModelBuilder implements ToolingModelBuilder {
+public class EclipseModelBuilder implements BuildWideToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
 
     private boolean projectDependenciesOnly;
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.internal.resource.ResourceLocation;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the scripts evaluated by a build.
+ */
+public class EvaluatedScripts implements ScriptExecutionListener {
+    private final Set<File> scriptFiles = Collections.synchronizedSet(new LinkedHashSet<File>());
+    private volatile boolean remoteScriptsUsed;
+
+    @Override
+    public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+        ResourceLocation location = source.getResource().getLocation();
+        if (location.getFile() != null) {
+            scriptFiles.add(location.getFile());
+        } else if (location.getURI() != null) {
+            remoteScriptsUsed = true;
+        }
+    }
+
+    public List<File> getScriptFiles() {
+        synchronized (scriptFiles) {
+            return new ArrayList<File>(scriptFiles);
+        }
+    }
+
+    /**
+     * Returns true when the build has evaluated a script that is not a local file.
+     */
+    public boolean isRemoteScriptsUsed() {
+        return remoteScriptsUsed;
+    }
+}
@@ -23,7 +23,7 @@ import org.gradle.plugins.ide.internal.tooling.model.LaunchableGradleProjectTask
 import org.gradle.plugins.ide.internal.tooling.model.LaunchableGradleTask;
 import org.gradle.tooling.internal.gradle.DefaultProjectIdentifier;
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
-import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,7 +34,7 @@ import static org.gradle.plugins.ide.internal.tooling.ToolingModelBuilderSupport
 /**
  * Builds the GradleProject that contains the project hierarchy and task information
  */
-public class GradleProjectBuilder implements ToolingModelBuilder {
+public class GradleProjectBuilder implements BuildWideToolingModelBuilder {
 
     @Override
     public boolean canBuild(String modelName) {
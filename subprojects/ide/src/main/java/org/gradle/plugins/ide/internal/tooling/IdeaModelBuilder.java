@@ -19,8 +19,10 @@ package org.gradle.plugins.ide.internal.tooling;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.Project;
 import org.gradle.api.initialization.IncludedBuild;
+import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.plugins.JavaPluginConvention;
 import org.gradle.composite.internal.IncludedBuildInternal;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.plugins.ide.idea.IdeaPlugin;
 import org.gradle.plugins.ide.idea.model.Dependency;
@@ -44,11 +46,13 @@ import org.gradle.plugins.ide.internal.tooling.idea.DefaultIdeaSourceDirectory;
 import org.gradle.plugins.ide.internal.tooling.java.DefaultInstalledJdk;
 import org.gradle.tooling.internal.gradle.DefaultGradleModuleVersion;
 import org.gradle.tooling.internal.gradle.DefaultGradleProject;
-import org.gradle.tooling.provider.model.ToolingModelBuilder;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -56,13 +60,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public class IdeaModelBuilder implements ToolingModelBuilder {
+public class IdeaModelBuilder implements BuildWideToolingModelBuilder {
     private final GradleProjectBuilder gradleProjectBuilder;
+    private final ServiceRegistry services;
 
     private boolean offlineDependencyResolution;
 
     public IdeaModelBuilder(GradleProjectBuilder gradleProjectBuilder, ServiceRegistry services) {
         this.gradleProjectBuilder = gradleProjectBuilder;
+        this.services = services;
     }
 
     @Override
@@ -108,8 +114,16 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
+        HashCode buildInputs = null;
+        Map<String, IdeaModule> modulesByName = new HashMap<String, IdeaModule>();
+        if (Boolean.getBoolean(IdeaModuleDependenciesCache.CACHE_PROPERTY)) {
+            buildInputs = services.get(IdeaModuleDependenciesCache.class).hashBuildInputs((GradleInternal) project.getGradle(), services.get(EvaluatedScripts.class));
+            for (IdeaModule module : projectModel.getModules()) {
+                modulesByName.put(module.getName(), module);
+            }
+        }
         for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+            buildDependencies(modules, module, buildInputs, modulesByName);
         }
         final Collection<DefaultIdeaModule> ideaModules = modules.values();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
@@ -120,9 +134,11 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         return project.getPlugins().getPlugin(IdeaPlugin.class);
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, @Nullable HashCode buildInputs, Map<String, IdeaModule> modulesByName) {
         ideaModule.setOffline(offlineDependencyResolution);
-        Set<Dependency> resolved = ideaModule.resolveDependencies();
+        Set<Dependency> resolved = buildInputs != null
+            ? services.get(IdeaModuleDependenciesCache.class).resolveDependencies(ideaModule, buildInputs, modulesByName)
+            : ideaModule.resolveDependencies();
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
             if (dependency instanceof SingleEntryModuleLibrary) {
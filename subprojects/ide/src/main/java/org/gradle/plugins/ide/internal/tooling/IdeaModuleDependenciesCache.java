@@ -0,0 +1,171 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Project;
+import org.gradle.api.internal.GradleInternal;
+import org.gradle.cache.internal.CrossBuildInMemoryCache;
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.configuration.BuildInputsHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.plugins.ide.idea.model.Dependency;
+import org.gradle.plugins.ide.idea.model.IdeaModule;
+import org.gradle.plugins.ide.idea.model.ModuleDependency;
+import org.gradle.plugins.ide.idea.model.SingleEntryModuleLibrary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Keeps the resolved dependencies of IDEA modules in memory between builds, so that the IDEA model of a build can be built again without resolving the
+ * dependencies of unchanged projects.
+ *
+ * <p>The dependencies of a module are reused when the inputs of its project are unchanged. These are the scripts evaluated by the build other than project
+ * build files, the {@code gradle.properties} files, the contents of {@code buildSrc}, the paths of all projects, the project and system properties of the
+ * invocation and its environment, and the build files of the project, of the projects it depended on and of their parent projects. Changing or dynamic
+ * versions are not resolved again while these inputs are unchanged.</p>
+ *
+ * <p>The cache is not used for builds that include other builds, that evaluate remote scripts or that refresh dependencies.</p>
+ */
+public class IdeaModuleDependenciesCache {
+    /**
+     * Enables caching of the resolved dependencies of IDEA modules when set to true.
+     */
+    public static final String CACHE_PROPERTY = "org.gradle.tooling.models.cache";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IdeaModuleDependenciesCache.class);
+
+    private final CrossBuildInMemoryCache<String, CachedDependencies> cache;
+
+    public IdeaModuleDependenciesCache(CrossBuildInMemoryCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache();
+    }
+
+    /**
+     * Hashes the inputs shared by all projects of the given build. Returns {@code null} when the dependencies of the build's modules cannot be cached.
+     */
+    @Nullable
+    public HashCode hashBuildInputs(GradleInternal gradle, EvaluatedScripts evaluatedScripts) {
+        if (evaluatedScripts.isRemoteScriptsUsed() || !gradle.getIncludedBuilds().isEmpty() || gradle.getStartParameter().isRefreshDependencies()) {
+            return null;
+        }
+        Set<File> buildFiles = new HashSet<File>();
+        Hasher hasher = Hashing.md5().newHasher();
+        BuildInputsHasher.putBuildEnvironment(hasher, gradle);
+        for (Project project : gradle.getRootProject().getAllprojects()) {
+            hasher.putString(project.getPath());
+            buildFiles.add(project.getBuildFile());
+        }
+        for (File script : evaluatedScripts.getScriptFiles()) {
+            if (!buildFiles.contains(script)) {
+                BuildInputsHasher.putFile(hasher, script);
+            }
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Returns the dependencies of the given module, resolving them only when the inputs of its project have changed since they were last resolved.
+     *
+     * @param buildInputs the hash of the inputs of the build, as returned by {@link #hashBuildInputs(GradleInternal, EvaluatedScripts)}.
+     * @param modulesByName the modules of the build, by name.
+     */
+    public Set<Dependency> resolveDependencies(IdeaModule ideaModule, HashCode buildInputs, Map<String, IdeaModule> modulesByName) {
+        Project project = ideaModule.getProject();
+        String key = project.getRootDir().getAbsolutePath() + project.getPath();
+        CachedDependencies cached = cache.get(key);
+        if (cached != null && cached.inputs.equals(hashModuleInputs(ideaModule, buildInputs, cached.inputProjects)) && cached.libraryFilesExist()) {
+            LOGGER.info("Reusing the resolved dependencies of IDEA module '{}', as its inputs have not changed.", ideaModule.getName());
+            return cached.dependencies;
+        }
+
+        Set<Dependency> dependencies = ideaModule.resolveDependencies();
+        SortedSet<String> inputProjects = new TreeSet<String>();
+        inputProjects.add(project.getPath());
+        for (Dependency dependency : dependencies) {
+            if (dependency instanceof ModuleDependency) {
+                IdeaModule targetModule = modulesByName.get(((ModuleDependency) dependency).getName());
+                if (targetModule != null) {
+                    inputProjects.add(targetModule.getProject().getPath());
+                }
+            }
+        }
+        cache.put(key, new CachedDependencies(hashModuleInputs(ideaModule, buildInputs, inputProjects), inputProjects, dependencies));
+        return dependencies;
+    }
+
+    private static HashCode hashModuleInputs(IdeaModule ideaModule, HashCode buildInputs, SortedSet<String> inputProjects) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putHash(buildInputs);
+        hasher.putBoolean(ideaModule.isOffline());
+        Project rootProject = ideaModule.getProject().getRootProject();
+        Set<Project> visited = new HashSet<Project>();
+        for (String path : inputProjects) {
+            hasher.putString(path);
+            Project project = rootProject.findProject(path);
+            while (project != null && visited.add(project)) {
+                BuildInputsHasher.putFile(hasher, project.getBuildFile());
+                project = project.getParent();
+            }
+        }
+        // Output directories are only added to the dependencies when they exist
+        Map<String, Iterable<File>> singleEntryLibraries = ideaModule.getSingleEntryLibraries();
+        if (singleEntryLibraries != null) {
+            for (Map.Entry<String, Iterable<File>> entry : singleEntryLibraries.entrySet()) {
+                hasher.putString(entry.getKey());
+                for (File file : entry.getValue()) {
+                    hasher.putString(file.getAbsolutePath());
+                    hasher.putBoolean(file.isDirectory());
+                }
+            }
+        }
+        return hasher.hash();
+    }
+
+    private static class CachedDependencies {
+        private final HashCode inputs;
+        private final SortedSet<String> inputProjects;
+        private final Set<Dependency> dependencies;
+
+        CachedDependencies(HashCode inputs, SortedSet<String> inputProjects, Set<Dependency> dependencies) {
+            this.inputs = inputs;
+            this.inputProjects = inputProjects;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * Checks that the resolved files have not been removed from the dependency cache in the meantime.
+         */
+        boolean libraryFilesExist() {
+            for (Dependency dependency : dependencies) {
+                if (dependency instanceof SingleEntryModuleLibrary && !((SingleEntryModuleLibrary) dependency).getLibraryFile().exists()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
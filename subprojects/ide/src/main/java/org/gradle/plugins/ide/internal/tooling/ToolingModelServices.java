@@ -19,6 +19,7 @@ package org.gradle.plugins.ide.internal.tooling;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.ProjectPublicationRegistry;
 import org.gradle.api.internal.project.ProjectTaskLister;
 import org.gradle.initialization.ProjectPathRegistry;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -28,6 +29,11 @@ import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.internal.BuildScopeToolingModelBuilderRegistryAction;
 
 public class ToolingModelServices extends AbstractPluginServiceRegistry {
+    @Override
+    public void registerGlobalServices(ServiceRegistration registration) {
+        registration.add(IdeaModuleDependenciesCache.class);
+    }
+
     @Override
     public void registerBuildServices(ServiceRegistration registration) {
         registration.addProvider(new BuildScopeToolingServices());
@@ -35,6 +41,14 @@ public class ToolingModelServices extends AbstractPluginServiceRegistry {
 
     private static class BuildScopeToolingServices {
 
+        void configure(ServiceRegistration registration, ListenerManager listenerManager, EvaluatedScripts evaluatedScripts) {
+            listenerManager.addListener(evaluatedScripts);
+        }
+
+        protected EvaluatedScripts createEvaluatedScripts() {
+            return new EvaluatedScripts();
+        }
+
         protected UniqueProjectNameProvider createBuildProjectRegistry(ProjectPathRegistry projectRegistry) {
             return new DefaultUniqueProjectNameProvider(projectRegistry);
         }
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.api.Project
+import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.internal.event.DefaultListenerManager
+import org.gradle.internal.hash.HashCode
+import org.gradle.plugins.ide.idea.model.IdeaModule
+import org.gradle.plugins.ide.idea.model.ModuleDependency
+import org.gradle.test.fixtures.AbstractProjectBuilderSpec
+import org.gradle.testfixtures.ProjectBuilder
+
+class IdeaModuleDependenciesCacheTest extends AbstractProjectBuilderSpec {
+    def cache = new IdeaModuleDependenciesCache(new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+    def buildInputs = HashCode.fromInt(1)
+    Project child
+    IdeaModule rootModule
+    IdeaModule childModule
+
+    def setup() {
+        child = ProjectBuilder.builder().withName("child").withParent(project).build()
+        project.buildFile.text = "root"
+        child.buildFile.text = "child"
+        rootModule = module("root", project)
+        childModule = module("child", child)
+    }
+
+    def "reuses the resolved dependencies of a module while its inputs are unchanged"() {
+        def dependencies = [new ModuleDependency("child", "COMPILE")] as Set
+
+        when:
+        def first = resolve(rootModule)
+        def second = resolve(rootModule)
+
+        then:
+        1 * rootModule.resolveDependencies() >> dependencies
+        first == dependencies
+        second == dependencies
+    }
+
+    def "resolves the dependencies of a module again when its build file changes"() {
+        when:
+        resolve(childModule)
+        child.buildFile.text = "changed child"
+        resolve(childModule)
+
+        then:
+        2 * childModule.resolveDependencies() >> ([] as Set)
+    }
+
+    def "resolves the dependencies of a module again when the build file of its parent project changes"() {
+        when:
+        resolve(childModule)
+        project.buildFile.text = "changed root"
+        resolve(childModule)
+
+        then:
+        2 * childModule.resolveDependencies() >> ([] as Set)
+    }
+
+    def "resolves the dependencies of a module again when the build file of a project it depends on changes"() {
+        when:
+        resolve(rootModule)
+        child.buildFile.text = "changed child"
+        resolve(rootModule)
+
+        then:
+        2 * rootModule.resolveDependencies() >> ([new ModuleDependency("child", "COMPILE")] as Set)
+    }
+
+    def "does not resolve the dependencies of a module again when the build file of an unrelated project changes"() {
+        when:
+        resolve(rootModule)
+        child.buildFile.text = "changed child"
+        resolve(rootModule)
+
+        then:
+        1 * rootModule.resolveDependencies() >> ([] as Set)
+    }
+
+    def "resolves the dependencies of a module again when the inputs of the build change"() {
+        when:
+        resolve(rootModule)
+        cache.resolveDependencies(rootModule, HashCode.fromInt(2), modules())
+
+        then:
+        2 * rootModule.resolveDependencies() >> ([] as Set)
+    }
+
+    def "resolves the dependencies of a module again when an output directory has been created"() {
+        def outputDir = temporaryFolder.file("out")
+        rootModule.singleEntryLibraries >> [RUNTIME: [outputDir]]
+
+        when:
+        resolve(rootModule)
+        outputDir.createDir()
+        resolve(rootModule)
+
+        then:
+        2 * rootModule.resolveDependencies() >> ([] as Set)
+    }
+
+    def "does not cache the dependencies of builds that refresh dependencies"() {
+        project.gradle.startParameter.refreshDependencies = true
+
+        expect:
+        cache.hashBuildInputs(project.gradle, new EvaluatedScripts()) == null
+    }
+
+    def "build inputs do not change when the build file of a project changes"() {
+        def scripts = new EvaluatedScripts()
+        def before = cache.hashBuildInputs(project.gradle, scripts)
+
+        when:
+        child.buildFile.text = "changed child"
+
+        then:
+        before != null
+        cache.hashBuildInputs(project.gradle, scripts) == before
+    }
+
+    private resolve(IdeaModule module) {
+        cache.resolveDependencies(module, buildInputs, modules())
+    }
+
+    private Map<String, IdeaModule> modules() {
+        [root: rootModule, child: childModule]
+    }
+
+    private IdeaModule module(String name, Project project) {
+        def module = Mock(IdeaModule)
+        module.name >> name
+        module.project >> project
+        return module
+    }
+}
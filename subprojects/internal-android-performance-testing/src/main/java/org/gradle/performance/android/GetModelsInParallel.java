@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.performance.android;
+
+import com.android.builder.model.AndroidProject;
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+import org.gradle.tooling.model.gradle.GradleBuild;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Fetches the Android models of all projects with a single request, when the tooling API supports it.
+ */
+public class GetModelsInParallel implements BuildAction<Map<String, AndroidProject>> {
+    @Override
+    public Map<String, AndroidProject> execute(BuildController controller) {
+        System.out.println("* Building models");
+        Timer timer = new Timer();
+        GradleBuild build = controller.getBuildModel();
+        List<BasicGradleProject> projects = new ArrayList<BasicGradleProject>(build.getProjects());
+        List<AndroidProject> androidProjects = findModels(controller, projects);
+        Map<String, AndroidProject> result = new TreeMap<String, AndroidProject>();
+        for (int i = 0; i < projects.size(); i++) {
+            result.put(projects.get(i).getPath(), androidProjects.get(i));
+        }
+        timer.stop();
+        System.out.println("building models took " + timer.duration());
+        return result;
+    }
+
+    private static List<AndroidProject> findModels(BuildController controller, List<BasicGradleProject> projects) {
+        if (supportsFetchingSeveralModels()) {
+            return controller.findModels(projects, AndroidProject.class);
+        }
+        // The baseline tooling API versions can only fetch one model at a time
+        List<AndroidProject> androidProjects = new ArrayList<AndroidProject>(projects.size());
+        for (BasicGradleProject project : projects) {
+            androidProjects.add(controller.findModel(project, AndroidProject.class));
+        }
+        return androidProjects;
+    }
+
+    private static boolean supportsFetchingSeveralModels() {
+        try {
+            BuildController.class.getMethod("findModels", List.class, Class.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.performance.android;
+
+import com.android.builder.model.AndroidProject;
+import org.gradle.api.Action;
+import org.gradle.tooling.BuildActionExecuter;
+import org.gradle.tooling.ProjectConnection;
+
+import java.util.Map;
+
+public class ParallelSyncAction {
+    // DO NOT change the signature of this method: it is a convention used in
+    // our internal performance testing infrastructure
+    public static void withProjectConnection(ProjectConnection connect, Action<? super BuildActionExecuter<Map<String, AndroidProject>>> modelBuilderAction) {
+        SyncAction.sync(connect, new GetModelsInParallel(), modelBuilderAction, "--parallel");
+    }
+}
@@ -17,29 +17,39 @@ package org.gradle.performance.android;
 
 import com.android.builder.model.AndroidProject;
 import org.gradle.api.Action;
+import org.gradle.tooling.BuildAction;
 import org.gradle.tooling.BuildActionExecuter;
 import org.gradle.tooling.ProjectConnection;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 
 public class SyncAction {
     // DO NOT change the signature of this method: it is a convention used in
     // our internal performance testing infrastructure
     public static void withProjectConnection(ProjectConnection connect, Action<? super BuildActionExecuter<Map<String, AndroidProject>>> modelBuilderAction) {
+        sync(connect, new GetModel(), modelBuilderAction);
+    }
+
+    static void sync(ProjectConnection connect, BuildAction<Map<String, AndroidProject>> action, Action<? super BuildActionExecuter<Map<String, AndroidProject>>> modelBuilderAction, String... extraArguments) {
 
         System.out.println("* Running sync");
 
         Timer syncTimer = new Timer();
 
-        BuildActionExecuter<Map<String, AndroidProject>> modelBuilder = connect.action(new GetModel());
+        BuildActionExecuter<Map<String, AndroidProject>> modelBuilder = connect.action(action);
         modelBuilder.setStandardOutput(System.out);
         modelBuilder.setStandardError(System.err);
         modelBuilder.forTasks("generateDebugSources");
-        modelBuilder.withArguments("-Dcom.android.build.gradle.overrideVersionCheck=true",
+        List<String> arguments = new ArrayList<String>(Arrays.asList("-Dcom.android.build.gradle.overrideVersionCheck=true",
             "-Pandroid.injected.build.model.only=true",
             "-Pandroid.injected.build.model.only.versioned=3",
             "-Pandroid.builder.sdkDownload=true",
-            "-s");
+            "-s"));
+        arguments.addAll(Arrays.asList(extraArguments));
+        modelBuilder.withArguments(arguments);
         modelBuilder.setJvmArguments("-Xmx2g");
         if (modelBuilderAction != null) {
             modelBuilderAction.execute(modelBuilder);
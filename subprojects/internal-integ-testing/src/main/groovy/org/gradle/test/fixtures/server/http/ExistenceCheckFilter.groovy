@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.test.fixtures.server.http
+
+import javax.servlet.Filter
+import javax.servlet.FilterChain
+import javax.servlet.FilterConfig
+import javax.servlet.ServletException
+import javax.servlet.ServletRequest
+import javax.servlet.ServletResponse
+import javax.servlet.http.HttpServletRequest
+import javax.servlet.http.HttpServletResponse
+
+/**
+ * Answers which of several build cache entries exist, as requested by a POST of their keys to the root of the cache.
+ */
+
+class ExistenceCheckFilter implements Filter {
+    private static final String BUILD_CACHE_KEYS_CONTENT_TYPE = "application/vnd.gradle.build-cache-keys"
+
+    private final HttpBuildCacheServer buildCache
+
+    ExistenceCheckFilter(HttpBuildCacheServer buildCache) {
+        this.buildCache = buildCache
+    }
+
+    @Override
+    void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest && response instanceof HttpServletResponse)) {
+            chain.doFilter(request, response)
+            return
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request
+        HttpServletResponse httpResponse = (HttpServletResponse) response
+
+        if (httpRequest.method == "POST" && httpRequest.contentType?.startsWith(BUILD_CACHE_KEYS_CONTENT_TYPE)) {
+            def keys = httpRequest.reader.readLines().findAll { !it.empty }
+            def existing = keys.findAll { buildCache.cacheDir.file(it).file }
+            httpResponse.status = HttpServletResponse.SC_OK
+            httpResponse.contentType = BUILD_CACHE_KEYS_CONTENT_TYPE
+            httpResponse.writer.withWriter { writer ->
+                existing.each { writer.println(it) }
+            }
+        } else {
+            chain.doFilter(httpRequest, httpResponse)
+        }
+    }
+
+    @Override
+    void destroy() {
+    }
+}
@@ -25,12 +25,26 @@ import org.mortbay.jetty.servlet.FilterHolder
 import org.mortbay.jetty.webapp.WebAppContext
 import org.mortbay.servlet.RestFilter
 
+import javax.servlet.Filter
+import javax.servlet.FilterChain
+import javax.servlet.FilterConfig
+import javax.servlet.ServletException
+import javax.servlet.ServletRequest
+import javax.servlet.ServletResponse
+import javax.servlet.http.HttpServletRequest
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentMap
+import java.util.concurrent.atomic.AtomicInteger
+
 class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture {
     private final TestDirectoryProvider provider
     private final WebAppContext webapp
     private TestFile cacheDir
     private long dropConnectionForPutBytes = -1
     private int blockIncomingConnectionsForSeconds = 0
+    private long latencyMillis = 0
+    private boolean existenceChecks
+    private final RequestCountingFilter requestCounts = new RequestCountingFilter()
 
     HttpBuildCacheServer(TestDirectoryProvider provider) {
         this.provider = provider
@@ -47,12 +61,19 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
     }
 
     private void addFilters() {
+        this.webapp.addFilter(new FilterHolder(requestCounts), "/*", 1)
         if (dropConnectionForPutBytes > -1) {
             this.webapp.addFilter(new FilterHolder(new DropConnectionFilter(dropConnectionForPutBytes, this)), "/*", 1)
         }
         if (blockIncomingConnectionsForSeconds > 0) {
             this.webapp.addFilter(new FilterHolder(new BlockFilter(blockIncomingConnectionsForSeconds)), "/*", 1)
         }
+        if (latencyMillis > 0) {
+            this.webapp.addFilter(new FilterHolder(new LatencyFilter(latencyMillis)), "/*", 1)
+        }
+        if (existenceChecks) {
+            this.webapp.addFilter(new FilterHolder(new ExistenceCheckFilter(this)), "/*", 1)
+        }
         this.webapp.addFilter(RestFilter, "/*", 1)
     }
 
@@ -60,6 +81,24 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
         this.dropConnectionForPutBytes = numBytes
     }
 
+    void delayRequestsBy(long millis) {
+        this.latencyMillis = millis
+    }
+
+    /**
+     * Answers which of several entries exist in a single request, as described in {@code HttpBuildCacheService}.
+     */
+    void supportExistenceChecks() {
+        this.existenceChecks = true
+    }
+
+    /**
+     * The number of requests with the given method that the server has received.
+     */
+    int getRequestCount(String method) {
+        requestCounts.getCount(method)
+    }
+
     @Override
     void start() {
         cacheDir = provider.testDirectory.createDir('http-cache-dir')
@@ -76,4 +115,30 @@ class HttpBuildCacheServer extends ExternalResource implements HttpServerFixture
     void withBasicAuth(String username, String password) {
         requireAuthentication('/*', username, password)
     }
+
+    private static class RequestCountingFilter implements Filter {
+        private final ConcurrentMap<String, AtomicInteger> counts = new ConcurrentHashMap<String, AtomicInteger>()
+
+        int getCount(String method) {
+            counts.get(method)?.get() ?: 0
+        }
+
+        @Override
+        void init(FilterConfig filterConfig) throws ServletException {
+        }
+
+        @Override
+        void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if (request instanceof HttpServletRequest) {
+                String method = ((HttpServletRequest) request).method
+                counts.putIfAbsent(method, new AtomicInteger())
+                counts.get(method).incrementAndGet()
+            }
+            chain.doFilter(request, response)
+        }
+
+        @Override
+        void destroy() {
+        }
+    }
 }
@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.internal.Factory;
+import org.gradle.internal.os.OperatingSystem;
 import org.gradle.language.base.internal.compile.CompileSpec;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.process.internal.ExecHandleFactory;
@@ -26,6 +27,12 @@ import org.gradle.workers.internal.WorkerDaemonFactory;
 import javax.tools.JavaCompiler;
 
 public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
+    /**
+     * When set to true, javac file managers are kept warm between compilations in the same process. Ignored on Windows, as a warm file manager
+     * keeps the classpath jars open.
+     */
+    public static final String WARM_COMPILER_PROPERTY = "org.gradle.java.compile.warm";
+
     private final WorkerDirectoryProvider workingDirProvider;
     private final WorkerDaemonFactory workerDaemonFactory;
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
@@ -60,11 +67,15 @@ public class DefaultJavaCompilerFactory implements JavaCompilerFactory {
             return new CommandLineJavaCompiler(execHandleFactory);
         }
 
-        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory);
+        Compiler<JavaCompileSpec> compiler = new JdkJavaCompiler(javaHomeBasedJavaCompilerFactory, isWarmCompilerEnabled());
         if (ForkingJavaCompileSpec.class.isAssignableFrom(type) && !jointCompilation) {
             return new DaemonJavaCompiler(workingDirProvider.getIdleWorkingDirectory(), compiler, workerDaemonFactory, fileResolver);
         }
 
         return compiler;
     }
+
+    private static boolean isWarmCompilerEnabled() {
+        return Boolean.getBoolean(WARM_COMPILER_PROPERTY) && !OperatingSystem.current().isWindows();
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the file managers of finished compilations, so that a later compilation with the same compiler options can reuse the jar indexes
+ * that javac has already built for the classpath.
+ *
+ * <p>A file manager is used by a single compilation at a time. It is only handed out again when none of the jars on the classpath or
+ * annotation processor path has changed since it was last used; otherwise it is closed and a new one is created.</p>
+ */
+class JavaFileManagerCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final int MAX_IDLE_FILE_MANAGERS = 8;
+    static final JavaFileManagerCache INSTANCE = new JavaFileManagerCache(MAX_IDLE_FILE_MANAGERS);
+
+    private final int maxIdle;
+    private final Map<HashCode, IdleFileManager> idle = new LinkedHashMap<HashCode, IdleFileManager>(16, 0.75f, true);
+
+    JavaFileManagerCache(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns a file manager for a compilation with the given options, reusing an idle one if its classpath is still up-to-date.
+     */
+    Lease acquire(JavaCompiler compiler, @Nullable Charset charset, List<String> options, @Nullable Iterable<File> classpath, @Nullable Iterable<File> annotationProcessorPath) {
+        HashCode key = keyOf(compiler, charset, options);
+        HashCode classpathFingerprint = fingerprintOf(classpath, annotationProcessorPath);
+        IdleFileManager candidate;
+        synchronized (idle) {
+            candidate = idle.remove(key);
+        }
+        if (candidate != null) {
+            if (candidate.classpathFingerprint.equals(classpathFingerprint)) {
+                LOGGER.debug("Reusing warm Java file manager.");
+                return new Lease(key, classpathFingerprint, candidate.fileManager);
+            }
+            LOGGER.debug("Discarding Java file manager as its classpath has changed.");
+            close(candidate.fileManager);
+        }
+        return new Lease(key, classpathFingerprint, compiler.getStandardFileManager(null, null, charset));
+    }
+
+    /**
+     * Returns the file manager of a finished compilation. The file manager is kept for reuse when {@code reusable} is true, and closed otherwise.
+     */
+    void release(Lease lease, boolean reusable) {
+        if (!reusable) {
+            close(lease.fileManager);
+            return;
+        }
+        StandardJavaFileManager discarded = null;
+        synchronized (idle) {
+            if (idle.containsKey(lease.key)) {
+                // Another compilation with the same options finished first
+                discarded = lease.fileManager;
+            } else {
+                idle.put(lease.key, new IdleFileManager(lease.classpathFingerprint, lease.fileManager));
+                if (idle.size() > maxIdle) {
+                    Iterator<IdleFileManager> leastRecentlyUsed = idle.values().iterator();
+                    discarded = leastRecentlyUsed.next().fileManager;
+                    leastRecentlyUsed.remove();
+                }
+            }
+        }
+        if (discarded != null) {
+            close(discarded);
+        }
+    }
+
+    int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    private static HashCode keyOf(JavaCompiler compiler, @Nullable Charset charset, List<String> options) {
+        Hasher hasher = Hashing.md5().newHasher();
+        hasher.putString(compiler.getClass().getName());
+        hasher.putInt(System.identityHashCode(compiler.getClass()));
+        hasher.putString(charset == null ? "" : charset.name());
+        hasher.putInt(options.size());
+        for (String option : options) {
+            hasher.putString(option);
+        }
+        return hasher.hash();
+    }
+
+    /**
+     * Fingerprints the jars by path, length and last modified time. This is the same information the build uses to decide whether a file's
+     * cached content hash is still valid.
+     */
+    private static HashCode fingerprintOf(@Nullable Iterable<File> classpath, @Nullable Iterable<File> annotationProcessorPath) {
+        Hasher hasher = Hashing.md5().newHasher();
+        putFiles(hasher, classpath);
+        putFiles(hasher, annotationProcessorPath);
+        return hasher.hash();
+    }
+
+    private static void putFiles(Hasher hasher, @Nullable Iterable<File> files) {
+        if (files == null) {
+            hasher.putInt(0);
+            return;
+        }
+        for (File file : files) {
+            hasher.putString(file.getAbsolutePath());
+            if (file.isFile()) {
+                hasher.putLong(file.length());
+                hasher.putLong(file.lastModified());
+            } else {
+                hasher.putBoolean(file.isDirectory());
+            }
+        }
+    }
+
+    private static void close(StandardJavaFileManager fileManager) {
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            LOGGER.debug("Could not close Java file manager.", e);
+        }
+    }
+
+    static class Lease {
+        private final HashCode key;
+        private final HashCode classpathFingerprint;
+        private final StandardJavaFileManager fileManager;
+
+        private Lease(HashCode key, HashCode classpathFingerprint, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.classpathFingerprint = classpathFingerprint;
+            this.fileManager = fileManager;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+    }
+
+    private static class IdleFileManager {
+        private final HashCode classpathFingerprint;
+        private final StandardJavaFileManager fileManager;
+
+        private IdleFileManager(HashCode classpathFingerprint, StandardJavaFileManager fileManager) {
+            this.classpathFingerprint = classpathFingerprint;
+            this.fileManager = fileManager;
+        }
+    }
+}
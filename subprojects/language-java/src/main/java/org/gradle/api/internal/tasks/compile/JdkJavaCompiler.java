@@ -36,9 +36,18 @@ import java.util.Set;
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
     private final Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory;
+    private final boolean reuseFileManagers;
 
     public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory) {
+        this(javaHomeBasedJavaCompilerFactory, false);
+    }
+
+    /**
+     * @param reuseFileManagers whether to keep javac's file managers warm between compilations in this process, see {@link JavaFileManagerCache}.
+     */
+    public JdkJavaCompiler(Factory<JavaCompiler> javaHomeBasedJavaCompilerFactory, boolean reuseFileManagers) {
         this.javaHomeBasedJavaCompilerFactory = javaHomeBasedJavaCompilerFactory;
+        this.reuseFileManagers = reuseFileManagers;
     }
 
     @Override
@@ -46,19 +55,31 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         LOGGER.info("Compiling with JDK Java compiler API.");
 
         JdkJavaCompilerResult result = new JdkJavaCompilerResult();
-        JavaCompiler.CompilationTask task = createCompileTask(spec, result);
-        boolean success = task.call();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+
+        boolean success;
+        if (reuseFileManagers) {
+            JavaFileManagerCache.Lease lease = JavaFileManagerCache.INSTANCE.acquire(compiler, charset, options, spec.getCompileClasspath(), spec.getAnnotationProcessorPath());
+            boolean reusable = false;
+            try {
+                success = createCompileTask(spec, options, compiler, lease.getFileManager(), result).call();
+                reusable = true;
+            } finally {
+                JavaFileManagerCache.INSTANCE.release(lease, reusable);
+            }
+        } else {
+            success = createCompileTask(spec, options, compiler, compiler.getStandardFileManager(null, null, charset), result).call();
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
         return result;
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, JdkJavaCompilerResult result) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        MinimalJavaCompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager standardFileManager, JdkJavaCompilerResult result) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
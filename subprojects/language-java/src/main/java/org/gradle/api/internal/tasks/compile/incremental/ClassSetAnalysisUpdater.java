@@ -31,6 +31,7 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.cache.internal.Stash;
 import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.time.Time;
 import org.gradle.internal.time.Timer;
 
@@ -51,12 +52,14 @@ public class ClassSetAnalysisUpdater {
     private final FileOperations fileOperations;
     private ClassDependenciesAnalyzer analyzer;
     private final FileHasher fileHasher;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
+    ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, BuildOperationExecutor buildOperationExecutor) {
         this.stash = stash;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
         this.fileHasher = fileHasher;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public void updateAnalysis(JavaCompileSpec spec, WorkResult result) {
@@ -64,7 +67,7 @@ public class ClassSetAnalysisUpdater {
             return;
         }
         Timer clock = Time.startTimer();
-        CompilationResultAnalyzer analyzer = new CompilationResultAnalyzer(this.analyzer, fileHasher);
+        CompilationResultAnalyzer analyzer = new CompilationResultAnalyzer(this.analyzer, fileHasher, buildOperationExecutor);
         visitAnnotationProcessingResult(spec, result, analyzer);
         visitClassFiles(spec, analyzer);
         ClassSetAnalysisData data = analyzer.getAnalysis();
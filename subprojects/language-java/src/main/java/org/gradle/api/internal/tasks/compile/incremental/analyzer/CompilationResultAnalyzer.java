@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
+import com.google.common.collect.Lists;
+import org.gradle.api.Action;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
@@ -24,19 +26,37 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisDa
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingResult;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
+import java.util.List;
+
+/**
+ * Collects the class files of a compilation result and analyzes them.
+ *
+ * <p>The class files are hashed and analyzed in batches on the build operation thread pool. The analyses are added to the accumulator in visit order,
+ * as the accumulator keeps the first class it sees when the same class is found in several class trees.</p>
+ */
 public class CompilationResultAnalyzer implements FileVisitor {
+    static final int BATCH_SIZE = 200;
+
     private final ClassDependenciesAnalyzer analyzer;
     private final ClassDependentsAccumulator accumulator;
     private final FileHasher hasher;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final List<FileVisitDetails> classFiles = Lists.newArrayList();
 
-    public CompilationResultAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
-        this(analyzer, fileHasher, new ClassDependentsAccumulator());
+    public CompilationResultAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, BuildOperationExecutor buildOperationExecutor) {
+        this(analyzer, fileHasher, buildOperationExecutor, new ClassDependentsAccumulator());
     }
 
-    CompilationResultAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassDependentsAccumulator accumulator) {
+    CompilationResultAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, BuildOperationExecutor buildOperationExecutor, ClassDependentsAccumulator accumulator) {
         this.analyzer = analyzer;
         this.hasher = fileHasher;
+        this.buildOperationExecutor = buildOperationExecutor;
         this.accumulator = accumulator;
     }
 
@@ -49,14 +69,11 @@ public class CompilationResultAnalyzer implements FileVisitor {
         if (!fileDetails.getName().endsWith(".class")) {
             return;
         }
-
-        HashCode hash = hasher.hash(fileDetails);
-        ClassAnalysis analysis = analyzer.getClassAnalysis(hash, fileDetails);
-
-        accumulator.addClass(fileDetails.getFile(), analysis);
+        classFiles.add(fileDetails);
     }
 
     public ClassSetAnalysisData getAnalysis() {
+        analyzeClassFiles();
         return accumulator.getAnalysis();
     }
 
@@ -67,4 +84,52 @@ public class CompilationResultAnalyzer implements FileVisitor {
             accumulator.addAnnotationProcessingResult(annotationProcessingResult);
         }
     }
+
+    private void analyzeClassFiles() {
+        final ClassAnalysis[] analyses = new ClassAnalysis[classFiles.size()];
+        if (classFiles.size() <= BATCH_SIZE) {
+            new AnalyzeClassFiles(0, classFiles, analyses).run(null);
+        } else {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<AnalyzeClassFiles>>() {
+                @Override
+                public void execute(BuildOperationQueue<AnalyzeClassFiles> queue) {
+                    int offset = 0;
+                    for (List<FileVisitDetails> batch : Lists.partition(classFiles, BATCH_SIZE)) {
+                        queue.add(new AnalyzeClassFiles(offset, batch, analyses));
+                        offset += batch.size();
+                    }
+                }
+            });
+        }
+        for (int i = 0; i < analyses.length; i++) {
+            accumulator.addClass(classFiles.get(i).getFile(), analyses[i]);
+        }
+        classFiles.clear();
+    }
+
+    private class AnalyzeClassFiles implements RunnableBuildOperation {
+        private final int offset;
+        private final List<FileVisitDetails> batch;
+        private final ClassAnalysis[] analyses;
+
+        AnalyzeClassFiles(int offset, List<FileVisitDetails> batch, ClassAnalysis[] analyses) {
+            this.offset = offset;
+            this.batch = batch;
+            this.analyses = analyses;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            for (int i = 0; i < batch.size(); i++) {
+                FileVisitDetails fileDetails = batch.get(i);
+                HashCode hash = hasher.hash(fileDetails);
+                analyses[offset + i] = analyzer.getClassAnalysis(hash, fileDetails);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Analyze " + batch.size() + " class files");
+        }
+    }
 }
@@ -16,41 +16,100 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 
 import java.io.File;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, BuildOperationExecutor buildOperationExecutor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        final List<JarArchive> existingJars = Lists.newArrayList();
+        for (JarArchive jar : jarArchives) {
+            if (jar.file.exists()) {
+                existingJars.add(jar);
+            }
+        }
+        final JarSnapshot[] snapshots = snapshotJars(existingJars);
+
         LinkedHashMap<File, JarSnapshot> jarSnapshots = Maps.newLinkedHashMap();
         LinkedHashMap<File, HashCode> jarHashes = Maps.newLinkedHashMap();
         Set<String> allClasses = Sets.newHashSet();
         Set<String> duplicateClasses = Sets.newHashSet();
 
-        for (JarArchive jar : jarArchives) {
-            if (jar.file.exists()) {
-                JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
-                jarSnapshots.put(jar.file, snapshot);
-                jarHashes.put(jar.file, snapshot.getHash());
-                for (String c : snapshot.getClasses()) {
-                    if (!allClasses.add(c)) {
-                        duplicateClasses.add(c);
-                    }
+        for (int i = 0; i < snapshots.length; i++) {
+            JarArchive jar = existingJars.get(i);
+            JarSnapshot snapshot = snapshots[i];
+            jarSnapshots.put(jar.file, snapshot);
+            jarHashes.put(jar.file, snapshot.getHash());
+            for (String c : snapshot.getClasses()) {
+                if (!allClasses.add(c)) {
+                    duplicateClasses.add(c);
                 }
             }
         }
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    /**
+     * Snapshots the given jars on the build operation thread pool, returning the snapshots in the order of the jars.
+     */
+    private JarSnapshot[] snapshotJars(final List<JarArchive> jars) {
+        final JarSnapshot[] snapshots = new JarSnapshot[jars.size()];
+        if (jars.size() == 1) {
+            snapshots[0] = jarSnapshotter.createSnapshot(jars.get(0));
+        } else if (jars.size() > 1) {
+            buildOperationExecutor.runAll(new Action<BuildOperationQueue<SnapshotJar>>() {
+                @Override
+                public void execute(BuildOperationQueue<SnapshotJar> queue) {
+                    for (int i = 0; i < jars.size(); i++) {
+                        queue.add(new SnapshotJar(jars.get(i), i, snapshots));
+                    }
+                }
+            });
+        }
+        return snapshots;
+    }
+
+    private class SnapshotJar implements RunnableBuildOperation {
+        private final JarArchive jar;
+        private final int index;
+        private final JarSnapshot[] snapshots;
+
+        SnapshotJar(JarArchive jar, int index, JarSnapshot[] snapshots) {
+            this.jar = jar;
+            this.index = index;
+            this.snapshots = snapshots;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            snapshots[index] = jarSnapshotter.createSnapshot(jar);
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Snapshot classpath jar " + jar.file.getName());
+        }
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Subject
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
+    def compiler = Mock(JavaCompiler)
+    @Subject cache = new JavaFileManagerCache(2)
+    File lib
+    List<String> options
+
+    def setup() {
+        lib = temp.file("lib.jar") << "lib"
+        options = ["-classpath", lib.absolutePath]
+    }
+
+    def "reuses file manager when options and classpath are unchanged"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = cache.acquire(compiler, null, options, [lib], [])
+        cache.release(first, true)
+        def second = cache.acquire(compiler, null, options, [lib], [])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        0 * fileManager.close()
+        first.fileManager == fileManager
+        second.fileManager == fileManager
+    }
+
+    def "creates new file manager when a classpath jar has changed"() {
+        def original = Mock(StandardJavaFileManager)
+        def replacement = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, options, [lib], []), true)
+        lib << "changed"
+        def lease = cache.acquire(compiler, null, options, [lib], [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [original, replacement]
+        1 * original.close()
+        lease.fileManager == replacement
+    }
+
+    def "does not share file manager between compilations with different options"() {
+        def first = Mock(StandardJavaFileManager)
+        def second = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, options, [lib], []), true)
+        def lease = cache.acquire(compiler, null, options + "-g", [lib], [])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [first, second]
+        lease.fileManager == second
+        cache.idleCount == 1
+    }
+
+    def "closes file manager that is not reusable"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        cache.release(cache.acquire(compiler, null, options, [lib], []), false)
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        1 * fileManager.close()
+        cache.idleCount == 0
+    }
+
+    def "closes least recently used file manager when too many are idle"() {
+        def fileManagers = (1..3).collect { Mock(StandardJavaFileManager) }
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        def leases = (1..3).collect { cache.acquire(compiler, null, options + "-Xlint:$it".toString(), [lib], []) }
+        leases.each { cache.release(it, true) }
+
+        then:
+        1 * fileManagers[0].close()
+        0 * fileManagers[1].close()
+        0 * fileManagers[2].close()
+        cache.idleCount == 2
+    }
+
+    def "closes file manager when another one with the same options is already idle"() {
+        def first = Mock(StandardJavaFileManager)
+        def second = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >>> [first, second]
+
+        when:
+        def lease1 = cache.acquire(compiler, null, options, [lib], [])
+        def lease2 = cache.acquire(compiler, null, options, [lib], [])
+        cache.release(lease1, true)
+        cache.release(lease2, true)
+
+        then:
+        0 * first.close()
+        1 * second.close()
+        cache.idleCount == 1
+    }
+}
@@ -24,6 +24,7 @@ import org.gradle.api.internal.tasks.compile.incremental.analyzer.CompilationRes
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet
 import org.gradle.internal.hash.FileHasher
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import spock.lang.Specification
 import spock.lang.Subject
 
@@ -32,7 +33,8 @@ class CompilationResultAnalyzerTest extends Specification {
     def classAnalyzer = Mock(ClassDependenciesAnalyzer)
     def accumulator = Mock(ClassDependentsAccumulator)
     def fileHasher = Mock(FileHasher)
-    @Subject analyzer = new CompilationResultAnalyzer(classAnalyzer, fileHasher, accumulator)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    @Subject analyzer = new CompilationResultAnalyzer(classAnalyzer, fileHasher, buildOperationExecutor, accumulator)
 
     def "does not visit dirs"() {
         when: analyzer.visitDir(null)
@@ -60,10 +62,41 @@ class CompilationResultAnalyzerTest extends Specification {
         when:
         analyzer.visitFile(details)
 
+        then:
+        0 * _
+
+        when:
+        analyzer.getAnalysis()
+
         then:
         1 * fileHasher.hash(details) >> hash
         1 * classAnalyzer.getClassAnalysis(hash, details) >> analysis
         1 * accumulator.addClass(file, analysis)
+        1 * accumulator.getAnalysis()
         0 * _
     }
+
+    def "analyzes large compilation results in batches and accumulates them in visit order"() {
+        def count = CompilationResultAnalyzer.BATCH_SIZE * 2 + 1
+        def files = (0..<count).collect { new File("org/foo/Foo${it}.class") }
+        def analyses = files.collect { new ClassAnalysis(it.name, [] as Set, false, new IntOpenHashSet(), [] as Set) }
+        def accumulated = []
+
+        when:
+        files.each { file ->
+            analyzer.visitFile(Stub(FileVisitDetails) {
+                getFile() >> file
+                getName() >> file.name
+            })
+        }
+        analyzer.getAnalysis()
+
+        then:
+        count * fileHasher.hash(_) >> { FileVisitDetails details -> HashCode.fromInt(files.indexOf(details.file)) }
+        count * classAnalyzer.getClassAnalysis(_, _) >> { HashCode hash, FileVisitDetails details -> analyses[files.indexOf(details.file)] }
+        count * accumulator.addClass(_ as File, _ as ClassAnalysis) >> { File file, ClassAnalysis analysis -> accumulated << [file, analysis] }
+        buildOperationExecutor.log.descriptors.size() == 3
+
+        accumulated == [files, analyses].transpose()
+    }
 }
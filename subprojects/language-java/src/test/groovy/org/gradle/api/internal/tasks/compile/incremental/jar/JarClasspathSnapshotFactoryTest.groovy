@@ -18,13 +18,14 @@ package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import org.gradle.api.file.FileTree
 import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, new TestBuildOperationExecutor())
 
     def "creates classpath snapshot with correct duplicate classes"() {
         def jar1 = stubArchive("f1"); def jar2 = stubArchive("f2"); def jar3 = stubArchive("f3")
@@ -78,6 +79,18 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         0 * snapshotter.createSnapshot(jar2)
     }
 
+    def "keeps the order of the classpath jars"() {
+        def jars = (1..5).collect { stubArchive("f$it") }
+
+        when:
+        def s = factory.createSnapshot(jars)
+
+        then:
+        5 * snapshotter.createSnapshot(_) >> { JarArchive jar -> Stub(JarSnapshot) { getHash() >> HashCode.fromInt(jar.file.name.hashCode()) } }
+
+        s.data.jarHashes.keySet() as List == jars*.file
+    }
+
     private JarArchive stubArchive(String name, boolean exists = true) {
         new JarArchive(new File(name) {
             boolean exists() { exists }
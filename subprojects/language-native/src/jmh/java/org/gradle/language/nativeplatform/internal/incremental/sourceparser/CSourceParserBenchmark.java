@@ -0,0 +1,83 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Parses a large header that resembles generated protobuf code: mostly declarations and comments, with few directives.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    @Param({"reader", "scanner"})
+    String parser;
+
+    @Param({"100", "5000"})
+    int classCount;
+
+    private RegexBackedCSourceParser sourceParser;
+    private File header;
+
+    @Setup
+    public void prepare() throws IOException {
+        sourceParser = new RegexBackedCSourceParser(parser.equals("scanner"));
+        header = File.createTempFile("jmh", ".h");
+        Writer writer = new FileWriter(header);
+        try {
+            writer.write("// Generated by the protocol buffer compiler.  DO NOT EDIT!\n");
+            writer.write("#ifndef GENERATED_H\n#define GENERATED_H\n\n");
+            for (int i = 0; i < 20; i++) {
+                writer.write("#include <google/protobuf/header" + i + ".h>\n");
+            }
+            for (int i = 0; i < classCount; i++) {
+                writer.write("\n/* @@protoc_insertion_point(class_definition:Message" + i + ") */\n");
+                writer.write("class Message" + i + " : public ::google::protobuf::Message {\n public:\n");
+                writer.write("  Message" + i + "();\n  virtual ~Message" + i + "();\n\n");
+                writer.write("  // string name = 1;\n  void clear_name();\n  static const int kNameFieldNumber = 1;\n");
+                writer.write("  inline void set_name(const char* value) { name_.Set(\"default /* value */\", value); }\n");
+                writer.write("  #if LANG_CXX11\n  void set_name(::std::string&& value);\n  #endif\n};\n");
+            }
+            writer.write("\n#define MESSAGE_HEADER(X) <X.pb.h>\n#include MESSAGE_HEADER(other)\n#endif  // GENERATED_H\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        header.delete();
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        bh.consume(sourceParser.parseSource(header));
+    }
+}
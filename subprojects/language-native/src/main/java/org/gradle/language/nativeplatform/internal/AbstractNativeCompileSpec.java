@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec implements NativeCompileSpec {
 
@@ -44,6 +45,7 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     private File prefixHeaderFile;
     private File preCompiledHeaderObjectFile;
     private Map<File, IncludeDirectives> sourceFileIncludeDirectives;
+    private Map<File, Long> sourceFileCompileDurations = new ConcurrentHashMap<File, Long>();
     private String preCompiledHeader;
     private DiscoveredInputRecorder discoveredInputRecorder;
 
@@ -219,4 +221,14 @@ public abstract class AbstractNativeCompileSpec extends AbstractBinaryToolSpec i
     public void setSourceFileIncludeDirectives(Map<File, IncludeDirectives> map) {
         this.sourceFileIncludeDirectives = map;
     }
+
+    @Override
+    public Map<File, Long> getSourceFileCompileDurations() {
+        return sourceFileCompileDurations;
+    }
+
+    @Override
+    public void setSourceFileCompileDurations(Map<File, Long> map) {
+        this.sourceFileCompileDurations = map;
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.language.nativeplatform.internal.incremental;
 import com.google.common.collect.ImmutableMap;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -45,4 +46,30 @@ public class CompilationState {
     public SourceFileState getState(File file) {
         return fileStates.get(file);
     }
+
+    /**
+     * Returns the compile durations of the source files whose duration is known.
+     */
+    public Map<File, Long> getCompileDurations() {
+        ImmutableMap.Builder<File, Long> builder = ImmutableMap.builder();
+        for (Map.Entry<File, SourceFileState> entry : fileStates.entrySet()) {
+            long compileDuration = entry.getValue().getCompileDuration();
+            if (compileDuration > 0) {
+                builder.put(entry.getKey(), compileDuration);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Returns a copy of this state with the given compile durations of source files.
+     */
+    public CompilationState withCompileDurations(Map<File, Long> compileDurations) {
+        ImmutableMap.Builder<File, SourceFileState> builder = ImmutableMap.builder();
+        for (Map.Entry<File, SourceFileState> entry : fileStates.entrySet()) {
+            Long compileDuration = compileDurations.get(entry.getKey());
+            builder.put(entry.getKey(), compileDuration == null ? entry.getValue() : entry.getValue().withCompileDuration(compileDuration));
+        }
+        return new CompilationState(builder.build());
+    }
 }
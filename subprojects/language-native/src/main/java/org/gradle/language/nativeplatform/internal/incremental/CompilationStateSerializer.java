@@ -45,6 +45,7 @@ public class CompilationStateSerializer implements Serializer<CompilationState>
         for (int i = 0; i < sourceFileCount; i++) {
             File sourceFile = fileSerializer.read(decoder);
             HashCode sourceHashCode = hashSerializer.read(decoder);
+            long compileDuration = decoder.readSmallLong();
             int includeFileCount = decoder.readSmallInt();
             ImmutableSet.Builder<IncludeFileState> includeFileStateBuilder = ImmutableSet.builder();
             for (int j = 0; j < includeFileCount; j++) {
@@ -58,7 +59,7 @@ public class CompilationStateSerializer implements Serializer<CompilationState>
                 }
                 includeFileStateBuilder.add(includeFileState);
             }
-            builder.put(sourceFile, new SourceFileState(sourceHashCode, includeFileStateBuilder.build()));
+            builder.put(sourceFile, new SourceFileState(sourceHashCode, includeFileStateBuilder.build(), compileDuration));
         }
         return new CompilationState(builder.build());
     }
@@ -72,6 +73,7 @@ public class CompilationStateSerializer implements Serializer<CompilationState>
             SourceFileState sourceFileState = entry.getValue();
             fileSerializer.write(encoder, entry.getKey());
             hashSerializer.write(encoder, sourceFileState.getHash());
+            encoder.writeSmallLong(sourceFileState.getCompileDuration());
             encoder.writeSmallInt(sourceFileState.getResolvedIncludes().size());
             for (IncludeFileState includeFileState : sourceFileState.getResolvedIncludes()) {
                 Integer id = ids.get(includeFileState.getIncludeFile());
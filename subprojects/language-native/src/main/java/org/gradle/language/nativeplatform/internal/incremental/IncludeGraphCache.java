@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares the include graph analysis of source files between the compilations of a build that use the same include path, such as the compilations
+ * of the debug and release variants of a component. The analysis is only reused while none of the files it has seen has changed.
+ */
+public class IncludeGraphCache {
+    private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final CSourceParser sourceParser;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ConcurrentMap<Key, IncrementalCompileFilesFactory> idleFactories = new ConcurrentHashMap<Key, IncrementalCompileFilesFactory>();
+
+    public IncludeGraphCache(FileSystemSnapshotter fileSystemSnapshotter, CSourceParser sourceParser, BuildOperationExecutor buildOperationExecutor) {
+        this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.sourceParser = sourceParser;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    /**
+     * Runs the given action with a factory for the given include path. The factory is not shared with any other action while the given action runs.
+     */
+    public <T> T withFilesFactory(List<File> includePaths, boolean importAware, Transformer<T, IncrementalCompileFilesFactory> action) {
+        Key key = new Key(ImmutableList.copyOf(includePaths), importAware);
+        // Take the factory out of the cache, so that a concurrent compilation with the same include path uses a factory of its own
+        IncrementalCompileFilesFactory factory = idleFactories.remove(key);
+        if (factory == null || !factory.isUpToDate()) {
+            factory = createFactory(key);
+        }
+        T result = action.transform(factory);
+        idleFactories.put(key, factory);
+        return result;
+    }
+
+    private IncrementalCompileFilesFactory createFactory(Key key) {
+        DefaultSourceIncludesParser sourceIncludesParser = new DefaultSourceIncludesParser(sourceParser, key.importAware);
+        DefaultSourceIncludesResolver sourceIncludesResolver = new DefaultSourceIncludesResolver(key.includePaths, fileSystemSnapshotter);
+        return new IncrementalCompileFilesFactory(sourceIncludesParser, sourceIncludesResolver, fileSystemSnapshotter, buildOperationExecutor);
+    }
+
+    private static class Key {
+        private final List<File> includePaths;
+        private final boolean importAware;
+
+        Key(List<File> includePaths, boolean importAware) {
+            this.includePaths = includePaths;
+            this.importAware = importAware;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return importAware == other.importAware && includePaths.equals(other.includePaths);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(includePaths, importAware);
+        }
+    }
+}
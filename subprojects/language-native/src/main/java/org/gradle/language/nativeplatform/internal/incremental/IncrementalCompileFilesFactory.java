@@ -16,12 +16,20 @@
 
 package org.gradle.language.nativeplatform.internal.incremental;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import org.gradle.api.Action;
 import org.gradle.api.internal.changedetection.state.FileSnapshot;
 import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.language.nativeplatform.internal.Include;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 import org.gradle.language.nativeplatform.internal.IncludeType;
@@ -31,27 +39,45 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Walks the include graph of source files. The details of the files that have been visited are retained, so that a factory can be reused
+ * for several compilations with the same include path, as long as {@link #isUpToDate()} holds.
+ *
+ * <p>A factory walks one include graph at a time. {@link #parseIncludeGraph(Collection)} and {@link #isUpToDate()} do their work in parallel.</p>
+ */
 public class IncrementalCompileFilesFactory {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(IncrementalCompileFilesFactory.class);
     private static final String IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME = "org.gradle.internal.native.headers.unresolved.dependencies.ignore";
+    static final int BATCH_SIZE = 200;
 
     private final SourceIncludesParser sourceIncludesParser;
     private final SourceIncludesResolver sourceIncludesResolver;
     private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final BuildOperationExecutor buildOperationExecutor;
     private final boolean ignoreUnresolvedHeadersInDependencies;
+    private final ConcurrentMap<File, FileDetails> visitedFiles = new ConcurrentHashMap<File, FileDetails>();
+    private final Set<File> checkedLocations = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+    private int traversalCount;
 
-    public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter) {
+    public IncrementalCompileFilesFactory(SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter, BuildOperationExecutor buildOperationExecutor) {
         this.sourceIncludesParser = sourceIncludesParser;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.buildOperationExecutor = buildOperationExecutor;
         this.ignoreUnresolvedHeadersInDependencies = Boolean.getBoolean(IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME);
     }
 
@@ -59,14 +85,97 @@ public class IncrementalCompileFilesFactory {
         return new DefaultIncementalCompileSourceProcessor(previousCompileState);
     }
 
+    /**
+     * Parses the given source files and the files they include, in parallel, ahead of walking their include graph.
+     *
+     * <p>Only includes that do not use macros are followed, as the macros visible to an include depend on the path through the graph.
+     * The files found through macro includes are parsed when the graph is walked.</p>
+     */
+    public void parseIncludeGraph(Collection<File> sourceFiles) {
+        List<File> pending = ImmutableList.copyOf(sourceFiles);
+        while (!pending.isEmpty()) {
+            final Queue<File> discovered = new ConcurrentLinkedQueue<File>();
+            runInBatches(pending, new ParseFilesFactory(discovered));
+            pending = ImmutableList.copyOf(discovered);
+        }
+    }
+
+    /**
+     * Returns true when none of the files visited so far has changed, and no file has appeared at a location that was searched for an include.
+     */
+    public boolean isUpToDate() {
+        final AtomicBoolean upToDate = new AtomicBoolean(true);
+        runInBatches(ImmutableList.copyOf(visitedFiles.values()), new BatchFactory<FileDetails>() {
+            @Override
+            public Batch create(final List<FileDetails> batch) {
+                return new Batch("Check " + batch.size() + " include files") {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        for (FileDetails fileDetails : batch) {
+                            if (!upToDate.get()) {
+                                return;
+                            }
+                            FileSnapshot fileSnapshot = fileSystemSnapshotter.snapshotSelf(fileDetails.state.getIncludeFile());
+                            if (fileSnapshot.getType() != FileType.RegularFile || !fileSnapshot.getContent().getContentMd5().equals(fileDetails.state.getHash())) {
+                                upToDate.set(false);
+                            }
+                        }
+                    }
+                };
+            }
+        });
+        runInBatches(ImmutableList.copyOf(checkedLocations), new BatchFactory<File>() {
+            @Override
+            public Batch create(final List<File> batch) {
+                return new Batch("Check " + batch.size() + " include locations") {
+                    @Override
+                    public void run(BuildOperationContext context) {
+                        for (File location : batch) {
+                            if (!upToDate.get()) {
+                                return;
+                            }
+                            // A location that holds a file has been visited, and has been checked above
+                            if (!visitedFiles.containsKey(location) && fileSystemSnapshotter.snapshotSelf(location).getType() == FileType.RegularFile) {
+                                upToDate.set(false);
+                            }
+                        }
+                    }
+                };
+            }
+        });
+        return upToDate.get();
+    }
+
+    private <T> void runInBatches(List<T> items, final BatchFactory<T> batchFactory) {
+        if (items.size() <= BATCH_SIZE) {
+            if (!items.isEmpty()) {
+                batchFactory.create(items).run(null);
+            }
+            return;
+        }
+        final List<List<T>> batches = Lists.partition(items, BATCH_SIZE);
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<Batch>>() {
+            @Override
+            public void execute(BuildOperationQueue<Batch> queue) {
+                for (List<T> batch : batches) {
+                    queue.add(batchFactory.create(batch));
+                }
+            }
+        });
+    }
+
+    private SourceIncludesResolver.IncludeResolutionResult resolveInclude(File file, Include include, MacroLookup visibleMacros) {
+        SourceIncludesResolver.IncludeResolutionResult resolutionResult = sourceIncludesResolver.resolveInclude(file, include, visibleMacros);
+        checkedLocations.addAll(resolutionResult.getCheckedLocations());
+        return resolutionResult;
+    }
+
     private class DefaultIncementalCompileSourceProcessor implements IncementalCompileSourceProcessor {
         private final CompilationState previous;
         private final BuildableCompilationState current = new BuildableCompilationState();
         private final List<File> toRecompile = new ArrayList<File>();
         private final Set<File> existingHeaders = Sets.newHashSet();
         private final Map<File, IncludeDirectives> includeDirectivesMap = new HashMap<File, IncludeDirectives>();
-        private final Map<File, FileDetails> visitedFiles = new HashMap<File, FileDetails>();
-        int traversalCount;
         private boolean hasUnresolvedHeaders;
 
         DefaultIncementalCompileSourceProcessor(CompilationState previousCompileState) {
@@ -100,7 +209,15 @@ public class IncrementalCompileFilesFactory {
             FileVisitResult result = visitFile(sourceFile, fileSnapshot, visibleMacros, new HashSet<File>(), true);
             ArrayList<IncludeFileState> includedFiles = new ArrayList<IncludeFileState>();
             result.collectFilesInto(++traversalCount, includedFiles);
-            SourceFileState newState = new SourceFileState(fileSnapshot.getContent().getContentMd5(), ImmutableSet.copyOf(includedFiles));
+            for (IncludeFileState includedFile : includedFiles) {
+                // Includes whose visit result was reused from an earlier compilation have not been seen by this processor yet
+                if (!includedFile.getIncludeFile().equals(sourceFile)) {
+                    existingHeaders.add(includedFile.getIncludeFile());
+                }
+            }
+            // Keep the duration of the previous compilation as an estimate of how long the file takes to compile
+            long compileDuration = previousState == null ? 0 : previousState.getCompileDuration();
+            SourceFileState newState = new SourceFileState(fileSnapshot.getContent().getContentMd5(), ImmutableSet.copyOf(includedFiles), compileDuration);
             current.setState(sourceFile, newState);
             includeDirectivesMap.put(sourceFile, result.includeDirectives);
             // Recompile this source file if:
@@ -139,7 +256,7 @@ public class IncrementalCompileFilesFactory {
                 if (include.getType() == IncludeType.MACRO && result == IncludeFileResolutionResult.NoMacroIncludes) {
                     result = IncludeFileResolutionResult.HasMacroIncludes;
                 }
-                SourceIncludesResolver.IncludeResolutionResult resolutionResult = sourceIncludesResolver.resolveInclude(file, include, visibleMacros);
+                SourceIncludesResolver.IncludeResolutionResult resolutionResult = resolveInclude(file, include, visibleMacros);
                 if (!resolutionResult.isComplete()) {
                     LOGGER.info("Cannot locate header file for '{}' in source file '{}'. Assuming changed.", include.getAsSourceText(), file.getName());
                     if (isSourceFile || !ignoreUnresolvedHeadersInDependencies) {
@@ -177,6 +294,70 @@ public class IncrementalCompileFilesFactory {
         }
     }
 
+    private interface BatchFactory<T> {
+        Batch create(List<T> batch);
+    }
+
+    private static abstract class Batch implements RunnableBuildOperation {
+        private final String displayName;
+
+        Batch(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName(displayName);
+        }
+    }
+
+    private class ParseFilesFactory implements BatchFactory<File> {
+        private final Queue<File> discovered;
+
+        ParseFilesFactory(Queue<File> discovered) {
+            this.discovered = discovered;
+        }
+
+        @Override
+        public Batch create(final List<File> batch) {
+            return new Batch("Parse " + batch.size() + " source files") {
+                @Override
+                public void run(BuildOperationContext context) {
+                    for (File file : batch) {
+                        parseFile(file);
+                    }
+                }
+            };
+        }
+
+        private void parseFile(File file) {
+            if (visitedFiles.containsKey(file)) {
+                return;
+            }
+            FileSnapshot fileSnapshot = fileSystemSnapshotter.snapshotSelf(file);
+            if (fileSnapshot.getType() != FileType.RegularFile) {
+                return;
+            }
+            IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
+            FileDetails fileDetails = new FileDetails(new IncludeFileState(fileSnapshot.getContent().getContentMd5(), file), includeDirectives);
+            if (visitedFiles.putIfAbsent(file, fileDetails) != null) {
+                // Parsed concurrently by another batch
+                return;
+            }
+            CollectingMacroLookup noMacros = new CollectingMacroLookup();
+            for (Include include : includeDirectives.getAll()) {
+                if (include.getType() != IncludeType.SYSTEM && include.getType() != IncludeType.QUOTED) {
+                    continue;
+                }
+                for (SourceIncludesResolver.IncludeFile includeFile : resolveInclude(file, include, noMacros).getFiles()) {
+                    if (!visitedFiles.containsKey(includeFile.getFile())) {
+                        discovered.add(includeFile.getFile());
+                    }
+                }
+            }
+        }
+    }
+
     private enum IncludeFileResolutionResult {
         NoMacroIncludes,
         HasMacroIncludes, // but all resolved ok
@@ -40,6 +40,7 @@ public class IncrementalCompileProcessor {
             @Override
             public IncrementalCompilation call(BuildOperationContext context) {
                 CompilationState previousCompileState = previousCompileStateCache.get();
+                incrementalCompileFilesFactory.parseIncludeGraph(sourceFiles);
                 IncementalCompileSourceProcessor processor = incrementalCompileFilesFactory.filesFor(previousCompileState);
                 for (File sourceFile : sourceFiles) {
                     processor.processSource(sourceFile);
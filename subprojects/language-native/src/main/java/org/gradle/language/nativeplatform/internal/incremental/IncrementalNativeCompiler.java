@@ -24,6 +24,10 @@ import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.tasks.SimpleStaleClassCleaner;
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec;
 
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @NonNullApi
 public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements Compiler<T> {
     private final Compiler<T> delegateCompiler;
@@ -41,6 +45,9 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
     @Override
     public WorkResult execute(final T spec) {
         spec.setSourceFileIncludeDirectives(incrementalCompilation.getSourceFileIncludeDirectives());
+        CompilationState finalState = incrementalCompilation.getFinalState();
+        Map<File, Long> compileDurations = new ConcurrentHashMap<File, Long>(finalState.getCompileDurations());
+        spec.setSourceFileCompileDurations(compileDurations);
 
         WorkResult workResult;
         if (spec.isIncrementalCompile()) {
@@ -49,7 +56,7 @@ public class IncrementalNativeCompiler<T extends NativeCompileSpec> implements C
             workResult = doCleanIncrementalCompile(spec);
         }
 
-        compileStateCache.set(incrementalCompilation.getFinalState());
+        compileStateCache.set(finalState.withCompileDurations(compileDurations));
 
         return workResult;
     }
@@ -24,10 +24,12 @@ import org.gradle.internal.hash.HashCode;
 public class SourceFileState {
     private final HashCode hash;
     private final ImmutableSet<IncludeFileState> resolvedIncludes;
+    private final long compileDuration;
 
-    public SourceFileState(HashCode hash, ImmutableSet<IncludeFileState> resolvedIncludes) {
+    public SourceFileState(HashCode hash, ImmutableSet<IncludeFileState> resolvedIncludes, long compileDuration) {
         this.hash = hash;
         this.resolvedIncludes = resolvedIncludes;
+        this.compileDuration = compileDuration;
     }
 
     public HashCode getHash() {
@@ -41,6 +43,17 @@ public class SourceFileState {
         return resolvedIncludes;
     }
 
+    /**
+     * The duration of the most recent compilation of this file in milliseconds, or 0 when not known.
+     */
+    public long getCompileDuration() {
+        return compileDuration;
+    }
+
+    public SourceFileState withCompileDuration(long compileDuration) {
+        return new SourceFileState(hash, resolvedIncludes, compileDuration);
+    }
+
     /**
      * Returns true if this file or its set of includes has changed since the given snapshot.
      */
@@ -31,6 +31,11 @@ public interface SourceIncludesResolver {
         boolean isComplete();
 
         Collection<IncludeFile> getFiles();
+
+        /**
+         * Returns the locations that were searched while resolving the include, including those that did not contain a file.
+         */
+        Collection<File> getCheckedLocations();
     }
 
     interface IncludeFile {
@@ -39,7 +44,7 @@ public interface SourceIncludesResolver {
     }
 
     /**
-     * Resolves the given include directive to zero or more include files.
+     * Resolves the given include directive to zero or more include files. May be called concurrently.
      */
     IncludeResolutionResult resolveInclude(File sourceFile, Include include, MacroLookup visibleMacros);
 }
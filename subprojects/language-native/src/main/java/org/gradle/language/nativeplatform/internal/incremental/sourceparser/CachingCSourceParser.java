@@ -16,9 +16,11 @@
 
 package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
 
+import org.gradle.api.internal.changedetection.state.FileSystemSnapshotter;
 import org.gradle.cache.internal.FileContentCache;
 import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.file.FileType;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
 
 import java.io.File;
@@ -26,12 +28,22 @@ import java.io.File;
 public class CachingCSourceParser implements CSourceParser {
     private final FileContentCache<IncludeDirectives> cache;
 
-    public CachingCSourceParser(FileContentCacheFactory cacheFactory) {
+    public CachingCSourceParser(FileContentCacheFactory cacheFactory, final FileSystemSnapshotter fileSystemSnapshotter, final CrossBuildIncludeDirectivesCache crossBuildCache) {
         final RegexBackedCSourceParser parser = new RegexBackedCSourceParser();
         cache = cacheFactory.newCache("parsedCSource", 40000, new FileContentCacheFactory.Calculator<IncludeDirectives>() {
             @Override
             public IncludeDirectives calculate(File file, FileType fileType) {
-                return parser.parseSource(file);
+                if (fileType != FileType.RegularFile) {
+                    return parser.parseSource(file);
+                }
+                // Headers are often shared by many builds, so look for the directives parsed by another build
+                HashCode contentHash = fileSystemSnapshotter.snapshotSelf(file).getContent().getContentMd5();
+                IncludeDirectives directives = crossBuildCache.get(contentHash);
+                if (directives == null) {
+                    directives = parser.parseSource(file);
+                    crossBuildCache.put(contentHash, directives);
+                }
+                return directives;
             }
         }, new IncludeDirectivesSerializer());
     }
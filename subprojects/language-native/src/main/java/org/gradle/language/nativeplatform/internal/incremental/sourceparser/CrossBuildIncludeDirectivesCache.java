@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.internal.FixedSizeOldestCacheCleanup;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Stores the parsed directives of source files in the Gradle user home, keyed by the hash of the file content, so that all builds and daemons share them.
+ *
+ * <p>Each entry is a separate file, which is written under a temporary name and then moved into place. Readers never see a partially written entry, so no lock is held
+ * while reading or writing. The least recently used entries are removed when the cache grows beyond {@link #MAX_SIZE_IN_BYTES}.</p>
+ */
+public class CrossBuildIncludeDirectivesCache implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CrossBuildIncludeDirectivesCache.class);
+    private static final long MAX_SIZE_IN_BYTES = 256L * 1024 * 1024;
+
+    private final PersistentCache cache;
+    private final IncludeDirectivesSerializer serializer = new IncludeDirectivesSerializer();
+
+    public CrossBuildIncludeDirectivesCache(CacheRepository cacheRepository) {
+        cache = cacheRepository
+            .cache("nativeSourceParse")
+            .withDisplayName("parsed native source cache")
+            .withCleanup(new FixedSizeOldestCacheCleanup(MAX_SIZE_IN_BYTES))
+            .withLockOptions(mode(FileLockManager.LockMode.None))
+            .open();
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+
+    /**
+     * Returns the directives of a source file with the given content hash, or {@code null} when they are not stored or cannot be read.
+     */
+    @Nullable
+    public IncludeDirectives get(HashCode contentHash) {
+        File file = entryFile(contentHash);
+        FileInputStream inputStream;
+        try {
+            inputStream = new FileInputStream(file);
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(inputStream);
+            try {
+                IncludeDirectives directives = serializer.read(decoder);
+                // Mark as recently used
+                file.setLastModified(System.currentTimeMillis());
+                return directives;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            // The source file is parsed again and the entry is replaced
+            LOGGER.debug("Could not read parsed source file from {}.", file, e);
+            return null;
+        }
+    }
+
+    public void put(HashCode contentHash, IncludeDirectives directives) {
+        File file = entryFile(contentHash);
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile(file.getName(), ".part", cache.getBaseDir());
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(tempFile));
+            try {
+                serializer.write(encoder, directives);
+            } finally {
+                encoder.close();
+            }
+            // Fails on some platforms when another process has already stored the same content
+            if (tempFile.renameTo(file)) {
+                tempFile = null;
+            }
+        } catch (Exception e) {
+            LOGGER.debug("Could not store parsed source file to {}.", file, e);
+        } finally {
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private File entryFile(HashCode contentHash) {
+        return new File(cache.getBaseDir(), contentHash.toString());
+    }
+}
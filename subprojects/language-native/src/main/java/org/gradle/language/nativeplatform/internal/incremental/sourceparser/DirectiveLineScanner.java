@@ -0,0 +1,239 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import java.nio.charset.Charset;
+
+/**
+ * Finds the lines of a source file that may hold a preprocessor directive, working directly on the bytes of the file.
+ *
+ * <p>Applies exactly the same comment, string literal and line continuation handling as {@link PreprocessingReader}, and returns the lines
+ * that {@link PreprocessingReader} would return whose first non-whitespace character is '#'. Other lines are scanned, but are not copied or decoded.
+ * Lines are decoded using the given charset, which must be one for which {@link #canScan(Charset)} holds.</p>
+ */
+public class DirectiveLineScanner {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] content;
+    private final int length;
+    private final Charset charset;
+    private int pos;
+
+    /**
+     * Whether or not the scanner is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    private byte[] line = new byte[128];
+    private int lineLength;
+    private boolean asciiLine;
+
+    public DirectiveLineScanner(byte[] content, int length, Charset charset) {
+        this.content = content;
+        this.length = length;
+        this.charset = charset;
+    }
+
+    /**
+     * Returns true when bytes in the given charset can be scanned without decoding them. This holds for UTF-8 and for single byte charsets that
+     * extend ASCII, where a byte that looks like an ASCII character always is that character.
+     */
+    public static boolean canScan(Charset charset) {
+        if (charset.equals(UTF_8)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1.0f) {
+            return false;
+        }
+        byte[] ascii = new byte[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (byte) i;
+        }
+        String decoded = new String(ascii, charset);
+        if (decoded.length() != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < ascii.length; i++) {
+            if (decoded.charAt(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Collects the next line that may hold a directive into the given buffer. Does not include the line separators, nor any leading whitespace.
+     *
+     * @return true if a line is available, false when the end of the content has been reached.
+     */
+    public boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (pos < length) {
+            if (scanLine()) {
+                if (asciiLine) {
+                    for (int i = 0; i < lineLength; i++) {
+                        buffer.append((char) line[i]);
+                    }
+                } else {
+                    buffer.append(new String(line, 0, lineLength, charset));
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans the next line, and collects it when its first non-whitespace character is '#'.
+     *
+     * @return true when the line has been collected.
+     */
+    private boolean scanLine() {
+        lineLength = 0;
+        asciiLine = true;
+        boolean collecting = false;
+        boolean skipping = false;
+        int ch;
+        while ((ch = read()) >= 0) {
+            if (ch == '\n') {
+                return collecting;
+            }
+            if (ch == '\r') {
+                int next = next();
+                if (next != '\n') {
+                    pushBack(next);
+                }
+                return collecting;
+            }
+            if (collecting) {
+                collect(ch);
+            } else if (!skipping) {
+                if (ch < 0x80 && (ch == 0 || Character.isWhitespace(ch))) {
+                    // Leading whitespace, which the parser skips
+                    continue;
+                }
+                // Characters outside of ASCII might be whitespace, so let the parser decide whether such a line holds a directive
+                if (ch == '#' || ch >= 0x80) {
+                    collecting = true;
+                    collect(ch);
+                } else {
+                    skipping = true;
+                }
+            }
+        }
+        return collecting;
+    }
+
+    private void collect(int ch) {
+        if (lineLength == line.length) {
+            byte[] newLine = new byte[line.length * 2];
+            System.arraycopy(line, 0, newLine, 0, lineLength);
+            line = newLine;
+        }
+        if (ch >= 0x80) {
+            asciiLine = false;
+        }
+        line[lineLength++] = (byte) ch;
+    }
+
+    /**
+     * Returns the next character in the filtered content. See {@link PreprocessingReader}.
+     */
+    private int read() {
+        int ch = next();
+
+        while (ch == '\\' && discardNewLine()) {
+            ch = next();
+        }
+
+        if (ch == '"' && !quoted) {
+            inString = !inString;
+            quoted = false;
+        } else if (ch == '\\') {
+            quoted = !quoted;
+        } else {
+            quoted = false;
+            if (!inString) {
+                if (ch == '/') {
+                    ch = next();
+                    if (ch == '/') {
+                        while (ch != '\n' && ch != -1 && ch != '\r') {
+                            ch = next();
+                        }
+                    } else if (ch == '*') {
+                        while (ch != -1) {
+                            ch = next();
+                            if (ch == '*') {
+                                ch = next();
+                                while (ch == '*') {
+                                    ch = next();
+                                }
+
+                                if (ch == '/') {
+                                    ch = ' ';
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        pushBack(ch);
+                        ch = '/';
+                    }
+                }
+            }
+        }
+
+        return ch;
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded from content
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded from content
+            }
+            pushBack(followingChar);
+            pushBack(nextChar);
+            return false;
+        } else {
+            pushBack(nextChar);
+            return false;
+        }
+    }
+
+    private int next() {
+        if (pos < length) {
+            return content[pos++] & 0xff;
+        }
+        return -1;
+    }
+
+    /**
+     * Steps back over the given character, which must be the last one returned by {@link #next()}.
+     */
+    private void pushBack(int ch) {
+        if (ch != -1) {
+            pos--;
+        }
+    }
+}
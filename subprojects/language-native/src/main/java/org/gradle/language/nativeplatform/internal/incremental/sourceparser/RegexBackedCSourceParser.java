@@ -34,6 +34,8 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -46,9 +48,30 @@ import java.util.Set;
  * used as the body of these directives.
  */
 public class RegexBackedCSourceParser implements CSourceParser {
+    /**
+     * When set to true, source files are decoded and read through a {@link PreprocessingReader}, rather than scanned with a {@link DirectiveLineScanner}.
+     */
+    public static final String READ_SOURCE_AS_TEXT_PROPERTY = "org.gradle.internal.native.sources.parse.text";
+
+    private final Charset charset;
+    private final boolean scanBytes;
+
+    public RegexBackedCSourceParser() {
+        this(!Boolean.getBoolean(READ_SOURCE_AS_TEXT_PROPERTY));
+    }
+
+    RegexBackedCSourceParser(boolean scanBytes) {
+        this.charset = Charset.defaultCharset();
+        this.scanBytes = scanBytes && DirectiveLineScanner.canScan(charset);
+    }
+
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
         try {
+            if (scanBytes) {
+                byte[] content = Files.readAllBytes(sourceFile.toPath());
+                return parseSource(new DirectiveLineScanner(content, content.length, charset));
+            }
             Reader fileReader = new FileReader(sourceFile);
             try {
                 return parseSource(fileReader);
@@ -72,22 +95,44 @@ public class RegexBackedCSourceParser implements CSourceParser {
             if (!lineReader.readNextLine(buffer.value)) {
                 break;
             }
-            buffer.consumeWhitespace();
-            if (!buffer.consume('#')) {
-                continue;
-            }
-            buffer.consumeWhitespace();
-            if (buffer.consume("define")) {
-                parseDefineDirectiveBody(buffer, macros, macroFunctions);
-            } else if (buffer.consume("include")) {
-                parseIncludeOrImportDirectiveBody(buffer, false, includes);
-            } else if (buffer.consume("import")) {
-                parseIncludeOrImportDirectiveBody(buffer, true, includes);
+            parseDirective(buffer, includes, macros, macroFunctions);
+        }
+        return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
+    }
+
+    private IncludeDirectives parseSource(DirectiveLineScanner scanner) {
+        Set<Include> includes = Sets.newLinkedHashSet();
+        List<Macro> macros = Lists.newArrayList();
+        List<MacroFunction> macroFunctions = Lists.newArrayList();
+        Buffer buffer = new Buffer();
+        while (true) {
+            buffer.reset();
+            if (!scanner.readNextDirectiveLine(buffer.value)) {
+                break;
             }
+            parseDirective(buffer, includes, macros, macroFunctions);
         }
         return new DefaultIncludeDirectives(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
     }
 
+    /**
+     * Parses a line of source, collecting the directive that it holds, if any.
+     */
+    private void parseDirective(Buffer buffer, Collection<Include> includes, Collection<Macro> macros, Collection<MacroFunction> macroFunctions) {
+        buffer.consumeWhitespace();
+        if (!buffer.consume('#')) {
+            return;
+        }
+        buffer.consumeWhitespace();
+        if (buffer.consume("define")) {
+            parseDefineDirectiveBody(buffer, macros, macroFunctions);
+        } else if (buffer.consume("include")) {
+            parseIncludeOrImportDirectiveBody(buffer, false, includes);
+        } else if (buffer.consume("import")) {
+            parseIncludeOrImportDirectiveBody(buffer, true, includes);
+        }
+    }
+
     /**
      * Parses an #include/#import directive body. Consumes all input.
      */
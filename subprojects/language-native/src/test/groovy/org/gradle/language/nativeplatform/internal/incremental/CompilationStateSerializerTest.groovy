@@ -41,7 +41,7 @@ class CompilationStateSerializerTest extends SerializerSpec {
         fileStates.put(fileEmpty, compilationFileState(HashCode.fromInt(0x12345678), []))
 
         def fileTwo = new File("two")
-        def stateTwo = compilationFileState(HashCode.fromInt(0x23456789), [new File("ONE"), new File("TWO")])
+        def stateTwo = compilationFileState(HashCode.fromInt(0x23456789), [new File("ONE"), new File("TWO")], 1234)
         fileStates.put(fileTwo, stateTwo)
         def state = compilationState(fileStates)
 
@@ -52,10 +52,12 @@ class CompilationStateSerializerTest extends SerializerSpec {
         def emptyCompileState = newState.getState(fileEmpty)
         emptyCompileState.hash == HashCode.fromInt(0x12345678)
         emptyCompileState.resolvedIncludes.empty
+        emptyCompileState.compileDuration == 0
 
         def otherCompileState = newState.getState(fileTwo)
         otherCompileState.hash == HashCode.fromInt(0x23456789)
         otherCompileState.resolvedIncludes == stateTwo.resolvedIncludes
+        otherCompileState.compileDuration == 1234
     }
 
     def "serializes state with shared include files"() {
@@ -83,8 +85,8 @@ class CompilationStateSerializerTest extends SerializerSpec {
         otherCompileState.resolvedIncludes == stateTwo.resolvedIncludes
     }
 
-    private SourceFileState compilationFileState(HashCode hash, Collection<File> resolvedIncludes) {
-        return new SourceFileState(hash, ImmutableSet.copyOf(resolvedIncludes.collect { new IncludeFileState(HashCode.fromInt(123), it )}))
+    private SourceFileState compilationFileState(HashCode hash, Collection<File> resolvedIncludes, long compileDuration = 0) {
+        return new SourceFileState(hash, ImmutableSet.copyOf(resolvedIncludes.collect { new IncludeFileState(HashCode.fromInt(123), it )}), compileDuration)
     }
 
     private CompilationState compilationState(Map<File, SourceFileState> states) {
@@ -37,7 +37,6 @@ class IncrementalCompileProcessorTest extends Specification {
     def dependencyResolver = Mock(SourceIncludesResolver)
     def fileSystemSnapshotter = new TestFileSnapshotter()
     def stateCache = new DummyPersistentStateCache()
-    def incrementalCompileProcessor = new IncrementalCompileProcessor(stateCache, new IncrementalCompileFilesFactory(includesParser, dependencyResolver, fileSystemSnapshotter), new TestBuildOperationExecutor())
 
     def source1 = sourceFile("source1")
     def source2 = sourceFile("source2")
@@ -386,6 +385,62 @@ class IncrementalCompileProcessorTest extends Specification {
         result.unresolvedHeaders
     }
 
+    def "reuses the include graph of unchanged files in a later compilation"() {
+        given:
+        initialFiles()
+        def filesFactory = newFilesFactory()
+        def first = new IncrementalCompileProcessor(new DummyPersistentStateCache(), filesFactory, new TestBuildOperationExecutor()).processSourceFiles(sourceFiles)
+
+        when:
+        def upToDate = filesFactory.upToDate
+        def second = new IncrementalCompileProcessor(new DummyPersistentStateCache(), filesFactory, new TestBuildOperationExecutor()).processSourceFiles(sourceFiles)
+
+        then:
+        0 * includesParser._
+        0 * dependencyResolver._
+
+        and:
+        upToDate
+        second.recompile == [source1, source2]
+        second.existingHeaders == [dep1, dep2, dep3, dep4] as Set
+        !second.finalState.getState(source1).hasChanged(first.finalState.getState(source1))
+        !second.finalState.getState(source2).hasChanged(first.finalState.getState(source2))
+    }
+
+    def "include graph is out of date when an included file changes"() {
+        given:
+        initialFiles()
+        def filesFactory = newFilesFactory()
+        new IncrementalCompileProcessor(new DummyPersistentStateCache(), filesFactory, new TestBuildOperationExecutor()).processSourceFiles(sourceFiles)
+
+        expect:
+        filesFactory.upToDate
+
+        when:
+        dep3 << "More text"
+
+        then:
+        !filesFactory.upToDate
+    }
+
+    def "include graph is out of date when a file appears at a searched location"() {
+        given:
+        def missing = tmpDir.file("other/dep1")
+        def filesFactory = newFilesFactory()
+        _ * includesParser.parseIncludes(_) >> { File file -> includes(graph[file]) }
+        _ * dependencyResolver.resolveInclude(_, _, _) >> { args -> resolveDeps(graph[args[0]], [missing]) }
+        new IncrementalCompileProcessor(new DummyPersistentStateCache(), filesFactory, new TestBuildOperationExecutor()).processSourceFiles([source1, source2])
+
+        expect:
+        filesFactory.upToDate
+
+        when:
+        missing.createFile()
+
+        then:
+        !filesFactory.upToDate
+    }
+
     def checkCompile(Map<String, List<File>> args) {
         parseAndResolve()
         with (state) {
@@ -412,11 +467,19 @@ class IncrementalCompileProcessorTest extends Specification {
         return incrementalState
     }
 
+    IncrementalCompileProcessor getIncrementalCompileProcessor() {
+        return new IncrementalCompileProcessor(stateCache, newFilesFactory(), new TestBuildOperationExecutor())
+    }
+
+    IncrementalCompileFilesFactory newFilesFactory() {
+        return new IncrementalCompileFilesFactory(includesParser, dependencyResolver, fileSystemSnapshotter, new TestBuildOperationExecutor())
+    }
+
     def sourceFile(def name) {
         tmpDir.createFile(name) << "initial text"
     }
 
-    SourceIncludesResolver.IncludeResolutionResult resolveDeps(Collection<File> deps) {
+    SourceIncludesResolver.IncludeResolutionResult resolveDeps(Collection<File> deps, Collection<File> missing = []) {
         SourceIncludesResolver.IncludeResolutionResult includes = Stub(SourceIncludesResolver.IncludeResolutionResult)
         _ * includes.complete >> true
         _ * includes.files >> deps.collect {
@@ -425,7 +488,7 @@ class IncrementalCompileProcessorTest extends Specification {
             _ * include.snapshot >> fileSystemSnapshotter.snapshotSelf(it)
             include
         }
-        _ * includes.checkedLocations >> deps
+        _ * includes.checkedLocations >> missing + deps
         return includes
     }
 
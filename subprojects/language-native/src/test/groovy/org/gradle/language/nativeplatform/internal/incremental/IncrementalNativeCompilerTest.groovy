@@ -15,11 +15,14 @@
  */
 package org.gradle.language.nativeplatform.internal.incremental
 
+import com.google.common.collect.ImmutableMap
+import com.google.common.collect.ImmutableSet
 import com.google.common.collect.Sets
 import org.gradle.api.internal.TaskOutputsInternal
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.tasks.WorkResults
 import org.gradle.cache.PersistentStateCache
+import org.gradle.internal.hash.HashCode
 import org.gradle.language.base.internal.compile.Compiler
 import org.gradle.nativeplatform.toolchain.internal.NativeCompileSpec
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -86,4 +89,35 @@ class IncrementalNativeCompilerTest extends Specification {
         result.didWork
         outputFile.assertDoesNotExist()
     }
+
+    def "stores compile durations with the compilation state"() {
+        def spec = Mock(NativeCompileSpec)
+        def compiled = temporaryFolder.file("compiled")
+        def unchanged = temporaryFolder.file("unchanged")
+        def finalState = new CompilationState(ImmutableMap.of(
+            compiled, new SourceFileState(HashCode.fromInt(1), ImmutableSet.of(), 0),
+            unchanged, new SourceFileState(HashCode.fromInt(2), ImmutableSet.of(), 200)))
+        Map<File, Long> compileDurations = null
+        CompilationState storedState = null
+
+        given:
+        incrementalCompilation.finalState >> finalState
+        incrementalCompilation.recompile >> [compiled]
+        incrementalCompilation.removed >> []
+        spec.incrementalCompile >> true
+
+        when:
+        compiler.execute(spec)
+
+        then:
+        1 * spec.setSourceFileCompileDurations(_) >> { Map<File, Long> map -> compileDurations = map }
+        1 * delegateCompiler.execute(spec) >> {
+            assert compileDurations == [(unchanged): 200L]
+            compileDurations.put(compiled, 100L)
+            WorkResults.didWork(true)
+        }
+        1 * compileStateCache.set(_) >> { CompilationState state -> storedState = state }
+        storedState.getState(compiled).compileDuration == 100
+        storedState.getState(unchanged).compileDuration == 200
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import com.google.common.collect.ImmutableList
+import org.gradle.cache.internal.DefaultCacheRepository
+import org.gradle.cache.internal.DefaultCacheScopeMapping
+import org.gradle.internal.hash.HashCode
+import org.gradle.language.nativeplatform.internal.IncludeType
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.testfixtures.internal.InMemoryCacheFactory
+import org.gradle.util.GradleVersion
+import org.junit.Rule
+import spock.lang.Specification
+
+class CrossBuildIncludeDirectivesCacheTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def cacheRepository = new DefaultCacheRepository(new DefaultCacheScopeMapping(tmpDir.file("user-home"), tmpDir.file("build-dir"), GradleVersion.current()), new InMemoryCacheFactory())
+    def cache = new CrossBuildIncludeDirectivesCache(cacheRepository)
+    def hash = HashCode.fromInt(0x12345678)
+    def directives = new DefaultIncludeDirectives(ImmutableList.of(new IncludeWithSimpleExpression("one.h", true, IncludeType.QUOTED), new IncludeWithSimpleExpression("two.h", true, IncludeType.SYSTEM)), ImmutableList.of(), ImmutableList.of())
+
+    def "returns null for content that has not been stored"() {
+        expect:
+        cache.get(hash) == null
+    }
+
+    def "returns directives stored by another instance"() {
+        given:
+        cache.put(hash, directives)
+        cache.close()
+
+        when:
+        def otherCache = new CrossBuildIncludeDirectivesCache(cacheRepository)
+
+        then:
+        otherCache.get(hash) == directives
+        otherCache.get(HashCode.fromInt(0x23456789)) == null
+    }
+
+    def "returns null for an entry that cannot be read"() {
+        given:
+        cache.put(hash, directives)
+        File entry = null
+        tmpDir.file("user-home").eachFileRecurse { if (it.name == hash.toString()) { entry = it } }
+        entry.bytes = [255, 255, 255, 255] as byte[]
+
+        expect:
+        cache.get(hash) == null
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.internal.serialize.SerializerSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Unroll
+
+import java.nio.charset.Charset
+
+class DirectiveLineScannerTest extends SerializerSpec {
+    private static final Charset UTF_8 = Charset.forName("UTF-8")
+    private static final List<String> SNIPPETS = [
+        "",
+        "#include <a.h>",
+        "   \t#  include \"a.h\"\n#define X",
+        "int x; // #include <a.h>\n#include <b.h>",
+        "/* #include <a.h> */ #include <b.h>\n/* multi\n#include <c.h>\nline */ #define Y 1",
+        "/** doc ** comment **/#define Z \\\n  <z.h>",
+        "#define A \\\r\n  \"a.h\"\r#define B \\\r\"b.h\"\r\n\\\r\n#include B",
+        "char *s = \"/* not a comment\";\n#include <a.h>\nchar c = '\"';\n#include <b.h>\n\"\n#include <c.h>",
+        "char *s = \"escaped \\\" quote\\\\\";\n#include \"a.h\" // trailing",
+        "a / b;\n#include <a.h>/\n/",
+        "/",
+        "\\",
+        "#include <a.h>\\",
+        "#define F(x, y) x ## y\n#define G() <g.h>\n#import \"objc.h\"",
+        "/* unterminated comment\n#include <a.h>",
+        "// unterminated line comment",
+        "\u0000#include <nul.h>",
+        "#include \"h\u00f6he.h\"\n\u3000#define WIDE_SPACE 1\n\u00e9#define NOT_A_DIRECTIVE",
+        "x\r\r\\\r\\\r\\\n\\\r#define R\r\n",
+    ]
+
+    @Rule
+    final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+
+    @Unroll
+    def "finds the same directive lines as the preprocessing reader for snippet #index with #eolName line endings"() {
+        def input = SNIPPETS[index].replace("\n", eol)
+
+        expect:
+        scannedLines(input) == readerLines(input)
+
+        where:
+        [index, eol] << [(0..<SNIPPETS.size()), ["\n", "\r", "\r\n"]].combinations()
+        eolName = eol.replace("\r", "CR").replace("\n", "LF")
+    }
+
+    @Unroll
+    def "parses the same directives as the preprocessing reader for #name"() {
+        def file = temporaryFolder.testDirectory.file(name)
+        file.text = content
+
+        expect:
+        def scanned = new RegexBackedCSourceParser(true).parseSource(file)
+        def read = new RegexBackedCSourceParser(false).parseSource(file)
+        scanned == read
+        toBytes(scanned, new IncludeDirectivesSerializer()) == toBytes(read, new IncludeDirectivesSerializer())
+
+        where:
+        name                 | content
+        "snippets.h"         | SNIPPETS.join("\n")
+        "config.hpp"         | CONFIG_HEADER
+        "message.pb.h"       | GENERATED_HEADER
+        "macro_functions.h"  | MACRO_FUNCTIONS_HEADER
+    }
+
+    def "can scan charsets that extend ASCII one byte at a time"() {
+        expect:
+        DirectiveLineScanner.canScan(UTF_8)
+        DirectiveLineScanner.canScan(Charset.forName("US-ASCII"))
+        DirectiveLineScanner.canScan(Charset.forName("ISO-8859-1"))
+        !DirectiveLineScanner.canScan(Charset.forName("UTF-16"))
+        !DirectiveLineScanner.canScan(Charset.forName("UTF-16LE"))
+    }
+
+    private static List<String> scannedLines(String input) {
+        def bytes = input.getBytes(UTF_8)
+        def scanner = new DirectiveLineScanner(bytes, bytes.length, UTF_8)
+        def lines = []
+        def line = new StringBuilder()
+        while (scanner.readNextDirectiveLine(line)) {
+            lines << line.toString()
+            line.setLength(0)
+        }
+        return lines
+    }
+
+    private static List<String> readerLines(String input) {
+        def reader = new PreprocessingReader(new InputStreamReader(new ByteArrayInputStream(input.getBytes(UTF_8)), UTF_8))
+        def lines = []
+        def line = new StringBuilder()
+        while (reader.readNextLine(line)) {
+            def text = line.toString()
+            int start = 0
+            while (start < text.length() && isAsciiWhitespace(text.charAt(start))) {
+                start++
+            }
+            // The scanner keeps lines that start with a character outside of ASCII, as it does not decode the other lines
+            if (start < text.length() && (text.charAt(start) == '#' as char || text.charAt(start) > 0x7f)) {
+                lines << text.substring(start)
+            }
+            line.setLength(0)
+        }
+        return lines
+    }
+
+    private static boolean isAsciiWhitespace(char ch) {
+        return ch <= 0x7f && (Character.isWhitespace(ch) || ch == 0 as char)
+    }
+
+    private static final String CONFIG_HEADER = '''
+//  Boost config.hpp configuration header file  ------------------------------//
+//  (C) Copyright John Maddock 2002.
+//  See http://www.boost.org/libs/config for most recent version.
+
+#ifndef BOOST_CONFIG_HPP
+#define BOOST_CONFIG_HPP
+
+// if we don't have a user config, then use the default location:
+#if !defined(BOOST_USER_CONFIG) && !defined(BOOST_NO_USER_CONFIG)
+#  define BOOST_USER_CONFIG <boost/config/user.hpp>
+#endif
+// include it first:
+#ifdef BOOST_USER_CONFIG
+#  include BOOST_USER_CONFIG
+#endif
+
+#if !defined(BOOST_COMPILER_CONFIG) && !defined(BOOST_NO_COMPILER_CONFIG) && !defined(BOOST_NO_CONFIG)
+#  include <boost/config/detail/select_compiler_config.hpp>
+#endif
+#ifdef BOOST_COMPILER_CONFIG
+#  include BOOST_COMPILER_CONFIG
+#endif
+
+#define BOOST_STRINGIZE(X) BOOST_DO_STRINGIZE(X)
+#define BOOST_DO_STRINGIZE(X) #X
+#define BOOST_JOIN( X, Y ) BOOST_DO_JOIN( X, Y )
+#define BOOST_DO_JOIN( X, Y ) BOOST_DO_JOIN2(X,Y)
+#define BOOST_DO_JOIN2( X, Y ) X##Y
+
+#define BOOST_PP_ITERATION_PARAMS_1 (3, (0, 10, <boost/detail/iterate.hpp>))
+#include BOOST_PP_ITERATE()
+
+#include <boost/config/detail/posix_features.hpp> /* trailing comment */
+#endif  // BOOST_CONFIG_HPP
+'''
+
+    private static final String GENERATED_HEADER = '''
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// source: message.proto
+
+#ifndef PROTOBUF_message_2eproto__INCLUDED
+#define PROTOBUF_message_2eproto__INCLUDED
+
+#include <string>
+
+#include <google/protobuf/stubs/common.h>
+
+#if GOOGLE_PROTOBUF_VERSION < 3005000
+#error This file was generated by a newer version of protoc which is
+#error incompatible with your Protocol Buffer headers.  Please update
+#error your headers.
+#endif
+
+#include <google/protobuf/io/coded_stream.h>
+#include <google/protobuf/arena.h>
+#include <google/protobuf/generated_message_table_driven.h>
+// @@protoc_insertion_point(includes)
+
+namespace protobuf_message_2eproto {
+// Internal implementation detail -- do not use these members.
+struct TableStruct {
+  static const ::google::protobuf::internal::ParseTableField entries[];
+  static const ::google::protobuf::uint32 offsets[];
+};
+void AddDescriptors();
+}  // namespace protobuf_message_2eproto
+
+class Message : public ::google::protobuf::Message /* @@protoc_insertion_point(class_definition:Message) */ {
+ public:
+  Message();
+  virtual ~Message();
+
+  // string name = 1;
+  void clear_name();
+  static const int kNameFieldNumber = 1;
+  const ::std::string& name() const;
+  void set_name(const char* value);
+  #if LANG_CXX11
+  void set_name(::std::string&& value);
+  #endif
+  inline void set_name(const char* value, size_t size) { name_.SetNoArena("\\"/*", value); }
+};
+
+#ifdef __GNUC__
+  #pragma GCC diagnostic pop
+#endif  // __GNUC__
+
+// @@protoc_insertion_point(global_scope)
+
+#endif  // PROTOBUF_message_2eproto__INCLUDED
+'''
+
+    private static final String MACRO_FUNCTIONS_HEADER = '''
+#define HEADER(X) <X.h>
+#define QUOTED(X, Y) #X
+#define PASTE(X, Y) X ## Y
+#define CALL(F, ARGS) F ARGS
+#define NESTED(X) OUTER(INNER(X), X)
+#define EMPTY()
+#define VARARGS(...) __VA_ARGS__
+#define SPLIT(X) \\
+    HEADER( \\
+        X)
+#define STRINGS "a" "b"
+#include HEADER(foo)
+#include CALL(HEADER, (bar))
+#include PASTE(ab, cd)
+#import <Foundation/Foundation.h>
+#define WITH_COMMENT /* comment */ <with_comment.h> // more
+#define TABS\t\t<tabs.h>
+#include "quoted.h" extra tokens
+#include
+#define
+# define SPACED <spaced.h>
+#defineNOT_A_MACRO <x.h>
+#includeNOT <x.h>
+'''
+}
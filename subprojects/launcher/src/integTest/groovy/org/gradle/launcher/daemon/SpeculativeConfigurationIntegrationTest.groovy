@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon
+
+import org.gradle.integtests.fixtures.daemon.DaemonIntegrationSpec
+import org.gradle.launcher.daemon.server.exec.SpeculativeConfiguration
+import spock.lang.Timeout
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+@Timeout(120)
+class SpeculativeConfigurationIntegrationTest extends DaemonIntegrationSpec {
+
+    def "a build that arrives while the build is configured speculatively cancels the speculative configuration and is configured as usual"() {
+        given:
+        file("other.gradle") << ""
+        buildFile << """
+            ext.value = "original"
+
+            if (gradle.startParameter.dryRun) {
+                file("speculation-started").text = value
+                // Wait for the next build to cancel the speculative configuration
+                def cancellationToken = gradle.services.get(org.gradle.initialization.BuildCancellationToken)
+                while (!cancellationToken.cancellationRequested) {
+                    Thread.sleep(10)
+                }
+                file("speculation-canceled").text = value
+                // The speculative configuration stops at the next script
+                apply from: "other.gradle"
+                file("speculation-continued").text = value
+            }
+
+            task printValue {
+                doLast {
+                    println "value = \${value}"
+                }
+            }
+        """
+
+        when:
+        runWithSpeculativeConfiguration("printValue")
+
+        then:
+        outputContains("value = original")
+
+        when:
+        buildFile.text = buildFile.text.replace('ext.value = "original"', 'ext.value = "changed"')
+        poll(30) {
+            assert file("speculation-started").text == "changed"
+        }
+        runWithSpeculativeConfiguration("printValue")
+
+        then:
+        outputContains("value = changed")
+        file("speculation-canceled").text == "changed"
+        !file("speculation-continued").exists()
+        daemons.daemon.assertIdle()
+        daemons.daemons.size() == 1
+    }
+
+    private void runWithSpeculativeConfiguration(String... tasks) {
+        executer.withBuildJvmOpts("-D${SpeculativeConfiguration.SPECULATIVE_CONFIGURATION_PROPERTY}=true")
+        succeeds(tasks)
+    }
+}
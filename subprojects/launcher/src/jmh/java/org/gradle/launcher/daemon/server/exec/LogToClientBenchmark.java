@@ -0,0 +1,161 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.logging.events.OutputEvent;
+import org.gradle.internal.logging.events.StyledTextOutputEvent;
+import org.gradle.internal.operations.OperationIdentifier;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.remote.internal.inet.SocketConnection;
+import org.gradle.internal.serialize.Serializers;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
+import org.gradle.launcher.daemon.protocol.Message;
+import org.gradle.launcher.daemon.protocol.OutputMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Emits a million lines of test output from 16 threads, and sends them to a client over a loopback connection the way the daemon does.
+ * Each line is queued as a separate event, as when a test prints to stdout one line at a time.
+ *
+ * <p>{@code perEvent} flushes the connection after every event, {@code batched} flushes once per batch of queued events, and {@code coalesced}
+ * additionally merges adjacent lines of the same test into a single event with {@link LogToClient#coalesce(List)}.
+ * Both ends of the connection live in the benchmark process.</p>
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class LogToClientBenchmark {
+    private static final int THREADS = 16;
+    private static final int LINES = 1000000;
+    private static final int MAX_EVENTS_PER_BATCH = 1000;
+
+    @Param({"perEvent", "batched", "coalesced"})
+    String mode;
+
+    private ExecutorService producers;
+    private SocketConnection<Message> sender;
+    private SocketConnection<Message> receiver;
+    private Thread receiverThread;
+
+    @Setup
+    public void prepare() throws IOException {
+        producers = Executors.newFixedThreadPool(THREADS);
+        ServerSocketChannel serverSocket = ServerSocketChannel.open();
+        try {
+            serverSocket.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketChannel outgoing = SocketChannel.open(serverSocket.socket().getLocalSocketAddress());
+            SocketChannel incoming = serverSocket.accept();
+            sender = new SocketConnection<Message>(outgoing, new KryoBackedMessageSerializer(), Serializers.stateful(DaemonMessageSerializer.create(null)));
+            receiver = new SocketConnection<Message>(incoming, new KryoBackedMessageSerializer(), Serializers.stateful(DaemonMessageSerializer.create(null)));
+        } finally {
+            serverSocket.close();
+        }
+        receiverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (receiver.receive() != null) {
+                    // Discard
+                }
+            }
+        }, "receiver");
+        receiverThread.start();
+    }
+
+    @TearDown
+    public void stop() throws InterruptedException {
+        producers.shutdown();
+        sender.stop();
+        receiverThread.join();
+        receiver.stop();
+    }
+
+    @Benchmark
+    public void emitLines() throws InterruptedException {
+        final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+        final CountDownLatch started = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final OperationIdentifier test = new OperationIdentifier(i + 1);
+            producers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    for (int line = 0; line < LINES / THREADS; line++) {
+                        queue.add(new StyledTextOutputEvent(line, "TestEventLogger", LogLevel.LIFECYCLE, test, "    Test output line " + line + StyledTextOutputEvent.EOL.getText()));
+                    }
+                }
+            });
+        }
+        started.await();
+
+        int sent = 0;
+        while (sent < LINES) {
+            List<OutputEvent> events = new ArrayList<OutputEvent>();
+            OutputEvent event;
+            while (events.size() < MAX_EVENTS_PER_BATCH && (event = queue.poll()) != null) {
+                events.add(event);
+            }
+            if (!events.isEmpty()) {
+                sent += events.size();
+                send(events);
+            }
+        }
+    }
+
+    private void send(List<OutputEvent> events) {
+        if (mode.equals("perEvent")) {
+            for (OutputEvent event : events) {
+                send(Collections.singletonList(event), sender);
+            }
+        } else if (mode.equals("batched")) {
+            send(events, sender);
+        } else {
+            send(LogToClient.coalesce(events), sender);
+        }
+    }
+
+    private static void send(List<OutputEvent> events, SocketConnection<Message> connection) {
+        for (OutputEvent event : events) {
+            connection.dispatch(new OutputMessage(event));
+        }
+        connection.flush();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.serialization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends a large synthetic IDE model, where every project has its own copies of the paths and coordinates of a shared set of libraries,
+ * through plain Java serialization and through the {@link PayloadSerializer}.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PayloadSerializerBenchmark {
+    @Param({"java", "payload"})
+    String serializer;
+
+    @Param({"100", "500"})
+    int projectCount;
+
+    private final PayloadSerializer payloadSerializer = new PayloadSerializer(new WellKnownClassLoaderRegistry(new DefaultPayloadClassLoaderRegistry(new ClassLoaderCache(), new ModelClassLoaderFactory())));
+    private List<Map<String, Object>> model;
+
+    @Setup
+    public void prepare() throws IOException {
+        model = new ArrayList<Map<String, Object>>(projectCount);
+        for (int i = 0; i < projectCount; i++) {
+            Map<String, Object> project = new HashMap<String, Object>();
+            project.put("path", ":project" + i);
+            project.put("projectDir", new File("/home/user/workspace/build/project" + i));
+            List<Map<String, Object>> classpath = new ArrayList<Map<String, Object>>();
+            for (int j = 0; j < 200; j++) {
+                // Libraries are shared between projects, but each project builds its own copy of their details
+                int library = (i * 7 + j) % 1000;
+                String group = "org.example.group" + library % 50;
+                String name = "library" + library;
+                String version = "1." + library % 10;
+                String dir = "/home/user/.gradle/caches/modules-2/files-2.1/" + group + "/" + name + "/" + version + "/";
+                Map<String, Object> entry = new HashMap<String, Object>();
+                entry.put("group", group);
+                entry.put("name", name);
+                entry.put("version", version);
+                entry.put("file", new File(dir + "0123456789abcdef0123456789abcdef01234567/" + name + "-" + version + ".jar"));
+                entry.put("source", new File(dir + "89abcdef0123456789abcdef0123456789abcdef/" + name + "-" + version + "-sources.jar"));
+                entry.put("exported", Boolean.FALSE);
+                classpath.add(entry);
+            }
+            project.put("classpath", classpath);
+            model.add(project);
+        }
+        System.out.println();
+        System.out.println("Serialized size using " + serializer + " serialization: " + size(serialize()) + " bytes");
+    }
+
+    @Benchmark
+    public Object roundTrip() throws Exception {
+        return deserialize(serialize());
+    }
+
+    private Object serialize() throws IOException {
+        if (serializer.equals("payload")) {
+            return payloadSerializer.serialize(model);
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ObjectOutputStream objectStream = new ObjectOutputStream(outputStream);
+        objectStream.writeObject(model);
+        objectStream.close();
+        return outputStream.toByteArray();
+    }
+
+    private Object deserialize(Object serialized) throws Exception {
+        if (serialized instanceof SerializedPayload) {
+            return payloadSerializer.deserialize((SerializedPayload) serialized);
+        }
+        ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream((byte[]) serialized));
+        try {
+            return objectStream.readObject();
+        } finally {
+            objectStream.close();
+        }
+    }
+
+    private static int size(Object serialized) {
+        if (serialized instanceof SerializedPayload) {
+            int size = 0;
+            for (byte[] chunk : ((SerializedPayload) serialized).getSerializedModel()) {
+                size += chunk.length;
+            }
+            return size;
+        }
+        return ((byte[]) serialized).length;
+    }
+}
@@ -52,6 +52,7 @@ import org.gradle.launcher.daemon.server.exec.LogToClient;
 import org.gradle.launcher.daemon.server.exec.RequestStopIfSingleUsedDaemon;
 import org.gradle.launcher.daemon.server.exec.ResetDeprecationLogger;
 import org.gradle.launcher.daemon.server.exec.ReturnResult;
+import org.gradle.launcher.daemon.server.exec.SpeculativeConfiguration;
 import org.gradle.launcher.daemon.server.exec.StartBuildOrRespondWithBusy;
 import org.gradle.launcher.daemon.server.exec.WatchForDisconnection;
 import org.gradle.launcher.daemon.server.health.DaemonHealthCheck;
@@ -134,12 +135,18 @@ public class DaemonServices extends DefaultServiceRegistry {
     protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats) {
         File daemonLog = getDaemonLogFile();
         DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid());
-        return ImmutableList.of(
+        ImmutableList.Builder<DaemonCommandAction> actions = ImmutableList.builder();
+        actions.add(
             new HandleStop(get(ListenerManager.class)),
             new HandleCancel(),
             new HandleReportStatus(),
             new ReturnResult(),
-            new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
+            new StartBuildOrRespondWithBusy(daemonDiagnostics) // from this point down, the daemon is 'busy'
+        );
+        if (Boolean.getBoolean(SpeculativeConfiguration.SPECULATIVE_CONFIGURATION_PROPERTY)) {
+            actions.add(get(SpeculativeConfiguration.class));
+        }
+        actions.add(
             new EstablishBuildEnvironment(processEnvironment),
             new LogToClient(loggingManager, daemonDiagnostics), // from this point down, logging is sent back to the client
             new LogAndCheckHealth(healthStats, healthCheck),
@@ -149,7 +156,11 @@ public class DaemonServices extends DefaultServiceRegistry {
             new WatchForDisconnection(),
             new ExecuteBuild(buildActionExecuter, runningStats, this)
         );
+        return actions.build();
+    }
 
+    protected SpeculativeConfiguration createSpeculativeConfiguration(BuildExecuter buildActionExecuter, ProcessEnvironment processEnvironment, ExecutorFactory executorFactory, ListenerManager listenerManager) {
+        return new SpeculativeConfiguration(buildActionExecuter, this, processEnvironment, executorFactory, listenerManager);
     }
 
     Serializer<BuildAction> createBuildActionSerializer() {
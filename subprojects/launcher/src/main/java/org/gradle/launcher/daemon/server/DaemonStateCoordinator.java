@@ -58,6 +58,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private Object result;
     private String stopReason;
     private volatile DefaultBuildCancellationToken cancellationToken;
+    private DefaultBuildCancellationToken idleWorkCancellationToken;
 
     private final ManagedExecutor executor;
     private final Runnable onStartCommand;
@@ -163,6 +164,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                 case StopRequested:
                     LOGGER.debug("Marking daemon stopped due to {}. The daemon is running a build: {}", reason, state == State.Busy);
                     stopReason = reason;
+                    cancelIdleWork();
                     setState(State.Stopped);
                     break;
                 case Stopped:
@@ -285,6 +287,63 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
+    @Override
+    public boolean runWhileIdle(final Runnable work, DefaultBuildCancellationToken cancellationToken) {
+        lock.lock();
+        try {
+            if (state != State.Idle || idleWorkCancellationToken != null) {
+                return false;
+            }
+            idleWorkCancellationToken = cancellationToken;
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    work.run();
+                } catch (Throwable t) {
+                    LOGGER.debug("Work run while the daemon was idle failed.", t);
+                } finally {
+                    onIdleWorkFinished();
+                }
+            }
+        });
+        return true;
+    }
+
+    private void onIdleWorkFinished() {
+        lock.lock();
+        try {
+            idleWorkCancellationToken = null;
+            condition.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void cancelIdleWork() {
+        if (idleWorkCancellationToken != null && !idleWorkCancellationToken.isCancellationRequested()) {
+            try {
+                idleWorkCancellationToken.cancel();
+            } catch (Exception ex) {
+                LOGGER.error("Cancel of work run while the daemon was idle failed. Will continue.", ex);
+            }
+        }
+    }
+
+    private void awaitIdleWork() {
+        while (idleWorkCancellationToken != null) {
+            LOGGER.debug("Command execution: canceling work run while the daemon was idle, waiting for it to finish.");
+            cancelIdleWork();
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
     @Override
     public void runCommand(final Runnable command, String commandDisplayName) throws DaemonUnavailableException {
         onStartCommand(commandDisplayName);
@@ -358,6 +417,7 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private void onStartCommand(String commandDisplayName) {
         lock.lock();
         try {
+            awaitIdleWork();
             switch (state) {
                 case Broken:
                     throw new DaemonUnavailableException("This daemon is in a broken state and will stop.");
@@ -125,6 +125,14 @@ public class DefaultDaemonConnection implements DaemonConnection {
         connection.flush();
     }
 
+    @Override
+    public void logEvents(Iterable<? extends OutputEvent> logEvents) {
+        for (OutputEvent logEvent : logEvents) {
+            connection.dispatch(new OutputMessage(logEvent));
+        }
+        connection.flush();
+    }
+
     @Override
     public void event(Object event) {
         connection.dispatch(new BuildEvent(event));
@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.server.api;
 
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.DefaultBuildCancellationToken;
 
 public interface DaemonStateControl {
     /**
@@ -75,5 +76,13 @@ public interface DaemonStateControl {
      */
     void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException, DaemonStoppedException;
 
+    /**
+     * Runs the given work in the background while the daemon is idle, without making the daemon busy. The given token is canceled as soon as a command is started
+     * or the daemon is stopped, and {@link #runCommand} waits for the work to finish before running the command.
+     *
+     * @return true when the work has been started, false when the daemon is not idle or is already running other work.
+     */
+    boolean runWhileIdle(Runnable work, DefaultBuildCancellationToken cancellationToken);
+
     enum State {Idle, Busy, Canceled, StopRequested, Stopped, Broken}
 }
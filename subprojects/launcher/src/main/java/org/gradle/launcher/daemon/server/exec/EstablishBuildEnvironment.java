@@ -23,6 +23,7 @@ import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.EnvironmentModificationResult;
 import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.launcher.exec.BuildActionParameters;
 
 import java.io.File;
 import java.util.HashMap;
@@ -42,13 +43,25 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
         this.processEnvironment = processEnvironment;
     }
 
-    protected void doBuild(DaemonCommandExecution execution, Build build) {
+    protected void doBuild(final DaemonCommandExecution execution, Build build) {
+        runInBuildEnvironment(build.getParameters(), new Runnable() {
+            @Override
+            public void run() {
+                execution.proceed();
+            }
+        });
+    }
+
+    /**
+     * Runs the given action with the system properties, environment variables and working directory of the given build, and restores them afterwards.
+     */
+    public void runInBuildEnvironment(BuildActionParameters parameters, Runnable action) {
         Properties originalSystemProperties = new Properties();
         originalSystemProperties.putAll(System.getProperties());
         Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
         File originalProcessDir = FileUtils.canonicalize(new File("."));
 
-        for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
+        for (Map.Entry<String, String> entry : parameters.getSystemProperties().entrySet()) {
             if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
                 continue;
             }
@@ -62,8 +75,8 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
             System.setProperty(entry.getKey(), entry.getValue());
         }
 
-        LOGGER.debug("Configuring env variables: {}", build.getParameters().getEnvVariables());
-        EnvironmentModificationResult setEnvironmentResult = processEnvironment.maybeSetEnvironment(build.getParameters().getEnvVariables());
+        LOGGER.debug("Configuring env variables: {}", parameters.getEnvVariables());
+        EnvironmentModificationResult setEnvironmentResult = processEnvironment.maybeSetEnvironment(parameters.getEnvVariables());
         if(!setEnvironmentResult.isSuccess()) {
             LOGGER.warn("Warning: Unable able to set daemon's environment variables to match the client because: "
                 + System.getProperty("line.separator") + "  "
@@ -73,13 +86,13 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
                 + System.getProperty("line.separator") + "  "
                 + "relies on environment variables, you may experience unexpected behavior.");
         }
-        processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
+        processEnvironment.maybeSetProcessDir(parameters.getCurrentDir());
 
         // Capture and restore this in case the build code calls Locale.setDefault()
         Locale locale = Locale.getDefault();
 
         try {
-            execution.proceed();
+            action.run();
         } finally {
             System.setProperties(originalSystemProperties);
             processEnvironment.maybeSetEnvironment(originalEnv);
@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server.exec;
 
+import com.google.common.base.Objects;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
@@ -24,12 +25,16 @@ import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.logging.events.ProgressCompleteEvent;
 import org.gradle.internal.logging.events.ProgressEvent;
 import org.gradle.internal.logging.events.ProgressStartEvent;
+import org.gradle.internal.logging.events.StyledTextOutputEvent;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 import org.gradle.launcher.daemon.server.api.DaemonConnection;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
@@ -42,6 +47,8 @@ public class LogToClient extends BuildCommandOnly {
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
 
+    private static final int MAX_EVENTS_PER_BATCH = 1000;
+
     private volatile AsynchronousLogDispatcher dispatcher;
 
     public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics) {
@@ -65,6 +72,56 @@ public class LogToClient extends BuildCommandOnly {
         }
     }
 
+    /**
+     * Merges each run of adjacent text events that share their category, log level and build operation into a single event, so that output
+     * written one line at a time is sent and rendered in larger pieces. The merged event keeps the timestamp of the first event of the run.
+     */
+    static List<OutputEvent> coalesce(List<OutputEvent> events) {
+        List<OutputEvent> result = new ArrayList<OutputEvent>(events.size());
+        StyledTextOutputEvent first = null;
+        List<StyledTextOutputEvent.Span> spans = null;
+        for (OutputEvent event : events) {
+            if (first != null && canCoalesce(first, event)) {
+                if (spans == null) {
+                    spans = new ArrayList<StyledTextOutputEvent.Span>(first.getSpans());
+                }
+                spans.addAll(((StyledTextOutputEvent) event).getSpans());
+                continue;
+            }
+            addCoalesced(result, first, spans);
+            first = null;
+            spans = null;
+            if (event.getClass() == StyledTextOutputEvent.class) {
+                first = (StyledTextOutputEvent) event;
+            } else {
+                result.add(event);
+            }
+        }
+        addCoalesced(result, first, spans);
+        return result;
+    }
+
+    private static boolean canCoalesce(StyledTextOutputEvent first, OutputEvent event) {
+        if (event.getClass() != StyledTextOutputEvent.class) {
+            return false;
+        }
+        StyledTextOutputEvent next = (StyledTextOutputEvent) event;
+        return first.getLogLevel() == next.getLogLevel()
+            && first.getCategory().equals(next.getCategory())
+            && Objects.equal(first.getBuildOperationId(), next.getBuildOperationId());
+    }
+
+    private static void addCoalesced(List<OutputEvent> result, @Nullable StyledTextOutputEvent first, @Nullable List<StyledTextOutputEvent.Span> spans) {
+        if (first == null) {
+            return;
+        }
+        if (spans == null) {
+            result.add(first);
+        } else {
+            result.add(new StyledTextOutputEvent(first.getTimestamp(), first.getCategory(), first.getLogLevel(), first.getBuildOperationId(), spans));
+        }
+    }
+
     private class AsynchronousLogDispatcher extends Thread {
         private final CountDownLatch completionLock = new CountDownLatch(1);
         private final Queue<OutputEvent> eventQueue = new ConcurrentLinkedQueue<OutputEvent>();
@@ -103,11 +160,11 @@ public class LogToClient extends BuildCommandOnly {
         public void run() {
             try {
                 while (!shouldStop) {
-                    OutputEvent event = eventQueue.poll();
-                    if (event == null) {
+                    List<OutputEvent> events = pollEvents();
+                    if (events.isEmpty()) {
                         Thread.sleep(10);
                     } else {
-                        dispatchAsync(event);
+                        dispatchAsync(events);
                     }
                 }
             } catch (InterruptedException ex) {
@@ -120,19 +177,28 @@ public class LogToClient extends BuildCommandOnly {
             completionLock.countDown();
         }
 
-        private void sendRemainingEvents() {
+        private List<OutputEvent> pollEvents() {
+            List<OutputEvent> events = new ArrayList<OutputEvent>();
             OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+            while (events.size() < MAX_EVENTS_PER_BATCH && (event = eventQueue.poll()) != null) {
+                events.add(event);
+            }
+            return coalesce(events);
+        }
+
+        private void sendRemainingEvents() {
+            List<OutputEvent> events;
+            while (!(events = pollEvents()).isEmpty()) {
+                dispatchAsync(events);
             }
         }
 
-        private void dispatchAsync(OutputEvent event) {
+        private void dispatchAsync(List<OutputEvent> events) {
             if (unableToSend) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                connection.logEvents(events);
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -0,0 +1,441 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.internal.StartParameterInternal;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.groovy.scripts.Script;
+import org.gradle.groovy.scripts.ScriptExecutionListener;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.initialization.BuildClientMetaData;
+import org.gradle.initialization.DefaultBuildCancellationToken;
+import org.gradle.initialization.DefaultBuildRequestContext;
+import org.gradle.initialization.DefaultBuildRequestMetaData;
+import org.gradle.initialization.NoOpBuildEventConsumer;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.nativeintegration.ProcessEnvironment;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.launcher.cli.action.ExecuteBuildAction;
+import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.launcher.daemon.server.api.DaemonStateControl;
+import org.gradle.launcher.exec.BuildActionExecuter;
+import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.launcher.exec.DefaultBuildActionParameters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+/**
+ * Configures the most recent build again while the daemon is idle, as soon as one of its build scripts or buildSrc sources changes.
+ *
+ * <p>The speculative configuration is a dry run of the most recent build, whose output only goes to the daemon log. It compiles the changed scripts, rebuilds
+ * buildSrc and loads the ClassLoaders of the build logic into the caches of the daemon, so that the next build finds them ready. It is canceled as soon as
+ * the daemon receives a command, and stops at the next script it loads.</p>
+ *
+ * <p>The files that triggered the speculative configuration are still watched while it runs. When they change again, the result is stale: the speculative
+ * configuration stops at the next script it loads, and starts over once the files have settled.</p>
+ */
+public class SpeculativeConfiguration extends BuildCommandOnly implements ScriptExecutionListener, Stoppable {
+    public static final String SPECULATIVE_CONFIGURATION_PROPERTY = "org.gradle.daemon.speculative-configuration";
+    private static final Logger LOGGER = Logging.getLogger(SpeculativeConfiguration.class);
+    private static final WatchEvent.Kind<?>[] WATCH_KINDS = new WatchEvent.Kind<?>[]{ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY};
+    // Editors, version control and build tools usually change several files at once
+    private static final long QUIET_PERIOD_MILLIS = 500;
+
+    private final BuildActionExecuter<BuildActionParameters> actionExecuter;
+    private final ServiceRegistry contextServices;
+    private final EstablishBuildEnvironment buildEnvironment;
+    private final ManagedExecutor executor;
+    private final Set<File> scriptFiles = Collections.synchronizedSet(new LinkedHashSet<File>());
+    private final Object lock = new Object();
+    private Watch watch;
+    private boolean stopped;
+    private volatile DefaultBuildCancellationToken speculativeCancellationToken;
+    private volatile Watch speculativeInputs;
+
+    public SpeculativeConfiguration(BuildActionExecuter<BuildActionParameters> actionExecuter, ServiceRegistry contextServices, ProcessEnvironment processEnvironment, ExecutorFactory executorFactory, ListenerManager listenerManager) {
+        this.actionExecuter = actionExecuter;
+        this.contextServices = contextServices;
+        this.buildEnvironment = new EstablishBuildEnvironment(processEnvironment);
+        this.executor = executorFactory.create("Daemon speculative configuration");
+        listenerManager.addListener(this);
+    }
+
+    @Override
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        // The build may change the watched files itself
+        stopWatching();
+        scriptFiles.clear();
+        try {
+            execution.proceed();
+        } finally {
+            if (!build.getParameters().isContinuous()) {
+                startWatching(new SpeculativeBuild(build), execution.getDaemonStateControl());
+            }
+        }
+    }
+
+    @Override
+    public void scriptClassLoaded(ScriptSource source, Class<? extends Script> scriptClass) {
+        DefaultBuildCancellationToken cancellationToken = speculativeCancellationToken;
+        if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+            throw new BuildCancelledException("Speculative configuration canceled.");
+        }
+        Watch inputs = speculativeInputs;
+        if (inputs != null && inputs.hasChanged()) {
+            throw new BuildCancelledException("Speculative configuration canceled, as the build scripts have changed.");
+        }
+        File scriptFile = source.getResource().getLocation().getFile();
+        if (scriptFile != null) {
+            scriptFiles.add(scriptFile);
+        }
+    }
+
+    private void startWatching(final SpeculativeBuild build, final DaemonStateControl stateControl) {
+        List<File> files;
+        synchronized (scriptFiles) {
+            files = new ArrayList<File>(scriptFiles);
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+        final Watch newWatch;
+        try {
+            newWatch = new Watch(files);
+        } catch (IOException e) {
+            LOGGER.debug("Could not watch the build scripts, the build will not be configured speculatively.", e);
+            return;
+        }
+        synchronized (lock) {
+            if (stopped) {
+                newWatch.close();
+                return;
+            }
+            if (watch != null) {
+                watch.close();
+            }
+            watch = newWatch;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (!newWatch.awaitChange()) {
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    synchronized (lock) {
+                        if (watch != newWatch) {
+                            // A build has started in the meantime
+                            return;
+                        }
+                        watch = null;
+                    }
+                    configure(build, newWatch, stateControl);
+                }
+            });
+        }
+    }
+
+    private void stopWatching() {
+        synchronized (lock) {
+            if (watch != null) {
+                watch.close();
+                watch = null;
+            }
+        }
+    }
+
+    /**
+     * Configures the build speculatively, while the given watch of its inputs keeps running. Takes ownership of the watch.
+     */
+    private void configure(final SpeculativeBuild build, final Watch inputs, final DaemonStateControl stateControl) {
+        final DefaultBuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
+        cancellationToken.addCallback(new Runnable() {
+            @Override
+            public void run() {
+                // Stops waiting for the files to settle
+                inputs.close();
+            }
+        });
+        boolean started = stateControl.runWhileIdle(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (!cancellationToken.isCancellationRequested()) {
+                        runSpeculatively(build, inputs, cancellationToken);
+                        if (!inputs.hasChanged()) {
+                            break;
+                        }
+                        LOGGER.lifecycle("Build scripts have changed during the speculative configuration, discarding its result.");
+                        if (!inputs.awaitQuietPeriod()) {
+                            return;
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    inputs.close();
+                }
+                if (!cancellationToken.isCancellationRequested()) {
+                    startWatching(build, stateControl);
+                }
+            }
+        }, cancellationToken);
+        if (!started) {
+            inputs.close();
+            LOGGER.debug("The daemon is not idle, the build will not be configured speculatively.");
+        }
+    }
+
+    private void runSpeculatively(final SpeculativeBuild build, Watch inputs, final DefaultBuildCancellationToken cancellationToken) {
+        LOGGER.lifecycle("Build scripts have changed, configuring the build speculatively.");
+        scriptFiles.clear();
+        speculativeCancellationToken = cancellationToken;
+        speculativeInputs = inputs;
+        try {
+            buildEnvironment.runInBuildEnvironment(build.parameters, new Runnable() {
+                @Override
+                public void run() {
+                    DefaultBuildRequestContext requestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(build.client, System.currentTimeMillis()), cancellationToken, new NoOpBuildEventConsumer());
+                    actionExecuter.execute(new ExecuteBuildAction(build.newStartParameter()), requestContext, build.parameters, contextServices);
+                }
+            });
+            LOGGER.lifecycle("Speculative configuration finished.");
+        } catch (Exception e) {
+            // The next build reports any problem with the build logic
+            LOGGER.lifecycle("Speculative configuration {}.", cancellationToken.isCancellationRequested() || inputs.hasChanged() ? "canceled" : "failed");
+            LOGGER.debug("Speculative configuration did not complete.", e);
+        } finally {
+            speculativeCancellationToken = null;
+            speculativeInputs = null;
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+        }
+        stopWatching();
+        executor.stop();
+    }
+
+    /**
+     * The details of a build needed to configure it again.
+     */
+    private static class SpeculativeBuild {
+        private final StartParameterInternal startParameter;
+        private final BuildActionParameters parameters;
+        private final BuildClientMetaData client;
+
+        SpeculativeBuild(Build build) {
+            this.startParameter = build.getAction().getStartParameter();
+            BuildActionParameters original = build.getParameters();
+            // Nobody is around to answer questions
+            this.parameters = new DefaultBuildActionParameters(original.getSystemProperties(), original.getEnvVariables(), original.getCurrentDir(), original.getLogLevel(), original.isUseDaemon(), false, false, original.getInjectedPluginClasspath());
+            this.client = build.getBuildClientMetaData();
+        }
+
+        StartParameterInternal newStartParameter() {
+            StartParameterInternal copy = (StartParameterInternal) startParameter.newInstance();
+            copy.setDryRun(true);
+            copy.setContinuous(false);
+            return copy;
+        }
+    }
+
+    /**
+     * Watches the build scripts of a build, and the sources of its buildSrc builds.
+     */
+    private static class Watch {
+        private final WatchService watchService;
+        private final Set<Path> scriptFiles = new HashSet<Path>();
+        private final Set<Path> buildSrcDirs = new HashSet<Path>();
+        private final Set<Path> registeredDirs = new HashSet<Path>();
+        private boolean changed;
+
+        Watch(List<File> files) throws IOException {
+            watchService = FileSystems.getDefault().newWatchService();
+            try {
+                for (File file : files) {
+                    Path scriptFile = file.toPath().toAbsolutePath();
+                    scriptFiles.add(scriptFile);
+                    register(scriptFile.getParent());
+                    Path buildSrcDir = scriptFile.resolveSibling("buildSrc");
+                    if (Files.isDirectory(buildSrcDir) && buildSrcDirs.add(buildSrcDir)) {
+                        registerTree(buildSrcDir);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        private void register(Path directory) throws IOException {
+            if (registeredDirs.add(directory)) {
+                directory.register(watchService, WATCH_KINDS);
+            }
+        }
+
+        private void registerTree(Path directory) throws IOException {
+            register(directory);
+            File[] children = directory.toFile().listFiles();
+            if (children == null) {
+                return;
+            }
+            for (File child : children) {
+                Path childPath = child.toPath();
+                if (child.isDirectory() && !isBuildSrcOutput(childPath)) {
+                    registerTree(childPath);
+                }
+            }
+        }
+
+        /**
+         * Blocks until one of the watched files changes, and then until no more changes are received for a while.
+         *
+         * @return false when the watch has been closed.
+         */
+        boolean awaitChange() throws InterruptedException {
+            try {
+                while (!processEvents(watchService.take())) {
+                    // Keep waiting
+                }
+            } catch (ClosedWatchServiceException e) {
+                return false;
+            }
+            return awaitQuietPeriod();
+        }
+
+        /**
+         * Blocks until no more changes are received for a while, and forgets about the changes received so far.
+         *
+         * @return false when the watch has been closed.
+         */
+        synchronized boolean awaitQuietPeriod() throws InterruptedException {
+            try {
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    processEvents(key);
+                }
+                changed = false;
+                return true;
+            } catch (ClosedWatchServiceException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Returns true when one of the watched files has changed since the last quiet period, without blocking.
+         */
+        synchronized boolean hasChanged() {
+            try {
+                WatchKey key;
+                while (!changed && (key = watchService.poll()) != null) {
+                    processEvents(key);
+                }
+            } catch (ClosedWatchServiceException e) {
+                // Keep the changes received so far
+            }
+            return changed;
+        }
+
+        /**
+         * Returns true when the events of the given key include a change to a build script or a buildSrc source.
+         */
+        private boolean processEvents(WatchKey key) {
+            Path directory = (Path) key.watchable();
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    relevant = true;
+                    continue;
+                }
+                Path path = directory.resolve((Path) event.context());
+                if (scriptFiles.contains(path)) {
+                    relevant = true;
+                } else if (isBuildSrcSource(path)) {
+                    relevant = true;
+                    if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                        try {
+                            registerTree(path);
+                        } catch (IOException e) {
+                            LOGGER.debug("Could not watch {}.", path, e);
+                        }
+                    }
+                }
+            }
+            key.reset();
+            changed |= relevant;
+            return relevant;
+        }
+
+        private boolean isBuildSrcSource(Path path) {
+            for (Path buildSrcDir : buildSrcDirs) {
+                if (path.startsWith(buildSrcDir) && !path.equals(buildSrcDir)) {
+                    return !isBuildSrcOutput(path);
+                }
+            }
+            return false;
+        }
+
+        private boolean isBuildSrcOutput(Path path) {
+            for (Path buildSrcDir : buildSrcDirs) {
+                if (path.startsWith(buildSrcDir.resolve("build")) || path.startsWith(buildSrcDir.resolve(".gradle"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void close() {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not stop watching the build scripts.", e);
+            }
+        }
+    }
+}
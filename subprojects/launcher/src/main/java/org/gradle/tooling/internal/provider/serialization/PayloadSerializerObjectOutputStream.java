@@ -19,13 +19,20 @@ package org.gradle.tooling.internal.provider.serialization;
 import org.gradle.internal.serialize.ExceptionReplacingObjectOutputStream;
 import org.gradle.internal.serialize.TopLevelExceptionPlaceholder;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutputStream {
     static final int SAME_CLASSLOADER_TOKEN = 0;
     private final SerializeMap map;
+    // Models such as the IDE models contain the same paths and coordinates many times, but as different instances.
+    // Replacing equal values with a single instance means that each value is written once, and then referenced by a handle.
+    private final Map<String, String> strings = new HashMap<String, String>();
+    private final Map<String, File> files = new HashMap<String, File>();
 
     public PayloadSerializerObjectOutputStream(OutputStream outputStream, SerializeMap map) throws IOException {
         super(outputStream);
@@ -37,6 +44,37 @@ class PayloadSerializerObjectOutputStream extends ExceptionReplacingObjectOutput
         return new PayloadSerializerObjectOutputStream(outputStream, map);
     }
 
+    @Override
+    protected Object doReplaceObject(Object obj) throws IOException {
+        if (obj instanceof String) {
+            return canonicalString((String) obj);
+        }
+        if (obj != null && obj.getClass() == File.class) {
+            return canonicalFile((File) obj);
+        }
+        return super.doReplaceObject(obj);
+    }
+
+    private String canonicalString(String value) {
+        String canonical = strings.get(value);
+        if (canonical == null) {
+            strings.put(value, value);
+            return value;
+        }
+        return canonical;
+    }
+
+    private File canonicalFile(File file) {
+        // Use the path rather than the file itself as the key, as File.equals() ignores case on some platforms
+        String path = file.getPath();
+        File canonical = files.get(path);
+        if (canonical == null) {
+            files.put(path, file);
+            return file;
+        }
+        return canonical;
+    }
+
     @Override
     protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
         Class<?> targetClass = desc.forClass();
@@ -15,6 +15,7 @@
  */
 package org.gradle.launcher.daemon.server
 
+import org.gradle.initialization.DefaultBuildCancellationToken
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
@@ -645,6 +646,115 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         coordinator.getIdleMillis() > 0
     }
 
+    def "cancels work run while idle and waits for it to finish before running a command"() {
+        def cancellationToken = new DefaultBuildCancellationToken()
+        cancellationToken.addCallback { instant.cancelled }
+        Runnable command = Mock()
+
+        when:
+        def started = coordinator.runWhileIdle({
+            instant.workStarted
+            thread.blockUntil.cancelled
+            instant.workFinished
+        } as Runnable, cancellationToken)
+        thread.blockUntil.workStarted
+        coordinator.runCommand(command, "command")
+
+        then:
+        started
+        cancellationToken.cancellationRequested
+        instant.commandRunning > instant.workFinished
+        idle
+
+        and:
+        1 * command.run() >> { instant.commandRunning }
+    }
+
+    def "does not run work while a command is running"() {
+        Runnable command = Mock()
+        Runnable work = Mock()
+
+        when:
+        coordinator.runCommand(command, "command")
+
+        then:
+        1 * command.run() >> {
+            assert !coordinator.runWhileIdle(work, new DefaultBuildCancellationToken())
+        }
+        0 * work.run()
+    }
+
+    def "cancels work run while idle when stopped"() {
+        def cancellationToken = new DefaultBuildCancellationToken()
+        cancellationToken.addCallback { instant.cancelled }
+
+        when:
+        coordinator.runWhileIdle({
+            instant.workStarted
+            thread.blockUntil.cancelled
+        } as Runnable, cancellationToken)
+        thread.blockUntil.workStarted
+        coordinator.stop()
+
+        then:
+        stopped
+        cancellationToken.cancellationRequested
+    }
+
+    def "does not run other work while work run while idle is running"() {
+        Runnable other = Mock()
+
+        when:
+        def started = coordinator.runWhileIdle({
+            instant.workStarted
+            thread.blockUntil.checked
+        } as Runnable, new DefaultBuildCancellationToken())
+        thread.blockUntil.workStarted
+        def otherStarted = coordinator.runWhileIdle(other, new DefaultBuildCancellationToken())
+        instant.checked
+
+        then:
+        started
+        !otherStarted
+        idle
+        0 * other.run()
+    }
+
+    def "can run work again once work run while idle has finished"() {
+        when:
+        coordinator.runWhileIdle({
+            instant.firstFinished
+        } as Runnable, new DefaultBuildCancellationToken())
+        thread.blockUntil.firstFinished
+        // Wait for the coordinator to notice that the work has finished
+        coordinator.runCommand({} as Runnable, "command")
+        def started = coordinator.runWhileIdle({
+            instant.secondFinished
+        } as Runnable, new DefaultBuildCancellationToken())
+        thread.blockUntil.secondFinished
+
+        then:
+        started
+        idle
+    }
+
+    def "runs commands as usual when work run while idle fails"() {
+        Runnable command = Mock()
+
+        when:
+        coordinator.runWhileIdle({
+            instant.workFailed
+            throw new RuntimeException("broken")
+        } as Runnable, new DefaultBuildCancellationToken())
+        thread.blockUntil.workFailed
+        coordinator.runCommand(command, "command")
+
+        then:
+        1 * command.run()
+        !canceled
+        idle
+    }
+
     boolean isStopped() {
         return coordinator.state == Stopped
     }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.logging.events.LogEvent
+import org.gradle.internal.logging.events.StyledTextOutputEvent
+import org.gradle.internal.logging.text.StyledTextOutput
+import org.gradle.internal.operations.OperationIdentifier
+import spock.lang.Specification
+
+class LogToClientTest extends Specification {
+    def operation = new OperationIdentifier(1)
+
+    def "merges adjacent text events of the same category, log level and build operation"() {
+        def first = text(1, "category", LogLevel.LIFECYCLE, operation, "one")
+        def second = new StyledTextOutputEvent(2, "category", LogLevel.LIFECYCLE, new OperationIdentifier(1), [new StyledTextOutputEvent.Span(StyledTextOutput.Style.Failure, "two"), StyledTextOutputEvent.EOL])
+        def third = text(3, "category", LogLevel.LIFECYCLE, operation, "three")
+
+        when:
+        def result = LogToClient.coalesce([first, second, third])
+
+        then:
+        result.size() == 1
+        def merged = result[0] as StyledTextOutputEvent
+        merged.timestamp == 1
+        merged.category == "category"
+        merged.logLevel == LogLevel.LIFECYCLE
+        merged.buildOperationId == operation
+        merged.spans*.text == ["one", "two", StyledTextOutputEvent.EOL.text, "three"]
+        merged.spans*.style == [StyledTextOutput.Style.Normal, StyledTextOutput.Style.Failure, StyledTextOutput.Style.Normal, StyledTextOutput.Style.Normal]
+    }
+
+    def "does not merge text events that differ in category, log level or build operation"() {
+        def events = [
+            text(1, "category", LogLevel.LIFECYCLE, operation, "one"),
+            text(2, "other", LogLevel.LIFECYCLE, operation, "two"),
+            text(3, "other", LogLevel.WARN, operation, "three"),
+            text(4, "other", LogLevel.WARN, new OperationIdentifier(2), "four"),
+            text(5, "other", LogLevel.WARN, null, "five")
+        ]
+
+        expect:
+        LogToClient.coalesce(events) == events
+    }
+
+    def "does not merge text events across other events"() {
+        def logEvent = new LogEvent(2, "category", LogLevel.LIFECYCLE, "message", null)
+        def first = text(1, "category", LogLevel.LIFECYCLE, operation, "one")
+        def second = text(3, "category", LogLevel.LIFECYCLE, operation, "two")
+        def third = text(4, "category", LogLevel.LIFECYCLE, operation, "three")
+
+        when:
+        def result = LogToClient.coalesce([first, logEvent, second, third])
+
+        then:
+        result.size() == 3
+        result[0] == first
+        result[1] == logEvent
+        (result[2] as StyledTextOutputEvent).spans*.text == ["two", "three"]
+    }
+
+    private static StyledTextOutputEvent text(long timestamp, String category, LogLevel logLevel, OperationIdentifier operation, String text) {
+        new StyledTextOutputEvent(timestamp, category, logLevel, operation, text)
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.StartParameterInternal
+import org.gradle.api.logging.LogLevel
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.initialization.BuildClientMetaData
+import org.gradle.initialization.DefaultBuildCancellationToken
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.nativeintegration.EnvironmentModificationResult
+import org.gradle.internal.nativeintegration.ProcessEnvironment
+import org.gradle.internal.resource.ResourceLocation
+import org.gradle.internal.resource.TextResource
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.launcher.cli.action.ExecuteBuildAction
+import org.gradle.launcher.daemon.protocol.Build
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
+import org.gradle.launcher.daemon.server.api.DaemonStateControl
+import org.gradle.launcher.exec.BuildActionExecuter
+import org.gradle.launcher.exec.DefaultBuildActionParameters
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+
+@Timeout(120)
+class SpeculativeConfigurationTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def actionExecuter = Mock(BuildActionExecuter)
+    def processEnvironment = Stub(ProcessEnvironment) {
+        maybeSetEnvironment(_) >> EnvironmentModificationResult.SUCCESS
+    }
+    def stateControl = Mock(DaemonStateControl)
+    def executorFactory = new DefaultExecutorFactory()
+    def configuration = new SpeculativeConfiguration(actionExecuter, Stub(ServiceRegistry), processEnvironment, executorFactory, Stub(ListenerManager))
+    TestFile buildFile
+    ScriptSource buildScript
+    def speculativeBuilds = new LinkedBlockingQueue<StartParameterInternal>()
+    def cancellationTokens = new CopyOnWriteArrayList<DefaultBuildCancellationToken>()
+    def idle = new AtomicBoolean(true)
+    Closure onSpeculativeBuild = { loadBuildScript() }
+
+    def setup() {
+        buildFile = tmpDir.file("build.gradle")
+        buildFile.text = "original"
+        buildScript = scriptSource(buildFile)
+        stateControl.runWhileIdle(_, _) >> { Runnable work, DefaultBuildCancellationToken cancellationToken ->
+            if (!idle.get()) {
+                return false
+            }
+            cancellationTokens << cancellationToken
+            work.run()
+            return true
+        }
+        actionExecuter.execute(_, _, _, _) >> { ExecuteBuildAction action, context, parameters, services ->
+            speculativeBuilds.add(action.startParameter)
+            onSpeculativeBuild.call()
+            return null
+        }
+    }
+
+    def cleanup() {
+        configuration.stop()
+        executorFactory.stop()
+    }
+
+    def "configures the build speculatively as a dry run when a build script changes"() {
+        given:
+        build()
+
+        when:
+        buildFile.text = "changed"
+
+        then:
+        def startParameter = nextSpeculativeBuild()
+        startParameter.dryRun
+        !startParameter.continuous
+    }
+
+    def "ignores changes to other files"() {
+        given:
+        build()
+
+        when:
+        tmpDir.file("other.txt").text = "changed"
+
+        then:
+        noSpeculativeBuild()
+    }
+
+    def "watches the build scripts again once the build has been configured speculatively"() {
+        given:
+        build()
+        buildFile.text = "changed"
+        nextSpeculativeBuild()
+
+        when:
+        buildFile.text = "changed again"
+
+        then:
+        nextSpeculativeBuild()
+    }
+
+    def "does not configure the build speculatively when a build changes its own build scripts"() {
+        given:
+        build()
+
+        when:
+        build {
+            buildFile.text = "changed by the build"
+        }
+
+        then:
+        noSpeculativeBuild()
+
+        when:
+        buildFile.text = "changed"
+
+        then:
+        nextSpeculativeBuild()
+    }
+
+    def "does not watch the build scripts of a continuous build"() {
+        when:
+        build(true)
+        buildFile.text = "changed"
+
+        then:
+        noSpeculativeBuild()
+    }
+
+    def "does not configure the build speculatively when the daemon is not idle"() {
+        given:
+        idle.set(false)
+        build()
+
+        when:
+        buildFile.text = "changed"
+
+        then:
+        noSpeculativeBuild()
+        cancellationTokens.empty
+    }
+
+    def "stops the speculative configuration at the next script once it is canceled and does not watch the build scripts again"() {
+        def failures = new LinkedBlockingQueue<Exception>()
+
+        given:
+        onSpeculativeBuild = {
+            cancellationTokens.last().cancel()
+            try {
+                loadBuildScript()
+            } catch (BuildCancelledException e) {
+                failures.add(e)
+                throw e
+            }
+        }
+        build()
+
+        when:
+        buildFile.text = "changed"
+
+        then:
+        nextSpeculativeBuild()
+        failures.poll(30, TimeUnit.SECONDS) instanceof BuildCancelledException
+
+        when:
+        buildFile.text = "changed again"
+
+        then:
+        noSpeculativeBuild()
+    }
+
+    def "discards the speculative configuration and configures the build again when a build script changes while it runs"() {
+        def attempts = new AtomicInteger()
+        def failures = new LinkedBlockingQueue<Exception>()
+
+        given:
+        onSpeculativeBuild = {
+            if (attempts.getAndIncrement() > 0) {
+                loadBuildScript()
+                return
+            }
+            buildFile.text = "changed while configuring"
+            // Loading a script fails once the change has been noticed
+            for (int i = 0; i < 3000; i++) {
+                try {
+                    loadBuildScript()
+                } catch (BuildCancelledException e) {
+                    failures.add(e)
+                    throw e
+                }
+                Thread.sleep(10)
+            }
+        }
+        build()
+
+        when:
+        buildFile.text = "changed"
+
+        then:
+        nextSpeculativeBuild()
+        failures.poll(30, TimeUnit.SECONDS) instanceof BuildCancelledException
+        nextSpeculativeBuild()
+        cancellationTokens.size() == 1
+
+        when:
+        buildFile.text = "changed again"
+
+        then:
+        nextSpeculativeBuild()
+    }
+
+    def "stops watching the build scripts when stopped"() {
+        given:
+        build()
+
+        when:
+        configuration.stop()
+        buildFile.text = "changed"
+
+        then:
+        noSpeculativeBuild()
+    }
+
+    private void build(boolean continuous = false, Closure action = {}) {
+        def parameters = new DefaultBuildActionParameters([:], [:], tmpDir.testDirectory, LogLevel.LIFECYCLE, true, continuous, false, ClassPath.EMPTY)
+        def build = new Build(UUID.randomUUID(), [] as byte[], new ExecuteBuildAction(new StartParameterInternal()), Stub(BuildClientMetaData), 0, parameters)
+        def execution = Stub(DaemonCommandExecution) {
+            getCommand() >> build
+            getDaemonStateControl() >> stateControl
+            proceed() >> {
+                loadBuildScript()
+                action.call()
+                return true
+            }
+        }
+        configuration.execute(execution)
+    }
+
+    private void build(Closure action) {
+        build(false, action)
+    }
+
+    private void loadBuildScript() {
+        configuration.scriptClassLoaded(buildScript, Script)
+    }
+
+    private StartParameterInternal nextSpeculativeBuild() {
+        def startParameter = speculativeBuilds.poll(30, TimeUnit.SECONDS)
+        assert startParameter != null
+        return startParameter
+    }
+
+    private boolean noSpeculativeBuild() {
+        // Longer than the time the file system takes to report a change, plus the quiet period
+        return speculativeBuilds.poll(3, TimeUnit.SECONDS) == null
+    }
+
+    private ScriptSource scriptSource(File file) {
+        return Stub(ScriptSource) {
+            getResource() >> Stub(TextResource) {
+                getLocation() >> Stub(ResourceLocation) {
+                    getFile() >> file
+                }
+            }
+        }
+    }
+}
@@ -176,6 +176,21 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         reply2.payload.class == payloadClass
     }
 
+    def "writes equal strings and files only once"() {
+        def path = "/home/user/.gradle/caches/modules-2/files-2.1/org.example/library/1.0/library-1.0.jar"
+        def original = (1..100).collectMany { [new String(path), new File(path)] }
+
+        when:
+        def serialized = originator.serialize(original)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        received == original
+        received.findAll { it instanceof String }.every { it.is(received[0]) }
+        received.findAll { it instanceof File }.every { it.is(received[1]) }
+        serialized.serializedModel.sum { it.length } < 20 * path.length()
+    }
+
     void assertNotVisible(Class<?> from, Class<?> to) {
         try {
             from.classLoader.loadClass(to.name)
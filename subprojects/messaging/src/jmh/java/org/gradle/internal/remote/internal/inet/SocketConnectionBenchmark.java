@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.inet;
+
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Sends batches of messages over a loopback socket connection to a peer process and waits until the peer has acknowledged all of them.
+ * The small messages are about the size of a log or test event, the large ones the size of a tooling model or a test output chunk.
+ *
+ * <p>The peer runs in its own JVM, as a daemon or a worker process does, so the receiving end does not compete with the benchmark for the heap
+ * or the garbage collector. Run with {@code -prof gc} to see the allocation rate per message on the sending side.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class SocketConnectionBenchmark {
+    private static final String ACKNOWLEDGEMENT = "ack";
+
+    @Param({"100", "100000"})
+    int messageSize;
+
+    @Param({"1000"})
+    int messagesPerBatch;
+
+    private SocketConnection<String> connection;
+    private Process peer;
+    private String message;
+
+    @Setup
+    public void prepare() throws IOException {
+        StringBuilder builder = new StringBuilder(messageSize);
+        for (int i = 0; i < messageSize; i++) {
+            builder.append((char) ('a' + i % 26));
+        }
+        message = builder.toString();
+
+        ServerSocketChannel serverSocket = ServerSocketChannel.open();
+        try {
+            serverSocket.socket().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            String java = new File(System.getProperty("java.home"), "bin/java").getAbsolutePath();
+            peer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Peer.class.getName(),
+                String.valueOf(serverSocket.socket().getLocalPort()), String.valueOf(messagesPerBatch))
+                .inheritIO()
+                .start();
+            connection = connect(serverSocket.accept());
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    @TearDown
+    public void stop() throws InterruptedException {
+        connection.stop();
+        peer.waitFor();
+    }
+
+    @Benchmark
+    public void sendBatch() {
+        for (int i = 0; i < messagesPerBatch; i++) {
+            connection.dispatch(message);
+        }
+        connection.flush();
+        if (!ACKNOWLEDGEMENT.equals(connection.receive())) {
+            throw new IllegalStateException("The peer did not acknowledge the batch.");
+        }
+    }
+
+    private static SocketConnection<String> connect(SocketChannel socket) {
+        return new SocketConnection<String>(socket, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+    }
+
+    /**
+     * The receiving end of the connection, which acknowledges each batch once it has received all of its messages.
+     */
+    public static class Peer {
+        public static void main(String[] args) throws IOException {
+            int port = Integer.parseInt(args[0]);
+            int messagesPerBatch = Integer.parseInt(args[1]);
+            SocketConnection<String> connection = connect(SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port)));
+            try {
+                int received = 0;
+                while (connection.receive() != null) {
+                    if (++received == messagesPerBatch) {
+                        received = 0;
+                        connection.dispatch(ACKNOWLEDGEMENT);
+                        connection.flush();
+                    }
+                }
+            } finally {
+                connection.stop();
+            }
+        }
+    }
+}
@@ -40,6 +40,7 @@ import java.nio.channels.SocketChannel;
 
 public class SocketConnection<T> implements RemoteConnection<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(SocketConnection.class);
+    private static final int BUFFER_SIZE = 32 * 1024;
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -154,7 +155,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
             buffer.limit(0);
         }
 
@@ -174,28 +175,25 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
-                    return -1;
-                }
-
                 buffer.clear();
                 int nread;
                 try {
-                    nread = socket.read(buffer);
-                } catch (IOException e) {
-                    if (isEndOfStream(e)) {
-                        buffer.position(0);
-                        buffer.limit(0);
-                        return -1;
+                    // Only wait for the socket to become readable when nothing can be read right away
+                    while ((nread = readFromChannel()) == 0) {
+                        try {
+                            selector.select();
+                        } catch (ClosedSelectorException e) {
+                            nread = -1;
+                            break;
+                        }
+                        if (!selector.isOpen()) {
+                            nread = -1;
+                            break;
+                        }
                     }
-                    throw e;
+                } finally {
+                    buffer.flip();
                 }
-                buffer.flip();
 
                 if (nread < 0) {
                     return -1;
@@ -207,6 +205,17 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             return count;
         }
 
+        private int readFromChannel() throws IOException {
+            try {
+                return socket.read(buffer);
+            } catch (IOException e) {
+                if (isEndOfStream(e)) {
+                    return -1;
+                }
+                throw e;
+            }
+        }
+
         @Override
         public void close() throws IOException {
             selector.close();
@@ -222,7 +231,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
         }
 
         @Override
@@ -233,6 +242,8 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         @Override
         public void write(byte[] src, int offset, int max) throws IOException {
+            // Always copy through the direct buffer. Writing a heap buffer to the channel would make the JDK copy it into a temporary direct buffer
+            // of the same size, which it then keeps for the thread
             int remaining = max;
             int currentPos = offset;
             while (remaining > 0) {
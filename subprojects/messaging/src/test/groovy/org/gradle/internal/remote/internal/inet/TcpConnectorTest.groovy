@@ -223,6 +223,61 @@ class TcpConnectorTest extends ConcurrentSpec {
         acceptor?.stop()
     }
 
+    def "can receive many messages larger and smaller than the socket buffers"() {
+        given:
+        def messages = (0..<500).collect { i -> ("message " + i + " ") * ((i * 97) % 5000) }
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(serializer)
+            messages.each { connection.dispatch(it) }
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(serializer)
+        def received = []
+        def message
+        while ((message = connection.receive()) != null) {
+            received << message
+        }
+
+        then:
+        received == messages
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
+    def "can receive a message much larger than the socket buffers"() {
+        given:
+        def payload = new byte[10 * 1024 * 1024]
+        new Random(1).nextBytes(payload)
+        def binarySerializer = Serializers.stateful({ Encoder encoder, byte[] value ->
+            encoder.writeBinary(value)
+        } as Serializer<byte[]>)
+        def incomingSerializer = Serializers.stateful({ Decoder decoder ->
+            decoder.readBinary()
+        } as Serializer<byte[]>)
+
+        when:
+        def acceptor = incomingConnector.accept({ ConnectCompletion event ->
+            def connection = event.create(binarySerializer)
+            connection.dispatch(payload)
+            connection.stop()
+        } as Action, false)
+
+        def connection = outgoingConnector.connect(acceptor.address).create(incomingSerializer)
+
+        then:
+        connection.receive() == payload
+        connection.receive() == null
+
+        cleanup:
+        connection?.stop()
+        acceptor?.stop()
+    }
+
     def "returns null on failure to receive due to truncated input"() {
         given:
         def incomingSerializer = { Encoder encoder, String value ->
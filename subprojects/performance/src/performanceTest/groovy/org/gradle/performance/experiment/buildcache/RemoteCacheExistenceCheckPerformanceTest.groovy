@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.buildcache
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.gradle.performance.fixture.BuildExperimentInvocationInfo
+import org.gradle.performance.fixture.BuildExperimentListener
+import org.gradle.performance.fixture.BuildExperimentListenerAdapter
+import org.gradle.performance.fixture.BuildExperimentSpec
+import org.gradle.performance.measure.MeasuredOperation
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.server.http.HttpBuildCacheServer
+import org.junit.Rule
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+
+@Category(PerformanceExperiment)
+class RemoteCacheExistenceCheckPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Rule
+    HttpBuildCacheServer buildCacheServer = new HttpBuildCacheServer(temporaryFolder)
+
+    @Unroll
+    def "clean #tasks on #testProject with empty remote http cache and #latency ms latency (existence checks)"() {
+        def cacheDir = temporaryFolder.file("local-cache")
+        buildCacheServer.logRequests = false
+        buildCacheServer.delayRequestsBy(latency)
+        buildCacheServer.supportExistenceChecks()
+        def requestsBefore = 0
+
+        when:
+        runner.buildExperimentListener = new BuildExperimentListenerAdapter() {
+            @Override
+            void beforeExperiment(BuildExperimentSpec experimentSpec, File projectDir) {
+                if (!buildCacheServer.running) {
+                    buildCacheServer.start()
+                }
+                def settingsFile = new TestFile(projectDir).file('settings.gradle')
+                settingsFile << """
+                    buildCache {
+                        local {
+                            enabled = false
+                        }
+                        remote(HttpBuildCache) {
+                            url = '${buildCacheServer.uri}/'
+                        }
+                    }
+                """.stripIndent()
+            }
+
+            @Override
+            void beforeInvocation(BuildExperimentInvocationInfo invocationInfo) {
+                requestsBefore = buildCacheServer.getRequestCount('GET') + buildCacheServer.getRequestCount('POST')
+            }
+
+            @Override
+            void afterInvocation(BuildExperimentInvocationInfo invocationInfo, MeasuredOperation operation, BuildExperimentListener.MeasurementCallback measurementCallback) {
+                def requests = buildCacheServer.getRequestCount('GET') + buildCacheServer.getRequestCount('POST') - requestsBefore
+                println "Requests to the remote build cache by ${invocationInfo.buildExperimentSpec.displayName}: ${requests}"
+            }
+        }
+        runner.testGroup = "task output cache"
+        runner.buildSpec {
+            projectName(testProject.projectName).displayName("existence checks").invocation {
+                tasksToRun(tasks.split(' ')).cleanTasks("clean").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-Dorg.gradle.caching.prefetch=8").useDaemon().args("--build-cache")
+            }
+        }
+        runner.baseline {
+            projectName(testProject.projectName).displayName("no existence checks").invocation {
+                tasksToRun(tasks.split(' ')).cleanTasks("clean").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").useDaemon().args("--build-cache")
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject              | tasks      | latency
+        LARGE_JAVA_MULTI_PROJECT | "assemble" | 0
+        LARGE_JAVA_MULTI_PROJECT | "assemble" | 50
+    }
+
+}
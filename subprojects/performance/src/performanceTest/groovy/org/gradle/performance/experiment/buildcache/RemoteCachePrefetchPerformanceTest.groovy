@@ -0,0 +1,101 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.buildcache
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.gradle.performance.fixture.BuildExperimentListenerAdapter
+import org.gradle.performance.fixture.BuildExperimentSpec
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.server.http.HttpBuildCacheServer
+import org.junit.Rule
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.integtests.tooling.fixture.TextUtil.escapeString
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+import static org.gradle.performance.generator.JavaTestProject.LARGE_MONOLITHIC_JAVA_PROJECT
+
+@Category(PerformanceExperiment)
+class RemoteCachePrefetchPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Rule
+    HttpBuildCacheServer buildCacheServer = new HttpBuildCacheServer(temporaryFolder)
+
+    @Unroll
+    def "clean #tasks on #testProject with remote http cache and #latency ms latency (prefetching)"() {
+        def cacheDir = temporaryFolder.file("local-cache")
+        def deleteLocalCacheInitScript = temporaryFolder.file("delete-local-cache.gradle")
+        deleteLocalCacheInitScript << """
+            rootProject {
+                task cleanBuildCache(type: Delete) {
+                    delete(file("${escapeString(cacheDir.absolutePath)}"))
+                }
+            }
+        """.stripIndent()
+        buildCacheServer.logRequests = false
+        buildCacheServer.delayRequestsBy(latency)
+
+        when:
+        runner.buildExperimentListener = new BuildExperimentListenerAdapter() {
+            @Override
+            void beforeExperiment(BuildExperimentSpec experimentSpec, File projectDir) {
+                if (!buildCacheServer.running) {
+                    buildCacheServer.start()
+                }
+                cacheDir.deleteDir().mkdirs()
+                def settingsFile = new TestFile(projectDir).file('settings.gradle')
+                settingsFile << """
+                    buildCache {
+                        local {
+                            directory = '${cacheDir.absoluteFile.toURI()}'
+                        }
+                        remote(HttpBuildCache) {
+                            url = '${buildCacheServer.uri}/'
+                            push = true
+                        }
+                    }
+                """.stripIndent()
+            }
+        }
+        runner.testGroup = "task output cache"
+        runner.buildSpec {
+            projectName(testProject.projectName).displayName("prefetching").invocation {
+                tasksToRun(tasks.split(' ')).cleanTasks("clean", "cleanBuildCache").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-Dorg.gradle.caching.prefetch=8").useDaemon().args(
+                    "--build-cache",
+                    "--init-script", escapeString(deleteLocalCacheInitScript.absolutePath))
+            }
+        }
+        runner.baseline {
+            projectName(testProject.projectName).displayName("no prefetching").invocation {
+                tasksToRun(tasks.split(' ')).cleanTasks("clean", "cleanBuildCache").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").useDaemon().args(
+                    "--build-cache",
+                    "--init-script", escapeString(deleteLocalCacheInitScript.absolutePath))
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject                   | tasks      | latency
+        LARGE_MONOLITHIC_JAVA_PROJECT | "assemble" | 50
+        LARGE_JAVA_MULTI_PROJECT      | "assemble" | 0
+        LARGE_JAVA_MULTI_PROJECT      | "assemble" | 50
+    }
+
+}
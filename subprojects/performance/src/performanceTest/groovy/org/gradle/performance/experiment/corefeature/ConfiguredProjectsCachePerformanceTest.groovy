@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.performance.experiment.corefeature
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+import static org.gradle.performance.generator.JavaTestProject.MEDIUM_JAVA_MULTI_PROJECT
+
+@Category(PerformanceExperiment)
+class ConfiguredProjectsCachePerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Unroll
+    def "run #task on #testProject with the configured projects cache"() {
+        when:
+        runner.testGroup = "configured projects cache"
+        runner.buildSpec {
+            warmUpCount = 5
+            invocationCount = 20
+            projectName(testProject.projectName).displayName("configured projects cache").invocation {
+                tasksToRun(task).gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-Dorg.gradle.configuration.cache-configured-projects=true")
+            }
+        }
+        runner.baseline {
+            warmUpCount = 5
+            invocationCount = 20
+            projectName(testProject.projectName).displayName("no configured projects cache").invocation {
+                tasksToRun(task).gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}")
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject               | task
+        MEDIUM_JAVA_MULTI_PROJECT | ":help"
+        LARGE_JAVA_MULTI_PROJECT  | ":help"
+        LARGE_JAVA_MULTI_PROJECT  | ":project0:compileJava"
+    }
+}
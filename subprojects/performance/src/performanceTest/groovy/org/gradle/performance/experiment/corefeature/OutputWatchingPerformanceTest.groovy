@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.corefeature
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+
+@Category(PerformanceExperiment)
+class OutputWatchingPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    def "write 10 files into an output directory with 100k files"() {
+        when:
+        runner.testGroup = "output watching"
+        runner.buildSpec {
+            warmUpCount = 2
+            invocationCount = 10
+            projectName("outputWatchingPerformanceProject").displayName("watching outputs").invocation {
+                tasksToRun("writeFewOutputFiles").gradleOpts("-Xms1g", "-Xmx1g", "-Dorg.gradle.tasks.watch-outputs=true")
+            }
+        }
+        runner.baseline {
+            warmUpCount = 2
+            invocationCount = 10
+            projectName("outputWatchingPerformanceProject").displayName("walking outputs").invocation {
+                tasksToRun("writeFewOutputFiles").gradleOpts("-Xms1g", "-Xmx1g")
+            }
+        }
+
+        then:
+        runner.run()
+    }
+}
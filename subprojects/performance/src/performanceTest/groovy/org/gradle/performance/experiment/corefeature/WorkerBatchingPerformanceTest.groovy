@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.corefeature
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.junit.experimental.categories.Category
+
+@Category(PerformanceExperiment)
+class WorkerBatchingPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    def "submit 10k tiny work items with process isolation"() {
+        when:
+        runner.testGroup = "worker batching"
+        runner.buildSpec {
+            warmUpCount = 2
+            invocationCount = 6
+            projectName("workerBatchingPerformanceProject").displayName("batched").invocation {
+                tasksToRun("submitWorkItems").args("-Pbatched").gradleOpts("-Xms512m", "-Xmx512m")
+            }
+        }
+        runner.baseline {
+            warmUpCount = 2
+            invocationCount = 6
+            projectName("workerBatchingPerformanceProject").displayName("one submission per item").invocation {
+                tasksToRun("submitWorkItems").gradleOpts("-Xms512m", "-Xmx512m")
+            }
+        }
+
+        then:
+        runner.run()
+    }
+}
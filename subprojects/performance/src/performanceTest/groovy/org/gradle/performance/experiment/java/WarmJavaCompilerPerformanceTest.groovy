@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.experiment.java
+
+import org.gradle.performance.AbstractCrossBuildPerformanceTest
+import org.gradle.performance.categories.PerformanceExperiment
+import org.gradle.performance.mutator.ApplyNonAbiChangeToJavaSourceFileMutator
+import org.junit.experimental.categories.Category
+import spock.lang.Unroll
+
+import static org.gradle.performance.generator.JavaTestProject.LARGE_JAVA_MULTI_PROJECT
+import static org.gradle.performance.generator.JavaTestProject.MEDIUM_JAVA_MULTI_PROJECT
+
+@Category(PerformanceExperiment)
+class WarmJavaCompilerPerformanceTest extends AbstractCrossBuildPerformanceTest {
+
+    @Unroll
+    def "assemble for non-abi change on #testProject with warm javac file managers"() {
+        when:
+        runner.testGroup = "warm java compiler"
+        runner.buildExperimentListener = new ApplyNonAbiChangeToJavaSourceFileMutator(testProject.config.fileToChangeByScenario['assemble'])
+        runner.buildSpec {
+            warmUpCount = 5
+            invocationCount = 20
+            projectName(testProject.projectName).displayName("warm file managers").invocation {
+                tasksToRun("assemble").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}", "-Dorg.gradle.java.compile.warm=true")
+            }
+        }
+        runner.baseline {
+            warmUpCount = 5
+            invocationCount = 20
+            projectName(testProject.projectName).displayName("new file manager per compilation").invocation {
+                tasksToRun("assemble").gradleOpts("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}")
+            }
+        }
+
+        then:
+        runner.run()
+
+        where:
+        testProject << [MEDIUM_JAVA_MULTI_PROJECT, LARGE_JAVA_MULTI_PROJECT]
+    }
+}
@@ -43,4 +43,26 @@ class RealLifeAndroidStudioMockupPerformanceTest extends AbstractAndroidStudioMo
         testProject << ["k9AndroidBuild", "largeAndroidBuild"]
     }
 
-}
+    @Unroll
+    def "get IDE models in parallel on #testProject for Android Studio"() {
+        given:
+
+        experiment(testProject) {
+            minimumVersion = "4.3.1"
+            targetVersions = ["4.7-20180320095059+0000"]
+            action('org.gradle.performance.android.ParallelSyncAction') {
+                jvmArguments = customizeJvmOptions(["-Xms4g", "-Xmx4g"])
+            }
+        }
+
+        when:
+        def results = performMeasurements()
+
+        then:
+        results.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject << ["k9AndroidBuild", "largeAndroidBuild"]
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import com.google.common.collect.Lists;
+import org.apache.commons.io.FileUtils;
+import org.gradle.cache.PersistentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Deletes the least recently modified cache entries until the remaining entries fit into a given size.
+ */
+public class FixedSizeOldestCacheCleanup extends AbstractCacheCleanup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FixedSizeOldestCacheCleanup.class);
+
+    private final long maxSizeInBytes;
+
+    public FixedSizeOldestCacheCleanup(long maxSizeInBytes) {
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    @Override
+    protected List<File> findFilesToDelete(PersistentCache persistentCache, File[] filesEligibleForCleanup) {
+        LOGGER.info("{} remove oldest files beyond {}.", persistentCache, FileUtils.byteCountToDisplaySize(maxSizeInBytes));
+
+        CacheEntry[] entries = new CacheEntry[filesEligibleForCleanup.length];
+        for (int i = 0; i < filesEligibleForCleanup.length; i++) {
+            entries[i] = new CacheEntry(filesEligibleForCleanup[i]);
+        }
+        // Newest first
+        Arrays.sort(entries, new Comparator<CacheEntry>() {
+            @Override
+            public int compare(CacheEntry o1, CacheEntry o2) {
+                return Long.compare(o2.lastModified, o1.lastModified);
+            }
+        });
+
+        List<File> filesForDeletion = Lists.newArrayList();
+        long retainedSize = 0;
+        for (CacheEntry entry : entries) {
+            retainedSize += entry.length;
+            if (retainedSize > maxSizeInBytes) {
+                filesForDeletion.add(entry.file);
+            }
+        }
+
+        return filesForDeletion;
+    }
+
+    private static class CacheEntry {
+        private final File file;
+        private final long lastModified;
+        private final long length;
+
+        CacheEntry(File file) {
+            this.file = file;
+            this.lastModified = file.lastModified();
+            this.length = file.length();
+        }
+    }
+}
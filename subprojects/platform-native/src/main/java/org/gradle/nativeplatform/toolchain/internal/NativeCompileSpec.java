@@ -89,4 +89,12 @@ public interface NativeCompileSpec extends BinaryToolSpec {
     Map<File, IncludeDirectives> getSourceFileIncludeDirectives();
 
     void setSourceFileIncludeDirectives(Map<File, IncludeDirectives> map);
+
+    /**
+     * The durations in milliseconds of the most recent compilations of the source files. The compiler starts the longest compilations first,
+     * and records the duration of each source file it compiles in this map.
+     */
+    Map<File, Long> getSourceFileCompileDurations();
+
+    void setSourceFileCompileDurations(Map<File, Long> map);
 }
@@ -27,9 +27,14 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.WorkResults;
 import org.gradle.internal.FileUtils;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.logging.BuildOperationLogger;
 import org.gradle.internal.os.OperatingSystem;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.language.nativeplatform.internal.Include;
 import org.gradle.language.nativeplatform.internal.IncludeDirectives;
@@ -37,8 +42,11 @@ import org.gradle.nativeplatform.internal.CompilerOutputFileNamingSchemeFactory;
 import org.gradle.util.CollectionUtils;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 public abstract class NativeCompiler<T extends NativeCompileSpec> extends AbstractCompiler<T> {
     private final Transformer<T, T> specTransformer;
@@ -48,7 +56,7 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
     private final CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory;
 
     public NativeCompiler(BuildOperationExecutor buildOperationExecutor, CompilerOutputFileNamingSchemeFactory compilerOutputFileNamingSchemeFactory, CommandLineToolInvocationWorker commandLineToolInvocationWorker, CommandLineToolContext invocationContext, ArgsTransformer<T> argsTransformer, Transformer<T, T> specTransformer, String objectFileExtension, boolean useCommandFile, WorkerLeaseService workerLeaseService) {
-        super(buildOperationExecutor, commandLineToolInvocationWorker, invocationContext, argsTransformer, useCommandFile, workerLeaseService);
+        super(buildOperationExecutor, new CompileDurationRecordingWorker(commandLineToolInvocationWorker), invocationContext, argsTransformer, useCommandFile, workerLeaseService);
         this.compilerOutputFileNamingSchemeFactory = compilerOutputFileNamingSchemeFactory;
         this.objectFileExtension = objectFileExtension;
         this.specTransformer = specTransformer;
@@ -70,14 +78,44 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
             @Override
             public void execute(BuildOperationQueue<CommandLineToolInvocation> buildQueue) {
                 buildQueue.setLogLocation(spec.getOperationLogger().getLogLocation());
-                for (File sourceFile : spec.getSourceFiles()) {
+                Map<File, Long> compileDurations = spec.getSourceFileCompileDurations();
+                for (File sourceFile : longestCompilationsFirst(spec.getSourceFiles(), compileDurations)) {
                     CommandLineToolInvocation perFileInvocation = createPerFileInvocation(genericArgs, sourceFile, objectDir, spec);
-                    buildQueue.add(perFileInvocation);
+                    buildQueue.add(compileDurations == null ? perFileInvocation : new SourceFileCompileInvocation(perFileInvocation, sourceFile, compileDurations));
                 }
             }
         };
     }
 
+    /**
+     * Orders the source files so that the compilations that took longest before are started first, and a long compilation does not run on its own at the end.
+     * Files that have not been compiled before are started before all others, the largest first.
+     */
+    private static List<File> longestCompilationsFirst(List<File> sourceFiles, Map<File, Long> compileDurations) {
+        if (compileDurations == null || sourceFiles.size() < 2) {
+            return sourceFiles;
+        }
+        List<CompileCost> costs = new ArrayList<CompileCost>(sourceFiles.size());
+        for (File sourceFile : sourceFiles) {
+            Long compileDuration = compileDurations.get(sourceFile);
+            costs.add(compileDuration == null ? new CompileCost(sourceFile, false, sourceFile.length()) : new CompileCost(sourceFile, true, compileDuration));
+        }
+        Collections.sort(costs, new Comparator<CompileCost>() {
+            @Override
+            public int compare(CompileCost o1, CompileCost o2) {
+                if (o1.known != o2.known) {
+                    return o1.known ? 1 : -1;
+                }
+                return Long.compare(o2.cost, o1.cost);
+            }
+        });
+        List<File> ordered = new ArrayList<File>(costs.size());
+        for (CompileCost cost : costs) {
+            ordered.add(cost.sourceFile);
+        }
+        return ordered;
+    }
+
     protected List<String> getSourceArgs(File sourceFile) {
         return Collections.singletonList(sourceFile.getAbsolutePath());
     }
@@ -148,4 +186,92 @@ public abstract class NativeCompiler<T extends NativeCompileSpec> extends Abstra
     protected Iterable<String> buildPerFileArgs(List<String> genericArgs, List<String> sourceArgs, List<String> outputArgs, List<String> pchArgs) {
         return Iterables.concat(genericArgs, pchArgs, sourceArgs, outputArgs);
     }
+
+    private static class CompileCost {
+        private final File sourceFile;
+        private final boolean known;
+        private final long cost;
+
+        CompileCost(File sourceFile, boolean known, long cost) {
+            this.sourceFile = sourceFile;
+            this.known = known;
+            this.cost = cost;
+        }
+    }
+
+    private static class SourceFileCompileInvocation implements CommandLineToolInvocation {
+        private final CommandLineToolInvocation delegate;
+        private final File sourceFile;
+        private final Map<File, Long> compileDurations;
+
+        SourceFileCompileInvocation(CommandLineToolInvocation delegate, File sourceFile, Map<File, Long> compileDurations) {
+            this.delegate = delegate;
+            this.sourceFile = sourceFile;
+            this.compileDurations = compileDurations;
+        }
+
+        @Override
+        public List<File> getPath() {
+            return delegate.getPath();
+        }
+
+        @Override
+        public Map<String, String> getEnvironment() {
+            return delegate.getEnvironment();
+        }
+
+        @Override
+        public File getWorkDirectory() {
+            return delegate.getWorkDirectory();
+        }
+
+        @Override
+        public Iterable<String> getArgs() {
+            return delegate.getArgs();
+        }
+
+        @Override
+        public BuildOperationLogger getLogger() {
+            return delegate.getLogger();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return delegate.description();
+        }
+    }
+
+    /**
+     * Records how long the compilation of each source file takes.
+     */
+    private static class CompileDurationRecordingWorker implements CommandLineToolInvocationWorker {
+        private final CommandLineToolInvocationWorker delegate;
+
+        CompileDurationRecordingWorker(CommandLineToolInvocationWorker delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getDisplayName() {
+            return delegate.getDisplayName();
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+
+        @Override
+        public void execute(CommandLineToolInvocation invocation, BuildOperationContext context) {
+            if (!(invocation instanceof SourceFileCompileInvocation)) {
+                delegate.execute(invocation, context);
+                return;
+            }
+            SourceFileCompileInvocation compileInvocation = (SourceFileCompileInvocation) invocation;
+            Timer timer = Time.startTimer();
+            delegate.execute(invocation, context);
+            // A duration of 0 means unknown
+            compileInvocation.compileDurations.put(compileInvocation.sourceFile, Math.max(1, timer.getElapsedMillis()));
+        }
+    }
 }
@@ -25,6 +25,7 @@ import org.gradle.internal.concurrent.GradleThread
 import org.gradle.internal.concurrent.ParallelismConfigurationManager
 import org.gradle.internal.concurrent.ParallelismConfigurationManagerFixture
 import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.BuildOperationQueue
 import org.gradle.internal.operations.DefaultBuildOperationIdFactory
 import org.gradle.internal.operations.DefaultBuildOperationQueueFactory
 import org.gradle.internal.operations.logging.BuildOperationLogger
@@ -41,6 +42,7 @@ import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.Executor
 
 abstract class NativeCompilerTest extends Specification {
@@ -187,6 +189,66 @@ abstract class NativeCompilerTest extends Specification {
         false           | "options passed on the command line only"
     }
 
+    def "starts the compilations that took longest before first"() {
+        given:
+        def compiler = getCompiler()
+        def testDir = tmpDirProvider.testDirectory
+        def shortSource = testDir.file("short.ext")
+        def longSource = testDir.file("long.ext")
+        def smallNewSource = testDir.file("smallNew.ext") << "small"
+        def largeNewSource = testDir.file("largeNew.ext") << "larger than the other"
+        def queue = Mock(BuildOperationQueue)
+        def started = []
+
+        when:
+        def compileSpec = Stub(getCompileSpecType()) {
+            getObjectFileDir() >> testDir.file("output/objects")
+            getSourceFiles() >> [shortSource, smallNewSource, longSource, largeNewSource]
+            getSourceFileCompileDurations() >> [(shortSource): 10L, (longSource): 500L]
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+        }
+
+        and:
+        compiler.newInvocationAction(compileSpec, []).execute(queue)
+
+        then:
+        4 * queue.add(_) >> { CommandLineToolInvocation invocation -> started << invocation.description().build().displayName }
+        started == ["compiling largeNew.ext", "compiling smallNew.ext", "compiling long.ext", "compiling short.ext"]
+    }
+
+    def "records how long each source file took to compile"() {
+        given:
+        GradleThread.setManaged()
+
+        def compiler = getCompiler()
+        def testDir = tmpDirProvider.testDirectory
+        def sourceFiles = [ testDir.file("source1.ext"), testDir.file("source2.ext") ]
+        def compileDurations = new ConcurrentHashMap<File, Long>()
+
+        when:
+        def compileSpec = Stub(getCompileSpecType()) {
+            getObjectFileDir() >> testDir.file("output/objects")
+            getSourceFiles() >> sourceFiles
+            getSourceFileCompileDurations() >> compileDurations
+            getOperationLogger() >> Mock(BuildOperationLogger)
+            getPreCompiledHeader() >> null
+            getPrefixHeaderFile() >> null
+            getPreCompiledHeaderObjectFile() >> null
+        }
+
+        and:
+        compiler.execute(compileSpec)
+
+        then:
+        2 * commandLineTool.execute(_, _)
+        compileDurations.keySet() == sourceFiles as Set
+        compileDurations.values().every { it > 0 }
+
+        cleanup:
+        GradleThread.setUnmanaged()
+    }
+
     def "user-supplied arg actions run once per execute"() {
         given:
         def invocationContext = new DefaultMutableCommandLineToolContext()
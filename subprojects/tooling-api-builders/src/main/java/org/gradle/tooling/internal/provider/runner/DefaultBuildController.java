@@ -16,12 +16,21 @@
 
 package org.gradle.tooling.internal.provider.runner;
 
+import org.gradle.api.Action;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.initialization.IncludedBuild;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.composite.internal.IncludedBuildInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
 import org.gradle.tooling.internal.adapter.ViewBuilder;
 import org.gradle.tooling.internal.gradle.GradleBuildIdentity;
@@ -29,6 +38,7 @@ import org.gradle.tooling.internal.gradle.GradleProjectIdentity;
 import org.gradle.tooling.internal.protocol.BuildExceptionVersion1;
 import org.gradle.tooling.internal.protocol.BuildResult;
 import org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2;
+import org.gradle.tooling.internal.protocol.InternalParallelBuildController;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.provider.connection.ProviderBuildResult;
@@ -36,9 +46,15 @@ import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.ParameterizedToolingModelBuilder;
 import org.gradle.tooling.provider.model.UnknownModelException;
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 @SuppressWarnings("deprecation")
-class DefaultBuildController implements org.gradle.tooling.internal.protocol.InternalBuildController, InternalBuildControllerVersion2 {
+class DefaultBuildController implements org.gradle.tooling.internal.protocol.InternalBuildController, InternalBuildControllerVersion2, InternalParallelBuildController {
     private final GradleInternal gradle;
 
     public DefaultBuildController(GradleInternal gradle) {
@@ -66,25 +82,91 @@ class DefaultBuildController implements org.gradle.tooling.internal.protocol.Int
      */
     public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter)
         throws BuildExceptionVersion1, InternalUnsupportedModelException {
+        checkNotCancelled(modelIdentifier.getName());
+        ProjectInternal project = getTargetProject(target);
+        ToolingModelBuilder builder = getToolingModelBuilder(project, modelIdentifier);
+        return new ProviderBuildResult<Object>(buildModel(project, builder, modelIdentifier.getName(), parameter));
+    }
+
+    /**
+     * This is used by consumers 4.8 and later
+     */
+    public List<BuildResult<?>> getModels(List<?> targets, ModelIdentifier modelIdentifier, Object parameter) throws BuildExceptionVersion1 {
+        checkNotCancelled(modelIdentifier.getName());
+        List<BuildModel> operations = new ArrayList<BuildModel>(targets.size());
+        final List<BuildModel> parallelOperations = new ArrayList<BuildModel>(targets.size());
+        for (Object target : targets) {
+            ProjectInternal project = getTargetProject(target);
+            ToolingModelBuilder builder = findToolingModelBuilder(project, modelIdentifier, parameter);
+            if (builder == null) {
+                operations.add(null);
+                continue;
+            }
+            BuildModel operation = new BuildModel(project, builder, modelIdentifier.getName(), parameter);
+            operations.add(operation);
+            if (!(builder instanceof BuildWideToolingModelBuilder)) {
+                parallelOperations.add(operation);
+            }
+        }
+
+        // Models of different projects are built in parallel, each while holding the lock of its project
+        if (parallelOperations.size() > 1 && gradle.getStartParameter().isParallelProjectExecutionEnabled()) {
+            gradle.getServices().get(BuildOperationExecutor.class).runAll(new Action<BuildOperationQueue<BuildModel>>() {
+                @Override
+                public void execute(BuildOperationQueue<BuildModel> queue) {
+                    for (BuildModel operation : parallelOperations) {
+                        queue.add(operation);
+                    }
+                }
+            });
+        }
+        List<BuildResult<?>> results = new ArrayList<BuildResult<?>>(operations.size());
+        for (BuildModel operation : operations) {
+            if (operation == null) {
+                results.add(null);
+                continue;
+            }
+            if (!operation.done) {
+                checkNotCancelled(operation.modelName);
+                operation.model = buildModel(operation.project, operation.builder, operation.modelName, operation.parameter);
+            } else if (operation.failure != null) {
+                throw UncheckedException.throwAsUncheckedException(operation.failure);
+            }
+            results.add(new ProviderBuildResult<Object>(operation.model));
+        }
+        return results;
+    }
+
+    @Nullable
+    private ToolingModelBuilder findToolingModelBuilder(ProjectInternal project, ModelIdentifier modelIdentifier, Object parameter) {
+        ToolingModelBuilder builder;
+        try {
+            builder = getToolingModelBuilder(project, modelIdentifier);
+        } catch (InternalUnsupportedModelException e) {
+            return null;
+        }
+        if (parameter != null && !(builder instanceof ParameterizedToolingModelBuilder<?>)) {
+            return null;
+        }
+        return builder;
+    }
+
+    private void checkNotCancelled(String modelName) {
         BuildCancellationToken cancellationToken = gradle.getServices().get(BuildCancellationToken.class);
         if (cancellationToken.isCancellationRequested()) {
-            throw new BuildCancelledException(String.format("Could not build '%s' model. Build cancelled.", modelIdentifier.getName()));
+            throw new BuildCancelledException(String.format("Could not build '%s' model. Build cancelled.", modelName));
         }
-        ProjectInternal project = getTargetProject(target);
-        ToolingModelBuilder builder = getToolingModelBuilder(project, modelIdentifier);
-        String modelName = modelIdentifier.getName();
+    }
 
-        Object model;
+    private Object buildModel(ProjectInternal project, ToolingModelBuilder builder, String modelName, Object parameter) {
         if (parameter == null) {
-            model = builder.buildAll(modelName, project);
+            return builder.buildAll(modelName, project);
         } else if (builder instanceof ParameterizedToolingModelBuilder<?>) {
-            model = getParameterizedModel(project, modelName, (ParameterizedToolingModelBuilder<?>) builder, parameter);
+            return getParameterizedModel(project, modelName, (ParameterizedToolingModelBuilder<?>) builder, parameter);
         } else {
             throw (InternalUnsupportedModelException) (new InternalUnsupportedModelException()).initCause(
                 new UnknownModelException(String.format("No parameterized builders are available to build a model of type '%s'.", modelName)));
         }
-
-        return new ProviderBuildResult<Object>(model);
     }
 
     private <T> Object getParameterizedModel(ProjectInternal project,
@@ -153,4 +235,46 @@ class DefaultBuildController implements org.gradle.tooling.internal.protocol.Int
         }
         return builder;
     }
+
+    private class BuildModel implements RunnableBuildOperation {
+        private final ProjectInternal project;
+        private final ToolingModelBuilder builder;
+        private final String modelName;
+        private final Object parameter;
+        private boolean done;
+        private Object model;
+        private Throwable failure;
+
+        BuildModel(ProjectInternal project, ToolingModelBuilder builder, String modelName, Object parameter) {
+            this.project = project;
+            this.builder = builder;
+            this.modelName = modelName;
+            this.parameter = parameter;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            WorkerLeaseService workerLeaseService = gradle.getServices().get(WorkerLeaseService.class);
+            String gradlePath = project.getGradle().getIdentityPath().toString();
+            ResourceLock projectLock = workerLeaseService.getProjectLock(gradlePath, project.getIdentityPath().toString());
+            try {
+                checkNotCancelled(modelName);
+                workerLeaseService.withLocks(Collections.singleton(projectLock), new Runnable() {
+                    @Override
+                    public void run() {
+                        model = buildModel(project, builder, modelName, parameter);
+                    }
+                });
+            } catch (Throwable t) {
+                // Rethrown on the requesting thread, so that failures are reported in the same way as when a single model is requested
+                failure = t;
+            }
+            done = true;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Build '" + modelName + "' model for " + project.getDisplayName());
+        }
+    }
 }
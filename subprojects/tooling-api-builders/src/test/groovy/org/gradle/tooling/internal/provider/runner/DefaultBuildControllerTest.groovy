@@ -16,11 +16,15 @@
 
 package org.gradle.tooling.internal.provider.runner
 
+import org.gradle.StartParameter
 import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.TestBuildOperationExecutor
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
 import org.gradle.tooling.internal.protocol.ModelIdentifier
@@ -28,14 +32,24 @@ import org.gradle.tooling.provider.model.ToolingModelBuilder
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry
 import org.gradle.tooling.provider.model.ParameterizedToolingModelBuilder
 import org.gradle.tooling.provider.model.UnknownModelException
+import org.gradle.tooling.provider.model.internal.BuildWideToolingModelBuilder
+import org.gradle.util.Path
 import spock.lang.Specification
 
 class DefaultBuildControllerTest extends Specification {
     def cancellationToken = Stub(BuildCancellationToken)
+    def startParameter = Stub(StartParameter)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def workerLeaseService = Stub(WorkerLeaseService) {
+        withLocks(_, _ as Runnable) >> { locks, Runnable runnable -> runnable.run() }
+    }
     def gradle = Stub(GradleInternal) {
         getServices() >> Stub(ServiceRegistry) {
             get(BuildCancellationToken) >> cancellationToken
+            get(BuildOperationExecutor) >> buildOperationExecutor
+            get(WorkerLeaseService) >> workerLeaseService
         }
+        getStartParameter() >> startParameter
     }
     def registry = Stub(ToolingModelBuilderRegistry)
     def project = Stub(ProjectInternal) {
@@ -49,6 +63,11 @@ class DefaultBuildControllerTest extends Specification {
     def modelBuilder = Stub(ToolingModelBuilder)
     def parameterizedModelBuilder = Stub(ParameterizedToolingModelBuilder)
     def controller = new DefaultBuildController(gradle)
+    def buildRootDir = new File("root")
+
+    def setup() {
+        _ * gradle.identityPath >> Path.ROOT
+    }
 
     def "adapts model not found exception to protocol exception"() {
         def failure = new UnknownModelException("not found")
@@ -175,6 +194,145 @@ class DefaultBuildControllerTest extends Specification {
         thrown(InternalUnsupportedModelException)
     }
 
+    def "builds the models of several targets in the order of the targets"() {
+        def rootProject = Stub(ProjectInternal) {
+            getProjectDir() >> buildRootDir
+        }
+        def project1 = projectWithPath(":a")
+        def project2 = projectWithPath(":b")
+        def model1 = new Object()
+        def model2 = new Object()
+
+        given:
+        _ * gradle.rootProject >> rootProject
+        _ * rootProject.project(":a") >> project1
+        _ * rootProject.project(":b") >> project2
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", project1) >> model1
+        _ * modelBuilder.buildAll("some.model", project2) >> model2
+
+        when:
+        def results = controller.getModels([target(":b"), target(":a")], modelId, null)
+
+        then:
+        results*.model == [model2, model1]
+        buildOperationExecutor.operations.empty
+    }
+
+    def "builds the models of several projects in parallel when parallel project execution is enabled"() {
+        def rootProject = Stub(ProjectInternal) {
+            getProjectDir() >> buildRootDir
+        }
+        def project1 = projectWithPath(":a")
+        def project2 = projectWithPath(":b")
+        def model1 = new Object()
+        def model2 = new Object()
+
+        given:
+        _ * startParameter.parallelProjectExecutionEnabled >> true
+        _ * gradle.rootProject >> rootProject
+        _ * rootProject.project(":a") >> project1
+        _ * rootProject.project(":b") >> project2
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", project1) >> model1
+        _ * modelBuilder.buildAll("some.model", project2) >> model2
+
+        when:
+        def results = controller.getModels([target(":a"), target(":b")], modelId, null)
+
+        then:
+        results*.model == [model1, model2]
+        buildOperationExecutor.operations*.displayName == ["Build 'some.model' model for project ':a'", "Build 'some.model' model for project ':b'"]
+    }
+
+    def "builds the models of build wide builders one at a time"() {
+        def rootProject = Stub(ProjectInternal) {
+            getProjectDir() >> buildRootDir
+        }
+        def project1 = projectWithPath(":a")
+        def project2 = projectWithPath(":b")
+        def builder = Stub(BuildWideToolingModelBuilder)
+        def model1 = new Object()
+        def model2 = new Object()
+
+        given:
+        _ * startParameter.parallelProjectExecutionEnabled >> true
+        _ * gradle.rootProject >> rootProject
+        _ * rootProject.project(":a") >> project1
+        _ * rootProject.project(":b") >> project2
+        _ * registry.getBuilder("some.model") >> builder
+        _ * builder.buildAll("some.model", project1) >> model1
+        _ * builder.buildAll("some.model", project2) >> model2
+
+        when:
+        def results = controller.getModels([target(":a"), target(":b")], modelId, null)
+
+        then:
+        results*.model == [model1, model2]
+        buildOperationExecutor.operations.empty
+    }
+
+    def "rethrows the failure of a model built in parallel"() {
+        def rootProject = Stub(ProjectInternal) {
+            getProjectDir() >> buildRootDir
+        }
+        def project1 = projectWithPath(":a")
+        def project2 = projectWithPath(":b")
+        def failure = new RuntimeException("broken")
+
+        given:
+        _ * startParameter.parallelProjectExecutionEnabled >> true
+        _ * gradle.rootProject >> rootProject
+        _ * rootProject.project(":a") >> project1
+        _ * rootProject.project(":b") >> project2
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", project1) >> new Object()
+        _ * modelBuilder.buildAll("some.model", project2) >> { throw failure }
+
+        when:
+        controller.getModels([target(":a"), target(":b")], modelId, null)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+    }
+
+    def "returns no result for targets that do not support the model"() {
+        def rootProject = Stub(ProjectInternal) {
+            getProjectDir() >> buildRootDir
+        }
+        def project1 = projectWithPath(":a")
+
+        given:
+        _ * gradle.rootProject >> rootProject
+        _ * rootProject.project(":a") >> project1
+        _ * registry.getBuilder("some.model") >> { throw new UnknownModelException("not found") }
+
+        when:
+        def results = controller.getModels([target(":a")], modelId, null)
+
+        then:
+        results == [null]
+    }
+
+    private ProjectInternal projectWithPath(String path) {
+        return Stub(ProjectInternal) {
+            getServices() >> Stub(ServiceRegistry) {
+                get(ToolingModelBuilderRegistry) >> registry
+            }
+            getDisplayName() >> "project '${path}'"
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+        }
+    }
+
+    private GradleProjectIdentity target(String path) {
+        return Stub(GradleProjectIdentity) {
+            getProjectPath() >> path
+            getRootDir() >> buildRootDir
+        }
+    }
+
     interface CustomParameter {
         String getValue()
         void setValue(String value)
@@ -22,6 +22,7 @@ import org.gradle.tooling.model.Model;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * Provides a {@link BuildAction} various ways to control a Gradle build and access information about the build.
@@ -114,6 +115,39 @@ public interface BuildController {
     @Nullable
     <T> T findModel(Model target, Class<T> modelType);
 
+    /**
+     * Fetches a snapshot of the model of the given type for each of the given elements, usually Gradle projects.
+     *
+     * <p>When the build runs with parallel project execution enabled, the models of different projects are built in parallel, including the
+     * resolution of their dependencies. Models whose builders access the state of other projects, such as the IDE models provided by Gradle, are
+     * still built one at a time. Versions of Gradle older than 4.8 build the models one at a time.</p>
+     *
+     * <p>See {@link #getModel(Model, Class)} for more details.</p>
+     *
+     * @param targets The target elements, usually projects.
+     * @param modelType The model type.
+     * @param <T> The model type.
+     * @return The models, in the same order as the targets.
+     * @throws UnknownModelException When one of the target projects does not support the requested model.
+     *
+     * @since 4.8
+     */
+    <T> List<T> getModels(List<? extends Model> targets, Class<T> modelType) throws UnknownModelException;
+
+    /**
+     * Fetches a snapshot of the model of the given type for each of the given elements, if available.
+     *
+     * <p>See {@link #getModels(List, Class)} for more details.</p>
+     *
+     * @param targets The target elements, usually projects.
+     * @param modelType The model type.
+     * @param <T> The model type.
+     * @return The models, in the same order as the targets. An element is null when the model is not available for the corresponding target.
+     *
+     * @since 4.8
+     */
+    <T> List<T> findModels(List<? extends Model> targets, Class<T> modelType);
+
     /**
      * Fetches a snapshot of the model of the given type using the given parameter.
      *
@@ -23,6 +23,9 @@ import org.gradle.tooling.UnsupportedVersionException;
 import org.gradle.tooling.model.Model;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
+import java.util.ArrayList;
+import java.util.List;
+
 abstract class AbstractBuildController extends HasCompatibilityMapping implements BuildController {
     public <T> T getModel(Class<T> modelType) throws UnknownModelException {
         return getModel(null, modelType);
@@ -44,6 +47,22 @@ abstract class AbstractBuildController extends HasCompatibilityMapping implement
         return findModel(target, modelType, null, null);
     }
 
+    public <T> List<T> getModels(List<? extends Model> targets, Class<T> modelType) throws UnknownModelException {
+        List<T> models = new ArrayList<T>(targets.size());
+        for (Model target : targets) {
+            models.add(getModel(target, modelType));
+        }
+        return models;
+    }
+
+    public <T> List<T> findModels(List<? extends Model> targets, Class<T> modelType) {
+        List<T> models = new ArrayList<T>(targets.size());
+        for (Model target : targets) {
+            models.add(findModel(target, modelType));
+        }
+        return models;
+    }
+
     public <T, P> T getModel(Class<T> modelType, Class<P> parameterType, Action<? super P> parameterInitializer) throws UnsupportedVersionException {
         return getModel(null, modelType, parameterType, parameterInitializer);
     }
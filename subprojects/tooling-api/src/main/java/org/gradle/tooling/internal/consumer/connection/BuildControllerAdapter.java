@@ -18,6 +18,7 @@ package org.gradle.tooling.internal.consumer.connection;
 
 import org.gradle.api.Action;
 import org.gradle.tooling.BuildController;
+import org.gradle.tooling.UnknownModelException;
 import org.gradle.tooling.UnsupportedVersionException;
 import org.gradle.tooling.internal.adapter.ObjectGraphAdapter;
 import org.gradle.tooling.internal.adapter.ProtocolToModelAdapter;
@@ -33,6 +34,8 @@ import org.gradle.tooling.model.internal.Exceptions;
 
 import java.io.File;
 import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
 
 class BuildControllerAdapter extends AbstractBuildController implements BuildController {
     private final InternalBuildControllerAdapter buildController;
@@ -64,6 +67,42 @@ class BuildControllerAdapter extends AbstractBuildController implements BuildCon
             throw Exceptions.unknownModel(modelType, e);
         }
 
+        return adaptModel(target, modelType, result);
+    }
+
+    @Override
+    public <T> List<T> getModels(List<? extends Model> targets, Class<T> modelType) throws UnknownModelException {
+        List<BuildResult<?>> results = getResults(targets, modelType);
+        List<T> models = new ArrayList<T>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                throw new UnknownModelException(String.format("No model of type '%s' is available in this build.", modelType.getSimpleName()));
+            }
+            models.add(adaptModel(targets.get(i), modelType, results.get(i)));
+        }
+        return models;
+    }
+
+    @Override
+    public <T> List<T> findModels(List<? extends Model> targets, Class<T> modelType) {
+        List<BuildResult<?>> results = getResults(targets, modelType);
+        List<T> models = new ArrayList<T>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            models.add(results.get(i) == null ? null : adaptModel(targets.get(i), modelType, results.get(i)));
+        }
+        return models;
+    }
+
+    private List<BuildResult<?>> getResults(List<? extends Model> targets, Class<?> modelType) {
+        ModelIdentifier modelIdentifier = modelMapping.getModelIdentifierFromModelType(modelType);
+        List<Object> originalTargets = new ArrayList<Object>(targets.size());
+        for (Model target : targets) {
+            originalTargets.add(target == null ? null : adapter.unpack(target));
+        }
+        return buildController.getModels(originalTargets, modelIdentifier, null);
+    }
+
+    private <T> T adaptModel(Model target, Class<T> modelType, BuildResult<?> result) {
         ViewBuilder<T> viewBuilder = resultAdapter.builder(modelType);
         applyCompatibilityMapping(viewBuilder, new DefaultProjectIdentifier(rootDir, getProjectPath(target)));
         return viewBuilder.build(result.getModel());
@@ -27,10 +27,14 @@ import org.gradle.tooling.internal.protocol.InternalBuildAction;
 import org.gradle.tooling.internal.protocol.InternalBuildActionVersion2;
 import org.gradle.tooling.internal.protocol.InternalBuildController;
 import org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2;
+import org.gradle.tooling.internal.protocol.InternalParallelBuildController;
+import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.model.gradle.BuildInvocations;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Adapter to create {@link org.gradle.tooling.internal.protocol.InternalBuildAction}
@@ -58,6 +62,11 @@ public class InternalBuildActionAdapter<T> implements InternalBuildAction<T>, In
             public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter) {
                 return buildController.getModel(target, modelIdentifier);
             }
+
+            @Override
+            public List<BuildResult<?>> getModels(List<Object> targets, ModelIdentifier modelIdentifier, Object parameter) {
+                return getModelsOneByOne(this, targets, modelIdentifier, parameter);
+            }
         }, new ModelMapping(), rootDir);
         buildControllerAdapter  = new BuildControllerWithoutParameterSupport(versionDetails, buildControllerAdapter);
         if (!versionDetails.maySupportModel(BuildInvocations.class)) {
@@ -76,7 +85,27 @@ public class InternalBuildActionAdapter<T> implements InternalBuildAction<T>, In
             public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter) {
                 return buildController.getModel(target, modelIdentifier, parameter);
             }
+
+            @Override
+            public List<BuildResult<?>> getModels(List<Object> targets, ModelIdentifier modelIdentifier, Object parameter) {
+                if (versionDetails.supportsParallelModelBuilding()) {
+                    return ((InternalParallelBuildController) buildController).getModels(targets, modelIdentifier, parameter);
+                }
+                return getModelsOneByOne(this, targets, modelIdentifier, parameter);
+            }
         }, new ModelMapping(), rootDir);
         return action.execute(buildControllerAdapter);
     }
+
+    private static List<BuildResult<?>> getModelsOneByOne(InternalBuildControllerAdapter buildController, List<Object> targets, ModelIdentifier modelIdentifier, Object parameter) {
+        List<BuildResult<?>> results = new ArrayList<BuildResult<?>>(targets.size());
+        for (Object target : targets) {
+            try {
+                results.add(buildController.getModel(target, modelIdentifier, parameter));
+            } catch (InternalUnsupportedModelException e) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
 }
@@ -19,10 +19,17 @@ package org.gradle.tooling.internal.consumer.connection;
 import org.gradle.tooling.internal.protocol.BuildResult;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 
+import java.util.List;
+
 /**
  * Interface representing either an {@link org.gradle.tooling.internal.protocol.InternalBuildController}
  * or an {@link org.gradle.tooling.internal.protocol.InternalBuildControllerVersion2}.
  */
 public interface InternalBuildControllerAdapter {
     BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier, Object parameter);
+
+    /**
+     * Returns the results for the given targets, in the same order. An element is null when the model is not supported for the corresponding target.
+     */
+    List<BuildResult<?>> getModels(List<Object> targets, ModelIdentifier modelIdentifier, Object parameter);
 }
@@ -36,6 +36,9 @@ public abstract class VersionDetails implements Serializable {
     }
 
     public static VersionDetails from(GradleVersion version) {
+        if (version.getBaseVersion().compareTo(GradleVersion.version("4.8")) >= 0) {
+            return new R48VersionDetails(version.getVersion());
+        }
         if (version.getBaseVersion().compareTo(GradleVersion.version("4.4")) >= 0) {
             return new R44VersionDetails(version.getVersion());
         }
@@ -93,6 +96,10 @@ public abstract class VersionDetails implements Serializable {
         return false;
     }
 
+    public boolean supportsParallelModelBuilding() {
+        return false;
+    }
+
     private static class R12VersionDetails extends VersionDetails {
         public R12VersionDetails(String version) {
             super(version);
@@ -188,4 +195,15 @@ public abstract class VersionDetails implements Serializable {
             return true;
         }
     }
+
+    private static class R48VersionDetails extends R44VersionDetails {
+        public R48VersionDetails(String version) {
+            super(version);
+        }
+
+        @Override
+        public boolean supportsParallelModelBuilding() {
+            return true;
+        }
+    }
 }
@@ -136,6 +136,65 @@ class BuildControllerAdapterTest extends Specification {
         1 * internalController.getModel(targetElement, _, _) >> { throw new InternalUnsupportedModelException() }
     }
 
+    def "fetches models for several target objects at once"() {
+        def model1 = new Object()
+        def model2 = new Object()
+        def target1 = new Object()
+        def target2 = new Object()
+        def element1 = Stub(Element)
+        def element2 = Stub(Element)
+        def modelView1 = Stub(GradleBuild)
+        def modelView2 = Stub(GradleBuild)
+
+        when:
+        def result = controller.getModels([element1, element2], GradleBuild)
+
+        then:
+        result == [modelView1, modelView2]
+
+        and:
+        1 * adapter.unpack(element1) >> target1
+        1 * adapter.unpack(element2) >> target2
+        1 * internalController.getModels([target1, target2], _, null) >> { def targets, ModelIdentifier identifier, parameter ->
+            assert identifier.name == 'GradleBuild'
+            return [Stub(BuildResult) { getModel() >> model1 }, Stub(BuildResult) { getModel() >> model2 }]
+        }
+        0 * internalController.getModel(_, _, _)
+        2 * graphAdapter.builder(GradleBuild) >> Stub(ViewBuilder) {
+            build(model1) >> modelView1
+            build(model2) >> modelView2
+        }
+    }
+
+    def "fails when the model is not available for one of several target objects"() {
+        given:
+        _ * internalController.getModels(_, _, null) >> [null]
+
+        when:
+        controller.getModels([Stub(Element)], String)
+
+        then:
+        UnknownModelException e = thrown()
+        e.message == /No model of type 'String' is available in this build./
+    }
+
+    def "fetches missing models for several target objects"() {
+        def model = new Object()
+        def modelView = Stub(GradleBuild)
+
+        when:
+        def result = controller.findModels([Stub(Element), Stub(Element)], GradleBuild)
+
+        then:
+        result == [null, modelView]
+
+        and:
+        1 * internalController.getModels(_, _, null) >> [null, Stub(BuildResult) { getModel() >> model }]
+        1 * graphAdapter.builder(GradleBuild) >> Stub(ViewBuilder) {
+            build(model) >> modelView
+        }
+    }
+
     def "fetches build model"() {
         def model = Stub(InternalProtocolInterface)
         def modelView = Stub(GradleBuild)
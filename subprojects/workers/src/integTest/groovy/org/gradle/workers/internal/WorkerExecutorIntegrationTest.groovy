@@ -95,6 +95,37 @@ class WorkerExecutorIntegrationTest extends AbstractWorkerExecutorIntegrationTes
         isolationMode << ISOLATION_MODES
     }
 
+    def "can submit batches of work items in #isolationMode"() {
+        withRunnableClassInBuildSrc()
+
+        buildFile << """
+            task runBatchInWorker(type: WorkerTask) {
+                isolationMode = $isolationMode
+                doLast {
+                    def mode = isolationMode
+                    def outputDir = new File(outputFileDirPath)
+                    def items = (1..6).collect { [["item\${it}".toString()], outputDir, foo] }
+                    workerExecutor.submitAll(runnableClass, { config ->
+                        config.isolationMode = mode
+                    }, items)
+                }
+            }
+        """
+
+        when:
+        args("--max-workers=2")
+        succeeds("runBatchInWorker")
+
+        then:
+        assertRunnableExecuted("runBatchInWorker")
+        (1..6).each {
+            outputFileDir.file("runBatchInWorker").file("item${it}").assertExists()
+        }
+
+        where:
+        isolationMode << ISOLATION_MODES
+    }
+
     def "re-uses an existing idle worker daemon"() {
         executer.withWorkerDaemonsExpirationDisabled()
         withRunnableClassInBuildSrc()
@@ -69,6 +69,28 @@ class WorkerExecutorParallelIntegrationTest extends AbstractWorkerExecutorIntegr
         'IsolationMode.CLASSLOADER'  | false
     }
 
+    @Unroll
+    def "a batch of work items is executed in parallel across workers in #isolationMode"() {
+        given:
+        buildFile << """
+            task parallelWorkTask(type: MultipleWorkItemTask) {
+                doLast {
+                    workerExecutor.submitAll(TestParallelRunnable, { config ->
+                        config.isolationMode = $isolationMode
+                    }, [["workItem0"], ["workItem1"], ["workItem2"]])
+                }
+            }
+        """
+        blockingHttpServer.expectConcurrent("workItem0", "workItem1", "workItem2")
+
+        expect:
+        args("--max-workers=3")
+        succeeds("parallelWorkTask")
+
+        where:
+        isolationMode << ISOLATION_MODES
+    }
+
     @Unroll
     def "multiple work items with different requirements can be executed in parallel in #isolationMode"() {
         given:
@@ -56,6 +56,28 @@ public interface WorkerExecutor {
      */
     void submit(Class<? extends Runnable> actionClass, Action<? super WorkerConfiguration> configAction);
 
+    /**
+     * Submits many pieces of work that share an implementation class and a worker configuration, each with its own constructor parameters.
+     *
+     * This behaves the same as calling {@link #submit(Class, Action)} once for each set of parameters, except that the work items are
+     * grouped into batches and each batch is sent to a worker as a single request.  This greatly reduces the overhead of submitting
+     * many small pieces of work, particularly with {@link IsolationMode#PROCESS}.  The failure of an item of work is reported for that
+     * item, in the same way as for {@link #submit(Class, Action)}.  A failure to execute a batch as a whole, for example when the worker
+     * process fails, is reported once for the batch.
+     *
+     * <pre>
+     *      workerExecutor.submitAll(RunnableWorkImpl.class, { WorkerConfiguration conf -&gt;
+     *          conf.isolationMode = IsolationMode.PROCESS
+     *      }, inputFiles.collect { [it, new File(outputDir, it.name)] })
+     * </pre>
+     *
+     * @param actionClass the implementation of each item of work
+     * @param configAction configures the worker used for all items of work.  It must not set any parameters.
+     * @param params the constructor parameters of each item of work
+     * @since 4.8
+     */
+    void submitAll(Class<? extends Runnable> actionClass, Action<? super WorkerConfiguration> configAction, Iterable<? extends Iterable<?>> params);
+
     /**
      * Blocks until all work associated with the current build operation is complete.  Note that when using this method inside
      * a task action, it will block completion of the task action until all submitted work is complete.  This means that other
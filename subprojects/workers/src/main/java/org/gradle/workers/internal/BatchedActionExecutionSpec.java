@@ -0,0 +1,71 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link WorkSpec} that groups many items of work for the same implementation class, so that they can be executed by a worker in a single request.
+ */
+public class BatchedActionExecutionSpec implements ActionExecutionSpec {
+    private final Class<?> implementationClass;
+    private final String displayName;
+    private final File executionWorkingDir;
+    private final List<ActionExecutionSpec> items;
+
+    public BatchedActionExecutionSpec(Class<?> implementationClass, String displayName, File executionWorkingDir, List<ActionExecutionSpec> items) {
+        this.implementationClass = implementationClass;
+        this.displayName = displayName;
+        this.executionWorkingDir = executionWorkingDir;
+        // Copy the items, as the given list may be a view that cannot be serialized
+        this.items = new ArrayList<ActionExecutionSpec>(items);
+    }
+
+    @Override
+    public Class<?> getImplementationClass() {
+        return implementationClass;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public File getExecutionWorkingDir() {
+        return executionWorkingDir;
+    }
+
+    /**
+     * A batch has no constructor parameters of its own, each of its items carries its own parameters instead.
+     *
+     * @see #getItems()
+     */
+    @Override
+    public Object[] getParams(ClassLoader classLoader) {
+        throw new UnsupportedOperationException("A batch of work items has no parameters. Use the parameters of each work item instead.");
+    }
+
+    /**
+     * Returns the items of work in the batch, each of which carries its own parameters.
+     */
+    public List<ActionExecutionSpec> getItems() {
+        return items;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import java.util.List;
+
+/**
+ * The result of executing a {@link BatchedActionExecutionSpec}, holding the result of each item of work in the batch.
+ *
+ * <p>The batch itself is successful when each of its items was executed, whether or not the items succeeded. The failure of an item is held by
+ * the result of that item.</p>
+ */
+public class BatchedWorkResult extends DefaultWorkResult {
+    private final List<DefaultWorkResult> results;
+
+    public BatchedWorkResult(boolean didWork, List<DefaultWorkResult> results) {
+        super(didWork, null);
+        this.results = results;
+    }
+
+    /**
+     * Returns the result of each item of work, in the order of the items in the batch.
+     */
+    public List<DefaultWorkResult> getResults() {
+        return results;
+    }
+}
@@ -17,6 +17,8 @@
 package org.gradle.workers.internal;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -27,6 +29,7 @@ import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classloader.ClasspathUtil;
 import org.gradle.internal.classloader.FilteringClassLoader;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ParallelismConfigurationManager;
 import org.gradle.internal.exceptions.Contextual;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -46,7 +49,10 @@ import org.gradle.workers.WorkerExecutionException;
 import org.gradle.workers.WorkerExecutor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -61,10 +67,11 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
     private final BuildOperationExecutor buildOperationExecutor;
     private final AsyncWorkTracker asyncWorkTracker;
     private final WorkerDirectoryProvider workerDirectoryProvider;
+    private final ParallelismConfigurationManager parallelismConfigurationManager;
 
     public DefaultWorkerExecutor(WorkerFactory daemonWorkerFactory, WorkerFactory isolatedClassloaderWorkerFactory, WorkerFactory noIsolationWorkerFactory,
                                  FileResolver fileResolver, ExecutorFactory executorFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor,
-                                 AsyncWorkTracker asyncWorkTracker, WorkerDirectoryProvider workerDirectoryProvider) {
+                                 AsyncWorkTracker asyncWorkTracker, WorkerDirectoryProvider workerDirectoryProvider, ParallelismConfigurationManager parallelismConfigurationManager) {
         this.daemonWorkerFactory = daemonWorkerFactory;
         this.isolatedClassloaderWorkerFactory = isolatedClassloaderWorkerFactory;
         this.noIsolationWorkerFactory = noIsolationWorkerFactory;
@@ -74,6 +81,7 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
         this.buildOperationExecutor = buildOperationExecutor;
         this.asyncWorkTracker = asyncWorkTracker;
         this.workerDirectoryProvider = workerDirectoryProvider;
+        this.parallelismConfigurationManager = parallelismConfigurationManager;
     }
 
     @Override
@@ -93,10 +101,67 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
         submit(spec, configuration.getIsolationMode(), getDaemonForkOptions(actionClass, configuration));
     }
 
-    private void submit(final ActionExecutionSpec spec, final IsolationMode isolationMode, final DaemonForkOptions daemonForkOptions) {
+    @Override
+    public void submitAll(Class<? extends Runnable> actionClass, Action<? super WorkerConfiguration> configAction, Iterable<? extends Iterable<?>> params) {
+        WorkerConfiguration configuration = new DefaultWorkerConfiguration(fileResolver);
+        configAction.execute(configuration);
+        if (configuration.getParams().length > 0) {
+            throw new IllegalArgumentException("The worker parameters cannot be set when submitting a batch of work items. Provide the parameters of each work item instead.");
+        }
+        String description = configuration.getDisplayName() != null ? configuration.getDisplayName() : actionClass.getName();
+        File workingDir = configuration.getForkOptions().getWorkingDir();
+
+        // Serialize parameters in this thread prior to starting work in a separate thread
+        List<ActionExecutionSpec> specs = new ArrayList<ActionExecutionSpec>();
+        Set<Class<?>> paramTypes = new LinkedHashSet<Class<?>>();
+        for (Iterable<?> itemParams : params) {
+            Object[] itemParamsArray = Iterables.toArray(itemParams, Object.class);
+            for (Object param : itemParamsArray) {
+                paramTypes.add(param.getClass());
+            }
+            try {
+                specs.add(new SerializingActionExecutionSpec(actionClass, description, workingDir, itemParamsArray));
+            } catch (Throwable t) {
+                throw new WorkExecutionException(description, t);
+            }
+        }
+        if (specs.isEmpty()) {
+            return;
+        }
+
+        validateWorkerConfiguration(configuration);
+        DaemonForkOptions daemonForkOptions = toDaemonOptions(actionClass, paramTypes, configuration.getForkOptions(), configuration.getClasspath());
+        for (List<ActionExecutionSpec> batch : Lists.partition(specs, getBatchSize(specs.size()))) {
+            submitBatch(new BatchedActionExecutionSpec(actionClass, description + " (batch of " + batch.size() + " work items)", workingDir, batch), configuration.getIsolationMode(), daemonForkOptions);
+        }
+    }
+
+    /**
+     * Splits the work items into one batch per worker, so that a batch can still be executed in parallel with the others.
+     */
+    private int getBatchSize(int workItems) {
+        int maxWorkers = Math.max(1, parallelismConfigurationManager.getParallelismConfiguration().getMaxWorkerCount());
+        return (workItems + maxWorkers - 1) / maxWorkers;
+    }
+
+    private void submit(ActionExecutionSpec spec, IsolationMode isolationMode, DaemonForkOptions daemonForkOptions) {
+        registerAsyncWork(spec.getDisplayName(), execute(spec, isolationMode, daemonForkOptions));
+    }
+
+    private void submitBatch(BatchedActionExecutionSpec spec, IsolationMode isolationMode, DaemonForkOptions daemonForkOptions) {
+        ListenableFuture<DefaultWorkResult> batchResult = execute(spec, isolationMode, daemonForkOptions);
+        // A failure of the batch as a whole is reported once, against the batch, and the failure of an item against that item
+        registerAsyncWork(spec.getDisplayName(), batchResult);
+        List<ActionExecutionSpec> items = spec.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            registerBatchItemWork(items.get(i).getDisplayName(), batchResult, i);
+        }
+    }
+
+    private ListenableFuture<DefaultWorkResult> execute(final ActionExecutionSpec spec, final IsolationMode isolationMode, final DaemonForkOptions daemonForkOptions) {
         final WorkerLease currentWorkerWorkerLease = getCurrentWorkerLease();
         final BuildOperationRef currentBuildOperation = buildOperationExecutor.getCurrentOperation();
-        ListenableFuture<DefaultWorkResult> workerDaemonResult = executor.submit(new Callable<DefaultWorkResult>() {
+        return executor.submit(new Callable<DefaultWorkResult>() {
             @Override
             public DefaultWorkResult call() throws Exception {
                 try {
@@ -108,7 +173,6 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
                 }
             }
         });
-        registerAsyncWork(spec.getDisplayName(), workerDaemonResult);
     }
 
     private WorkerLease getCurrentWorkerLease() {
@@ -156,6 +220,34 @@ public class DefaultWorkerExecutor implements WorkerExecutor {
         });
     }
 
+    private void registerBatchItemWork(final String description, final Future<DefaultWorkResult> batchResult, final int index) {
+        asyncWorkTracker.registerWork(buildOperationExecutor.getCurrentOperation(), new AsyncWorkCompletion() {
+            @Override
+            public void waitForCompletion() {
+                DefaultWorkResult result;
+                try {
+                    result = batchResult.get();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } catch (ExecutionException e) {
+                    // Reported against the batch
+                    return;
+                }
+                if (result instanceof BatchedWorkResult) {
+                    DefaultWorkResult itemResult = ((BatchedWorkResult) result).getResults().get(index);
+                    if (!itemResult.isSuccess()) {
+                        throw new WorkExecutionException(description, itemResult.getException());
+                    }
+                }
+            }
+
+            @Override
+            public boolean isComplete() {
+                return batchResult.isDone();
+            }
+        });
+    }
+
     @Override
     public void await() throws WorkerExecutionException {
         BuildOperationRef currentOperation = buildOperationExecutor.getCurrentOperation();
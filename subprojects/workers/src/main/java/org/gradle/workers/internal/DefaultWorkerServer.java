@@ -20,6 +20,8 @@ import org.gradle.api.tasks.WorkResult;
 import org.gradle.internal.reflect.Instantiator;
 
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 public class DefaultWorkerServer implements WorkerProtocol<ActionExecutionSpec> {
@@ -32,6 +34,9 @@ public class DefaultWorkerServer implements WorkerProtocol<ActionExecutionSpec>
 
     @Override
     public DefaultWorkResult execute(ActionExecutionSpec spec) {
+        if (spec instanceof BatchedActionExecutionSpec) {
+            return executeBatch((BatchedActionExecutionSpec) spec);
+        }
         try {
             Class<?> implementationClass = spec.getImplementationClass();
             Object action = instantiator.newInstance(implementationClass, spec.getParams(implementationClass.getClassLoader()));
@@ -55,6 +60,17 @@ public class DefaultWorkerServer implements WorkerProtocol<ActionExecutionSpec>
         }
     }
 
+    private DefaultWorkResult executeBatch(BatchedActionExecutionSpec spec) {
+        List<DefaultWorkResult> results = new ArrayList<DefaultWorkResult>(spec.getItems().size());
+        boolean didWork = false;
+        for (ActionExecutionSpec item : spec.getItems()) {
+            DefaultWorkResult result = execute(item);
+            didWork |= result.getDidWork();
+            results.add(result);
+        }
+        return new BatchedWorkResult(didWork, results);
+    }
+
     @Override
     public String toString() {
         return "DefaultWorkerServer{}";
@@ -18,19 +18,8 @@ package org.gradle.workers.internal;
 
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
-import org.gradle.api.internal.classloading.GroovySystemLoader;
-import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
-import org.gradle.api.logging.LogLevel;
-import org.gradle.api.logging.Logger;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.internal.UncheckedException;
-import org.gradle.internal.classloader.CachingClassLoader;
-import org.gradle.internal.classloader.ClassLoaderFactory;
-import org.gradle.internal.classloader.ClasspathUtil;
-import org.gradle.internal.classloader.FilteringClassLoader;
-import org.gradle.internal.classloader.MultiParentClassLoader;
-import org.gradle.internal.classloader.VisitableURLClassLoader;
-import org.gradle.internal.classpath.DefaultClassPath;
 import org.gradle.internal.event.DefaultListenerManager;
 import org.gradle.internal.io.ClassLoaderObjectInputStream;
 import org.gradle.internal.operations.BuildOperationContext;
@@ -55,13 +44,12 @@ import java.util.concurrent.Callable;
 
 public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
 
-    private final ClassLoaderFactory classLoaderFactory;
+    private final WorkerClassLoaderCache classLoaderCache;
     private final WorkerLeaseRegistry workerLeaseRegistry;
     private final BuildOperationExecutor buildOperationExecutor;
-    private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
 
-    public IsolatedClassloaderWorkerFactory(ClassLoaderFactory classLoaderFactory, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
-        this.classLoaderFactory = classLoaderFactory;
+    public IsolatedClassloaderWorkerFactory(WorkerClassLoaderCache classLoaderCache, WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor) {
+        this.classLoaderCache = classLoaderCache;
         this.workerLeaseRegistry = workerLeaseRegistry;
         this.buildOperationExecutor = buildOperationExecutor;
     }
@@ -102,10 +90,8 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
     }
 
     private DefaultWorkResult executeInWorkerClassLoader(ActionExecutionSpec spec, DaemonForkOptions forkOptions) {
-        ClassLoader actionClasspathLoader = createActionClasspathLoader(forkOptions);
-        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
-
-        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, forkOptions.getSharedPackages(), spec.getClass());
+        WorkerClassLoaderCache.CachedWorkerClassLoader cachedClassLoader = classLoaderCache.acquire(forkOptions, spec.getClass());
+        ClassLoader workerClassLoader = cachedClassLoader.getClassLoader();
 
         ClassLoader previousContextLoader = Thread.currentThread().getContextClassLoader();
         try {
@@ -116,40 +102,11 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         } finally {
-            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
-            actionClasspathGroovy.shutdown();
             Thread.currentThread().setContextClassLoader(previousContextLoader);
+            classLoaderCache.release(cachedClassLoader);
         }
     }
 
-    private ClassLoader createActionClasspathLoader(DaemonForkOptions forkOptions) {
-        return classLoaderFactory.createIsolatedClassLoader(new DefaultClassPath(forkOptions.getClasspath()));
-    }
-
-    private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
-        FilteringClassLoader.Spec actionFilterSpec = new FilteringClassLoader.Spec();
-        for (String packageName : sharedPackages) {
-            actionFilterSpec.allowPackage(packageName);
-        }
-        ClassLoader actionFilteredClasspathLoader = classLoaderFactory.createFilteringClassLoader(actionClasspathLoader, actionFilterSpec);
-
-        FilteringClassLoader.Spec gradleApiFilterSpec = new FilteringClassLoader.Spec();
-        // Logging
-        gradleApiFilterSpec.allowPackage("org.slf4j");
-        gradleApiFilterSpec.allowClass(Logger.class);
-        gradleApiFilterSpec.allowClass(LogLevel.class);
-        // Native
-        gradleApiFilterSpec.allowPackage("org.gradle.internal.nativeintegration");
-        gradleApiFilterSpec.allowPackage("org.gradle.internal.nativeplatform");
-        gradleApiFilterSpec.allowPackage("net.rubygrapefruit.platform");
-        // TODO:pm Add Gradle API and a way to opt out of it (for compiler workers)
-        ClassLoader gradleApiLoader = classLoaderFactory.createFilteringClassLoader(actionClass.getClassLoader(), gradleApiFilterSpec);
-
-        ClassLoader actionAndGradleApiLoader = new CachingClassLoader(new MultiParentClassLoader(gradleApiLoader, actionFilteredClasspathLoader));
-
-        return new VisitableURLClassLoader(actionAndGradleApiLoader, ClasspathUtil.getClasspath(actionClass.getClassLoader()));
-    }
-
     private Callable<?> transferWorkerIntoWorkerClassloader(ActionExecutionSpec spec, ClassLoader workerClassLoader) throws IOException, ClassNotFoundException {
         byte[] serializedWorker = GUtil.serialize(new WorkerCallable(spec));
         ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteArrayInputStream(serializedWorker), workerClassLoader);
@@ -178,12 +135,20 @@ public class IsolatedClassloaderWorkerFactory implements WorkerFactory {
             this.spec = spec;
         }
 
+        // The worker ClassLoaders are cached and reused, so these services are shared by all work executed in the same worker ClassLoader
+        private static DefaultInstantiatorFactory instantiatorFactory;
+
         @Override
         public Object call() throws Exception {
-            // TODO - reuse these services, either by making the global instances visible or by reusing the worker ClassLoaders and retaining a reference to them
-            DefaultInstantiatorFactory instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
-            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(instantiatorFactory.inject());
+            WorkerProtocol<ActionExecutionSpec> worker = new DefaultWorkerServer(getInstantiatorFactory().inject());
             return worker.execute(spec);
         }
+
+        private static synchronized DefaultInstantiatorFactory getInstantiatorFactory() {
+            if (instantiatorFactory == null) {
+                instantiatorFactory = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
+            }
+            return instantiatorFactory;
+        }
     }
 }
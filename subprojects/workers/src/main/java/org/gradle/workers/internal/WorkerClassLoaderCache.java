@@ -0,0 +1,257 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.internal.classloading.GroovySystemLoader;
+import org.gradle.api.internal.classloading.GroovySystemLoaderFactory;
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.classloader.CachingClassLoader;
+import org.gradle.internal.classloader.ClassLoaderFactory;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.ClasspathHasher;
+import org.gradle.internal.classloader.ClasspathUtil;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.MultiParentClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the ClassLoader hierarchies used to execute work in {@link org.gradle.workers.IsolationMode#CLASSLOADER}, so that work items with the same
+ * classpath and shared packages reuse the classes already defined and JIT compiled, rather than opening the jars and defining the classes again.
+ *
+ * <p>Each hierarchy is reference counted while work is executing in it. Unused hierarchies are evicted in least recently used order once the cache
+ * exceeds its maximum size, and all unused hierarchies are evicted when the OS runs low on memory.</p>
+ */
+public class WorkerClassLoaderCache implements MemoryHolder, Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WorkerClassLoaderCache.class);
+    public static final String MAX_SIZE_PROPERTY_KEY = "org.gradle.workers.internal.max-cached-classloaders";
+    private static final int DEFAULT_MAX_SIZE = 16;
+
+    private final Object lock = new Object();
+    // Access ordered, so that iteration starts with the least recently used entry
+    private final Map<Key, CachedWorkerClassLoader> entries = new LinkedHashMap<Key, CachedWorkerClassLoader>(16, 0.75f, true);
+    private final ClassLoaderFactory classLoaderFactory;
+    private final ClasspathHasher classpathHasher;
+    private final MemoryManager memoryManager;
+    private final GroovySystemLoaderFactory groovySystemLoaderFactory = new GroovySystemLoaderFactory();
+    private final int maxSize;
+
+    public WorkerClassLoaderCache(ClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, MemoryManager memoryManager) {
+        this(classLoaderFactory, classpathHasher, memoryManager, Integer.getInteger(MAX_SIZE_PROPERTY_KEY, DEFAULT_MAX_SIZE));
+    }
+
+    WorkerClassLoaderCache(ClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, MemoryManager memoryManager, int maxSize) {
+        this.classLoaderFactory = classLoaderFactory;
+        this.classpathHasher = classpathHasher;
+        this.memoryManager = memoryManager;
+        this.maxSize = maxSize;
+        memoryManager.addMemoryHolder(this);
+    }
+
+    /**
+     * Returns a ClassLoader hierarchy for the given fork options, creating it if required. The returned ClassLoader must be passed to {@link #release(CachedWorkerClassLoader)} once the work has completed.
+     *
+     * @param forkOptions The classpath and shared packages of the work.
+     * @param workerImplementationClass The class from which the Gradle infrastructure visible to the work is loaded.
+     */
+    public CachedWorkerClassLoader acquire(DaemonForkOptions forkOptions, Class<?> workerImplementationClass) {
+        ClassPath classPath = new DefaultClassPath(forkOptions.getClasspath());
+        Key key = new Key(classPath, classpathHasher.hash(classPath), ImmutableSet.copyOf(forkOptions.getSharedPackages()), workerImplementationClass.getClassLoader());
+        synchronized (lock) {
+            CachedWorkerClassLoader cached = entries.get(key);
+            if (cached == null) {
+                cached = create(classPath, key.sharedPackages, workerImplementationClass);
+                entries.put(key, cached);
+            }
+            cached.references++;
+            evictUnused(maxSize);
+            return cached;
+        }
+    }
+
+    public void release(CachedWorkerClassLoader classLoader) {
+        synchronized (lock) {
+            classLoader.references--;
+            if (!entries.containsValue(classLoader) && classLoader.references == 0) {
+                // Evicted by a stop while work was running
+                classLoader.close();
+            } else {
+                evictUnused(maxSize);
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        synchronized (lock) {
+            evictUnused(0);
+        }
+        // The memory used by the evicted ClassLoaders is on the heap of this process, and is only given back to the OS lazily
+        return 0;
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeMemoryHolder(this);
+        synchronized (lock) {
+            for (CachedWorkerClassLoader cached : entries.values()) {
+                if (cached.references == 0) {
+                    cached.close();
+                }
+            }
+            entries.clear();
+        }
+    }
+
+    private void evictUnused(int targetSize) {
+        if (entries.size() <= targetSize) {
+            return;
+        }
+        List<CachedWorkerClassLoader> evicted = new ArrayList<CachedWorkerClassLoader>();
+        Iterator<CachedWorkerClassLoader> iterator = entries.values().iterator();
+        while (iterator.hasNext() && entries.size() > targetSize) {
+            CachedWorkerClassLoader cached = iterator.next();
+            if (cached.references == 0) {
+                iterator.remove();
+                evicted.add(cached);
+            }
+        }
+        for (CachedWorkerClassLoader cached : evicted) {
+            cached.close();
+        }
+        if (!evicted.isEmpty()) {
+            LOGGER.debug("Evicted {} worker ClassLoader(s) from the cache.", evicted.size());
+        }
+    }
+
+    private CachedWorkerClassLoader create(ClassPath classPath, Iterable<String> sharedPackages, Class<?> workerImplementationClass) {
+        ClassLoader actionClasspathLoader = classLoaderFactory.createIsolatedClassLoader(classPath);
+        GroovySystemLoader actionClasspathGroovy = groovySystemLoaderFactory.forClassLoader(actionClasspathLoader);
+        ClassLoader workerClassLoader = createWorkerClassLoader(actionClasspathLoader, sharedPackages, workerImplementationClass);
+        return new CachedWorkerClassLoader(workerClassLoader, actionClasspathLoader, actionClasspathGroovy);
+    }
+
+    private ClassLoader createWorkerClassLoader(ClassLoader actionClasspathLoader, Iterable<String> sharedPackages, Class<?> actionClass) {
+        FilteringClassLoader.Spec actionFilterSpec = new FilteringClassLoader.Spec();
+        for (String packageName : sharedPackages) {
+            actionFilterSpec.allowPackage(packageName);
+        }
+        ClassLoader actionFilteredClasspathLoader = classLoaderFactory.createFilteringClassLoader(actionClasspathLoader, actionFilterSpec);
+
+        FilteringClassLoader.Spec gradleApiFilterSpec = new FilteringClassLoader.Spec();
+        // Logging
+        gradleApiFilterSpec.allowPackage("org.slf4j");
+        gradleApiFilterSpec.allowClass(Logger.class);
+        gradleApiFilterSpec.allowClass(LogLevel.class);
+        // Native
+        gradleApiFilterSpec.allowPackage("org.gradle.internal.nativeintegration");
+        gradleApiFilterSpec.allowPackage("org.gradle.internal.nativeplatform");
+        gradleApiFilterSpec.allowPackage("net.rubygrapefruit.platform");
+        // TODO:pm Add Gradle API and a way to opt out of it (for compiler workers)
+        ClassLoader gradleApiLoader = classLoaderFactory.createFilteringClassLoader(actionClass.getClassLoader(), gradleApiFilterSpec);
+
+        ClassLoader actionAndGradleApiLoader = new CachingClassLoader(new MultiParentClassLoader(gradleApiLoader, actionFilteredClasspathLoader));
+
+        return new VisitableURLClassLoader(actionAndGradleApiLoader, ClasspathUtil.getClasspath(actionClass.getClassLoader()));
+    }
+
+    public static class CachedWorkerClassLoader {
+        private final ClassLoader workerClassLoader;
+        private final ClassLoader actionClasspathLoader;
+        private final GroovySystemLoader actionClasspathGroovy;
+        private int references;
+
+        private CachedWorkerClassLoader(ClassLoader workerClassLoader, ClassLoader actionClasspathLoader, GroovySystemLoader actionClasspathGroovy) {
+            this.workerClassLoader = workerClassLoader;
+            this.actionClasspathLoader = actionClasspathLoader;
+            this.actionClasspathGroovy = actionClasspathGroovy;
+        }
+
+        public ClassLoader getClassLoader() {
+            return workerClassLoader;
+        }
+
+        private void close() {
+            // Eventually shutdown any leaky groovy runtime loaded from action classpath loader
+            actionClasspathGroovy.shutdown();
+            ClassLoaderUtils.tryClose(workerClassLoader);
+            ClassLoaderUtils.tryClose(actionClasspathLoader);
+        }
+    }
+
+    private static class Key {
+        private final ClassPath classPath;
+        private final HashCode classPathHash;
+        private final ImmutableSet<String> sharedPackages;
+        private final ClassLoader gradleApiSource;
+
+        private Key(ClassPath classPath, HashCode classPathHash, ImmutableSet<String> sharedPackages, ClassLoader gradleApiSource) {
+            this.classPath = classPath;
+            this.classPathHash = classPathHash;
+            this.sharedPackages = sharedPackages;
+            this.gradleApiSource = gradleApiSource;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (o == null || o.getClass() != getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return classPathHash.equals(that.classPathHash)
+                && classPath.equals(that.classPath)
+                && sharedPackages.equals(that.sharedPackages)
+                && Objects.equal(gradleApiSource, that.gradleApiSource);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = classPathHash.hashCode();
+            result = 31 * result + classPath.hashCode();
+            result = 31 * result + sharedPackages.hashCode();
+            result = 31 * result + (gradleApiSource != null ? gradleApiSource.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -19,16 +19,24 @@ package org.gradle.workers.internal;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.operations.BuildOperationRef;
+import org.gradle.internal.time.Time;
+import org.gradle.internal.time.Timer;
 import org.gradle.internal.work.WorkerLeaseRegistry.WorkerLease;
 import org.gradle.process.internal.health.memory.JvmMemoryStatus;
 import org.gradle.process.internal.worker.WorkerProcess;
 
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 class WorkerDaemonClient implements Worker, Stoppable {
     private final DaemonForkOptions forkOptions;
     private final WorkerDaemonProcess<ActionExecutionSpec> workerDaemonProcess;
     private final WorkerProcess workerProcess;
     private final LogLevel logLevel;
-    private int uses;
+    private final Timer lifetime = Time.startTimer();
+    // Updated by the thread executing work on this daemon, and read by other threads when they pick a daemon
+    private final AtomicInteger uses = new AtomicInteger();
+    private final AtomicLong busyTimeMillis = new AtomicLong();
 
     public WorkerDaemonClient(DaemonForkOptions forkOptions, WorkerDaemonProcess<ActionExecutionSpec> workerDaemonProcess, WorkerProcess workerProcess, LogLevel logLevel) {
         this.forkOptions = forkOptions;
@@ -44,8 +52,13 @@ class WorkerDaemonClient implements Worker, Stoppable {
 
     @Override
     public DefaultWorkResult execute(ActionExecutionSpec spec) {
-        uses++;
-        return workerDaemonProcess.execute(spec);
+        uses.incrementAndGet();
+        Timer timer = Time.startTimer();
+        try {
+            return workerDaemonProcess.execute(spec);
+        } finally {
+            busyTimeMillis.addAndGet(timer.getElapsedMillis());
+        }
     }
 
     public boolean isCompatibleWith(DaemonForkOptions required) {
@@ -66,7 +79,22 @@ class WorkerDaemonClient implements Worker, Stoppable {
     }
 
     public int getUses() {
-        return uses;
+        return uses.get();
+    }
+
+    /**
+     * Returns the total time this daemon has spent executing work, in ms.
+     */
+    public long getBusyTimeMillis() {
+        return busyTimeMillis.get();
+    }
+
+    /**
+     * Returns the fraction of its lifetime this daemon has spent executing work, between 0 and 1.
+     */
+    public double getUtilisation() {
+        long elapsed = lifetime.getElapsedMillis();
+        return elapsed == 0 ? 0 : Math.min(1d, (double) busyTimeMillis.get() / elapsed);
     }
 
     public KeepAliveMode getKeepAliveMode() {
@@ -22,6 +22,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.initialization.SessionLifecycleListener;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
@@ -33,16 +34,21 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 
 public class WorkerDaemonClientsManager implements Stoppable {
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
+    public static final String MAX_DAEMONS_PROPERTY_KEY = "org.gradle.workers.internal.max-daemons";
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final List<Reservation> pendingReservations = new LinkedList<Reservation>();
+    private final int maxDaemons;
+    private int startingClients;
 
     private final WorkerDaemonStarter workerDaemonStarter;
     private final ListenerManager listenerManager;
@@ -52,6 +58,14 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private LogLevel currentLogLevel;
 
     public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager) {
+        this(workerDaemonStarter, listenerManager, loggingManager, Integer.getInteger(MAX_DAEMONS_PROPERTY_KEY, Integer.MAX_VALUE));
+    }
+
+    WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, int maxDaemons) {
+        if (maxDaemons < 1) {
+            throw new IllegalArgumentException("The maximum number of worker daemons must be at least 1 (was " + maxDaemons + ").");
+        }
+        this.maxDaemons = maxDaemons;
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
@@ -62,6 +76,36 @@ public class WorkerDaemonClientsManager implements Stoppable {
         this.currentLogLevel = loggingManager.getLevel();
     }
 
+    /**
+     * Reserves a client compatible with the given fork options, reusing an idle daemon when possible and otherwise starting a new one.
+     *
+     * <p>Reservations are served in the order in which they are requested: an idle daemon is never handed to a reservation while an older
+     * pending reservation could use it, and only the oldest pending reservation may start a new daemon. When the pool has reached its
+     * maximum size, the least used idle daemon is stopped to make room, or the reservation waits until a daemon is released.</p>
+     */
+    public WorkerDaemonClient reserveClient(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+        Reservation reservation = new Reservation(forkOptions);
+        synchronized (lock) {
+            pendingReservations.add(reservation);
+            try {
+                while (true) {
+                    WorkerDaemonClient client = reserveIdleClient(reservation);
+                    if (client != null) {
+                        return client;
+                    }
+                    if (pendingReservations.get(0) == reservation && claimNewClientSlot()) {
+                        break;
+                    }
+                    waitForRelease();
+                }
+            } finally {
+                pendingReservations.remove(reservation);
+                lock.notifyAll();
+            }
+        }
+        return startClient(workerProtocolImplementationClass, forkOptions);
+    }
+
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
     public WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions) {
         return reserveIdleClient(forkOptions, idleClients);
@@ -69,21 +113,83 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
-            Iterator<WorkerDaemonClient> it = clients.iterator();
-            while (it.hasNext()) {
-                WorkerDaemonClient candidate = it.next();
-                if (candidate.isCompatibleWith(forkOptions)) {
-                    it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
-                    }
+            return reserveIdleClient(forkOptions, clients, null);
+        }
+    }
+
+    private WorkerDaemonClient reserveIdleClient(Reservation reservation) {
+        return reserveIdleClient(reservation.forkOptions, idleClients, reservation);
+    }
+
+    private WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients, Reservation reservation) {
+        // Prefer the most recently released daemon, so that rarely used daemons stay idle and become candidates for expiration
+        ListIterator<WorkerDaemonClient> it = clients.listIterator(clients.size());
+        while (it.hasPrevious()) {
+            WorkerDaemonClient candidate = it.previous();
+            if (candidate.isCompatibleWith(forkOptions) && !isWantedByOlderReservation(candidate, reservation)) {
+                it.remove();
+                if (candidate.getLogLevel() != currentLogLevel) {
+                    // TODO: Send a message to workers to change their log level rather than stopping
+                    LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
+                    allClients.remove(candidate);
+                    candidate.stop();
+                } else {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isWantedByOlderReservation(WorkerDaemonClient candidate, Reservation reservation) {
+        if (reservation == null) {
+            return false;
+        }
+        for (Reservation pending : pendingReservations) {
+            if (pending == reservation) {
+                return false;
+            }
+            if (candidate.isCompatibleWith(pending.forkOptions)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean claimNewClientSlot() {
+        if (allClients.size() + startingClients >= maxDaemons) {
+            if (idleClients.isEmpty()) {
+                return false;
+            }
+            // Make room by stopping the least used idle daemon, as none of the idle daemons can serve this reservation
+            stopWorkers(leastUsedFirst(idleClients).subList(0, 1));
+        }
+        startingClients++;
+        return true;
+    }
+
+    private void waitForRelease() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private WorkerDaemonClient startClient(Class<? extends WorkerProtocol<ActionExecutionSpec>> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+        WorkerDaemonClient client = null;
+        try {
+            //allow the daemon to be started concurrently
+            client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions);
+            return client;
+        } finally {
+            synchronized (lock) {
+                startingClients--;
+                if (client != null) {
+                    allClients.add(client);
                 }
+                lock.notifyAll();
             }
-            return null;
         }
     }
 
@@ -99,6 +205,20 @@ public class WorkerDaemonClientsManager implements Stoppable {
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             idleClients.add(client);
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the utilisation of each worker daemon currently in the pool.
+     */
+    public List<WorkerDaemonUtilisation> getUtilisation() {
+        synchronized (lock) {
+            List<WorkerDaemonUtilisation> utilisation = new ArrayList<WorkerDaemonUtilisation>(allClients.size());
+            for (WorkerDaemonClient client : allClients) {
+                utilisation.add(new WorkerDaemonUtilisation(client.getForkOptions(), client.getUses(), client.getBusyTimeMillis(), client.getUtilisation(), !idleClients.contains(client)));
+            }
+            return utilisation;
         }
     }
 
@@ -120,22 +240,31 @@ public class WorkerDaemonClientsManager implements Stoppable {
      */
     public void selectIdleClientsToStop(Transformer<List<WorkerDaemonClient>, List<WorkerDaemonClient>> selectionFunction) {
         synchronized (lock) {
-            List<WorkerDaemonClient> sortedClients = CollectionUtils.sort(idleClients, new Comparator<WorkerDaemonClient>() {
-                @Override
-                public int compare(WorkerDaemonClient o1, WorkerDaemonClient o2) {
-                    return new Integer(o1.getUses()).compareTo(o2.getUses());
-                }
-            });
-            List<WorkerDaemonClient> clientsToStop = selectionFunction.transform(new ArrayList<WorkerDaemonClient>(sortedClients));
+            List<WorkerDaemonClient> clientsToStop = selectionFunction.transform(leastUsedFirst(idleClients));
             if (!clientsToStop.isEmpty()) {
                 stopWorkers(clientsToStop);
             }
         }
     }
 
+    private static List<WorkerDaemonClient> leastUsedFirst(List<WorkerDaemonClient> clients) {
+        return new ArrayList<WorkerDaemonClient>(CollectionUtils.sort(clients, new Comparator<WorkerDaemonClient>() {
+            @Override
+            public int compare(WorkerDaemonClient o1, WorkerDaemonClient o2) {
+                return new Integer(o1.getUses()).compareTo(o2.getUses());
+            }
+        }));
+    }
+
     private void stopWorkers(List<WorkerDaemonClient> clientsToStop) {
         if (clientsToStop.size() > 0) {
             LOGGER.debug("Stopping {} worker daemon(s).", clientsToStop.size());
+            if (LOGGER.isDebugEnabled()) {
+                for (WorkerDaemonClient client : clientsToStop) {
+                    LOGGER.debug("Worker daemon with fork options {} executed {} item(s) of work and was busy for {}ms ({}% of its lifetime).",
+                        client.getForkOptions(), client.getUses(), client.getBusyTimeMillis(), Math.round(client.getUtilisation() * 100));
+                }
+            }
             CompositeStoppable.stoppable(clientsToStop).stop();
             LOGGER.info("Stopped {} worker daemon(s).", clientsToStop.size());
             idleClients.removeAll(clientsToStop);
@@ -174,4 +303,12 @@ public class WorkerDaemonClientsManager implements Stoppable {
             }
         }
     }
+
+    private static class Reservation {
+        private final DaemonForkOptions forkOptions;
+
+        private Reservation(DaemonForkOptions forkOptions) {
+            this.forkOptions = forkOptions;
+        }
+    }
 }
@@ -55,10 +55,7 @@ public class WorkerDaemonFactory implements WorkerFactory, Stoppable {
             public DefaultWorkResult execute(final ActionExecutionSpec spec, WorkerLease parentWorkerWorkerLease, final BuildOperationRef parentBuildOperation) {
                 WorkerLeaseRegistry.WorkerLeaseCompletion workerLease = parentWorkerWorkerLease.startChild();
                 try {
-                    WorkerDaemonClient client = clientsManager.reserveIdleClient(forkOptions);
-                    if (client == null) {
-                        client = clientsManager.reserveNewClient(WorkerDaemonServer.class, forkOptions);
-                    }
+                    WorkerDaemonClient client = clientsManager.reserveClient(WorkerDaemonServer.class, forkOptions);
 
                     try {
                         return executeInClient(client, spec, parentBuildOperation);
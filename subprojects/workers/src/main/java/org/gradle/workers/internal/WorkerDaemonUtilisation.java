@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+/**
+ * A snapshot of how much a single worker daemon has been used.
+ */
+public class WorkerDaemonUtilisation {
+    private final DaemonForkOptions forkOptions;
+    private final int uses;
+    private final long busyTimeMillis;
+    private final double utilisation;
+    private final boolean busy;
+
+    public WorkerDaemonUtilisation(DaemonForkOptions forkOptions, int uses, long busyTimeMillis, double utilisation, boolean busy) {
+        this.forkOptions = forkOptions;
+        this.uses = uses;
+        this.busyTimeMillis = busyTimeMillis;
+        this.utilisation = utilisation;
+        this.busy = busy;
+    }
+
+    public DaemonForkOptions getForkOptions() {
+        return forkOptions;
+    }
+
+    /**
+     * The number of items of work executed by the daemon.
+     */
+    public int getUses() {
+        return uses;
+    }
+
+    /**
+     * The total time the daemon has spent executing work, in ms.
+     */
+    public long getBusyTimeMillis() {
+        return busyTimeMillis;
+    }
+
+    /**
+     * The fraction of its lifetime the daemon has spent executing work, between 0 and 1.
+     */
+    public double getUtilisation() {
+        return utilisation;
+    }
+
+    /**
+     * Whether the daemon is currently reserved.
+     */
+    public boolean isBusy() {
+        return busy;
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerDaemonUtilisation{uses=" + uses + ", busyTimeMillis=" + busyTimeMillis + ", utilisation=" + utilisation + ", busy=" + busy + "}";
+    }
+}
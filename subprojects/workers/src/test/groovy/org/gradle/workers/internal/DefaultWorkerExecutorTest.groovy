@@ -19,12 +19,15 @@ package org.gradle.workers.internal
 import com.google.common.util.concurrent.ListenableFutureTask
 import org.gradle.api.internal.InstantiatorFactory
 import org.gradle.api.internal.file.FileResolver
+import org.gradle.internal.concurrent.DefaultParallelismConfiguration
 import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.internal.concurrent.ManagedExecutor
+import org.gradle.internal.concurrent.ParallelismConfigurationManager
 import org.gradle.internal.operations.BuildOperationExecutor
 import org.gradle.internal.work.AsyncWorkTracker
 import org.gradle.internal.work.WorkerLeaseRegistry
 import org.gradle.process.internal.worker.child.WorkerDirectoryProvider
+import org.gradle.util.GUtil
 import org.gradle.util.RedirectStdOutAndErr
 import org.gradle.util.UsesNativeServices
 import org.gradle.workers.IsolationMode
@@ -49,15 +52,18 @@ class DefaultWorkerExecutorTest extends Specification {
     def runnable = Mock(Runnable)
     def executor = Mock(ManagedExecutor)
     def instantiatorFactory = Mock(InstantiatorFactory)
+    def parallelismConfigurationManager = Mock(ParallelismConfigurationManager)
     def worker = Mock(Worker)
+    def maxWorkers = 1
     ListenableFutureTask task
     DefaultWorkerExecutor workerExecutor
 
     def setup() {
         _ * fileResolver.resolve(_ as File) >> { files -> files[0] }
         _ * fileResolver.resolve(_ as String) >> { files -> new File(files[0]) }
+        _ * parallelismConfigurationManager.getParallelismConfiguration() >> { new DefaultParallelismConfiguration(false, maxWorkers) }
         _ * executorFactory.create(_ as String) >> executor
-        workerExecutor = new DefaultWorkerExecutor(workerDaemonFactory, inProcessWorkerFactory, noIsolationWorkerFactory, fileResolver, executorFactory, buildOperationWorkerRegistry, buildOperationExecutor, asyncWorkTracker, workerDirectoryProvider)
+        workerExecutor = new DefaultWorkerExecutor(workerDaemonFactory, inProcessWorkerFactory, noIsolationWorkerFactory, fileResolver, executorFactory, buildOperationWorkerRegistry, buildOperationExecutor, asyncWorkTracker, workerDirectoryProvider, parallelismConfigurationManager)
     }
 
     def "worker configuration fork property defaults to AUTO"() {
@@ -294,6 +300,150 @@ class DefaultWorkerExecutorTest extends Specification {
         isolationMode << [IsolationMode.NONE, IsolationMode.CLASSLOADER]
     }
 
+    def "executor executes a batch of runnables in a single request"() {
+        when:
+        workerExecutor.submitAll(TestParamRunnable.class, { WorkerConfiguration configuration ->
+            configuration.isolationMode = IsolationMode.PROCESS
+        }, [["a"], ["b"], ["c"]])
+
+        then:
+        1 * buildOperationWorkerRegistry.getCurrentWorkerLease()
+        1 * executor.execute(_ as ListenableFutureTask) >> { args -> task = args[0] }
+        // The batch, and each of its items
+        4 * asyncWorkTracker.registerWork(_, _)
+
+        when:
+        task.run()
+
+        then:
+        1 * workerDaemonFactory.getWorker(_) >> worker
+        1 * worker.execute(_, _, _) >> { spec, workOperation, buildOperation ->
+            assert spec instanceof BatchedActionExecutionSpec
+            assert spec.implementationClass == TestParamRunnable
+            assert spec.items.collect { it.getParams(getClass().classLoader) as List } == [["a"], ["b"], ["c"]]
+            // The spec is serialized when it is sent to a worker
+            assert GUtil.serialize(spec).length > 0
+            return new BatchedWorkResult(true, [new DefaultWorkResult(true, null)] * 3)
+        }
+    }
+
+    def "executor splits a batch of runnables across workers"() {
+        given:
+        maxWorkers = 2
+
+        when:
+        workerExecutor.submitAll(TestParamRunnable.class, { WorkerConfiguration configuration ->
+            configuration.isolationMode = IsolationMode.CLASSLOADER
+        }, [["a"], ["b"], ["c"]])
+
+        then:
+        2 * buildOperationWorkerRegistry.getCurrentWorkerLease()
+        2 * executor.execute(_ as ListenableFutureTask)
+    }
+
+    def "executor reports the failure of each item of a batch"() {
+        def failure = new RuntimeException("broken")
+        def completions = []
+
+        when:
+        workerExecutor.submitAll(TestParamRunnable.class, { WorkerConfiguration configuration ->
+            configuration.isolationMode = IsolationMode.PROCESS
+        }, [["a"], ["b"]])
+
+        then:
+        1 * executor.execute(_ as ListenableFutureTask) >> { args -> task = args[0] }
+        3 * asyncWorkTracker.registerWork(_, _) >> { args -> completions << args[1] }
+
+        when:
+        task.run()
+
+        then:
+        1 * workerDaemonFactory.getWorker(_) >> worker
+        1 * worker.execute(_, _, _) >> new BatchedWorkResult(true, [new DefaultWorkResult(true, null), new DefaultWorkResult(true, failure)])
+
+        when:
+        completions[0].waitForCompletion()
+        completions[1].waitForCompletion()
+
+        then:
+        noExceptionThrown()
+
+        when:
+        completions[2].waitForCompletion()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message == "A failure occurred while executing ${TestParamRunnable.name}"
+        e.cause == failure
+    }
+
+    def "executor reports the failure of a batch once"() {
+        def failure = new RuntimeException("broken")
+        def completions = []
+
+        when:
+        workerExecutor.submitAll(TestParamRunnable.class, { WorkerConfiguration configuration ->
+            configuration.isolationMode = IsolationMode.PROCESS
+        }, [["a"], ["b"]])
+
+        then:
+        1 * executor.execute(_ as ListenableFutureTask) >> { args -> task = args[0] }
+        3 * asyncWorkTracker.registerWork(_, _) >> { args -> completions << args[1] }
+
+        when:
+        task.run()
+
+        then:
+        1 * workerDaemonFactory.getWorker(_) >> worker
+        1 * worker.execute(_, _, _) >> new DefaultWorkResult(true, failure)
+
+        when:
+        completions[0].waitForCompletion()
+
+        then:
+        def e = thrown(RuntimeException)
+        e.message == "A failure occurred while executing ${TestParamRunnable.name} (batch of 2 work items)"
+        e.cause == failure
+
+        when:
+        completions[1].waitForCompletion()
+        completions[2].waitForCompletion()
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "a batch has no parameters of its own"() {
+        def spec = new BatchedActionExecutionSpec(TestParamRunnable, "batch", null, [new SimpleActionExecutionSpec(TestParamRunnable, "item", null, ["a"] as Object[])])
+
+        when:
+        spec.getParams(getClass().classLoader)
+
+        then:
+        thrown(UnsupportedOperationException)
+        spec.items*.getParams(getClass().classLoader)*.toList() == [["a"]]
+    }
+
+    def "cannot set worker parameters when submitting a batch"() {
+        when:
+        workerExecutor.submitAll(TestParamRunnable.class, { WorkerConfiguration configuration ->
+            configuration.params = ["a"]
+        }, [["a"]])
+
+        then:
+        def e = thrown(IllegalArgumentException)
+        e.message == "The worker parameters cannot be set when submitting a batch of work items. Provide the parameters of each work item instead."
+    }
+
+    static class TestParamRunnable implements Runnable {
+        TestParamRunnable(String param) {
+        }
+
+        @Override
+        void run() {
+        }
+    }
+
     static class TestRunnable implements Runnable {
         @Override
         void run() {
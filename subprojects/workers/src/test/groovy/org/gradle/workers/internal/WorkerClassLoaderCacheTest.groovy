@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import org.gradle.internal.classloader.ClassLoaderFactory
+import org.gradle.internal.classloader.ClasspathHasher
+import org.gradle.internal.hash.HashCode
+import org.gradle.process.internal.health.memory.MemoryManager
+import spock.lang.Specification
+import spock.lang.Subject
+
+class WorkerClassLoaderCacheTest extends Specification {
+    def classLoaderFactory = Mock(ClassLoaderFactory)
+    def classpathHasher = Stub(ClasspathHasher) {
+        hash(_) >> { args -> HashCode.fromInt(args[0].asFiles.hashCode()) }
+    }
+    def memoryManager = Mock(MemoryManager)
+
+    @Subject cache = new WorkerClassLoaderCache(classLoaderFactory, classpathHasher, memoryManager, 2)
+
+    def setup() {
+        _ * classLoaderFactory.createIsolatedClassLoader(_) >> { new URLClassLoader(new URL[0], (ClassLoader) null) }
+        _ * classLoaderFactory.createFilteringClassLoader(_, _) >> { new URLClassLoader(new URL[0], (ClassLoader) null) }
+    }
+
+    def "registers itself with the memory manager"() {
+        when:
+        def cache = new WorkerClassLoaderCache(classLoaderFactory, classpathHasher, memoryManager, 2)
+
+        then:
+        1 * memoryManager.addMemoryHolder({ it.is(cache) })
+
+        when:
+        cache.stop()
+
+        then:
+        1 * memoryManager.removeMemoryHolder({ it.is(cache) })
+    }
+
+    def "reuses ClassLoader for the same classpath and shared packages"() {
+        when:
+        def first = cache.acquire(options(["a.jar"], ["com.foo"]), getClass())
+        cache.release(first)
+        def second = cache.acquire(options(["a.jar"], ["com.foo"]), getClass())
+
+        then:
+        second.is(first)
+        cache.size() == 1
+    }
+
+    def "creates a new ClassLoader when the classpath or shared packages differ"() {
+        when:
+        def first = cache.acquire(options(["a.jar"], ["com.foo"]), getClass())
+        def differentClasspath = cache.acquire(options(["b.jar"], ["com.foo"]), getClass())
+        def differentPackages = cache.acquire(options(["a.jar"], ["com.bar"]), getClass())
+
+        then:
+        !differentClasspath.is(first)
+        !differentPackages.is(first)
+        !differentPackages.is(differentClasspath)
+    }
+
+    def "evicts least recently used unused ClassLoaders when full"() {
+        when:
+        def a = cache.acquire(options(["a.jar"], []), getClass())
+        def b = cache.acquire(options(["b.jar"], []), getClass())
+        cache.release(a)
+        cache.release(b)
+        cache.release(cache.acquire(options(["a.jar"], []), getClass()))
+        cache.release(cache.acquire(options(["c.jar"], []), getClass()))
+
+        then:
+        cache.size() == 2
+        cache.acquire(options(["a.jar"], []), getClass()).is(a)
+        !cache.acquire(options(["b.jar"], []), getClass()).is(b)
+    }
+
+    def "does not evict ClassLoaders that are in use"() {
+        when:
+        def a = cache.acquire(options(["a.jar"], []), getClass())
+        def b = cache.acquire(options(["b.jar"], []), getClass())
+        def c = cache.acquire(options(["c.jar"], []), getClass())
+
+        then:
+        cache.size() == 3
+
+        when:
+        cache.release(b)
+
+        then:
+        cache.size() == 2
+        cache.acquire(options(["a.jar"], []), getClass()).is(a)
+        cache.acquire(options(["c.jar"], []), getClass()).is(c)
+    }
+
+    def "evicts all unused ClassLoaders when asked to release memory"() {
+        given:
+        def a = cache.acquire(options(["a.jar"], []), getClass())
+        cache.release(cache.acquire(options(["b.jar"], []), getClass()))
+
+        when:
+        cache.attemptToRelease(1024)
+
+        then:
+        cache.size() == 1
+        cache.acquire(options(["a.jar"], []), getClass()).is(a)
+    }
+
+    DaemonForkOptions options(List<String> classpath, List<String> sharedPackages) {
+        return Stub(DaemonForkOptions) {
+            getClasspath() >> classpath.collect { new File(it) }
+            getSharedPackages() >> sharedPackages
+        }
+    }
+}
@@ -230,4 +230,128 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         0 * client2.stop()
         1 * client3.stop()
     }
+
+    def "reserves idle client before starting a new one"() {
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(serverImpl.class, options) >> client
+
+        expect:
+        manager.reserveClient(serverImpl.class, options) == client
+
+        when:
+        manager.release(client)
+
+        then:
+        manager.reserveClient(serverImpl.class, options) == client
+    }
+
+    def "prefers most recently released idle client"() {
+        def client1 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        def client2 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
+
+        when:
+        2.times { manager.reserveClient(serverImpl.class, options) }
+        manager.release(client2)
+        manager.release(client1)
+
+        then:
+        manager.reserveClient(serverImpl.class, options) == client1
+    }
+
+    def "stops least used idle client to make room when the pool is full"() {
+        def otherOptions = Stub(DaemonForkOptions)
+        def client1 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(options) >> true
+            isCompatibleWith(otherOptions) >> false
+            getUses() >> 1
+        }
+        def client2 = Mock(WorkerDaemonClient) {
+            isCompatibleWith(options) >> true
+            isCompatibleWith(otherOptions) >> false
+            getUses() >> 2
+        }
+        def client3 = Mock(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
+        starter.startDaemon(serverImpl.class, otherOptions) >> client3
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, 2)
+
+        when:
+        2.times { manager.reserveClient(serverImpl.class, options) }
+        manager.release(client1)
+        manager.release(client2)
+        def client = manager.reserveClient(serverImpl.class, otherOptions)
+
+        then:
+        client == client3
+        1 * client1.stop()
+        0 * client2.stop()
+    }
+
+    def "waits for a client to be released when the pool is full"() {
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.DEBUG
+        }
+        starter.startDaemon(serverImpl.class, options) >> client
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, 1)
+        def reserved = null
+
+        when:
+        manager.reserveClient(serverImpl.class, options)
+        start {
+            reserved = manager.reserveClient(serverImpl.class, options)
+        }
+        Thread.sleep(200)
+
+        then:
+        reserved == null
+
+        when:
+        manager.release(client)
+        finished()
+
+        then:
+        reserved == client
+    }
+
+    def "reports utilisation of each client"() {
+        def client1 = Mock(WorkerDaemonClient) {
+            getUses() >> 3
+            getBusyTimeMillis() >> 300
+            getUtilisation() >> 0.5d
+        }
+        def client2 = Mock(WorkerDaemonClient)
+        starter.startDaemon(serverImpl.class, options) >>> [client1, client2]
+
+        when:
+        2.times { manager.reserveClient(serverImpl.class, options) }
+        manager.release(client1)
+        def utilisation = manager.utilisation
+
+        then:
+        utilisation.size() == 2
+        utilisation[0].uses == 3
+        utilisation[0].busyTimeMillis == 300
+        utilisation[0].utilisation == 0.5d
+        !utilisation[0].busy
+        utilisation[1].busy
+    }
+
+    def "rejects a pool without daemons"() {
+        when:
+        new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, 0)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
 }
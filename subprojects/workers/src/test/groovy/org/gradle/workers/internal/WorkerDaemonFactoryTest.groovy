@@ -56,32 +56,13 @@ class WorkerDaemonFactoryTest extends Specification {
         0 * clientsManager._
     }
 
-    def "new client is created when daemon is executed and no idle clients found"() {
+    def "client is reserved and released when daemon is executed"() {
         when:
         factory.getWorker(options).execute(spec)
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> null
-
-        then:
-        1 * clientsManager.reserveNewClient(WorkerDaemonServer.class, options) >> client
-
-        then:
-        1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
-        1 * client.execute(spec)
-
-        then:
-        1 * clientsManager.release(client)
-    }
-
-    def "idle client is reused when daemon is executed"() {
-        when:
-        factory.getWorker(options).execute(spec)
-
-        then:
-        1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveClient(WorkerDaemonServer.class, options) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -97,7 +78,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveClient(WorkerDaemonServer.class, options) >> client
 
         then:
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
@@ -130,7 +111,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveClient(WorkerDaemonServer.class, options) >> client
         1 * buildOperationExecutor.call(_)
         1 * completion.leaseFinish()
     }
@@ -141,7 +122,7 @@ class WorkerDaemonFactoryTest extends Specification {
 
         then:
         1 * workerOperation.startChild() >> completion
-        1 * clientsManager.reserveIdleClient(options) >> client
+        1 * clientsManager.reserveClient(WorkerDaemonServer.class, options) >> client
         1 * buildOperationExecutor.call(_) >> { args -> args[0].call() }
         1 * client.execute(spec) >> { throw new RuntimeException("Boo!") }
 